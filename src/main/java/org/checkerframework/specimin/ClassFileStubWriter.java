@@ -0,0 +1,623 @@
+package org.checkerframework.specimin;
+
+import com.sun.source.util.JavacTask;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Writes signature-only stubs of the classes in a set of jar files. A stub declares the same type
+ * parameters, supertypes, fields, constructors, methods and nested classes as the class file it is
+ * made from, but every method body is {@code throw new Error();}, which is all that Specimin ever
+ * keeps of a library method. Reading the signatures is much cheaper than decompiling the bodies:
+ * the class files are read by javac, which only looks at the constant pools and the signature
+ * attributes of the classes that are actually asked for, and the stubs are much smaller to parse.
+ *
+ * <p>A stub is valid Java as long as the classes that it refers to exist. To keep it so, a few
+ * declarations differ from the class file: annotations are left out, non-constant fields are not
+ * final, enums have no constructors and no abstract methods, and a constructor whose superclass has
+ * no constructor without parameters calls one of the other constructors of the superclass with
+ * dummy arguments.
+ *
+ * <p>A writer is not thread-safe.
+ */
+class ClassFileStubWriter implements AutoCloseable {
+
+  /**
+   * The version of the format of the stubs. Change it whenever the stubs change, so that stubs
+   * cached by an earlier version are not used.
+   */
+  static final String VERSION = "1";
+
+  /** The file manager of the compiler that reads the class files. */
+  private final StandardJavaFileManager fileManager;
+
+  /** The utility methods for elements of the compiler. */
+  private final Elements elements;
+
+  /** The utility methods for types of the compiler. */
+  private final Types types;
+
+  /**
+   * Creates a new writer for the classes of the given jar files. This starts the compiler that
+   * reads the class files, whose class path consists of the jar files.
+   *
+   * @param jarPaths the jar files
+   * @throws IOException if the class path cannot be set
+   */
+  ClassFileStubWriter(List<String> jarPaths) throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new RuntimeException("Specimin must be run on a JDK, not a JRE, to use javac");
+    }
+    fileManager = compiler.getStandardFileManager(null, null, null);
+    List<File> classPath = new ArrayList<>();
+    for (String jarPath : jarPaths) {
+      classPath.add(new File(jarPath));
+    }
+    fileManager.setLocation(StandardLocation.CLASS_PATH, classPath);
+    JavacTask task =
+        (JavacTask)
+            compiler.getTask(
+                Writer.nullWriter(), fileManager, null, List.of("-proc:none"), null, null);
+    elements = task.getElements();
+    types = task.getTypes();
+  }
+
+  /**
+   * Write the stub of a top-level class, including the stubs of the classes nested in it.
+   *
+   * @param topLevelClass the fully-qualified name of a top-level class in one of the jar files
+   * @return the source code of the stub, or null if the class cannot be read
+   */
+  @Nullable String writeStub(String topLevelClass) {
+    TypeElement type = elements.getTypeElement(topLevelClass);
+    if (type == null) {
+      return null;
+    }
+    StringBuilder stub = new StringBuilder();
+    PackageElement packageElement = elements.getPackageOf(type);
+    if (!packageElement.isUnnamed()) {
+      stub.append("package ").append(packageElement.getQualifiedName()).append(";\n\n");
+    }
+    appendType(stub, type, "");
+    return stub.toString();
+  }
+
+  /**
+   * Append the declaration of a class, interface, enum or annotation type to a stub.
+   *
+   * @param stub the stub
+   * @param type the type to declare
+   * @param indent the indentation of the declaration
+   */
+  private void appendType(StringBuilder stub, TypeElement type, String indent) {
+    ElementKind kind = type.getKind();
+    boolean isEnum = kind == ElementKind.ENUM;
+    boolean isInterface = kind.isInterface();
+    stub.append(indent);
+    appendModifiers(
+        stub, type.getModifiers(), isEnum ? Set.of(Modifier.FINAL, Modifier.ABSTRACT) : Set.of());
+    if (kind == ElementKind.ANNOTATION_TYPE) {
+      stub.append("@interface ");
+    } else if (isInterface) {
+      stub.append("interface ");
+    } else if (isEnum) {
+      stub.append("enum ");
+    } else {
+      stub.append("class ");
+    }
+    stub.append(type.getSimpleName());
+    appendTypeParameters(stub, type.getTypeParameters());
+    TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() == TypeKind.DECLARED && !isEnum && !isRecordOrObject(superclass)) {
+      stub.append(" extends ").append(toSource(superclass));
+    }
+    List<? extends TypeMirror> interfaces = type.getInterfaces();
+    if (!interfaces.isEmpty() && kind != ElementKind.ANNOTATION_TYPE) {
+      stub.append(isInterface ? " extends " : " implements ");
+      appendList(stub, interfaces);
+    }
+    stub.append(" {\n");
+
+    String memberIndent = indent + "    ";
+    if (isEnum) {
+      StringJoiner constants = new StringJoiner(", ", memberIndent, ";\n");
+      for (Element member : type.getEnclosedElements()) {
+        if (member.getKind() == ElementKind.ENUM_CONSTANT) {
+          constants.add(member.getSimpleName());
+        }
+      }
+      stub.append(constants);
+    }
+    for (Element member : type.getEnclosedElements()) {
+      switch (member.getKind()) {
+        case FIELD:
+          appendField(stub, (VariableElement) member, type, memberIndent);
+          break;
+        case CONSTRUCTOR:
+          if (!isEnum) {
+            appendConstructor(stub, (ExecutableElement) member, type, memberIndent);
+          }
+          break;
+        case METHOD:
+          if (!(isEnum && isImplicitEnumMethod((ExecutableElement) member))) {
+            appendMethod(stub, (ExecutableElement) member, type, memberIndent);
+          }
+          break;
+        case CLASS:
+        case INTERFACE:
+        case ENUM:
+        case ANNOTATION_TYPE:
+          appendType(stub, (TypeElement) member, memberIndent);
+          break;
+        default:
+          // Enum constants have been declared above; initializers have no signature.
+          break;
+      }
+    }
+    if (isEnum) {
+      appendInheritedAbstractMethods(stub, type, memberIndent);
+    }
+    stub.append(indent).append("}\n");
+  }
+
+  /**
+   * Append declarations with bodies of the abstract methods that an enum inherits but does not
+   * implement itself. The class file of such an enum relies on the bodies of its constants, which
+   * the stub does not have.
+   *
+   * @param stub the stub
+   * @param type an enum
+   * @param indent the indentation of the declarations
+   */
+  private void appendInheritedAbstractMethods(StringBuilder stub, TypeElement type, String indent) {
+    List<? extends Element> allMembers = elements.getAllMembers(type);
+    for (Element member : allMembers) {
+      if (member.getKind() != ElementKind.METHOD
+          || !member.getModifiers().contains(Modifier.ABSTRACT)
+          || member.getEnclosingElement().equals(type)
+          || isImplemented((ExecutableElement) member, allMembers, type)) {
+        continue;
+      }
+      ExecutableElement method = (ExecutableElement) member;
+      ExecutableType methodType =
+          (ExecutableType) types.asMemberOf((DeclaredType) type.asType(), method);
+      stub.append(indent).append("public ");
+      if (!method.getTypeParameters().isEmpty()) {
+        appendTypeParameters(stub, method.getTypeParameters());
+        stub.append(' ');
+      }
+      stub.append(toSource(methodType.getReturnType())).append(' ').append(method.getSimpleName());
+      StringJoiner parameters = new StringJoiner(", ", "(", ")");
+      List<? extends TypeMirror> parameterTypes = methodType.getParameterTypes();
+      for (int i = 0; i < parameterTypes.size(); i++) {
+        parameters.add(toSource(parameterTypes.get(i)) + " arg" + i);
+      }
+      stub.append(parameters)
+          .append(" {\n")
+          .append(indent)
+          .append("    throw new Error();\n")
+          .append(indent)
+          .append("}\n");
+    }
+  }
+
+  /**
+   * Is an abstract method implemented by a method that is not abstract?
+   *
+   * @param method an abstract method that a type inherits
+   * @param allMembers all members of the type
+   * @param type the type
+   * @return true if one of the members of the type overrides the method and is not abstract
+   */
+  private boolean isImplemented(
+      ExecutableElement method, List<? extends Element> allMembers, TypeElement type) {
+    for (Element member : allMembers) {
+      if (member.getKind() == ElementKind.METHOD
+          && !member.getModifiers().contains(Modifier.ABSTRACT)
+          && member.getSimpleName().equals(method.getSimpleName())
+          && elements.overrides((ExecutableElement) member, method, type)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Append the declaration of a field to a stub.
+   *
+   * @param stub the stub
+   * @param field the field to declare
+   * @param owner the type that declares the field
+   * @param indent the indentation of the declaration
+   */
+  private void appendField(
+      StringBuilder stub, VariableElement field, TypeElement owner, String indent) {
+    Object constant = field.getConstantValue();
+    boolean isInterface = owner.getKind().isInterface();
+    stub.append(indent);
+    // A final field without a constant value would have to be initialized.
+    appendModifiers(
+        stub,
+        field.getModifiers(),
+        constant == null && !isInterface ? Set.of(Modifier.FINAL) : Set.of());
+    stub.append(toSource(field.asType())).append(' ').append(field.getSimpleName());
+    if (constant != null) {
+      stub.append(" = ").append(elements.getConstantExpression(constant));
+    } else if (isInterface) {
+      stub.append(" = ").append(dummyValue(field.asType()));
+    }
+    stub.append(";\n");
+  }
+
+  /**
+   * Append the declaration of a constructor to a stub.
+   *
+   * @param stub the stub
+   * @param constructor the constructor to declare
+   * @param owner the class that declares the constructor
+   * @param indent the indentation of the declaration
+   */
+  private void appendConstructor(
+      StringBuilder stub, ExecutableElement constructor, TypeElement owner, String indent) {
+    stub.append(indent);
+    appendModifiers(stub, constructor.getModifiers(), Set.of());
+    if (!constructor.getTypeParameters().isEmpty()) {
+      appendTypeParameters(stub, constructor.getTypeParameters());
+      stub.append(' ');
+    }
+    stub.append(owner.getSimpleName());
+    appendParametersAndThrows(stub, constructor);
+    stub.append(" {\n");
+    String superCall = getSuperCall(owner);
+    if (superCall != null) {
+      stub.append(indent).append("    ").append(superCall).append('\n');
+    }
+    stub.append(indent).append("    throw new Error();\n").append(indent).append("}\n");
+  }
+
+  /**
+   * Get the explicit call of a superclass constructor that a constructor of the given class needs,
+   * because the superclass has no constructor without parameters.
+   *
+   * @param owner a class
+   * @return a statement that calls a superclass constructor with dummy arguments, or null if the
+   *     implicit call of the constructor without parameters works
+   */
+  private @Nullable String getSuperCall(TypeElement owner) {
+    TypeMirror superclass = owner.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED || isRecordOrObject(superclass)) {
+      return null;
+    }
+    DeclaredType superType = (DeclaredType) superclass;
+    // Private constructors can be called from classes nested in the same top-level class.
+    boolean isNestmate = getTopLevelType(superType.asElement()).equals(getTopLevelType(owner));
+    ExecutableType chosen = null;
+    for (Element member : superType.asElement().getEnclosedElements()) {
+      if (member.getKind() != ElementKind.CONSTRUCTOR
+          || (member.getModifiers().contains(Modifier.PRIVATE) && !isNestmate)) {
+        continue;
+      }
+      ExecutableType constructor = (ExecutableType) types.asMemberOf(superType, member);
+      if (constructor.getParameterTypes().isEmpty()) {
+        return null;
+      } else if (chosen == null) {
+        chosen = constructor;
+      }
+    }
+    if (chosen == null) {
+      return null;
+    }
+    StringJoiner arguments = new StringJoiner(", ", "super(", ");");
+    for (TypeMirror parameterType : chosen.getParameterTypes()) {
+      // The type parameters of a generic constructor are not in scope at the call.
+      if (parameterType.getKind() == TypeKind.TYPEVAR
+          && ((TypeVariable) parameterType).asElement().getEnclosingElement().getKind()
+              == ElementKind.CONSTRUCTOR) {
+        parameterType = ((TypeVariable) parameterType).getUpperBound();
+      }
+      arguments.add(dummyValue(parameterType));
+    }
+    return arguments.toString();
+  }
+
+  /**
+   * Get the top-level type that contains an element.
+   *
+   * @param element an element inside a type
+   * @return the outermost type that contains the element, or the element itself if it is a
+   *     top-level type
+   */
+  private static Element getTopLevelType(Element element) {
+    Element result = element;
+    while (result.getEnclosingElement() != null
+        && result.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+      result = result.getEnclosingElement();
+    }
+    return result;
+  }
+
+  /**
+   * Append the declaration of a method to a stub.
+   *
+   * @param stub the stub
+   * @param method the method to declare
+   * @param owner the type that declares the method
+   * @param indent the indentation of the declaration
+   */
+  private void appendMethod(
+      StringBuilder stub, ExecutableElement method, TypeElement owner, String indent) {
+    Set<Modifier> modifiers = method.getModifiers();
+    boolean isEnum = owner.getKind() == ElementKind.ENUM;
+    // The constants of an enum stub have no bodies, so they cannot implement abstract methods.
+    boolean hasBody = isEnum || !modifiers.contains(Modifier.ABSTRACT);
+    stub.append(indent);
+    appendModifiers(stub, modifiers, isEnum ? Set.of(Modifier.ABSTRACT) : Set.of());
+    if (!method.getTypeParameters().isEmpty()) {
+      appendTypeParameters(stub, method.getTypeParameters());
+      stub.append(' ');
+    }
+    stub.append(toSource(method.getReturnType())).append(' ').append(method.getSimpleName());
+    appendParametersAndThrows(stub, method);
+    AnnotationValue defaultValue = method.getDefaultValue();
+    if (owner.getKind() == ElementKind.ANNOTATION_TYPE) {
+      if (defaultValue != null) {
+        stub.append(" default ").append(defaultValue);
+      }
+      stub.append(";\n");
+    } else if (hasBody) {
+      stub.append(" {\n")
+          .append(indent)
+          .append("    throw new Error();\n")
+          .append(indent)
+          .append("}\n");
+    } else {
+      stub.append(";\n");
+    }
+  }
+
+  /**
+   * Append the parameters and the thrown types of a method or constructor to a stub.
+   *
+   * @param stub the stub
+   * @param executable the method or constructor
+   */
+  private void appendParametersAndThrows(StringBuilder stub, ExecutableElement executable) {
+    StringJoiner parameters = new StringJoiner(", ", "(", ")");
+    List<? extends VariableElement> parameterElements = executable.getParameters();
+    for (int i = 0; i < parameterElements.size(); i++) {
+      VariableElement parameter = parameterElements.get(i);
+      TypeMirror type = parameter.asType();
+      String typeSource =
+          executable.isVarArgs() && i == parameterElements.size() - 1
+              ? toSource(((ArrayType) type).getComponentType()) + "..."
+              : toSource(type);
+      parameters.add(typeSource + " " + parameter.getSimpleName());
+    }
+    stub.append(parameters);
+    if (!executable.getThrownTypes().isEmpty()) {
+      stub.append(" throws ");
+      appendList(stub, executable.getThrownTypes());
+    }
+  }
+
+  /**
+   * Append a list of type parameters, with their bounds, to a stub.
+   *
+   * @param stub the stub
+   * @param typeParameters the type parameters, which may be empty
+   */
+  private void appendTypeParameters(
+      StringBuilder stub, List<? extends TypeParameterElement> typeParameters) {
+    if (typeParameters.isEmpty()) {
+      return;
+    }
+    StringJoiner result = new StringJoiner(", ", "<", ">");
+    for (TypeParameterElement typeParameter : typeParameters) {
+      StringJoiner bounds = new StringJoiner(" & ", " extends ", "").setEmptyValue("");
+      for (TypeMirror bound : typeParameter.getBounds()) {
+        if (!isRecordOrObject(bound) || typeParameter.getBounds().size() > 1) {
+          bounds.add(toSource(bound));
+        }
+      }
+      result.add(typeParameter.getSimpleName() + bounds.toString());
+    }
+    stub.append(result);
+  }
+
+  /**
+   * Append a comma-separated list of types to a stub.
+   *
+   * @param stub the stub
+   * @param typeList the types
+   */
+  private void appendList(StringBuilder stub, List<? extends TypeMirror> typeList) {
+    StringJoiner result = new StringJoiner(", ");
+    for (TypeMirror type : typeList) {
+      result.add(toSource(type));
+    }
+    stub.append(result);
+  }
+
+  /**
+   * Append modifiers to a stub. The modifiers that have no meaning without a body, or that would
+   * require a clause that stubs do not have, are left out.
+   *
+   * @param stub the stub
+   * @param modifiers the modifiers of a declaration
+   * @param excluded other modifiers to leave out
+   */
+  private static void appendModifiers(
+      StringBuilder stub, Set<Modifier> modifiers, Set<Modifier> excluded) {
+    for (Modifier modifier : modifiers) {
+      String name = modifier.toString();
+      if (excluded.contains(modifier)
+          || "native".equals(name)
+          || "synchronized".equals(name)
+          || "strictfp".equals(name)
+          || "sealed".equals(name)
+          || "non-sealed".equals(name)) {
+        continue;
+      }
+      stub.append(name).append(' ');
+    }
+  }
+
+  /**
+   * Checks whether a method of an enum is one of the methods that every enum declares implicitly.
+   *
+   * @param method a method of an enum
+   * @return true if the method is values() or valueOf(String)
+   */
+  private static boolean isImplicitEnumMethod(ExecutableElement method) {
+    String name = method.getSimpleName().toString();
+    return (name.equals("values") && method.getParameters().isEmpty())
+        || (name.equals("valueOf")
+            && method.getParameters().size() == 1
+            && method.getParameters().get(0).asType().toString().equals("java.lang.String"));
+  }
+
+  /**
+   * Checks whether a type is java.lang.Object or java.lang.Record. Neither has to be written as a
+   * supertype or a bound, and java.lang.Record must not be.
+   *
+   * @param type a type
+   * @return true if the type is java.lang.Object or java.lang.Record
+   */
+  private static boolean isRecordOrObject(TypeMirror type) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      return false;
+    }
+    String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+    return name.equals("java.lang.Object") || name.equals("java.lang.Record");
+  }
+
+  /**
+   * Get an expression of the given type that does not depend on anything else, for use as a dummy
+   * value in a stub. The expression has exactly the given type, so that it selects the right
+   * constructor among overloaded ones.
+   *
+   * @param type a type
+   * @return false for boolean, 0 cast to the type for the other primitive types, and null cast to
+   *     the type for reference types
+   */
+  private static String dummyValue(TypeMirror type) {
+    if (type.getKind() == TypeKind.BOOLEAN) {
+      return "false";
+    }
+    return "(" + toSource(type) + ") " + (type.getKind().isPrimitive() ? "0" : "null");
+  }
+
+  /**
+   * Convert a type into the source code for it. Declared types are written with their
+   * fully-qualified names, so that stubs need no imports. Type annotations are left out, since the
+   * annotations might not be available.
+   *
+   * @param type a type
+   * @return the source code for the type
+   */
+  private static String toSource(TypeMirror type) {
+    switch (type.getKind()) {
+      case DECLARED:
+        DeclaredType declaredType = (DeclaredType) type;
+        TypeMirror enclosingType = declaredType.getEnclosingType();
+        TypeElement element = (TypeElement) declaredType.asElement();
+        StringBuilder result = new StringBuilder();
+        if (hasTypeArguments(enclosingType)) {
+          // An inner class of a generic class, such as Outer<String>.Inner or Outer<String>.A.B.
+          result.append(toSource(enclosingType)).append('.').append(element.getSimpleName());
+        } else {
+          result.append(element.getQualifiedName());
+        }
+        List<? extends TypeMirror> typeArguments = declaredType.getTypeArguments();
+        if (!typeArguments.isEmpty()) {
+          StringJoiner arguments = new StringJoiner(", ", "<", ">");
+          for (TypeMirror typeArgument : typeArguments) {
+            arguments.add(toSource(typeArgument));
+          }
+          result.append(arguments);
+        }
+        return result.toString();
+      case ARRAY:
+        return toSource(((ArrayType) type).getComponentType()) + "[]";
+      case TYPEVAR:
+        return ((TypeVariable) type).asElement().getSimpleName().toString();
+      case WILDCARD:
+        WildcardType wildcardType = (WildcardType) type;
+        TypeMirror extendsBound = wildcardType.getExtendsBound();
+        TypeMirror superBound = wildcardType.getSuperBound();
+        if (extendsBound != null) {
+          return "? extends " + toSource(extendsBound);
+        } else if (superBound != null) {
+          return "? super " + toSource(superBound);
+        }
+        return "?";
+      case INTERSECTION:
+        StringJoiner bounds = new StringJoiner(" & ");
+        for (TypeMirror bound : ((IntersectionType) type).getBounds()) {
+          bounds.add(toSource(bound));
+        }
+        return bounds.toString();
+      default:
+        // Primitive types, void, and the types of classes that are missing from the class path.
+        return type.getKind().isPrimitive() || type.getKind() == TypeKind.VOID
+            ? type.getKind().toString().toLowerCase(Locale.ROOT)
+            : type.toString();
+    }
+  }
+
+  /**
+   * Does a type, or a type that encloses it, have type arguments?
+   *
+   * @param type a type
+   * @return true if the type is a declared type that has type arguments or that is an inner class
+   *     of a type that has them
+   */
+  private static boolean hasTypeArguments(TypeMirror type) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      return false;
+    }
+    DeclaredType declaredType = (DeclaredType) type;
+    return !declaredType.getTypeArguments().isEmpty()
+        || hasTypeArguments(declaredType.getEnclosingType());
+  }
+
+  @Override
+  public void close() {
+    try {
+      fileManager.close();
+    } catch (IOException e) {
+      // Nothing was written, so there is nothing to lose.
+    }
+  }
+}
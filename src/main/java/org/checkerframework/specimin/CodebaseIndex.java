@@ -0,0 +1,293 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An index of the classes declared in the original codebase, i.e., in the files under the root
+ * directory given to Specimin. Building this index requires looking at every file under the root,
+ * so it is built once per {@link SpeciminSession} and shared by every minimization that uses that
+ * session.
+ */
+public class CodebaseIndex {
+
+  /**
+   * The names of directories that can be packages. The same pattern as in JavaParser's SourceRoot.
+   */
+  private static final Pattern JAVA_IDENTIFIER =
+      Pattern.compile("\\p{javaJavaIdentifierStart}\\p{javaJavaIdentifierPart}*");
+
+  /**
+   * The set of Java classes in the original codebase mapped with their corresponding Java files.
+   */
+  private final Map<String, Path> existingClassesToFilePath;
+
+  /**
+   * This map connects the fully-qualified names of non-primary classes with the fully-qualified
+   * names of their corresponding primary classes. A primary class is a class that has the same name
+   * as the Java file where the class is declared.
+   */
+  private final Map<String, String> nonPrimaryClassesToPrimaryClass;
+
+  /**
+   * Creates a new CodebaseIndex. Use {@link #build(String)} instead of calling this directly.
+   *
+   * @param existingClassesToFilePath the classes in the codebase mapped to their files
+   * @param nonPrimaryClassesToPrimaryClass the non-primary classes mapped to their primary classes
+   */
+  private CodebaseIndex(
+      Map<String, Path> existingClassesToFilePath,
+      Map<String, String> nonPrimaryClassesToPrimaryClass) {
+    this.existingClassesToFilePath = Collections.unmodifiableMap(existingClassesToFilePath);
+    this.nonPrimaryClassesToPrimaryClass =
+        Collections.unmodifiableMap(nonPrimaryClassesToPrimaryClass);
+  }
+
+  /**
+   * Builds the index for the codebase under the given root directory. The files are not parsed: the
+   * declarations in each file are found by a {@link DeclarationScanner}. Like JavaParser's
+   * SourceRoot, this method does not look into hidden directories or directories whose names are
+   * not Java identifiers. Unlike SourceRoot, it also indexes files that JavaParser cannot parse,
+   * such as files that use newer language features; only the files that a minimization actually
+   * uses are parsed later on.
+   *
+   * @param root the root directory of the codebase
+   * @return the index of the classes declared under root
+   * @throws IOException if the files under root cannot be read
+   */
+  public static CodebaseIndex build(String root) throws IOException {
+    return build(root, null);
+  }
+
+  /**
+   * Builds the index for the codebase under the given root directory, like {@link #build(String)}.
+   * If a cache directory is given, the declarations found in each file are remembered there by a
+   * {@link CodebaseIndexCache}, and only the files that changed since the previous call for the
+   * same root directory are scanned again.
+   *
+   * @param root the root directory of the codebase
+   * @param cacheDirectory the directory in which to keep the cache, or null to not use a cache
+   * @return the index of the classes declared under root
+   * @throws IOException if the files under root cannot be read
+   */
+  public static CodebaseIndex build(String root, @Nullable Path cacheDirectory) throws IOException {
+    Path rootPath = Path.of(root).toAbsolutePath().normalize();
+    @Nullable Path cacheFile = null;
+    Map<String, CodebaseIndexCache.Entry> cachedEntries = Collections.emptyMap();
+    if (cacheDirectory != null) {
+      cacheFile = CodebaseIndexCache.cacheFileFor(cacheDirectory, rootPath);
+      cachedEntries = CodebaseIndexCache.load(cacheFile, rootPath);
+    }
+    Map<String, CodebaseIndexCache.Entry> entries = new HashMap<>();
+    boolean cacheChanged = false;
+
+    // Reading and scanning one file does not depend on any other file, so the files are scanned in
+    // parallel. They are indexed afterwards, one at a time and in a fixed order, so that the index
+    // is the same however the scans are scheduled.
+    List<Path> javaFiles = findJavaFiles(Path.of(root));
+    List<List<DeclarationScanner.Declaration>> declarationsOfFiles;
+    if (cacheFile == null) {
+      declarationsOfFiles =
+          ParallelTasks.mapOnce(
+              javaFiles,
+              javaFile ->
+                  DeclarationScanner.scan(
+                      new String(Files.readAllBytes(javaFile), StandardCharsets.UTF_8)));
+    } else {
+      Map<String, CodebaseIndexCache.Entry> previousEntries = cachedEntries;
+      List<CodebaseIndexCache.Entry> entriesOfFiles =
+          ParallelTasks.mapOnce(
+              javaFiles, javaFile -> scanFile(rootPath, javaFile, previousEntries));
+      declarationsOfFiles = new ArrayList<>(javaFiles.size());
+      for (int i = 0; i < javaFiles.size(); i++) {
+        String relativePath = relativePath(rootPath, javaFiles.get(i));
+        CodebaseIndexCache.Entry entry = entriesOfFiles.get(i);
+        cacheChanged |=
+            !CodebaseIndexCache.isUpToDate(
+                cachedEntries.get(relativePath), entry.size, entry.lastModified);
+        entries.put(relativePath, entry);
+        declarationsOfFiles.add(entry.declarations);
+      }
+    }
+
+    Map<String, Path> existingClassesToFilePath = new HashMap<>();
+    Map<String, String> nonPrimaryClassesToPrimaryClass = new HashMap<>();
+    for (int i = 0; i < javaFiles.size(); i++) {
+      indexFile(
+          javaFiles.get(i).toAbsolutePath().normalize(),
+          declarationsOfFiles.get(i),
+          existingClassesToFilePath,
+          nonPrimaryClassesToPrimaryClass);
+    }
+
+    if (cacheFile != null && (cacheChanged || entries.size() != cachedEntries.size())) {
+      try {
+        CodebaseIndexCache.save(cacheFile, rootPath, entries);
+      } catch (IOException e) {
+        // The index is still correct; only the next run will be slower.
+        System.out.println("Specimin could not write the index cache " + cacheFile + ": " + e);
+      }
+    }
+    return new CodebaseIndex(existingClassesToFilePath, nonPrimaryClassesToPrimaryClass);
+  }
+
+  /**
+   * Get the declarations in a Java file, using the cached entry for the file if the file did not
+   * change. If the size and the modification time of the file are the same as in the cached entry,
+   * the file is not even read.
+   *
+   * @param rootPath the absolute, normalized root directory of the codebase
+   * @param javaFile a Java file under the root directory
+   * @param cachedEntries the cached entries, keyed by the paths of the files relative to the root
+   * @return the cached entry for the file if it is still up to date, or a new entry otherwise
+   * @throws IOException if the file cannot be read
+   */
+  private static CodebaseIndexCache.Entry scanFile(
+      Path rootPath, Path javaFile, Map<String, CodebaseIndexCache.Entry> cachedEntries)
+      throws IOException {
+    CodebaseIndexCache.@Nullable Entry entry = cachedEntries.get(relativePath(rootPath, javaFile));
+    BasicFileAttributes attributes = Files.readAttributes(javaFile, BasicFileAttributes.class);
+    long size = attributes.size();
+    long lastModified = attributes.lastModifiedTime().toMillis();
+    if (CodebaseIndexCache.isUpToDate(entry, size, lastModified)) {
+      return entry;
+    }
+    byte[] content = Files.readAllBytes(javaFile);
+    byte[] hash = CodebaseIndexCache.sha256(content);
+    List<DeclarationScanner.Declaration> declarations =
+        CodebaseIndexCache.hasHash(entry, hash)
+            ? entry.declarations
+            : DeclarationScanner.scan(new String(content, StandardCharsets.UTF_8));
+    return new CodebaseIndexCache.Entry(size, lastModified, hash, declarations);
+  }
+
+  /**
+   * Get the path of a file relative to the root directory, as it is stored in the cache.
+   *
+   * @param rootPath the absolute, normalized root directory of the codebase
+   * @param javaFile a file under the root directory
+   * @return the path of the file relative to the root directory
+   */
+  private static String relativePath(Path rootPath, Path javaFile) {
+    return rootPath.relativize(javaFile.toAbsolutePath().normalize()).toString();
+  }
+
+  /**
+   * Find the Java files under the given root directory, in the same way as JavaParser's SourceRoot.
+   *
+   * @param root the root directory of the codebase
+   * @return the Java files under root
+   * @throws IOException if the directory cannot be read
+   */
+  private static List<Path> findJavaFiles(Path root) throws IOException {
+    List<Path> javaFiles = new ArrayList<>();
+    Files.walkFileTree(
+        root,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+              throws IOException {
+            if (!root.equals(dir) && !isSensibleDirectoryToEnter(dir)) {
+              return FileVisitResult.SKIP_SUBTREE;
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (!attrs.isDirectory() && file.toString().endsWith(".java")) {
+              javaFiles.add(file);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+    return javaFiles;
+  }
+
+  /**
+   * Check whether a directory could be a package, that is, whether it is not hidden and its name is
+   * a Java identifier.
+   *
+   * @param dir a directory under the root directory
+   * @return true if the directory should be searched for Java files
+   * @throws IOException if the directory cannot be read
+   */
+  private static boolean isSensibleDirectoryToEnter(Path dir) throws IOException {
+    Path fileName = dir.getFileName();
+    return fileName != null
+        && JAVA_IDENTIFIER.matcher(fileName.toString()).matches()
+        && !Files.isHidden(dir);
+  }
+
+  /**
+   * Add the declarations of a single file to the maps of an index.
+   *
+   * @param javaFile the absolute, normalized path of the file
+   * @param declarations the type declarations in the file
+   * @param existingClassesToFilePath the map from classes to the files that declare them
+   * @param nonPrimaryClassesToPrimaryClass the map from non-primary classes to primary classes
+   */
+  private static void indexFile(
+      Path javaFile,
+      List<DeclarationScanner.Declaration> declarations,
+      Map<String, Path> existingClassesToFilePath,
+      Map<String, String> nonPrimaryClassesToPrimaryClass) {
+    String fileName = String.valueOf(javaFile.getFileName());
+    String primaryTypeName = fileName.substring(0, fileName.length() - ".java".length());
+    String primaryTypeQualifiedName = "";
+    for (DeclarationScanner.Declaration declaration : declarations) {
+      if (declaration.isTopLevel() && declaration.getSimpleName().equals(primaryTypeName)) {
+        // the qualified name of a top-level type is never null
+        primaryTypeQualifiedName = String.valueOf(declaration.getQualifiedName());
+        break;
+      }
+    }
+    for (DeclarationScanner.Declaration declaration : declarations) {
+      String declaredClassQualifiedName = declaration.getQualifiedName();
+      if (declaredClassQualifiedName == null) {
+        continue;
+      }
+      if (declaration.getKind() == DeclarationScanner.Kind.CLASS_OR_INTERFACE) {
+        existingClassesToFilePath.put(declaredClassQualifiedName, javaFile);
+        // which means this class is not a primary class, and there is a primary class.
+        if (!"".equals(primaryTypeQualifiedName)
+            && !declaredClassQualifiedName.equals(primaryTypeQualifiedName)) {
+          nonPrimaryClassesToPrimaryClass.put(declaredClassQualifiedName, primaryTypeQualifiedName);
+        }
+      } else if (declaration.getKind() == DeclarationScanner.Kind.ENUM) {
+        existingClassesToFilePath.put(declaredClassQualifiedName, javaFile);
+      }
+    }
+  }
+
+  /**
+   * Get the classes of the original codebase, mapped to the files that declare them.
+   *
+   * @return a read-only view of the map from fully-qualified class names to files
+   */
+  public Map<String, Path> getExistingClassesToFilePath() {
+    return existingClassesToFilePath;
+  }
+
+  /**
+   * Get the map from the fully-qualified names of non-primary classes to the fully-qualified names
+   * of the primary classes declared in the same file.
+   *
+   * @return a read-only view of the map from non-primary to primary classes
+   */
+  public Map<String, String> getNonPrimaryClassesToPrimaryClass() {
+    return nonPrimaryClassesToPrimaryClass;
+  }
+}
@@ -0,0 +1,234 @@
+package org.checkerframework.specimin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An on-disk cache of the declarations found in the files of a codebase, so that {@link
+ * CodebaseIndex} only has to scan the files that changed since the last run. There is one cache
+ * file per root directory in the cache directory. For every Java file, it records the size, the
+ * modification time and the SHA-256 hash of the file, and the declarations in it. A file whose size
+ * and modification time are unchanged is not read at all; a file whose size or modification time
+ * changed is read and hashed, and only scanned again if its content changed.
+ *
+ * <p>The cache file is a compact binary file, written with a {@link DataOutputStream}. It is
+ * replaced atomically, so that several Specimin processes can share a cache directory. A cache file
+ * that cannot be read, for example because it was written by a different version of Specimin, is
+ * ignored and overwritten.
+ */
+class CodebaseIndexCache {
+
+  /** The first bytes of every cache file. Change the version whenever the format changes. */
+  private static final String MAGIC = "specimin-codebase-index-1";
+
+  /** The cached information about a single Java file. */
+  static final class Entry {
+
+    /** The size of the file, in bytes. */
+    final long size;
+
+    /** The last modification time of the file, in milliseconds since the epoch. */
+    final long lastModified;
+
+    /** The SHA-256 hash of the content of the file. */
+    final byte[] hash;
+
+    /** The type declarations in the file. */
+    final List<DeclarationScanner.Declaration> declarations;
+
+    /**
+     * Creates a new entry.
+     *
+     * @param size the size of the file, in bytes
+     * @param lastModified the last modification time of the file
+     * @param hash the SHA-256 hash of the content of the file
+     * @param declarations the type declarations in the file
+     */
+    Entry(
+        long size,
+        long lastModified,
+        byte[] hash,
+        List<DeclarationScanner.Declaration> declarations) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.hash = hash;
+      this.declarations = declarations;
+    }
+  }
+
+  /** This class cannot be instantiated. */
+  private CodebaseIndexCache() {
+    throw new Error("cannot be instantiated");
+  }
+
+  /**
+   * Get the cache file for the given root directory.
+   *
+   * @param cacheDirectory the cache directory
+   * @param root the absolute, normalized root directory of a codebase
+   * @return the cache file for the root directory in the cache directory
+   */
+  static Path cacheFileFor(Path cacheDirectory, Path root) {
+    byte[] rootHash = sha256(root.toString().getBytes(StandardCharsets.UTF_8));
+    StringBuilder name = new StringBuilder("index-");
+    for (int i = 0; i < 16; i++) {
+      name.append(String.format("%02x", rootHash[i]));
+    }
+    return cacheDirectory.resolve(name.append(".bin").toString());
+  }
+
+  /**
+   * Read a cache file. If the file does not exist, or cannot be read, or belongs to a different
+   * root directory, the result is empty.
+   *
+   * @param cacheFile the cache file
+   * @param root the absolute, normalized root directory of the codebase
+   * @return the cached entries, keyed by the paths of the files relative to the root directory
+   */
+  static Map<String, Entry> load(Path cacheFile, Path root) {
+    if (!Files.isRegularFile(cacheFile)) {
+      return Collections.emptyMap();
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+      if (!MAGIC.equals(in.readUTF()) || !root.toString().equals(in.readUTF())) {
+        return Collections.emptyMap();
+      }
+      int fileCount = in.readInt();
+      Map<String, Entry> entries = new HashMap<>(fileCount * 2);
+      DeclarationScanner.Kind[] kinds = DeclarationScanner.Kind.values();
+      for (int i = 0; i < fileCount; i++) {
+        String path = in.readUTF();
+        long size = in.readLong();
+        long lastModified = in.readLong();
+        byte[] hash = new byte[in.readUnsignedByte()];
+        in.readFully(hash);
+        int declarationCount = in.readInt();
+        List<DeclarationScanner.Declaration> declarations = new ArrayList<>(declarationCount);
+        for (int j = 0; j < declarationCount; j++) {
+          DeclarationScanner.Kind kind = kinds[in.readUnsignedByte()];
+          String simpleName = in.readUTF();
+          @Nullable String qualifiedName = in.readBoolean() ? in.readUTF() : null;
+          boolean topLevel = in.readBoolean();
+          declarations.add(
+              new DeclarationScanner.Declaration(kind, simpleName, qualifiedName, topLevel));
+        }
+        entries.put(
+            path, new Entry(size, lastModified, hash, Collections.unmodifiableList(declarations)));
+      }
+      return entries;
+    } catch (IOException | RuntimeException e) {
+      // A corrupt or outdated cache is not an error: the index is simply rebuilt.
+      return Collections.emptyMap();
+    }
+  }
+
+  /**
+   * Write a cache file, replacing the existing one.
+   *
+   * @param cacheFile the cache file
+   * @param root the absolute, normalized root directory of the codebase
+   * @param entries the entries to write, keyed by the paths of the files relative to the root
+   * @throws IOException if the cache file cannot be written
+   */
+  static void save(Path cacheFile, Path root, Map<String, Entry> entries) throws IOException {
+    Path cacheDirectory = cacheFile.toAbsolutePath().getParent();
+    if (cacheDirectory == null) {
+      throw new IOException("The cache file " + cacheFile + " has no parent directory");
+    }
+    Files.createDirectories(cacheDirectory);
+    Path temporaryFile = Files.createTempFile(cacheDirectory, "index-", ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+        out.writeUTF(MAGIC);
+        out.writeUTF(root.toString());
+        out.writeInt(entries.size());
+        for (Map.Entry<String, Entry> file : entries.entrySet()) {
+          Entry entry = file.getValue();
+          out.writeUTF(file.getKey());
+          out.writeLong(entry.size);
+          out.writeLong(entry.lastModified);
+          out.writeByte(entry.hash.length);
+          out.write(entry.hash);
+          out.writeInt(entry.declarations.size());
+          for (DeclarationScanner.Declaration declaration : entry.declarations) {
+            out.writeByte(declaration.getKind().ordinal());
+            out.writeUTF(declaration.getSimpleName());
+            String qualifiedName = declaration.getQualifiedName();
+            out.writeBoolean(qualifiedName != null);
+            if (qualifiedName != null) {
+              out.writeUTF(qualifiedName);
+            }
+            out.writeBoolean(declaration.isTopLevel());
+          }
+        }
+      }
+      Files.move(
+          temporaryFile,
+          cacheFile,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  /**
+   * Check whether an entry still describes a file, judging only by the file's size and modification
+   * time.
+   *
+   * @param entry a cached entry, or null
+   * @param size the current size of the file
+   * @param lastModified the current modification time of the file
+   * @return true if the entry is not null and the file has the same size and modification time
+   */
+  @EnsuresNonNullIf(expression = "#1", result = true)
+  static boolean isUpToDate(@Nullable Entry entry, long size, long lastModified) {
+    return entry != null && entry.size == size && entry.lastModified == lastModified;
+  }
+
+  /**
+   * Check whether an entry has the given content hash.
+   *
+   * @param entry a cached entry, or null
+   * @param hash the hash of the current content of a file
+   * @return true if the entry is not null and has the same hash
+   */
+  @EnsuresNonNullIf(expression = "#1", result = true)
+  static boolean hasHash(@Nullable Entry entry, byte[] hash) {
+    return entry != null && Arrays.equals(entry.hash, hash);
+  }
+
+  /**
+   * Compute the SHA-256 hash of some bytes.
+   *
+   * @param bytes the bytes to hash
+   * @return the hash of the bytes
+   */
+  static byte[] sha256(byte[] bytes) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(bytes);
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-256
+      throw new RuntimeException(e);
+    }
+  }
+}
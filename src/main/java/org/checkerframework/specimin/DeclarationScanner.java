@@ -0,0 +1,434 @@
+package org.checkerframework.specimin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A scanner that finds the type declarations in a Java file without parsing it. It only splits the
+ * file into tokens, skipping comments and literals, and keeps track of the braces that open the
+ * body of a type, the body of an anonymous class, or a block of code. This is enough to compute the
+ * fully-qualified name of every type declared in the file, which is all that {@link CodebaseIndex}
+ * needs, at a small fraction of the cost of building an AST.
+ *
+ * <p>The names are the same as those that JavaParser's getFullyQualifiedName methods compute: local
+ * classes and the types nested in them have no fully-qualified name, and a type declared in the
+ * body of an anonymous class is named as a member of the closest enclosing named type.
+ */
+class DeclarationScanner {
+
+  /** The kinds of type declarations. */
+  enum Kind {
+    /** A class or an interface. */
+    CLASS_OR_INTERFACE,
+    /** An enum. */
+    ENUM,
+    /** A record. */
+    RECORD,
+    /** An annotation type. */
+    ANNOTATION
+  }
+
+  /** A type declaration found by the scanner. */
+  static final class Declaration {
+
+    /** The kind of the declaration. */
+    private final Kind kind;
+
+    /** The simple name of the declared type. */
+    private final String simpleName;
+
+    /** The fully-qualified name of the declared type, or null if it has none. */
+    private final @Nullable String qualifiedName;
+
+    /** True if the type is declared at the top level of its file. */
+    private final boolean topLevel;
+
+    /**
+     * Creates a new declaration.
+     *
+     * @param kind the kind of the declaration
+     * @param simpleName the simple name of the declared type
+     * @param qualifiedName the fully-qualified name of the declared type, or null if it has none
+     * @param topLevel true if the type is declared at the top level of its file
+     */
+    Declaration(Kind kind, String simpleName, @Nullable String qualifiedName, boolean topLevel) {
+      this.kind = kind;
+      this.simpleName = simpleName;
+      this.qualifiedName = qualifiedName;
+      this.topLevel = topLevel;
+    }
+
+    /**
+     * Get the kind of the declaration.
+     *
+     * @return the kind of the declaration
+     */
+    Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * Get the simple name of the declared type.
+     *
+     * @return the simple name
+     */
+    String getSimpleName() {
+      return simpleName;
+    }
+
+    /**
+     * Get the fully-qualified name of the declared type. Local classes, and types nested in them,
+     * have no fully-qualified name.
+     *
+     * @return the fully-qualified name, or null if the type has none
+     */
+    @Nullable String getQualifiedName() {
+      return qualifiedName;
+    }
+
+    /**
+     * Check whether the type is declared at the top level of its file.
+     *
+     * @return true if the type is a top-level type
+     */
+    boolean isTopLevel() {
+      return topLevel;
+    }
+
+    @Override
+    public String toString() {
+      return kind + " " + (qualifiedName == null ? simpleName : qualifiedName);
+    }
+  }
+
+  /** The kinds of blocks delimited by braces. */
+  private enum BlockKind {
+    /** The body of a named type. */
+    TYPE,
+    /** The body of an anonymous class or of an enum constant. */
+    ANONYMOUS,
+    /** Any other block, such as a method body or an array initializer. */
+    CODE
+  }
+
+  /** A block delimited by braces that the scanner is currently inside of. */
+  private static final class Block {
+
+    /** The kind of the block. */
+    final BlockKind kind;
+
+    /** For the body of a named type, the fully-qualified name of that type, if it has one. */
+    final @Nullable String qualifiedName;
+
+    /** True if this is the body of an enum whose constants have not all been seen yet. */
+    boolean inEnumConstants;
+
+    /** The number of open parentheses when the block was opened. */
+    final int parenDepth;
+
+    /**
+     * Creates a new block.
+     *
+     * @param kind the kind of the block
+     * @param qualifiedName the fully-qualified name of the type whose body this is, if any
+     * @param inEnumConstants true if this is the body of an enum
+     * @param parenDepth the number of open parentheses when the block was opened
+     */
+    Block(BlockKind kind, @Nullable String qualifiedName, boolean inEnumConstants, int parenDepth) {
+      this.kind = kind;
+      this.qualifiedName = qualifiedName;
+      this.inEnumConstants = inEnumConstants;
+      this.parenDepth = parenDepth;
+    }
+  }
+
+  /** The source code being scanned. */
+  private final String source;
+
+  /** The position of the next character of the source to tokenize. */
+  private int position = 0;
+
+  /** The tokens of the source, without comments and literals. */
+  private final List<String> tokens = new ArrayList<>();
+
+  /**
+   * Creates a new scanner. Use {@link #scan(String)} instead of calling this directly.
+   *
+   * @param source the source code to scan
+   */
+  private DeclarationScanner(String source) {
+    this.source = source;
+  }
+
+  /**
+   * Find the type declarations in the given Java source code, in the order in which they appear.
+   *
+   * @param source the content of a Java file
+   * @return the type declarations in the file
+   */
+  static List<Declaration> scan(String source) {
+    DeclarationScanner scanner = new DeclarationScanner(source);
+    scanner.tokenize();
+    return scanner.findDeclarations();
+  }
+
+  /**
+   * Split the source into tokens. Identifiers, keywords and numbers are single tokens, every other
+   * character that is not whitespace is a token on its own, and comments and the contents of
+   * literals are dropped.
+   */
+  private void tokenize() {
+    int length = source.length();
+    while (position < length) {
+      char c = source.charAt(position);
+      if (Character.isWhitespace(c)) {
+        position++;
+      } else if (source.startsWith("//", position)) {
+        int end = source.indexOf('\n', position);
+        position = end == -1 ? length : end + 1;
+      } else if (source.startsWith("/*", position)) {
+        int end = source.indexOf("*/", position + 2);
+        position = end == -1 ? length : end + 2;
+      } else if (source.startsWith("\"\"\"", position)) {
+        skipTextBlock();
+      } else if (c == '"' || c == '\'') {
+        skipLiteral(c);
+      } else if (Character.isJavaIdentifierStart(c) || Character.isDigit(c)) {
+        int start = position;
+        while (position < length && Character.isJavaIdentifierPart(source.charAt(position))) {
+          position++;
+        }
+        tokens.add(source.substring(start, position));
+      } else {
+        tokens.add(String.valueOf(c));
+        position++;
+      }
+    }
+  }
+
+  /** Skip a text block. The position must be at its opening triple quote. */
+  private void skipTextBlock() {
+    position += 3;
+    while (position < source.length()) {
+      if (source.charAt(position) == '\\') {
+        position += 2;
+      } else if (source.startsWith("\"\"\"", position)) {
+        position += 3;
+        return;
+      } else {
+        position++;
+      }
+    }
+  }
+
+  /**
+   * Skip a string or character literal. The position must be at its opening quote.
+   *
+   * @param quote the quote character that opened the literal
+   */
+  private void skipLiteral(char quote) {
+    position++;
+    while (position < source.length()) {
+      char c = source.charAt(position);
+      if (c == '\\') {
+        position += 2;
+      } else if (c == quote || c == '\n') {
+        position++;
+        return;
+      } else {
+        position++;
+      }
+    }
+  }
+
+  /**
+   * Walk over the tokens and collect the type declarations.
+   *
+   * @return the type declarations, in the order in which they appear
+   */
+  private List<Declaration> findDeclarations() {
+    List<Declaration> declarations = new ArrayList<>();
+    String packageName = "";
+    Deque<Block> blocks = new ArrayDeque<>();
+    // For every open parenthesis, whether it starts the arguments of a class instance creation.
+    Deque<Boolean> parens = new ArrayDeque<>();
+    boolean lastClosedParenWasNew = false;
+    int size = tokens.size();
+    for (int i = 0; i < size; i++) {
+      String token = tokens.get(i);
+      Kind kind = declarationKindAt(i);
+      if (kind != null) {
+        String simpleName = tokens.get(i + 1);
+        Block enclosing = blocks.peek();
+        String qualifiedName;
+        if (enclosing == null) {
+          qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        } else if (enclosing.kind == BlockKind.CODE) {
+          // a local type
+          qualifiedName = null;
+        } else {
+          qualifiedName = memberName(blocks, simpleName);
+        }
+        declarations.add(new Declaration(kind, simpleName, qualifiedName, enclosing == null));
+        // skip the rest of the header, up to the brace that opens the body of the type
+        int depth = 0;
+        int j = i + 2;
+        for (; j < size; j++) {
+          String headerToken = tokens.get(j);
+          if ("(".equals(headerToken) || "[".equals(headerToken)) {
+            depth++;
+          } else if (")".equals(headerToken) || "]".equals(headerToken)) {
+            depth--;
+          } else if (depth == 0 && ("{".equals(headerToken) || ";".equals(headerToken))) {
+            break;
+          }
+        }
+        if (j < size && "{".equals(tokens.get(j))) {
+          blocks.push(new Block(BlockKind.TYPE, qualifiedName, kind == Kind.ENUM, parens.size()));
+        }
+        i = j;
+        continue;
+      }
+      switch (token) {
+        case "package":
+          if (blocks.isEmpty() && (i == 0 || !".".equals(tokens.get(i - 1)))) {
+            StringBuilder name = new StringBuilder();
+            int j = i + 1;
+            for (; j < size && !";".equals(tokens.get(j)); j++) {
+              name.append(tokens.get(j));
+            }
+            packageName = name.toString();
+            i = j;
+          }
+          break;
+        case "(":
+          parens.push(isClassInstanceCreation(i));
+          break;
+        case ")":
+          lastClosedParenWasNew = !parens.isEmpty() && parens.pop();
+          break;
+        case "{":
+          Block enclosing = blocks.peek();
+          if (i > 0 && ")".equals(tokens.get(i - 1)) && lastClosedParenWasNew) {
+            blocks.push(new Block(BlockKind.ANONYMOUS, null, false, parens.size()));
+          } else if (enclosing != null
+              && enclosing.inEnumConstants
+              && enclosing.parenDepth == parens.size()) {
+            blocks.push(new Block(BlockKind.ANONYMOUS, null, false, parens.size()));
+          } else {
+            blocks.push(new Block(BlockKind.CODE, null, false, parens.size()));
+          }
+          break;
+        case "}":
+          if (!blocks.isEmpty()) {
+            blocks.pop();
+          }
+          break;
+        case ";":
+          Block current = blocks.peek();
+          if (current != null && current.parenDepth == parens.size()) {
+            current.inEnumConstants = false;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return Collections.unmodifiableList(declarations);
+  }
+
+  /**
+   * Compute the fully-qualified name of a type that is declared inside the given blocks, as a
+   * member of the closest enclosing named type. Like JavaParser, this skips the bodies of anonymous
+   * classes and blocks of code between the declaration and that type.
+   *
+   * @param blocks the open blocks, innermost first
+   * @param simpleName the simple name of the declared type
+   * @return the fully-qualified name of the type, or null if it has none
+   */
+  private static @Nullable String memberName(Deque<Block> blocks, String simpleName) {
+    for (Block block : blocks) {
+      if (block.kind == BlockKind.TYPE) {
+        return block.qualifiedName == null ? null : block.qualifiedName + "." + simpleName;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Check whether the token at the given index starts a type declaration, and if so, which kind.
+   *
+   * @param i the index of a token
+   * @return the kind of the declaration that starts at the token, or null if none starts there
+   */
+  private @Nullable Kind declarationKindAt(int i) {
+    if (i + 1 >= tokens.size() || !isIdentifier(tokens.get(i + 1))) {
+      return null;
+    }
+    String previous = i == 0 ? "" : tokens.get(i - 1);
+    switch (tokens.get(i)) {
+      case "class":
+        // "Foo.class" is a class literal
+        return ".".equals(previous) ? null : Kind.CLASS_OR_INTERFACE;
+      case "interface":
+        return "@".equals(previous) ? Kind.ANNOTATION : Kind.CLASS_OR_INTERFACE;
+      case "enum":
+        return Kind.ENUM;
+      case "record":
+        // "record" is only a keyword in front of the name and the header of a record
+        if (".".equals(previous) || i + 2 >= tokens.size()) {
+          return null;
+        }
+        String afterName = tokens.get(i + 2);
+        return "(".equals(afterName) || "<".equals(afterName) ? Kind.RECORD : null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Check whether the parenthesis at the given index opens the arguments of a class instance
+   * creation, such as {@code new a.Foo<Bar>(...)} or {@code outer.new Inner(...)}.
+   *
+   * @param i the index of an opening parenthesis
+   * @return true if the parenthesis follows "new" and a type
+   */
+  private boolean isClassInstanceCreation(int i) {
+    int k = i - 1;
+    if (k >= 0 && ">".equals(tokens.get(k))) {
+      // skip the type arguments
+      int depth = 0;
+      for (; k >= 0; k--) {
+        String token = tokens.get(k);
+        if (">".equals(token)) {
+          depth++;
+        } else if ("<".equals(token) && --depth == 0) {
+          break;
+        }
+      }
+      k--;
+    }
+    if (k < 0 || !isIdentifier(tokens.get(k))) {
+      return false;
+    }
+    k--;
+    while (k >= 1 && ".".equals(tokens.get(k)) && isIdentifier(tokens.get(k - 1))) {
+      k -= 2;
+    }
+    return k >= 0 && "new".equals(tokens.get(k));
+  }
+
+  /**
+   * Check whether a token is an identifier or a keyword.
+   *
+   * @param token a token
+   * @return true if the token starts like an identifier
+   */
+  private static boolean isIdentifier(String token) {
+    return Character.isJavaIdentifierStart(token.charAt(0));
+  }
+}
@@ -0,0 +1,164 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.resolution.Navigator;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.cache.GuavaCache;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.google.common.cache.CacheBuilder;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A type solver for the root directory and for the jar classes, which are decompiled by a {@link
+ * JarDecompiler} the first time that they are looked up. The files on the disk are looked up by a
+ * JavaParserTypeSolver for the root directory. The decompiled files are only kept in memory by the
+ * decompiler, and are looked up as if they were in the root directory, so a class from a jar file
+ * is solved from its decompiled source, as it was when all jar files were decompiled into the root
+ * directory up front.
+ *
+ * <p>The files in the root directory do not change during a minimization, and neither do the
+ * decompiled files once they are decompiled, so this solver lives as long as the minimization and
+ * its parsed files are never parsed again. Only the types that the symbol solver cached in their
+ * nodes are removed by {@link #forgetResolvedTypes()} once the synthetic files change.
+ */
+class DecompilingTypeSolver implements TypeSolver {
+
+  /** The absolute path of the root directory. */
+  private final Path rootPath;
+
+  /** The decompiler of the jar classes. */
+  private final JarDecompiler decompiler;
+
+  /** The type solver for the root directory. */
+  private final JavaParserTypeSolver rootSolver;
+
+  /** The files in the root directory that have been parsed by {@link #rootSolver}. */
+  private final MapCache<Path, Optional<CompilationUnit>> parsedFiles = new MapCache<>();
+
+  /** The parser for the decompiled files. */
+  private final JavaParser parser = new JavaParser(new ParserConfiguration());
+
+  /** The decompiled files that have been parsed, keyed by their paths relative to the root. */
+  private final Map<String, Optional<CompilationUnit>> parsedDecompiledFiles = new HashMap<>();
+
+  /** The combined solver that contains this solver. */
+  private @MonotonicNonNull TypeSolver parent;
+
+  /**
+   * Creates a new type solver for the given root directory.
+   *
+   * @param root the root directory, with a trailing slash
+   * @param decompiler the decompiler of the jar classes
+   */
+  DecompilingTypeSolver(String root, JarDecompiler decompiler) {
+    this.rootPath = Path.of(root).toAbsolutePath().normalize();
+    this.decompiler = decompiler;
+    this.rootSolver =
+        new JavaParserTypeSolver(
+            Path.of(root),
+            new JavaParser(new ParserConfiguration()),
+            parsedFiles,
+            new GuavaCache<>(CacheBuilder.newBuilder().softValues().build()),
+            new GuavaCache<>(CacheBuilder.newBuilder().softValues().build()));
+  }
+
+  /**
+   * Remove the types that the symbol solver cached in the nodes of the parsed files. This must be
+   * called whenever the synthetic files change, since these types may refer to synthetic classes.
+   */
+  void forgetResolvedTypes() {
+    for (Optional<CompilationUnit> compilationUnit : parsedFiles.values()) {
+      compilationUnit.ifPresent(JavaParserUtil::removeCachedData);
+    }
+    for (Optional<CompilationUnit> compilationUnit : parsedDecompiledFiles.values()) {
+      compilationUnit.ifPresent(JavaParserUtil::removeCachedData);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("nullness:return") // the parent is null until setParent is called
+  public TypeSolver getParent() {
+    return parent;
+  }
+
+  /**
+   * Set the parent of this solver, which is also the parent of the solver for the root directory,
+   * so that the declarations found in the root directory resolve other types against the combined
+   * solver.
+   *
+   * @param parent the parent of this solver
+   */
+  @Override
+  public void setParent(TypeSolver parent) {
+    if (this.parent != null) {
+      throw new IllegalStateException("This TypeSolver already has a parent.");
+    }
+    if (parent == this) {
+      throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+    }
+    this.parent = parent;
+    rootSolver.setParent(parent);
+  }
+
+  @Override
+  public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+    // A name such as "a.b.C.D" may be a class nested in a jar class "a.b.C", so the class of the
+    // longest prefix that is a jar class is decompiled, even if the name itself is not a class.
+    String className = name;
+    Path sourceFile = decompiler.getSourceFile(className);
+    while (sourceFile == null && className.lastIndexOf('.') != -1) {
+      className = className.substring(0, className.lastIndexOf('.'));
+      sourceFile = decompiler.getSourceFile(className);
+    }
+    if (sourceFile != null) {
+      @Nullable TypeDeclaration<?> found = findDecompiledType(sourceFile, name);
+      if (found != null) {
+        return SymbolReference.solved(JavaParserFacade.get(this).getTypeDeclaration(found));
+      }
+    }
+    return rootSolver.tryToSolveType(name);
+  }
+
+  /**
+   * Find a type declaration in a decompiled file.
+   *
+   * @param sourceFile the absolute path of the file in the root directory, as given by the
+   *     decompiler
+   * @param name the fully-qualified name of the type
+   * @return the declaration of the type, or null if the file was not decompiled, because it is on
+   *     the disk, or does not declare the type
+   */
+  private @Nullable TypeDeclaration<?> findDecompiledType(Path sourceFile, String name) {
+    String relativePath = rootPath.relativize(sourceFile).toString();
+    Optional<CompilationUnit> compilationUnit = parsedDecompiledFiles.get(relativePath);
+    if (compilationUnit == null) {
+      String source = decompiler.getDecompiledSource(relativePath);
+      if (source == null) {
+        compilationUnit = Optional.empty();
+      } else {
+        ParseResult<CompilationUnit> result = parser.parse(source);
+        compilationUnit = result.isSuccessful() ? result.getResult() : Optional.empty();
+      }
+      parsedDecompiledFiles.put(relativePath, compilationUnit);
+    }
+    if (!compilationUnit.isPresent()) {
+      return null;
+    }
+    // The name of the type relative to the file, such as "C.D" for the file "a/b/C.java".
+    int packageLength = relativePath.lastIndexOf('/');
+    String typeName = packageLength == -1 ? name : name.substring(packageLength + 1);
+    return Navigator.findType(compilationUnit.get(), typeName).orElse(null);
+  }
+}
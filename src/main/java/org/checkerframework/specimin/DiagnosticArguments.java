@@ -0,0 +1,512 @@
+package org.checkerframework.specimin;
+
+import com.google.common.base.Ascii;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.QualifiedNameable;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.UnionType;
+import javax.lang.model.type.WildcardType;
+import javax.tools.Diagnostic;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The arguments of a diagnostic reported by javac, such as the two types of an "incomparable types"
+ * error, or the nested "cannot be converted" diagnostic of an "incompatible types" error. Types and
+ * symbols are named from javac's {@link TypeMirror}s and {@link Element}s by simple names, as the
+ * javac command names them in its messages: a class is only named by its qualified name if another
+ * class with the same simple name occurs in the same diagnostic, and captured type variables are
+ * named "CAP#1", "CAP#2" and so on.
+ *
+ * <p>javac's public API does not expose the arguments of its diagnostics, so they are read
+ * reflectively from javac's own diagnostic classes. That requires the jdk.compiler module to export
+ * {@link #JAVAC_PACKAGES} to Specimin, which the Specimin jar and the Gradle tasks ask for. Check
+ * {@link #checkAvailable()} before reading any diagnostic.
+ */
+final class DiagnosticArguments {
+
+  /** The packages of jdk.compiler whose classes give access to the arguments of a diagnostic. */
+  static final List<String> JAVAC_PACKAGES =
+      List.of("com.sun.tools.javac.api", "com.sun.tools.javac.util");
+
+  /** The name that javac gives to the element of every captured type variable. */
+  private static final String CAPTURED_WILDCARD = "<captured wildcard>";
+
+  /** The code of the diagnostic, such as "compiler.err.prob.found.req", or null. */
+  private final @Nullable String code;
+
+  /** The arguments of the diagnostic. */
+  private final List<@Nullable Object> arguments;
+
+  /** The names of the types and symbols in the diagnostic, shared with its nested diagnostics. */
+  private final Names names;
+
+  /**
+   * Creates the arguments of a diagnostic.
+   *
+   * @param code the code of the diagnostic, or null
+   * @param arguments the arguments of the diagnostic
+   * @param names the names of the types and symbols in the diagnostic
+   */
+  private DiagnosticArguments(
+      @Nullable String code, List<@Nullable Object> arguments, Names names) {
+    this.code = code;
+    this.arguments = arguments;
+    this.names = names;
+  }
+
+  /**
+   * Checks that javac gives access to the arguments of its diagnostics.
+   *
+   * @throws IllegalStateException if jdk.compiler does not export {@link #JAVAC_PACKAGES} to
+   *     Specimin, with a description of the options that the JVM must be started with
+   */
+  static void checkAvailable() {
+    Reflection.get();
+  }
+
+  /**
+   * Get the arguments of a diagnostic reported by javac.
+   *
+   * @param diagnostic a diagnostic reported by javac
+   * @return the arguments of the diagnostic
+   * @throws IllegalStateException if javac does not give access to the arguments of diagnostics
+   */
+  static DiagnosticArguments of(Diagnostic<?> diagnostic) {
+    List<@Nullable Object> arguments = getArguments(diagnostic);
+    Names names = new Names();
+    names.collectClasses(arguments);
+    return new DiagnosticArguments(diagnostic.getCode(), arguments, names);
+  }
+
+  /**
+   * Get the raw arguments of a diagnostic reported by javac, or of a diagnostic nested in one.
+   *
+   * @param diagnostic a diagnostic
+   * @return the arguments of the diagnostic
+   * @throws IllegalStateException if javac does not give access to the arguments of diagnostics
+   */
+  private static List<@Nullable Object> getArguments(Object diagnostic) {
+    Reflection reflection = Reflection.get();
+    try {
+      Object javacDiagnostic = diagnostic;
+      // javac wraps the diagnostics that it reports to a DiagnosticListener.
+      if (reflection.wrappedDiagnostic.getDeclaringClass().isInstance(diagnostic)) {
+        javacDiagnostic = reflection.wrappedDiagnostic.get(diagnostic);
+      }
+      Object[] arguments = (Object[]) reflection.getArgs.invoke(javacDiagnostic);
+      return Arrays.asList(arguments);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("cannot read the arguments of " + diagnostic, e);
+    }
+  }
+
+  /**
+   * Get the number of arguments of the diagnostic.
+   *
+   * @return the number of arguments
+   */
+  int size() {
+    return arguments.size();
+  }
+
+  /**
+   * Get the code of the diagnostic.
+   *
+   * @return the code, such as "compiler.err.prob.found.req", or null if it has none
+   */
+  @Nullable String getCode() {
+    return code;
+  }
+
+  /**
+   * Get the arguments of the diagnostic nested at the given index, such as the reason of an
+   * "incompatible types" error. Its types are named like the types of this diagnostic.
+   *
+   * @param index the index of an argument
+   * @return the arguments of the nested diagnostic, or null if the argument is not a diagnostic
+   */
+  @Nullable DiagnosticArguments getNested(int index) {
+    Object argument = arguments.get(index);
+    return argument instanceof Diagnostic ? getNested((Diagnostic<?>) argument) : null;
+  }
+
+  /**
+   * Get the arguments of a diagnostic nested in this one. Its types are named like the types of
+   * this diagnostic.
+   *
+   * @param nested a diagnostic that is one of the arguments of this diagnostic
+   * @return the arguments of the nested diagnostic
+   */
+  private DiagnosticArguments getNested(Diagnostic<?> nested) {
+    return new DiagnosticArguments(nested.getCode(), getArguments(nested), names);
+  }
+
+  /**
+   * Get the diagnostics nested in this one, at any depth, in the order of their arguments. A
+   * diagnostic is nested in another one if it is one of its arguments, or an element of a list that
+   * is one of its arguments.
+   *
+   * @return the arguments of the nested diagnostics
+   */
+  List<DiagnosticArguments> getAllNested() {
+    List<DiagnosticArguments> result = new ArrayList<>();
+    for (Object argument : arguments) {
+      List<Object> candidates = new ArrayList<>();
+      if (argument instanceof Iterable) {
+        ((Iterable<?>) argument).forEach(candidates::add);
+      } else if (argument != null) {
+        candidates.add(argument);
+      }
+      for (Object candidate : candidates) {
+        if (candidate instanceof Diagnostic) {
+          DiagnosticArguments nested = getNested((Diagnostic<?>) candidate);
+          result.add(nested);
+          result.addAll(nested.getAllNested());
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the name of the argument at the given index, such as an operator.
+   *
+   * @param index the index of an argument
+   * @return the argument as a string
+   */
+  String getName(int index) {
+    return String.valueOf(arguments.get(index));
+  }
+
+  /**
+   * Get the name of the type or symbol at the given index.
+   *
+   * @param index the index of an argument that is a type or a symbol
+   * @return the name of the type or symbol, with simple class names
+   */
+  String getTypeName(int index) {
+    return names.getName(arguments.get(index));
+  }
+
+  /**
+   * Get the names of the types in the list at the given index, such as the lower bounds of an
+   * inference variable.
+   *
+   * @param index the index of an argument that is a list of types
+   * @return the names of the types, with simple class names
+   */
+  List<String> getTypeNames(int index) {
+    Object argument = arguments.get(index);
+    if (!(argument instanceof Iterable)) {
+      return List.of(names.getName(argument));
+    }
+    List<String> result = new ArrayList<>();
+    for (Object type : (Iterable<?>) argument) {
+      result.add(names.getName(type));
+    }
+    return result;
+  }
+
+  /**
+   * Names the types and symbols of a diagnostic and of the diagnostics nested in it, in the same
+   * way as the javac command names them in its messages.
+   */
+  private static final class Names {
+
+    /** The qualified names of the classes in the diagnostic, keyed by their simple names. */
+    private final Map<String, Set<String>> simpleToQualifiedNames = new HashMap<>();
+
+    /** The numbers of the captured type variables, in the order in which they were named. */
+    private final Map<TypeVariable, Integer> capturedTypeVariables = new IdentityHashMap<>();
+
+    /**
+     * Finds the classes in the given arguments, and in the diagnostics nested in them, so that
+     * classes with the same simple name can be named by their qualified names.
+     *
+     * @param arguments the arguments of a diagnostic
+     */
+    private void collectClasses(List<@Nullable Object> arguments) {
+      for (Object argument : arguments) {
+        if (argument instanceof Diagnostic) {
+          collectClasses(getArguments(argument));
+        } else if (argument instanceof Iterable) {
+          List<@Nullable Object> elements = new ArrayList<>();
+          ((Iterable<?>) argument).forEach(elements::add);
+          collectClasses(elements);
+        } else if (argument instanceof TypeMirror) {
+          collectClasses((TypeMirror) argument, new HashSet<>());
+        } else if (argument instanceof Element) {
+          collectClass((Element) argument);
+        }
+      }
+    }
+
+    /**
+     * Finds the classes in a type.
+     *
+     * @param type a type
+     * @param visited the type variables whose bounds have already been searched
+     */
+    private void collectClasses(TypeMirror type, Set<TypeVariable> visited) {
+      switch (type.getKind()) {
+        case DECLARED:
+        case ERROR:
+          collectClass(((DeclaredType) type).asElement());
+          for (TypeMirror typeArgument : ((DeclaredType) type).getTypeArguments()) {
+            collectClasses(typeArgument, visited);
+          }
+          break;
+        case ARRAY:
+          collectClasses(((ArrayType) type).getComponentType(), visited);
+          break;
+        case TYPEVAR:
+          TypeVariable typeVariable = (TypeVariable) type;
+          if (isCaptured(typeVariable) && visited.add(typeVariable)) {
+            collectClasses(typeVariable.getUpperBound(), visited);
+          }
+          break;
+        case WILDCARD:
+          WildcardType wildcard = (WildcardType) type;
+          for (TypeMirror bound :
+              Arrays.asList(wildcard.getExtendsBound(), wildcard.getSuperBound())) {
+            if (bound != null) {
+              collectClasses(bound, visited);
+            }
+          }
+          break;
+        case INTERSECTION:
+          for (TypeMirror bound : ((IntersectionType) type).getBounds()) {
+            collectClasses(bound, visited);
+          }
+          break;
+        case UNION:
+          for (TypeMirror alternative : ((UnionType) type).getAlternatives()) {
+            collectClasses(alternative, visited);
+          }
+          break;
+        default:
+          break;
+      }
+    }
+
+    /**
+     * Records the name of a class.
+     *
+     * @param element an element, which is only recorded if it is a class
+     */
+    private void collectClass(Element element) {
+      if (element.getKind().isClass() || element.getKind().isInterface()) {
+        simpleToQualifiedNames
+            .computeIfAbsent(element.getSimpleName().toString(), k -> new HashSet<>())
+            .add(getQualifiedName(element));
+      }
+    }
+
+    /**
+     * Get the name of a type or symbol.
+     *
+     * @param argument a type or a symbol
+     * @return its name, with simple class names
+     */
+    private String getName(@Nullable Object argument) {
+      if (argument instanceof TypeMirror) {
+        return getName((TypeMirror) argument);
+      } else if (argument instanceof Element) {
+        return getName((Element) argument);
+      }
+      return String.valueOf(argument);
+    }
+
+    /**
+     * Get the name of a type, without its annotations.
+     *
+     * @param type a type
+     * @return its name, with simple class names
+     */
+    private String getName(TypeMirror type) {
+      switch (type.getKind()) {
+        case DECLARED:
+        case ERROR:
+          DeclaredType declaredType = (DeclaredType) type;
+          String name = getName(declaredType.asElement());
+          List<? extends TypeMirror> typeArguments = declaredType.getTypeArguments();
+          return typeArguments.isEmpty() ? name : name + "<" + getNames(typeArguments, ",") + ">";
+        case ARRAY:
+          return getName(((ArrayType) type).getComponentType()) + "[]";
+        case TYPEVAR:
+          TypeVariable typeVariable = (TypeVariable) type;
+          if (isCaptured(typeVariable)) {
+            return "CAP#"
+                + capturedTypeVariables.computeIfAbsent(
+                    typeVariable, k -> capturedTypeVariables.size() + 1);
+          }
+          return typeVariable.asElement().getSimpleName().toString();
+        case WILDCARD:
+          WildcardType wildcard = (WildcardType) type;
+          TypeMirror extendsBound = wildcard.getExtendsBound();
+          TypeMirror superBound = wildcard.getSuperBound();
+          if (extendsBound != null) {
+            return "? extends " + getName(extendsBound);
+          }
+          return superBound == null ? "?" : "? super " + getName(superBound);
+        case INTERSECTION:
+          return getNames(((IntersectionType) type).getBounds(), "&");
+        case UNION:
+          return getNames(((UnionType) type).getAlternatives(), "|");
+        case NULL:
+          return "<null>";
+        case BOOLEAN:
+        case BYTE:
+        case SHORT:
+        case INT:
+        case LONG:
+        case CHAR:
+        case FLOAT:
+        case DOUBLE:
+        case VOID:
+          return Ascii.toLowerCase(type.getKind().name());
+        default:
+          return type.toString();
+      }
+    }
+
+    /**
+     * Get the names of some types, separated by the given separator.
+     *
+     * @param types some types
+     * @param separator the separator
+     * @return the names of the types
+     */
+    private String getNames(List<? extends TypeMirror> types, String separator) {
+      StringJoiner result = new StringJoiner(separator);
+      for (TypeMirror type : types) {
+        result.add(getName(type));
+      }
+      return result.toString();
+    }
+
+    /**
+     * Get the name of a symbol. A class is named by its simple name, unless another class in the
+     * diagnostic has the same simple name.
+     *
+     * @param element a symbol
+     * @return its name
+     */
+    private String getName(Element element) {
+      String simpleName = element.getSimpleName().toString();
+      Set<String> qualifiedNames = simpleToQualifiedNames.get(simpleName);
+      return qualifiedNames != null && qualifiedNames.size() > 1
+          ? getQualifiedName(element)
+          : simpleName;
+    }
+
+    /**
+     * Get the qualified name of a class.
+     *
+     * @param element a class
+     * @return its qualified name, or its simple name if it has none
+     */
+    private static String getQualifiedName(Element element) {
+      return element instanceof QualifiedNameable
+          ? ((QualifiedNameable) element).getQualifiedName().toString()
+          : element.getSimpleName().toString();
+    }
+
+    /**
+     * Returns true if the given type variable is a captured wildcard.
+     *
+     * @param typeVariable a type variable
+     * @return true iff javac created the type variable by capture conversion
+     */
+    private static boolean isCaptured(TypeVariable typeVariable) {
+      return typeVariable.asElement().getSimpleName().contentEquals(CAPTURED_WILDCARD);
+    }
+  }
+
+  /** The reflective access to javac's diagnostic classes. */
+  private static final class Reflection {
+
+    /** The field of javac's wrapper of the diagnostics that it reports to a listener. */
+    private final Field wrappedDiagnostic;
+
+    /** The method of javac's diagnostics that returns their arguments. */
+    private final Method getArgs;
+
+    /** The reflective access, or null if javac does not give it. It is set up on first use. */
+    private static final @Nullable Reflection INSTANCE;
+
+    /** The reason why javac does not give reflective access, or null if it does. */
+    private static final @Nullable String ERROR;
+
+    static {
+      Reflection instance = null;
+      String error = null;
+      Optional<Module> compiler = ModuleLayer.boot().findModule("jdk.compiler");
+      Module specimin = DiagnosticArguments.class.getModule();
+      if (compiler.isEmpty()
+          || !JAVAC_PACKAGES.stream().allMatch(p -> compiler.get().isExported(p, specimin))) {
+        StringJoiner options = new StringJoiner(" ");
+        for (String javacPackage : JAVAC_PACKAGES) {
+          options.add("--add-exports=jdk.compiler/" + javacPackage + "=ALL-UNNAMED");
+        }
+        error =
+            "Specimin reads the arguments of javac's diagnostics, so it must be run with java -jar,"
+                + " or the JVM must be started with "
+                + options;
+      } else {
+        try {
+          instance =
+              new Reflection(
+                  Class.forName(
+                          "com.sun.tools.javac.api.ClientCodeWrapper$DiagnosticSourceUnwrapper")
+                      .getField("d"),
+                  Class.forName("com.sun.tools.javac.util.JCDiagnostic").getMethod("getArgs"));
+        } catch (ReflectiveOperationException e) {
+          error = "This version of javac does not give access to its diagnostics: " + e;
+        }
+      }
+      INSTANCE = instance;
+      ERROR = error;
+    }
+
+    /**
+     * Creates the reflective access to javac's diagnostic classes.
+     *
+     * @param wrappedDiagnostic the field of javac's wrapper of diagnostics
+     * @param getArgs the method of javac's diagnostics that returns their arguments
+     */
+    private Reflection(Field wrappedDiagnostic, Method getArgs) {
+      this.wrappedDiagnostic = wrappedDiagnostic;
+      this.getArgs = getArgs;
+    }
+
+    /**
+     * Get the reflective access to javac's diagnostic classes.
+     *
+     * @return the reflective access
+     * @throws IllegalStateException if javac does not give it
+     */
+    static Reflection get() {
+      if (INSTANCE == null) {
+        throw new IllegalStateException(ERROR);
+      }
+      return INSTANCE;
+    }
+  }
+}
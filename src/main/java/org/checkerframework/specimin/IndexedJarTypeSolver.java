@@ -0,0 +1,114 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.signature.qual.FullyQualifiedName;
+
+/**
+ * A type solver for all the jar files of a {@link JarIndex}. It asks the index which jar file
+ * contains a class, and only then solves the class with a JavaParser JarTypeSolver for that jar
+ * file. A JarTypeSolver loads its whole jar file when it is created, so this solver creates one for
+ * a jar file only when a class of the jar file is looked up for the first time, and keeps it.
+ *
+ * <p>Only the jar files that contain the package of a name are asked about the name, so the cost of
+ * a lookup, and in particular of the many lookups of names that are not in any jar file, does not
+ * grow with the number of jar files. A jar file whose packages are never used, because no file
+ * imports or names them, is never asked about anything.
+ *
+ * <p>If several jar files contain the same class, the first one wins, as it did when every jar file
+ * had its own solver in a CombinedTypeSolver.
+ */
+class IndexedJarTypeSolver implements TypeSolver {
+
+  /** The jar files that contain each package, in the order in which they were given. */
+  private final Map<String, List<String>> packageToJarPaths;
+
+  /** The classes of each jar file. */
+  private final Map<String, Set<@FullyQualifiedName String>> jarPathToClasses;
+
+  /** The solvers of the jar files that have been needed so far. Their parent is this solver. */
+  private final Map<String, JarTypeSolver> jarSolvers = new HashMap<>();
+
+  /** The solver that contains this solver. */
+  private @MonotonicNonNull TypeSolver parent;
+
+  /**
+   * Creates a new type solver for the given jar files.
+   *
+   * @param packageToJarPaths the jar files that contain each package, in the order in which they
+   *     were given
+   * @param jarPathToClasses the classes of each jar file
+   */
+  IndexedJarTypeSolver(
+      Map<String, List<String>> packageToJarPaths,
+      Map<String, Set<@FullyQualifiedName String>> jarPathToClasses) {
+    this.packageToJarPaths = packageToJarPaths;
+    this.jarPathToClasses = jarPathToClasses;
+  }
+
+  @Override
+  @SuppressWarnings("nullness:return") // the parent is null until setParent is called
+  public TypeSolver getParent() {
+    return parent;
+  }
+
+  @Override
+  public void setParent(TypeSolver parent) {
+    if (this.parent != null) {
+      throw new IllegalStateException("This TypeSolver already has a parent.");
+    }
+    if (parent == this) {
+      throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+    }
+    this.parent = parent;
+  }
+
+  @Override
+  public synchronized SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(
+      String name) {
+    // The name of a nested class does not tell where its package ends, so try every prefix.
+    int dot = name.length();
+    do {
+      dot = name.lastIndexOf('.', dot - 1);
+      List<String> jarPaths = packageToJarPaths.get(dot == -1 ? "" : name.substring(0, dot));
+      if (jarPaths == null) {
+        continue;
+      }
+      for (String jarPath : jarPaths) {
+        Set<@FullyQualifiedName String> classes = jarPathToClasses.get(jarPath);
+        if (classes != null && classes.contains(name)) {
+          return getJarSolver(jarPath).tryToSolveType(name);
+        }
+      }
+    } while (dot > 0);
+    return SymbolReference.unsolved();
+  }
+
+  /**
+   * Get the solver of a jar file, creating it if it has not been needed before.
+   *
+   * @param jarPath a jar file
+   * @return the solver of the jar file, whose parent is this solver
+   */
+  private JarTypeSolver getJarSolver(String jarPath) {
+    JarTypeSolver jarSolver = jarSolvers.get(jarPath);
+    if (jarSolver == null) {
+      try {
+        jarSolver = new JarTypeSolver(jarPath);
+      } catch (IOException e) {
+        throw new RuntimeException("Specimin could not read the jar file " + jarPath, e);
+      }
+      jarSolver.setParent(this);
+      jarSolvers.put(jarPath, jarSolver);
+    }
+    return jarSolver;
+  }
+}
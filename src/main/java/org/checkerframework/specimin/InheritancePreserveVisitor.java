@@ -23,13 +23,29 @@ public class InheritancePreserveVisitor extends ModifierVisitor<Void> {
   /** List of fully-qualified classnames to be added to the list of used classes. */
   public Set<String> addedClasses = new HashSet<>();
 
+  /**
+   * The descriptions of the type-parameter bounds that have already been visited. This set is
+   * shared by all the InheritancePreserveVisitors of a single Specimin run, to avoid an infinite
+   * loop.
+   */
+  private final Set<String> visitedBounds;
+
+  /** The parser of the current run of Specimin, used to resolve nodes. */
+  private final ParserContext parserContext;
+
   /**
    * Constructs an InheritancePreserveVisitor with the specified set of used classes.
    *
    * @param usedClass The set of classes used by the target methods.
+   * @param visitedBounds The type-parameter bounds already visited during this run of Specimin.
+   *     This set is updated by the new visitor.
+   * @param parserContext The parser of the current run of Specimin.
    */
-  public InheritancePreserveVisitor(Set<String> usedClass) {
+  public InheritancePreserveVisitor(
+      Set<String> usedClass, Set<String> visitedBounds, ParserContext parserContext) {
     this.usedClass = usedClass;
+    this.visitedBounds = visitedBounds;
+    this.parserContext = parserContext;
   }
 
   /**
@@ -57,17 +73,14 @@ public class InheritancePreserveVisitor extends ModifierVisitor<Void> {
     addedClasses = new HashSet<>();
   }
 
-  /** Cheap and dirty trick to avoid an infinite loop TODO: clean this up after the deadline */
-  private static HashSet<String> visitedBounds = new HashSet();
-
   @Override
   public Visitable visit(ClassOrInterfaceDeclaration decl, Void p) {
-    if (usedClass.contains(decl.resolve().getQualifiedName())) {
+    if (usedClass.contains(parserContext.resolve(decl).getQualifiedName())) {
       if (decl.getTypeParameters().size() > 0) {
         // preserve the bounds of the type parameters, too
         for (TypeParameter tp : decl.getTypeParameters()) {
           for (Type bound : tp.getTypeBound()) {
-            String boundDesc = bound.resolve().describe();
+            String boundDesc = parserContext.resolve(bound).describe();
             if (visitedBounds.add(boundDesc)) {
               TargetMethodFinderVisitor.updateUsedClassWithQualifiedClassName(
                   boundDesc, addedClasses, new HashMap<>());
@@ -83,11 +96,11 @@ public class InheritancePreserveVisitor extends ModifierVisitor<Void> {
           // infinite file visits. The TargetMethodFinderVisitor already addresses the updating job
           // in such cases. (Refer to the SuperClass test for an example.)
           TargetMethodFinderVisitor.updateUsedClassWithQualifiedClassName(
-              extendedType.resolve().describe(), addedClasses, new HashMap<>());
+              parserContext.resolve(extendedType).describe(), addedClasses, new HashMap<>());
           if (extendedType.getTypeArguments().isPresent()) {
             for (Type typeArgument : extendedType.getTypeArguments().get()) {
               TargetMethodFinderVisitor.updateUsedClassWithQualifiedClassName(
-                  typeArgument.resolve().describe(), addedClasses, new HashMap<>());
+                  parserContext.resolve(typeArgument).describe(), addedClasses, new HashMap<>());
             }
           }
         } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
@@ -97,7 +110,7 @@ public class InheritancePreserveVisitor extends ModifierVisitor<Void> {
 
       for (ClassOrInterfaceType implementedType : decl.getImplementedTypes()) {
         try {
-          String interfacename = implementedType.resolve().describe();
+          String interfacename = parserContext.resolve(implementedType).describe();
           if (JavaLangUtils.inJdkPackage(interfacename)) {
             // Avoid keeping implementations of java.* classes, because those
             // would require us to actually implement them (we can't remove things
@@ -110,7 +123,7 @@ public class InheritancePreserveVisitor extends ModifierVisitor<Void> {
           if (implementedType.getTypeArguments().isPresent()) {
             for (Type typeAgrument : implementedType.getTypeArguments().get()) {
               TargetMethodFinderVisitor.updateUsedClassWithQualifiedClassName(
-                  typeAgrument.resolve().describe(), addedClasses, new HashMap<>());
+                  parserContext.resolve(typeAgrument).describe(), addedClasses, new HashMap<>());
             }
           }
         } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
@@ -0,0 +1,508 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.ZipFile;
+import org.apache.commons.io.FileUtils;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler;
+
+/**
+ * Decompiles the classes of the jar files of a {@link SpeciminSession}, one class at a time, when
+ * they are first needed. A minimization typically uses only a few dozen of the classes on a large
+ * class path, so decompiling every jar file up front, as Specimin used to, wasted most of the time
+ * and disk space of opening a session.
+ *
+ * <p>A class is decompiled, together with the classes nested in it, the first time that {@link
+ * UnsolvedSymbolVisitor} looks it up in {@link #withJarClasses(Map)} or the symbol solver looks it
+ * up through a {@link DecompilingTypeSolver}. The decompiled file is kept in memory, at the path
+ * relative to the root directory where decompiling the whole jar file would have written it. Like
+ * the synthetic files of a {@link SyntheticSourceOverlay}, it is never written to the root
+ * directory: {@link ParserContext} reads it from {@link #getDecompiledSource(String)}, the {@link
+ * DecompilingTypeSolver} solves symbols against it, and {@link JavaTypeCorrect} gives it to javac
+ * with an {@link OverlayFileManager}. So the rest of Specimin treats it like any other file of the
+ * codebase, the root directory is never modified, and nothing needs to be cleaned up if Specimin is
+ * killed. A class that is also declared by a file in the root directory is not decompiled.
+ *
+ * <p>If a cache directory is given, every decompiled file is also kept there, under the version of
+ * the decompiler and the SHA-256 hash of the jar file that the class came from, and is read from
+ * there instead of being decompiled again by later sessions, as long as neither the jar file nor
+ * the decompiler changed. Files are added to the cache atomically, so that several Specimin
+ * processes can share a cache directory.
+ *
+ * <p>In stub mode, a class is not decompiled at all. Instead, a {@link ClassFileStubWriter} writes
+ * a stub of it from the signatures in its class file, which is much faster and produces much
+ * smaller files, because Specimin never keeps the bodies of the methods of a jar class anyway. The
+ * stubs are cached separately from the decompiled files.
+ */
+class JarDecompiler implements AutoCloseable {
+
+  /**
+   * The root directory of the codebase, relative to which the decompiled files have their paths.
+   * Always ends with a trailing slash.
+   */
+  private final String root;
+
+  /**
+   * The top-level classes in the jar files, by fully-qualified name, mapped to the jar file that
+   * contains them. If several jar files contain the same class, the last one wins, as it did when
+   * every jar file was decompiled into the root directory in turn.
+   */
+  private final Map<String, String> topLevelClassToJarPath = new HashMap<>();
+
+  /**
+   * The entries of the class files of each top-level class in its jar file, including the class
+   * files of the classes nested in it.
+   */
+  private final Map<String, List<String>> topLevelClassToEntries = new HashMap<>();
+
+  /**
+   * Every class in the jar files, by fully-qualified name, mapped to the top-level class whose
+   * decompiled file declares it. A top-level class is mapped to itself.
+   */
+  private final Map<String, String> classToTopLevelClass = new HashMap<>();
+
+  /**
+   * The source files of the top-level classes that have been asked for, or empty if the decompiler
+   * did not produce a file for the class. The source file of a decompiled class is in {@link
+   * #decompiledSources}, not on the disk.
+   */
+  private final Map<String, Optional<Path>> sourceFiles = new HashMap<>();
+
+  /**
+   * The source code of the decompiled files, keyed by their paths relative to the root directory,
+   * such as "com/example/Foo.java". A sorted map, so that the files are always listed in the same
+   * order.
+   */
+  private final Map<String, String> decompiledSources = new TreeMap<>();
+
+  /**
+   * The directory in which decompiled files are cached between sessions, or null if they are not
+   * cached. Each jar file has its own subdirectory, see {@link #getCacheDirectory(String)}.
+   */
+  private final @Nullable Path cacheDirectory;
+
+  /** The cache directories of the jar files whose classes have been looked up in the cache. */
+  private final Map<String, Path> jarCacheDirectories = new HashMap<>();
+
+  /** The jar files, in the order in which they were given. */
+  private final List<String> jarPaths;
+
+  /** True if stubs are written instead of decompiling the classes. */
+  private final boolean jarStubs;
+
+  /**
+   * The resource, next to this class, in which the build of the Specimin jar records the version of
+   * Vineflower. The Specimin jar does not keep the manifest of Vineflower, which also holds it.
+   */
+  static final String DECOMPILER_VERSION_RESOURCE = "vineflower-version.txt";
+
+  /** The version of Vineflower, or null if it is not known. */
+  private final @Nullable String decompilerVersion = getDecompilerVersion();
+
+  /** The writer of the stubs, which is created when the first stub is needed. */
+  private @Nullable ClassFileStubWriter stubWriter = null;
+
+  /**
+   * Creates a new decompiler for the jar files of the given index. This does not decompile anything
+   * yet.
+   *
+   * @param root the root directory of the codebase, with a trailing slash
+   * @param jarIndex the index of the jar files
+   * @param cacheDirectory the directory in which to cache decompiled files between sessions, or
+   *     null to not cache them
+   * @param jarStubs true to write signature-only stubs of the classes instead of decompiling them
+   */
+  JarDecompiler(String root, JarIndex jarIndex, @Nullable Path cacheDirectory, boolean jarStubs) {
+    this.root = root;
+    this.jarPaths = jarIndex.getJarPaths();
+    this.jarStubs = jarStubs;
+    // Without the version of the decompiler, files decompiled by different versions could not be
+    // told apart.
+    this.cacheDirectory = !jarStubs && decompilerVersion == null ? null : cacheDirectory;
+    for (String jarPath : jarPaths) {
+      List<String> classEntries = new ArrayList<>();
+      for (String entry : jarIndex.getClassEntries(jarPath)) {
+        if (isClassEntry(entry)) {
+          classEntries.add(entry);
+        }
+      }
+      Set<String> binaryNames = new HashSet<>();
+      for (String entry : classEntries) {
+        binaryNames.add(toBinaryName(entry));
+      }
+      for (String entry : classEntries) {
+        String binaryName = toBinaryName(entry);
+        // A '$' usually separates a nested class from its enclosing class, but it may also be part
+        // of the name of a top-level class.
+        int dollar = binaryName.indexOf('$');
+        String topLevelClass =
+            dollar != -1 && binaryNames.contains(binaryName.substring(0, dollar))
+                ? binaryName.substring(0, dollar)
+                : binaryName;
+        List<String> entries = topLevelClassToEntries.get(topLevelClass);
+        if (entries == null || !jarPath.equals(topLevelClassToJarPath.get(topLevelClass))) {
+          entries = new ArrayList<>();
+          topLevelClassToEntries.put(topLevelClass, entries);
+          topLevelClassToJarPath.put(topLevelClass, jarPath);
+        }
+        entries.add(entry);
+        classToTopLevelClass.put(binaryName.replace('$', '.'), topLevelClass);
+      }
+    }
+  }
+
+  /**
+   * Checks whether an entry of a jar file is the class file of a class that can be decompiled.
+   *
+   * @param entry the name of an entry of a jar file
+   * @return true if the entry is a class file, other than a module or package descriptor
+   */
+  private static boolean isClassEntry(String entry) {
+    return entry.endsWith(".class")
+        && !entry.startsWith("META-INF/")
+        && !entry.endsWith("module-info.class")
+        && !entry.endsWith("package-info.class")
+        && !entry.startsWith("/")
+        && !entry.contains("..");
+  }
+
+  /**
+   * Converts the name of a class file entry into the binary name of the class.
+   *
+   * @param entry the name of a class file entry, such as "com/example/Foo$Bar.class"
+   * @return the binary name of the class, such as "com.example.Foo$Bar"
+   */
+  private static String toBinaryName(String entry) {
+    return entry.substring(0, entry.length() - ".class".length()).replace('/', '.');
+  }
+
+  /**
+   * Get the source file of a class from the jar files, decompiling the class first if it has not
+   * been decompiled yet. For a nested class, this is the source file of its top-level class.
+   *
+   * @param qualifiedName the fully-qualified name of a class
+   * @return the absolute path of the source file of the class, or null if the class is not in any
+   *     of the jar files or could not be decompiled. Unless the class is also declared in the root
+   *     directory, this file does not exist on the disk; its source code is given by {@link
+   *     #getDecompiledSource(String)}.
+   */
+  synchronized @Nullable Path getSourceFile(String qualifiedName) {
+    String topLevelClass = classToTopLevelClass.get(qualifiedName);
+    if (topLevelClass == null) {
+      return null;
+    }
+    Optional<Path> sourceFile = sourceFiles.get(topLevelClass);
+    if (sourceFile == null) {
+      try {
+        sourceFile = decompile(topLevelClass);
+      } catch (IOException e) {
+        throw new RuntimeException("Specimin could not decompile " + topLevelClass, e);
+      }
+      sourceFiles.put(topLevelClass, sourceFile);
+    }
+    return sourceFile.orElse(null);
+  }
+
+  /**
+   * Decompile a top-level class, and the classes nested in it, into {@link #decompiledSources}, or
+   * read the decompiled file from the cache if it is there. Only the class files of the class are
+   * handed to the decompiler; its jar file is given to the decompiler as a library, so that the
+   * decompiler still knows the other classes that it refers to. In stub mode, the stub of the class
+   * is written instead.
+   *
+   * @param topLevelClass the fully-qualified name of a top-level class in one of the jar files
+   * @return the source file of the class, or empty if the decompiler did not produce one
+   * @throws IOException if the class files cannot be extracted from the jar file, or a cached file
+   *     cannot be read
+   */
+  private Optional<Path> decompile(String topLevelClass) throws IOException {
+    String relativePath = topLevelClass.replace('.', '/') + ".java";
+    Path sourceFile = Path.of(root, relativePath).toAbsolutePath().normalize();
+    if (Files.exists(sourceFile)) {
+      // The class is also declared in the codebase itself.
+      return Optional.of(sourceFile);
+    }
+    String jarPath = topLevelClassToJarPath.get(topLevelClass);
+    List<String> entries = topLevelClassToEntries.get(topLevelClass);
+    if (jarPath == null || entries == null) {
+      return Optional.empty();
+    }
+    @Nullable Path cachedFile =
+        cacheDirectory == null ? null : getCacheDirectory(jarPath).resolve(relativePath);
+    if (cachedFile != null && Files.isRegularFile(cachedFile)) {
+      decompiledSources.put(relativePath, Files.readString(cachedFile));
+      return Optional.of(sourceFile);
+    }
+    String source =
+        jarStubs
+            ? writeStub(topLevelClass)
+            : decompileWithVineflower(jarPath, entries, relativePath);
+    if (source == null) {
+      return Optional.empty();
+    }
+    decompiledSources.put(relativePath, source);
+    if (cachedFile != null) {
+      try {
+        addToCache(source, cachedFile);
+      } catch (IOException e) {
+        // The decompiled file is still correct; only the next session will be slower.
+        System.out.println("Specimin could not cache the decompiled file " + cachedFile + ": " + e);
+      }
+    }
+    return Optional.of(sourceFile);
+  }
+
+  /**
+   * Write the stub of a top-level class.
+   *
+   * @param topLevelClass the fully-qualified name of a top-level class in one of the jar files
+   * @return the source code of the stub, or null if the class file of the class cannot be found
+   * @throws IOException if the class file cannot be read
+   */
+  private @Nullable String writeStub(String topLevelClass) throws IOException {
+    if (stubWriter == null) {
+      // javac uses the first of several classes with the same name, but the decompiler uses the
+      // last one.
+      List<String> reversedJarPaths = new ArrayList<>(jarPaths);
+      Collections.reverse(reversedJarPaths);
+      stubWriter = new ClassFileStubWriter(reversedJarPaths);
+    }
+    return stubWriter.writeStub(topLevelClass);
+  }
+
+  /**
+   * Decompile the class files of a top-level class with Vineflower. Vineflower writes the
+   * decompiled file to a temporary directory, which is deleted once the file has been read.
+   *
+   * @param jarPath the jar file that contains the class
+   * @param entries the entries of the class files of the class and of the classes nested in it
+   * @param relativePath the path of the decompiled file, relative to the output directory of
+   *     Vineflower
+   * @return the source code of the decompiled file, or null if Vineflower did not produce one
+   * @throws IOException if the class files cannot be extracted from the jar file
+   */
+  private static @Nullable String decompileWithVineflower(
+      String jarPath, List<String> entries, String relativePath) throws IOException {
+    Path temporaryDirectory = Files.createTempDirectory("specimin-decompile-");
+    Path classDirectory = temporaryDirectory.resolve("classes");
+    Path sourceDirectory = temporaryDirectory.resolve("sources");
+    try {
+      try (ZipFile jar = new ZipFile(jarPath)) {
+        for (String entry : entries) {
+          Path classFile = classDirectory.resolve(entry);
+          Path packageDirectory = classFile.getParent();
+          if (packageDirectory != null) {
+            Files.createDirectories(packageDirectory);
+          }
+          try (InputStream in = jar.getInputStream(jar.getEntry(entry))) {
+            Files.copy(in, classFile);
+          }
+        }
+      }
+      Files.createDirectories(sourceDirectory);
+      ConsoleDecompiler.main(
+          new String[] {
+            "--silent", "-e=" + jarPath, classDirectory.toString(), sourceDirectory.toString()
+          });
+      Path sourceFile = sourceDirectory.resolve(relativePath);
+      return Files.isRegularFile(sourceFile) ? Files.readString(sourceFile) : null;
+    } finally {
+      FileUtils.deleteDirectory(temporaryDirectory.toFile());
+    }
+  }
+
+  /**
+   * Get the directory in which the decompiled classes of a jar file are cached. Its name consists
+   * of the version of the decompiler, or of the stubs in stub mode, and the SHA-256 hash of the
+   * content of the jar file, so a jar file that changes gets a new directory, wherever it is. The
+   * hash of each jar file is computed only once per decompiler.
+   *
+   * @param jarPath the path to a jar file
+   * @return the cache directory of the jar file
+   * @throws IOException if the jar file cannot be read
+   */
+  private Path getCacheDirectory(String jarPath) throws IOException {
+    Path jarCacheDirectory = jarCacheDirectories.get(jarPath);
+    if (jarCacheDirectory == null) {
+      StringBuilder name = new StringBuilder();
+      for (byte b : sha256(Path.of(jarPath))) {
+        name.append(String.format("%02x", b));
+      }
+      jarCacheDirectory =
+          Path.of(
+              String.valueOf(cacheDirectory),
+              "decompiled",
+              jarStubs ? "stubs-" + ClassFileStubWriter.VERSION : "vineflower-" + decompilerVersion,
+              name.toString());
+      jarCacheDirectories.put(jarPath, jarCacheDirectory);
+    }
+    return jarCacheDirectory;
+  }
+
+  /**
+   * Get the version of Vineflower, from its own manifest or, in the Specimin jar, from the resource
+   * in which the build recorded it.
+   *
+   * @return the version of Vineflower, or null if it is not known
+   */
+  private static @Nullable String getDecompilerVersion() {
+    String version = ConsoleDecompiler.class.getPackage().getImplementationVersion();
+    if (version != null) {
+      return version;
+    }
+    InputStream resource = JarDecompiler.class.getResourceAsStream(DECOMPILER_VERSION_RESOURCE);
+    if (resource == null) {
+      return null;
+    }
+    try (InputStream in = resource) {
+      version = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+      return version.isEmpty() ? null : version;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Compute the SHA-256 hash of the content of a file, without reading the whole file into memory.
+   *
+   * @param file a file
+   * @return the hash of the content of the file
+   * @throws IOException if the file cannot be read
+   */
+  private static byte[] sha256(Path file) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-256
+      throw new RuntimeException(e);
+    }
+    try (InputStream in = Files.newInputStream(file)) {
+      byte[] buffer = new byte[1 << 16];
+      for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Add a decompiled file to the cache. The file is first written next to its place in the cache
+   * and then moved there atomically, so that other processes never see a partial file.
+   *
+   * @param source the source code of the decompiled file
+   * @param cachedFile the place of the file in the cache
+   * @throws IOException if the file cannot be added to the cache
+   */
+  private static void addToCache(String source, Path cachedFile) throws IOException {
+    Path packageDirectory = cachedFile.toAbsolutePath().getParent();
+    if (packageDirectory == null) {
+      throw new IOException("The cached file " + cachedFile + " has no parent directory");
+    }
+    Files.createDirectories(packageDirectory);
+    Path temporaryFile = Files.createTempFile(packageDirectory, "decompiled-", ".tmp");
+    try {
+      Files.writeString(temporaryFile, source);
+      Files.move(
+          temporaryFile,
+          cachedFile,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  /**
+   * Get the source code of a file that this decompiler has decompiled so far. This does not
+   * decompile anything: the class is only decompiled once it is looked up with {@link
+   * #getSourceFile(String)}.
+   *
+   * @param relativePath the path of a file relative to the root directory, such as
+   *     "com/example/Foo.java"
+   * @return the source code of the decompiled file, or null if no class has been decompiled into a
+   *     file with that path
+   */
+  synchronized @Nullable String getDecompiledSource(String relativePath) {
+    return decompiledSources.get(relativePath);
+  }
+
+  /**
+   * Get all the files that this decompiler has decompiled so far, keyed by their paths relative to
+   * the root directory.
+   *
+   * @return a copy of the decompiled files, sorted by path
+   */
+  synchronized Map<String, String> getDecompiledSources() {
+    return new TreeMap<>(decompiledSources);
+  }
+
+  /** Releases the class files that have been read to write stubs. */
+  @Override
+  public synchronized void close() {
+    if (stubWriter != null) {
+      stubWriter.close();
+      stubWriter = null;
+    }
+  }
+
+  /**
+   * Get a read-only view of the classes of a codebase to which the classes of the jar files have
+   * been added. Looking up a class of a jar file in the view decompiles it.
+   *
+   * @param existingClassesToFilePath the classes declared in the root directory, mapped to the
+   *     absolute paths of their files
+   * @return a view of existingClassesToFilePath that also contains the classes of the jar files,
+   *     mapped to the paths of their decompiled files in the root directory, as returned by {@link
+   *     #getSourceFile(String)}
+   */
+  Map<String, Path> withJarClasses(Map<String, Path> existingClassesToFilePath) {
+    return new AbstractMap<String, Path>() {
+      @Override
+      public @Nullable Path get(@Nullable Object key) {
+        Path filePath = existingClassesToFilePath.get(key);
+        if (filePath == null && key instanceof String) {
+          filePath = getSourceFile((String) key);
+        }
+        return filePath;
+      }
+
+      @Override
+      public boolean containsKey(@Nullable Object key) {
+        return get(key) != null;
+      }
+
+      @Override
+      public Set<Map.Entry<String, Path>> entrySet() {
+        // Only the classes that have been decompiled so far are listed.
+        Map<String, Path> result = new HashMap<>(existingClassesToFilePath);
+        synchronized (JarDecompiler.this) {
+          for (Map.Entry<String, String> jarClass : classToTopLevelClass.entrySet()) {
+            Optional<Path> sourceFile = sourceFiles.get(jarClass.getValue());
+            if (sourceFile != null && sourceFile.isPresent()) {
+              result.putIfAbsent(jarClass.getKey(), sourceFile.get());
+            }
+          }
+        }
+        return Collections.unmodifiableMap(result).entrySet();
+      }
+    };
+  }
+}
@@ -0,0 +1,243 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.checkerframework.checker.signature.qual.FullyQualifiedName;
+
+/**
+ * The index of the classes in the jar files of a {@link SpeciminSession}. Every jar file is opened
+ * and its entries are listed exactly once, when the index is built, by reading only the central
+ * directory of the jar file with {@link ZipCentralDirectory}; everything else that Specimin needs
+ * to know about the jar files is answered from the index: which classes they contain, which jar
+ * file a class comes from, which classes a package contains, and which class files the {@link
+ * JarDecompiler} has to extract. The index also owns the single type solver for all jar files,
+ * which only loads a jar file once a class of it is looked up. An index is immutable once it has
+ * been built.
+ *
+ * <p>Classes are named like JavaParser's JarTypeSolver names them: the name of the class file
+ * without its extension, with both '/' and '$' replaced by '.'.
+ */
+class JarIndex {
+
+  /** The jar files, in the order in which they were given. */
+  private final List<String> jarPaths;
+
+  /** The entries of the class files of each jar file, in the order of the jar file. */
+  private final Map<String, List<String>> jarPathToClassEntries;
+
+  /** The classes of each jar file. */
+  private final Map<String, Set<@FullyQualifiedName String>> jarPathToClasses;
+
+  /**
+   * Every class in the jar files mapped to the jar file that contains it. If several jar files
+   * contain the same class, the last one wins.
+   */
+  private final Map<@FullyQualifiedName String, String> classToJarPath;
+
+  /** The classes in each package of the jar files, keyed by the name of the package. */
+  private final Map<String, Set<@FullyQualifiedName String>> packageToClasses;
+
+  /**
+   * The jar files that contain each package, keyed by the name of the package. The jar files of a
+   * package are in the order in which they were given.
+   */
+  private final Map<String, List<String>> packageToJarPaths;
+
+  /** The type solver for the classes in the jar files. */
+  private final ReusableTypeSolver typeSolver;
+
+  /**
+   * Creates a new index. Use {@link #build(List)} instead of calling this directly.
+   *
+   * @param jarPaths the jar files
+   * @param jarPathToClassEntries the entries of the class files of each jar file
+   * @param jarPathToClasses the classes of each jar file
+   * @param classToJarPath every class mapped to the last jar file that contains it
+   * @param packageToClasses the classes in each package
+   * @param packageToJarPaths the jar files that contain each package
+   */
+  private JarIndex(
+      List<String> jarPaths,
+      Map<String, List<String>> jarPathToClassEntries,
+      Map<String, Set<@FullyQualifiedName String>> jarPathToClasses,
+      Map<@FullyQualifiedName String, String> classToJarPath,
+      Map<String, Set<@FullyQualifiedName String>> packageToClasses,
+      Map<String, List<String>> packageToJarPaths) {
+    this.jarPaths = Collections.unmodifiableList(new ArrayList<>(jarPaths));
+    this.jarPathToClassEntries = Collections.unmodifiableMap(jarPathToClassEntries);
+    this.jarPathToClasses = Collections.unmodifiableMap(jarPathToClasses);
+    this.classToJarPath = Collections.unmodifiableMap(classToJarPath);
+    this.packageToClasses = Collections.unmodifiableMap(packageToClasses);
+    this.packageToJarPaths = Collections.unmodifiableMap(packageToJarPaths);
+    this.typeSolver =
+        new ReusableTypeSolver(
+            new IndexedJarTypeSolver(this.packageToJarPaths, this.jarPathToClasses));
+  }
+
+  /**
+   * Build the index of the given jar files. This lists the entries of every jar file, in parallel,
+   * but does not read any class file.
+   *
+   * @param jarPaths paths to the jar files
+   * @return the index of the jar files
+   * @throws IOException if one of the jar files cannot be read
+   */
+  static JarIndex build(List<String> jarPaths) throws IOException {
+    Map<String, List<String>> jarPathToClassEntries = new HashMap<>();
+    Map<String, Set<@FullyQualifiedName String>> jarPathToClasses = new HashMap<>();
+    Map<@FullyQualifiedName String, String> classToJarPath = new HashMap<>();
+    Map<String, Set<@FullyQualifiedName String>> packageToClasses = new HashMap<>();
+    Map<String, List<String>> packageToJarPaths = new HashMap<>();
+    List<List<String>> allClassEntries =
+        ParallelTasks.mapOnce(jarPaths, JarIndex::readClassEntries);
+    // The results are merged in the order of the jar files, so that the last jar file that
+    // contains a class wins, however the parallel tasks were scheduled.
+    for (int i = 0; i < jarPaths.size(); i++) {
+      String jarPath = jarPaths.get(i);
+      List<String> classEntries = allClassEntries.get(i);
+      Set<@FullyQualifiedName String> classes = new HashSet<>();
+      for (String entry : classEntries) {
+        @FullyQualifiedName String className = toClassName(entry);
+        classes.add(className);
+        classToJarPath.put(className, jarPath);
+        int slash = entry.lastIndexOf('/');
+        String packageName = slash == -1 ? "" : entry.substring(0, slash).replace('/', '.');
+        packageToClasses.computeIfAbsent(packageName, k -> new HashSet<>()).add(className);
+        List<String> packageJarPaths =
+            packageToJarPaths.computeIfAbsent(packageName, k -> new ArrayList<>());
+        if (packageJarPaths.isEmpty()
+            || !jarPath.equals(packageJarPaths.get(packageJarPaths.size() - 1))) {
+          packageJarPaths.add(jarPath);
+        }
+      }
+      jarPathToClassEntries.put(jarPath, Collections.unmodifiableList(classEntries));
+      jarPathToClasses.put(jarPath, Collections.unmodifiableSet(classes));
+    }
+    for (Map.Entry<String, Set<@FullyQualifiedName String>> entry : packageToClasses.entrySet()) {
+      entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+    }
+    for (Map.Entry<String, List<String>> entry : packageToJarPaths.entrySet()) {
+      entry.setValue(Collections.unmodifiableList(entry.getValue()));
+    }
+    return new JarIndex(
+        jarPaths,
+        jarPathToClassEntries,
+        jarPathToClasses,
+        classToJarPath,
+        packageToClasses,
+        packageToJarPaths);
+  }
+
+  /**
+   * Get the entries of the class files of a jar file.
+   *
+   * @param jarPath the path to a jar file
+   * @return the names of the class file entries of the jar file, in the order of the jar file
+   * @throws IOException if the jar file cannot be read
+   */
+  private static List<String> readClassEntries(String jarPath) throws IOException {
+    List<String> classEntries = new ArrayList<>();
+    for (String entry : ZipCentralDirectory.readEntryNames(jarPath)) {
+      if (entry.endsWith(".class")) {
+        classEntries.add(entry);
+      }
+    }
+    return classEntries;
+  }
+
+  /**
+   * Converts the name of a class file entry into the name of the class, in the same way as
+   * JavaParser's JarTypeSolver.
+   *
+   * @param entry the name of a class file entry, such as "com/example/Foo$Bar.class"
+   * @return the name of the class, such as "com.example.Foo.Bar"
+   */
+  @SuppressWarnings("signature") // the name of a class file is a binary name
+  private static @FullyQualifiedName String toClassName(String entry) {
+    return entry
+        .substring(0, entry.length() - ".class".length())
+        .replace('/', '.')
+        .replace('$', '.');
+  }
+
+  /**
+   * Get the jar files of this index, in the order in which they were given. Note that the list is
+   * read-only.
+   *
+   * @return the jar files
+   */
+  List<String> getJarPaths() {
+    return jarPaths;
+  }
+
+  /**
+   * Get the entries of the class files of a jar file, in the order of the jar file. Note that the
+   * list is read-only.
+   *
+   * @param jarPath one of the jar files of this index
+   * @return the names of the class file entries of the jar file
+   */
+  List<String> getClassEntries(String jarPath) {
+    List<String> entries = jarPathToClassEntries.get(jarPath);
+    return entries == null ? Collections.emptyList() : entries;
+  }
+
+  /**
+   * Get the classes of a jar file. Note that the set is read-only.
+   *
+   * @param jarPath one of the jar files of this index
+   * @return the classes of the jar file
+   */
+  Set<@FullyQualifiedName String> getClasses(String jarPath) {
+    Set<@FullyQualifiedName String> classes = jarPathToClasses.get(jarPath);
+    return classes == null ? Collections.emptySet() : classes;
+  }
+
+  /**
+   * Get the map from every class in the jar files to the jar file that contains it. Note that the
+   * map is read-only.
+   *
+   * @return the map from classes to jar files
+   */
+  Map<@FullyQualifiedName String, String> getClassToJarPath() {
+    return classToJarPath;
+  }
+
+  /**
+   * Get the classes of the jar files that are in a package. Note that the set is read-only.
+   *
+   * @param packageName the name of a package
+   * @return the classes in the package, including nested classes
+   */
+  Set<@FullyQualifiedName String> getClassesInPackage(String packageName) {
+    Set<@FullyQualifiedName String> classes = packageToClasses.get(packageName);
+    return classes == null ? Collections.emptySet() : classes;
+  }
+
+  /**
+   * Get the jar files that contain classes of a package. Note that the list is read-only.
+   *
+   * @param packageName the name of a package
+   * @return the jar files that contain the package, in the order in which they were given
+   */
+  List<String> getJarPathsForPackage(String packageName) {
+    List<String> packageJarPaths = packageToJarPaths.get(packageName);
+    return packageJarPaths == null ? Collections.emptyList() : packageJarPaths;
+  }
+
+  /**
+   * Get the type solver for the classes in the jar files. It can be added to a new
+   * CombinedTypeSolver for every update of the symbol solver.
+   *
+   * @return the type solver for the jar files
+   */
+  ReusableTypeSolver getTypeSolver() {
+    return typeSolver;
+  }
+}
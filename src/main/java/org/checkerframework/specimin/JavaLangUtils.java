@@ -8,13 +8,15 @@ public final class JavaLangUtils {
 
   /**
    * Checks if the given simple name is a member of the java.lang package. This method returns false
-   * for primitive names (e.g., "int").
+   * for primitive names (e.g., "int"). The name of a nested class, such as "Character.Subset", is
+   * also accepted. The public types of java.lang are taken from the {@link JdkIndex} of the JDK
+   * that Specimin runs on.
    *
    * @param simpleName a simple name
    * @return true if this name is defined by java.lang
    */
   public static boolean isJavaLangName(String simpleName) {
-    return javaLangClassesAndInterfaces.contains(simpleName);
+    return JdkIndex.isPublicClass("java.lang." + simpleName);
   }
 
   /**
@@ -25,7 +27,7 @@ public final class JavaLangUtils {
    * @return true if the name is defined by java.lang or is a primitive
    */
   public static boolean isJavaLangOrPrimitiveName(String simpleName) {
-    return primitives.contains(simpleName) || javaLangClassesAndInterfaces.contains(simpleName);
+    return primitives.contains(simpleName) || isJavaLangName(simpleName);
   }
 
   /** Don't call this. */
@@ -33,13 +35,6 @@ public final class JavaLangUtils {
     throw new Error("cannot be instantiated");
   }
 
-  /**
-   * Internal set for the java lang types. The list comes from downloading the java.lang summary
-   * Javadoc page and then applying some transformations to it. TODO: figure out what those were and
-   * script it.
-   */
-  private static final Set<String> javaLangClassesAndInterfaces = new HashSet<>();
-
   /** Internal set for the names of the primitive types. */
   private static final Set<String> primitives = new HashSet<>(8);
 
@@ -52,132 +47,6 @@ public final class JavaLangUtils {
     primitives.add("float");
     primitives.add("double");
     primitives.add("char");
-
-    javaLangClassesAndInterfaces.add("AbstractMethodError");
-    javaLangClassesAndInterfaces.add("Appendable");
-    javaLangClassesAndInterfaces.add("ArithmeticException");
-    javaLangClassesAndInterfaces.add("ArrayIndexOutOfBoundsException");
-    javaLangClassesAndInterfaces.add("ArrayStoreException");
-    javaLangClassesAndInterfaces.add("AssertionError");
-    javaLangClassesAndInterfaces.add("AutoCloseable");
-    javaLangClassesAndInterfaces.add("Boolean");
-    javaLangClassesAndInterfaces.add("BootstrapMethodError");
-    javaLangClassesAndInterfaces.add("Byte");
-    javaLangClassesAndInterfaces.add("Character");
-    javaLangClassesAndInterfaces.add("Character.Subset");
-    javaLangClassesAndInterfaces.add("Character.UnicodeBlock");
-    javaLangClassesAndInterfaces.add("Character.UnicodeScript");
-    javaLangClassesAndInterfaces.add("CharSequence");
-    javaLangClassesAndInterfaces.add("Class");
-    javaLangClassesAndInterfaces.add("ClassCastException");
-    javaLangClassesAndInterfaces.add("ClassCircularityError");
-    javaLangClassesAndInterfaces.add("ClassFormatError");
-    javaLangClassesAndInterfaces.add("ClassLoader");
-    javaLangClassesAndInterfaces.add("ClassNotFoundException");
-    javaLangClassesAndInterfaces.add("ClassValue");
-    javaLangClassesAndInterfaces.add("Cloneable");
-    javaLangClassesAndInterfaces.add("CloneNotSupportedException");
-    javaLangClassesAndInterfaces.add("Comparable");
-    javaLangClassesAndInterfaces.add("Deprecated");
-    javaLangClassesAndInterfaces.add("Double");
-    javaLangClassesAndInterfaces.add("Enum");
-    javaLangClassesAndInterfaces.add("Enum.EnumDesc");
-    javaLangClassesAndInterfaces.add("EnumConstantNotPresentException");
-    javaLangClassesAndInterfaces.add("Error");
-    javaLangClassesAndInterfaces.add("Exception");
-    javaLangClassesAndInterfaces.add("ExceptionInInitializerError");
-    javaLangClassesAndInterfaces.add("Float");
-    javaLangClassesAndInterfaces.add("FunctionalInterface");
-    javaLangClassesAndInterfaces.add("IdentityException");
-    javaLangClassesAndInterfaces.add("IllegalAccessError");
-    javaLangClassesAndInterfaces.add("IllegalAccessException");
-    javaLangClassesAndInterfaces.add("IllegalArgumentException");
-    javaLangClassesAndInterfaces.add("IllegalCallerException");
-    javaLangClassesAndInterfaces.add("IllegalMonitorStateException");
-    javaLangClassesAndInterfaces.add("IllegalStateException");
-    javaLangClassesAndInterfaces.add("IllegalThreadStateException");
-    javaLangClassesAndInterfaces.add("IncompatibleClassChangeError");
-    javaLangClassesAndInterfaces.add("IndexOutOfBoundsException");
-    javaLangClassesAndInterfaces.add("InheritableThreadLocal");
-    javaLangClassesAndInterfaces.add("InstantiationError");
-    javaLangClassesAndInterfaces.add("InstantiationException");
-    javaLangClassesAndInterfaces.add("Integer");
-    javaLangClassesAndInterfaces.add("InternalError");
-    javaLangClassesAndInterfaces.add("InterruptedException");
-    javaLangClassesAndInterfaces.add("Iterable");
-    javaLangClassesAndInterfaces.add("LayerInstantiationException");
-    javaLangClassesAndInterfaces.add("LinkageError");
-    javaLangClassesAndInterfaces.add("Long");
-    javaLangClassesAndInterfaces.add("MatchException");
-    javaLangClassesAndInterfaces.add("Math");
-    javaLangClassesAndInterfaces.add("Module");
-    javaLangClassesAndInterfaces.add("ModuleLayer");
-    javaLangClassesAndInterfaces.add("ModuleLayer.Controller");
-    javaLangClassesAndInterfaces.add("NegativeArraySizeException");
-    javaLangClassesAndInterfaces.add("NoClassDefFoundError");
-    javaLangClassesAndInterfaces.add("NoSuchFieldError");
-    javaLangClassesAndInterfaces.add("NoSuchFieldException");
-    javaLangClassesAndInterfaces.add("NoSuchMethodError");
-    javaLangClassesAndInterfaces.add("NoSuchMethodException");
-    javaLangClassesAndInterfaces.add("NullPointerException");
-    javaLangClassesAndInterfaces.add("Number");
-    javaLangClassesAndInterfaces.add("NumberFormatException");
-    javaLangClassesAndInterfaces.add("Object");
-    javaLangClassesAndInterfaces.add("OutOfMemoryError");
-    javaLangClassesAndInterfaces.add("Override");
-    javaLangClassesAndInterfaces.add("Package");
-    javaLangClassesAndInterfaces.add("Process");
-    javaLangClassesAndInterfaces.add("ProcessBuilder");
-    javaLangClassesAndInterfaces.add("ProcessBuilder.Redirect");
-    javaLangClassesAndInterfaces.add("ProcessBuilder.Redirect.Type");
-    javaLangClassesAndInterfaces.add("ProcessHandle");
-    javaLangClassesAndInterfaces.add("ProcessHandle.Info");
-    javaLangClassesAndInterfaces.add("Readable");
-    javaLangClassesAndInterfaces.add("Record");
-    javaLangClassesAndInterfaces.add("ReflectiveOperationException");
-    javaLangClassesAndInterfaces.add("Runnable");
-    javaLangClassesAndInterfaces.add("Runtime");
-    javaLangClassesAndInterfaces.add("Runtime.Version");
-    javaLangClassesAndInterfaces.add("RuntimeException");
-    javaLangClassesAndInterfaces.add("RuntimePermission");
-    javaLangClassesAndInterfaces.add("SafeVarargs");
-    javaLangClassesAndInterfaces.add("SecurityException");
-    javaLangClassesAndInterfaces.add("SecurityManager");
-    javaLangClassesAndInterfaces.add("Short");
-    javaLangClassesAndInterfaces.add("StackOverflowError");
-    javaLangClassesAndInterfaces.add("StackTraceElement");
-    javaLangClassesAndInterfaces.add("StackWalker");
-    javaLangClassesAndInterfaces.add("StackWalker.Option");
-    javaLangClassesAndInterfaces.add("StackWalker.StackFrame");
-    javaLangClassesAndInterfaces.add("StrictMath");
-    javaLangClassesAndInterfaces.add("String");
-    javaLangClassesAndInterfaces.add("StringBuffer");
-    javaLangClassesAndInterfaces.add("StringBuilder");
-    javaLangClassesAndInterfaces.add("StringIndexOutOfBoundsException");
-    javaLangClassesAndInterfaces.add("SuppressWarnings");
-    javaLangClassesAndInterfaces.add("System");
-    javaLangClassesAndInterfaces.add("System.Logger");
-    javaLangClassesAndInterfaces.add("System.Logger.Level");
-    javaLangClassesAndInterfaces.add("System.LoggerFinder");
-    javaLangClassesAndInterfaces.add("Thread");
-    javaLangClassesAndInterfaces.add("Thread.Builder");
-    javaLangClassesAndInterfaces.add("Thread.Builder.OfPlatform");
-    javaLangClassesAndInterfaces.add("Thread.Builder.OfVirtual");
-    javaLangClassesAndInterfaces.add("Thread.State");
-    javaLangClassesAndInterfaces.add("Thread.UncaughtExceptionHandler");
-    javaLangClassesAndInterfaces.add("ThreadDeath");
-    javaLangClassesAndInterfaces.add("ThreadGroup");
-    javaLangClassesAndInterfaces.add("ThreadLocal");
-    javaLangClassesAndInterfaces.add("Throwable");
-    javaLangClassesAndInterfaces.add("TypeNotPresentException");
-    javaLangClassesAndInterfaces.add("UnknownError");
-    javaLangClassesAndInterfaces.add("UnsatisfiedLinkError");
-    javaLangClassesAndInterfaces.add("UnsupportedClassVersionError");
-    javaLangClassesAndInterfaces.add("UnsupportedOperationException");
-    javaLangClassesAndInterfaces.add("VerifyError");
-    javaLangClassesAndInterfaces.add("VirtualMachineError");
-    javaLangClassesAndInterfaces.add("Void");
-    javaLangClassesAndInterfaces.add("WrongThreadException");
   }
 
   /** The integral primitives. */
@@ -280,16 +149,12 @@ public final class JavaLangUtils {
 
   /**
    * Is the given package name or fully-qualified name in one of the packages provided by the JDK?
+   * The packages are taken from the {@link JdkIndex} of the JDK that Specimin runs on.
    *
    * @param qualifiedName a package name or fully-qualified name of a class or interface
    * @return true if qualifiedName is from the JDK
    */
   public static boolean inJdkPackage(String qualifiedName) {
-    // TODO: can we get a list of such packages from the JDK instead of using this relatively-coarse
-    // heuristic?
-    return qualifiedName.startsWith("java.")
-            || qualifiedName.startsWith("javax.")
-            || qualifiedName.startsWith("com.sun.")
-            || qualifiedName.startsWith("jdk.");
+    return JdkIndex.inPackage(qualifiedName);
   }
 }
@@ -1,5 +1,6 @@
 package org.checkerframework.specimin;
 
+import com.github.javaparser.ast.DataKey;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.AnnotationDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
@@ -9,6 +10,7 @@ import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.resolution.types.ResolvedReferenceType;
 import org.checkerframework.checker.signature.qual.FullyQualifiedName;
 
+import java.util.ArrayList;
 import java.util.Optional;
 
 /**
@@ -44,6 +46,24 @@ public class JavaParserUtil {
     }
   }
 
+  /**
+   * Removes the data of all the nodes in a tree, except for the line separator that the parser
+   * found. The symbol solver caches the types that it resolves in the data of the nodes, and these
+   * types may be stale once the synthetic files have changed.
+   *
+   * @param node the root of the tree, such as a compilation unit
+   */
+  public static void removeCachedData(Node node) {
+    node.walk(
+        descendant -> {
+          for (DataKey<?> key : new ArrayList<>(descendant.getDataKeys())) {
+            if (!key.equals(Node.LINE_SEPARATOR_KEY)) {
+              descendant.removeData(key);
+            }
+          }
+        });
+  }
+
   /**
    * Utility method to check if the given declaration is a local class declaration.
    *
@@ -1,20 +1,28 @@
 package org.checkerframework.specimin;
 
 import com.google.common.base.Splitter;
-import java.io.BufferedReader;
+import com.sun.source.util.JavacTask;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.Writer;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
@@ -35,6 +43,25 @@ class JavaTypeCorrect {
    */
   public String sourcePath;
 
+  /**
+   * The jar files given to Specimin. Only the jar classes that a minimization uses are decompiled,
+   * so javac reads all the other jar classes from the jar files.
+   */
+  private final List<String> jarPaths;
+
+  /**
+   * The synthetic files created by UnsolvedSymbolVisitor. They are not in the root directory, so
+   * javac reads them through an {@link OverlayFileManager}.
+   */
+  private final SyntheticSourceOverlay syntheticSources;
+
+  /**
+   * The jar classes decompiled by the session, keyed by their paths relative to the root directory.
+   * They are not in the root directory either, so javac also reads them through an {@link
+   * OverlayFileManager}.
+   */
+  private final Map<String, String> decompiledSources;
+
   /**
    * This map is for type correcting. The key is the name of the current incorrect type, and the
    * value is the name of the desired correct type.
@@ -67,13 +94,24 @@ class JavaTypeCorrect {
    *
    * @param rootDirectory the root directory of the files to correct types
    * @param fileNameList the list of the relative directory of the files to correct types
+   * @param fileAndAssociatedTypes the fully-qualified names of the types used in each file
+   * @param syntheticSources the synthetic files that the files to correct may use
+   * @param decompiledSources the jar classes that have been decompiled so far, keyed by their paths
+   *     relative to rootDirectory
+   * @param jarPaths the jar files given to Specimin
    */
   public JavaTypeCorrect(
       String rootDirectory,
       Set<String> fileNameList,
-      Map<String, Set<String>> fileAndAssociatedTypes) {
+      Map<String, Set<String>> fileAndAssociatedTypes,
+      SyntheticSourceOverlay syntheticSources,
+      Map<String, String> decompiledSources,
+      List<String> jarPaths) {
     this.fileNameList = fileNameList;
     this.sourcePath = new File(rootDirectory).getAbsolutePath();
+    this.jarPaths = jarPaths;
+    this.syntheticSources = syntheticSources;
+    this.decompiledSources = decompiledSources;
     this.typeToChange = new HashMap<>();
     this.fileAndAssociatedTypes = fileAndAssociatedTypes;
   }
@@ -109,201 +147,338 @@ class JavaTypeCorrect {
 
   /**
    * This method updates typeToChange by using javac to run all the files in fileNameList and
-   * analyzing the error messages returned by javac
+   * analyzing the errors reported by javac
+   *
+   * @throws IllegalStateException if javac does not give access to the arguments of its
+   *     diagnostics, as described by {@link DiagnosticArguments#checkAvailable()}
    */
   public void correctTypesForAllFiles() {
-    for (String fileName : fileNameList) {
-      runJavacAndUpdateTypes(fileName);
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new RuntimeException("Specimin must be run on a JDK, not a JRE, to use javac");
+    }
+    // Fail before running javac, rather than only once javac reports an error.
+    DiagnosticArguments.checkAvailable();
+    try (StandardJavaFileManager standardFileManager =
+        compiler.getStandardFileManager(null, null, null)) {
+      standardFileManager.setLocation(StandardLocation.SOURCE_PATH, List.of(new File(sourcePath)));
+      // This is the class path that the javac command uses when it is given none, followed by the
+      // jar files.
+      String classPath = System.getenv("CLASSPATH");
+      List<File> classPathFiles =
+          Splitter.on(File.pathSeparator)
+              .splitToStream(classPath == null ? "." : classPath)
+              .map(File::new)
+              .collect(Collectors.toCollection(ArrayList::new));
+      for (String jarPath : jarPaths) {
+        classPathFiles.add(new File(jarPath));
+      }
+      standardFileManager.setLocation(StandardLocation.CLASS_PATH, classPathFiles);
+      JavaFileManager fileManager =
+          new OverlayFileManager(standardFileManager, decompiledSources, syntheticSources);
+      Map<String, List<Diagnostic<? extends JavaFileObject>>> diagnostics =
+          runJavac(compiler, fileManager, standardFileManager, new ArrayList<>(fileNameList));
+      for (Map.Entry<String, List<Diagnostic<? extends JavaFileObject>>> fileDiagnostics :
+          diagnostics.entrySet()) {
+        for (Diagnostic<? extends JavaFileObject> diagnostic : fileDiagnostics.getValue()) {
+          updateTypes(fileDiagnostics.getKey(), diagnostic);
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("failed to set up javac's file manager", e);
     }
   }
 
   /**
-   * This method uses javac to run a file and updates typeToChange if that file has any incompatible
-   * type error
+   * Run javac on the given files, and collect its diagnostics. javac runs in this JVM, and analyzes
+   * all the files, and the files that they use, in a single compilation, so that the files they
+   * have in common are only analyzed once. It does not generate any class files.
    *
-   * @param filePath the directory of the file to be analyzed
+   * <p>Like the javac command, javac does not analyze a file that cannot even be parsed. Such files
+   * are left out of the compilation, so that they do not prevent the other files from being
+   * analyzed.
+   *
+   * @param compiler the Java compiler
+   * @param fileManager the file manager whose source path contains the root directory and the
+   *     synthetic files
+   * @param standardFileManager the standard file manager that fileManager forwards to
+   * @param filePaths the paths of the files to analyze, relative to the root directory
+   * @return javac's diagnostics, keyed by the path, relative to the root directory, of the file in
+   *     which each diagnostic occurs, in the order in which javac reported them
+   * @throws RuntimeException if javac itself fails, rather than reporting errors in the files
    */
-  public void runJavacAndUpdateTypes(String filePath) {
-    Path outputDir;
+  private Map<String, List<Diagnostic<? extends JavaFileObject>>> runJavac(
+      JavaCompiler compiler,
+      JavaFileManager fileManager,
+      StandardJavaFileManager standardFileManager,
+      List<String> filePaths) {
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
     try {
-      outputDir = Files.createTempDirectory("specimin-javatypecorrect");
-    } catch (IOException e) {
-      throw new RuntimeException("failed to create a temporary directory");
+      JavacTask task =
+          createTask(compiler, fileManager, standardFileManager, filePaths, diagnostics);
+      task.parse();
+      if (!hasErrors(diagnostics)) {
+        task.analyze();
+      } else {
+        List<String> parseableFilePaths = new ArrayList<>(filePaths);
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+          if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+            parseableFilePaths.remove(getRelativePath(diagnostic.getSource()));
+          }
+        }
+        if (!parseableFilePaths.isEmpty()) {
+          createTask(compiler, fileManager, standardFileManager, parseableFilePaths, diagnostics)
+              .analyze();
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      // Without all of javac's diagnostics, the synthetic types would silently stay wrong.
+      throw new RuntimeException("javac failed to analyze " + filePaths, e);
     }
+    Map<String, List<Diagnostic<? extends JavaFileObject>>> diagnosticsByFile =
+        new LinkedHashMap<>();
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      diagnosticsByFile
+          .computeIfAbsent(getRelativePath(diagnostic.getSource()), k -> new ArrayList<>())
+          .add(diagnostic);
+    }
+    return diagnosticsByFile;
+  }
 
-    try {
-      String command = "javac";
-      // Note: -d to a tempdir is used to avoid generating .class files amongst the user's files
-      // when compilation succeeds. -Xmaxerrs 0 is used to print out all error messages.
-      String[] arguments = {
-        command,
-        "-d",
-        outputDir.toAbsolutePath().toString(),
-        "-sourcepath",
-        sourcePath,
-        sourcePath + "/" + filePath,
-        "-Xmaxerrs",
-        "0"
-      };
-      ProcessBuilder processBuilder = new ProcessBuilder(arguments);
-      processBuilder.redirectErrorStream(true);
-      Process process = processBuilder.start();
-      BufferedReader reader =
-          new BufferedReader(
-              new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
-      String line;
-
-      // These temporaries are necessary to handle various multi-line error messages.
-      // We support multiline error messages of the following kinds:
-      // * incompatible equality constraints
-      // * bad operand types for binary operators
-      // * for-each not applicable to expression type
-
-      // These are temporaries for the equality constraints case.
-      String[] firstConstraints = {"equality constraints: "};
-      String[] secondConstraints = {"lower bounds: "};
-      String firstConstraintType = "";
-
-      // These are temporaries for the binary operator case.
-      String binOp = null;
-      String firstBinOpType = null;
+  /**
+   * Create a javac task that analyzes the given files.
+   *
+   * @param compiler the Java compiler
+   * @param fileManager the file manager whose source path contains the root directory and the
+   *     synthetic files
+   * @param standardFileManager the standard file manager that fileManager forwards to
+   * @param filePaths the paths of the files to analyze, relative to the root directory
+   * @param diagnostics the collector for javac's diagnostics
+   * @return the task
+   */
+  private JavacTask createTask(
+      JavaCompiler compiler,
+      JavaFileManager fileManager,
+      StandardJavaFileManager standardFileManager,
+      List<String> filePaths,
+      DiagnosticCollector<JavaFileObject> diagnostics) {
+    List<File> files = new ArrayList<>(filePaths.size());
+    for (String filePath : filePaths) {
+      files.add(new File(sourcePath, filePath));
+    }
+    // -Xmaxerrs 0 is used to report all error messages. Annotation processing is disabled, because
+    // the javac command would not find any processors on its default class path either. A class
+    // that is both on the source path and on the class path, such as a decompiled jar class, is
+    // always read from the source path, as Specimin sees it.
+    List<String> options = List.of("-Xmaxerrs", "0", "-proc:none", "-Xprefer:source");
+    return (JavacTask)
+        compiler.getTask(
+            Writer.nullWriter(),
+            fileManager,
+            diagnostics,
+            options,
+            null,
+            standardFileManager.getJavaFileObjectsFromFiles(files));
+  }
 
-      // These temporaries are for the for-each case.
-      String loopType = null;
-      boolean lookingForLoopType = false;
+  /**
+   * Get the path of a source file relative to the root directory, or relative to the overlay for a
+   * synthetic file. This is the form of the paths in fileNameList and fileAndAssociatedTypes.
+   *
+   * @param source a source file given to javac, or null for a diagnostic without a source file
+   * @return the relative path of the file, its name if it is not under the root directory, or the
+   *     empty string if source is null
+   */
+  private String getRelativePath(@Nullable JavaFileObject source) {
+    if (source == null) {
+      return "";
+    }
+    String syntheticPath = OverlayFileManager.getOverlayPath(source);
+    if (syntheticPath != null) {
+      return syntheticPath;
+    }
+    Path root = Path.of(sourcePath).normalize();
+    Path file = Path.of(source.toUri()).normalize();
+    if (!file.startsWith(root)) {
+      return source.getName();
+    }
+    return root.relativize(file).toString().replace(File.separatorChar, '/');
+  }
 
-      StringBuilder lines = new StringBuilder("\n");
+  /**
+   * Check whether javac has reported an error.
+   *
+   * @param diagnostics the diagnostics reported by javac
+   * @return true if one of the diagnostics is an error
+   */
+  private static boolean hasErrors(DiagnosticCollector<JavaFileObject> diagnostics) {
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+        return true;
+      }
+    }
+    return false;
+  }
 
-      lines:
-      while ((line = reader.readLine()) != null) {
-        lines.append(line);
-        // Note: this is before PrunerVisitor's phase, meaning that these methods are never in the
-        // source codes to begin with. This usually happens when a file is isolated from its
-        // package, and its parent is supposed to override some of the methods in the given
-        // interface. For these cases, if the interface is not from Java language, we will modify
-        // the codes of the interface. Otherwise, we will remove that interface completely.
+  /**
+   * Get a line of a source file.
+   *
+   * @param source a source file
+   * @param lineNumber the number of the line, starting at 1
+   * @return the line, or null if the file cannot be read or does not have that many lines
+   */
+  private static @Nullable String getSourceLine(JavaFileObject source, long lineNumber) {
+    try {
+      List<String> sourceLines =
+          Splitter.onPattern("\\r\\n?|\\n").splitToList(source.getCharContent(true));
+      return lineNumber >= 1 && lineNumber <= sourceLines.size()
+          ? sourceLines.get((int) lineNumber - 1)
+          : null;
+    } catch (IOException e) {
+      return null;
+    }
+  }
 
-        // TODO: Update Specimin to generate a synthetic version for the missing parent class with
-        // synthetic method implementations, particularly if the targeted method invokes a method
-        // from the parent class that implements a method from a Java language interface.
-        if (line.contains("not abstract and does not override abstract method")) {
-          updateClassAndUnresolvedInterface(line);
+  /**
+   * This method analyzes a diagnostic that javac reported for a file, and updates typeToChange,
+   * extendedTypes or classAndUnresolvedInterface if the diagnostic is an error that they can solve.
+   * Errors are recognized by their diagnostic codes, and the types involved in an error are read
+   * from its arguments, so neither depends on the locale or on how javac formats its messages.
+   *
+   * @param filePath the path of the file in which the error occurs
+   * @param diagnostic a diagnostic reported by javac
+   */
+  private void updateTypes(String filePath, Diagnostic<? extends JavaFileObject> diagnostic) {
+    if (diagnostic.getKind() != Diagnostic.Kind.ERROR) {
+      return;
+    }
+    DiagnosticArguments arguments = DiagnosticArguments.of(diagnostic);
+    String code = diagnostic.getCode();
+    switch (code == null ? "" : code) {
+      case "compiler.err.prob.found.req":
+        // incompatible types: {0}, where {0} is a diagnostic such as
+        // "<type1> cannot be converted to <type2>"
+        @Nullable DiagnosticArguments problem = arguments.getNested(0);
+        if (problem != null && "compiler.misc.inconvertible.types".equals(problem.getCode())) {
+          updateTypesForConversion(problem.getTypeName(0), problem.getTypeName(1), filePath);
         }
+        break;
+      case "compiler.err.incomparable.types":
+        // incomparable types: <type1> and <type2>
+        updateTypesForMismatch(arguments.getTypeName(0), arguments.getTypeName(1), filePath);
+        break;
+      case "compiler.err.override.incompatible.ret":
+        // <method> in <class> cannot override <method> in <class>
+        // return type <type1> is not compatible with <type2>
+        // This is triggered when there is type mismatching in inheritance.
+        updateTypesForMismatch(arguments.getTypeName(1), arguments.getTypeName(2), filePath);
+        break;
+      case "compiler.err.operator.cant.be.applied.1":
+        // bad operand types for binary operator '<operator>'
+        // first type:  <type1>
+        // second type: <type2>
+        updateTypesForBinaryOperator(
+            arguments.getName(0), arguments.getTypeName(1), arguments.getTypeName(2));
+        break;
+      case "compiler.err.foreach.not.applicable.to.type":
+        // for-each not applicable to expression type
+        // required: array or java.lang.Iterable
+        // found:    <type>
+        updateTypesForForEach(diagnostic, arguments.getTypeName(0));
+        break;
+      case "compiler.err.does.not.override.abstract":
+        // <class> is not abstract and does not override abstract method <method> in <interface>
+        classAndUnresolvedInterface.put(arguments.getTypeName(0), arguments.getTypeName(2));
+        break;
+      default:
+        break;
+    }
+    // An inference variable with incompatible bounds can be the reason of several kinds of errors,
+    // such as "incompatible types" or "method cannot be applied to given types".
+    for (DiagnosticArguments nested : arguments.getAllNested()) {
+      updateTypesForBounds(nested);
+    }
+  }
 
-        // For-each logic
-        if (loopType != null) {
-          // intermediate parts of the error message, which we can skip
-          if (line.contains("^")) {
-            continue;
-          }
-          if (line.contains("required: array or java.lang.Iterable")) {
-            continue;
-          }
-          // the next line should look like: "found:    GetFoosReturnType"
-          if (!line.contains("found: ")) {
-            throw new RuntimeException(
-                "could not complete a for-each correction, because encountered "
-                    + "an unexpected line in a javac error message: "
-                    + line);
-          }
-          String typeToCorrect = line.substring(line.indexOf(':') + 1).trim();
-          changeType(typeToCorrect, loopType + "[]");
-          loopType = null;
-          continue;
-        }
-        if (lookingForLoopType) {
-          // line should look like: "for (Foo f : b.getFoos()) {"; we want to extract the "Foo"
-          // and put it into loopType.
-          if (loopType != null) {
-            throw new RuntimeException(
-                "loopType wasn't null when trying to set a loopType: " + loopType);
-          }
-          int startIndex = line.indexOf('(') + 1;
-          loopType = line.substring(startIndex, line.indexOf(' ', startIndex));
-          lookingForLoopType = false;
-          continue;
-        }
-        if (line.contains("for-each not applicable to expression type")) {
-          lookingForLoopType = true;
-          continue;
-        }
+  /**
+   * Updates the type of the elements of a synthetic type that is used in an enhanced for loop, but
+   * is neither an array nor an Iterable: the type becomes an array of the type of the loop
+   * variable.
+   *
+   * @param diagnostic the "for-each not applicable to expression type" error
+   * @param typeToCorrect the type of the expression that the loop iterates over
+   */
+  private void updateTypesForForEach(
+      Diagnostic<? extends JavaFileObject> diagnostic, String typeToCorrect) {
+    JavaFileObject source = diagnostic.getSource();
+    // the source line should look like: "for (Foo f : b.getFoos()) {"; we want to extract the "Foo"
+    @Nullable String line =
+        source == null ? null : getSourceLine(source, diagnostic.getLineNumber());
+    if (line == null || line.indexOf('(') == -1) {
+      throw new RuntimeException(
+          "could not complete a for-each correction, because the loop could not be read: "
+              + diagnostic);
+    }
+    int startIndex = line.indexOf('(') + 1;
+    String loopType = line.substring(startIndex, line.indexOf(' ', startIndex));
+    changeType(typeToCorrect, loopType + "[]");
+  }
 
-        if (line.contains("error: incompatible types")
-            || line.contains("error: incomparable types")) {
-          updateTypeToChange(line, filePath);
-          continue lines;
-        }
-        if (line.contains("is not compatible with")) {
-          updateTypeToChange(line, filePath);
-          continue lines;
-        }
-        if (line.contains("bad operand types for binary operator")) {
-          if (binOp != null || firstBinOpType != null) {
-            throw new RuntimeException("failed to complete a binary operator correction: " + lines);
-          }
-          // the form of the error is "bad operand types for binary operator '||'"
-          binOp = line.substring(line.indexOf('\'') + 1, line.lastIndexOf('\''));
-          continue lines;
-        }
-        if (binOp != null && line.contains("first type: ")) {
-          if (firstBinOpType != null) {
-            throw new RuntimeException("failed to complete a binary operator correction: " + lines);
-          }
-          firstBinOpType = line.replace("first type:", "").trim();
-          continue lines;
-        }
-        if (binOp != null && firstBinOpType != null && line.contains("second type: ")) {
-          String secondBinOpType = line.replace("second type:", "").trim();
-          updateTypesForBinaryOperator(binOp, firstBinOpType, secondBinOpType);
-          binOp = null;
-          firstBinOpType = null;
-          continue lines;
-        }
-        // these type error with constraint types will be in a pair of lines
-        for (String firstConstraint : firstConstraints) {
-          if (line.contains(firstConstraint)) {
-            firstConstraintType = line.replace(firstConstraint, "").trim();
-            continue lines;
-          }
+  /**
+   * Updates the types in an inference variable's incompatible bounds, if the given diagnostic is
+   * about such bounds. The bounds are a pair of lists of types, the equality constraints and the
+   * lower bounds of the variable. Since JDK 12, javac gives each list as a diagnostic of its own,
+   * nested in a "compiler.misc.incompatible.bounds" diagnostic; before, both lists were arguments
+   * of a "compiler.misc.incompatible.eq.lower.bounds" diagnostic.
+   *
+   * @param diagnostic a diagnostic that may be about the incompatible bounds of an inference
+   *     variable
+   */
+  private void updateTypesForBounds(DiagnosticArguments diagnostic) {
+    @Nullable List<String> equalityConstraints = null;
+    @Nullable List<String> lowerBounds = null;
+    if ("compiler.misc.incompatible.bounds".equals(diagnostic.getCode())) {
+      for (int i = 0; i < diagnostic.size(); i++) {
+        @Nullable DiagnosticArguments bounds = diagnostic.getNested(i);
+        if (bounds == null) {
+          continue;
         }
-        for (String secondConstraint : secondConstraints) {
-          if (line.contains(secondConstraint)) {
-            String secondConstraintType = line.replace(secondConstraint, "").trim();
-            // These "constraint types" may include more than one type, especially if
-            // they are equality constraints. The strategy for solving them below is
-            // quite coarse, but it works on most examples. TODO: do this properly by
-            // reasoning about what the constraints mean.
-            Set<String> constraints = new HashSet<>(2);
-            constraints.addAll(List.of(firstConstraintType.split(",")));
-            constraints.addAll(List.of(secondConstraintType.split(",")));
-            if (constraints.size() == 2) {
-              String[] constraintsArray = constraints.toArray(new String[0]);
-              firstConstraintType = constraintsArray[0];
-              secondConstraintType = constraintsArray[1];
-              if (isSynthetic(firstConstraintType)) {
-                changeType(firstConstraintType, secondConstraintType);
-              } else if (isSynthetic(secondConstraintType)) {
-                changeType(secondConstraintType, firstConstraintType);
-              } else {
-                // We used to throw an exception here. However, sometimes
-                // this case does happen while reducing large projects - we saw
-                // it while reducing e.g. Apache Cassandra. It may still indicate
-                // a problem when we encounter it, but I'm not sure that it is:
-                // this may happen sometimes during intermediate stages of Specimin.
-              }
-            } else {
-              // do nothing - we can't solve this case.
-              // TODO: properly solve sets of three or more constraints
-            }
-
-            firstConstraintType = "";
-            continue lines;
-          }
+        if ("compiler.misc.eq.bounds".equals(bounds.getCode())) {
+          equalityConstraints = bounds.getTypeNames(0);
+        } else if ("compiler.misc.lower.bounds".equals(bounds.getCode())) {
+          lowerBounds = bounds.getTypeNames(0);
         }
       }
-    } catch (IOException e) {
-      // TODO: Handle this properly
-      System.out.println(e);
+    } else if ("compiler.misc.incompatible.eq.lower.bounds".equals(diagnostic.getCode())) {
+      equalityConstraints = diagnostic.getTypeNames(1);
+      lowerBounds = diagnostic.getTypeNames(2);
+    }
+    if (equalityConstraints == null || lowerBounds == null) {
+      return;
+    }
+    // There may be more than one type in these bounds, especially in the equality constraints. The
+    // strategy for solving them below is quite coarse, but it works on most examples. TODO: do
+    // this properly by reasoning about what the constraints mean.
+    Set<String> constraints = new HashSet<>(equalityConstraints);
+    constraints.addAll(lowerBounds);
+    if (constraints.size() == 2) {
+      String[] constraintsArray = constraints.toArray(new String[0]);
+      String firstConstraintType = constraintsArray[0];
+      String secondConstraintType = constraintsArray[1];
+      if (isSynthetic(firstConstraintType)) {
+        changeType(firstConstraintType, secondConstraintType);
+      } else if (isSynthetic(secondConstraintType)) {
+        changeType(secondConstraintType, firstConstraintType);
+      } else {
+        // We used to throw an exception here. However, sometimes
+        // this case does happen while reducing large projects - we saw
+        // it while reducing e.g. Apache Cassandra. It may still indicate
+        // a problem when we encounter it, but I'm not sure that it is:
+        // this may happen sometimes during intermediate stages of Specimin.
+      }
+    } else {
+      // do nothing - we can't solve this case.
+      // TODO: properly solve sets of three or more constraints
     }
   }
 
@@ -330,100 +505,57 @@ class JavaTypeCorrect {
   }
 
   /**
-   * Parses a type from a space-separated error message.
+   * This method updates typeToChange for an error of the form "incompatible types: &lt;rhs&gt;
+   * cannot be converted to &lt;lhs&gt;".
    *
-   * @param splitErrorMessage the space-separated error message
-   * @param startIndex the index into the error message at which the type starts
-   * @param next the stop word to look for. Null if the type should go to the end of the input list.
-   * @return the type as a string
+   * @param rhs the type of the value
+   * @param lhs the type that the value cannot be converted to
+   * @param filePath the path of the file where this error happens
    */
-  private String getTypeFrom(
-      List<String> splitErrorMessage, int startIndex, @Nullable String next) {
-    StringBuilder result = new StringBuilder();
-    int i = startIndex;
-    while (i < splitErrorMessage.size() && !Objects.equals(splitErrorMessage.get(i), next)) {
-      if (!splitErrorMessage.get(i).startsWith("@")) {
-        result.append(" ").append(splitErrorMessage.get(i));
+  private void updateTypesForConversion(String rhs, String lhs, String filePath) {
+    if ("Throwable".equals(lhs)) {
+      // Since all the checked exceptions have already been handled by UnsolvedSymbolVisitor, we
+      // know that all the remaining uncompiled exceptions are unchecked.
+      extendedTypes.put(rhs, "RuntimeException");
+    } else if (isSynthetic(lhs)) {
+      // This situation occurs if we have created a synthetic field
+      // (e.g., in a superclass) that has a type that doesn't match the
+      // type of the RHS. In this case, the "correct" type is wrong, and
+      // the "incorrect" type is the actual type of the RHS.
+      changeType(lhs, tryResolveFullyQualifiedType(rhs, filePath));
+    } else if (isSynthetic(rhs)) {
+      changeType(rhs, tryResolveFullyQualifiedType(lhs, filePath));
+    } else {
+      // In this case, neither is truly synthetic (both must be used
+      // in the target), so make the rhs a subtype of the lhs.
+      // TODO: we must check here that there is no entry for the rhs already.
+      // However, it's not clear what the right behavior is when there is
+      // an existing entry. I've set this up to do nothing to avoid thrashing
+      // behavior like that seen in https://github.com/njit-jerse/specimin/issues/279.
+      // However, this does sometimes occur, including in some of our test targets,
+      // so we have to not crash.
+      if (!extendedTypes.containsKey(rhs)) {
+        extendedTypes.put(rhs, lhs);
       }
-      i++;
     }
-    return result.toString().trim();
   }
 
   /**
-   * This method updates typeToChange by relying on the error messages from javac
+   * This method updates typeToChange for an error of the form "incomparable types: &lt;rhs&gt; and
+   * &lt;lhs&gt;", or "return type &lt;rhs&gt; is not compatible with &lt;lhs&gt;", which is
+   * triggered when there is type mismatching in inheritance.
    *
-   * @param errorMessage the error message to be analyzed
+   * @param rhs the first type
+   * @param lhs the second type
    * @param filePath the path of the file where this error happens
    */
-  private void updateTypeToChange(String errorMessage, String filePath) {
-    // TODO: splitting on spaces here isn't safe, because types can contain spaces (e.g., if they
-    // are wildcards or have multiple type parameters!). We should find an alternative way to parse
-    // these error messages that doesn't require us to then re-parse the types from this list.
-    List<String> splitErrorMessage = Splitter.onPattern("\\s+").splitToList(errorMessage);
-    if (splitErrorMessage.size() < 7) {
-      throw new RuntimeException("Unexpected type error messages: " + errorMessage);
-    }
-    /* There are four possible forms of error messages in total:
-     * 1. error: incompatible types: <type1> cannot be converted to <type2>
-     */
-    if (errorMessage.contains("cannot be converted to")) {
-      String rhs = getTypeFrom(splitErrorMessage, 4, "cannot");
-      int toIndex = splitErrorMessage.indexOf("to");
-      String lhs = getTypeFrom(splitErrorMessage, toIndex + 1, null);
-      if ("Throwable".equals(lhs)) {
-        // Since all the checked exceptions have already been handled by UnsolvedSymbolVisitor, we
-        // know that all the remaining uncompiled exceptions are unchecked.
-        extendedTypes.put(rhs, "RuntimeException");
-      } else if (isSynthetic(lhs)) {
-        // This situation occurs if we have created a synthetic field
-        // (e.g., in a superclass) that has a type that doesn't match the
-        // type of the RHS. In this case, the "correct" type is wrong, and
-        // the "incorrect" type is the actual type of the RHS.
-        changeType(lhs, tryResolveFullyQualifiedType(rhs, filePath));
-      } else if (isSynthetic(rhs)) {
-        changeType(rhs, tryResolveFullyQualifiedType(lhs, filePath));
-      } else {
-        // In this case, neither is truly synthetic (both must be used
-        // in the target), so make the rhs a subtype of the lhs.
-        // TODO: we must check here that there is no entry for the rhs already.
-        // However, it's not clear what the right behavior is when there is
-        // an existing entry. I've set this up to do nothing to avoid thrashing
-        // behavior like that seen in https://github.com/njit-jerse/specimin/issues/279.
-        // However, this does sometimes occur, including in some of our test targets,
-        // so we have to not crash.
-        if (!extendedTypes.containsKey(rhs)) {
-          extendedTypes.put(rhs, lhs);
-        }
-      }
-    }
-    /*
-     * 2. error: incomparable types: Type1 and Type2
-     * 3. return type <type1> is not compatible with <type2> (triggered when there is type mismatching in inheritance)
-     * 4. error: incompatible types: found <type1> required <type2> (unknown triggers)
-     */
-    else {
-      String rhs, lhs;
-      if (errorMessage.contains("incomparable types")) {
-        // Case 2
-        rhs = getTypeFrom(splitErrorMessage, 4, "and");
-        lhs = getTypeFrom(splitErrorMessage, splitErrorMessage.indexOf("and") + 1, null);
-      } else if (errorMessage.contains("is not compatible with")) {
-        // Case 3
-        rhs = getTypeFrom(splitErrorMessage, 3, "is");
-        lhs = getTypeFrom(splitErrorMessage, splitErrorMessage.indexOf("with") + 1, null);
-      } else {
-        // Case 4
-        rhs = getTypeFrom(splitErrorMessage, 5, "required");
-        lhs = getTypeFrom(splitErrorMessage, splitErrorMessage.indexOf("required") + 1, null);
-      }
-      if (isSynthetic(lhs)) {
-        changeType(lhs, tryResolveFullyQualifiedType(rhs, filePath));
-      } else if (isSynthetic(rhs)) {
-        changeType(rhs, tryResolveFullyQualifiedType(lhs, filePath));
-      } else {
-        extendedTypes.put(rhs, lhs);
-      }
+  private void updateTypesForMismatch(String rhs, String lhs, String filePath) {
+    if (isSynthetic(lhs)) {
+      changeType(lhs, tryResolveFullyQualifiedType(rhs, filePath));
+    } else if (isSynthetic(rhs)) {
+      changeType(rhs, tryResolveFullyQualifiedType(lhs, filePath));
+    } else {
+      extendedTypes.put(rhs, lhs);
     }
   }
 
@@ -469,29 +601,11 @@ class JavaTypeCorrect {
     typeToChange.put(incorrectType, correctType);
   }
 
-  /**
-   * This method updates the map of classes and their unresolved interfaces based on an error
-   * message from javac.
-   *
-   * @param line an error message from javac.
-   */
-  private void updateClassAndUnresolvedInterface(String line) {
-    List<String> splitErrorMessage = Splitter.onPattern("\\s+").splitToList(line);
-    // such an error message will have this format:
-    // <Location> error: <Class> is not abstract and does not override abstract method <Method> in
-    // <Interface>
-    if (splitErrorMessage.size() < 3) {
-      // technically it is more than 3, but this is all we need to avoid false warnings.
-      throw new RuntimeException("Unexpected type error messages: " + line);
-    }
-    String className = splitErrorMessage.get(2);
-    String interfaceName = splitErrorMessage.get(splitErrorMessage.size() - 1);
-    classAndUnresolvedInterface.put(className, interfaceName);
-  }
-
   /**
    * This method tries to get the fully-qualified name of a type based on the simple name of that
-   * type and the class file where that type is used.
+   * type and the class file where that type is used. If that file is not one of the files in
+   * fileNameList, but a file that they use, the type is looked up in the files of fileNameList
+   * instead, as javac reported the error while it analyzed them.
    *
    * @param type the type to be taken as input
    * @param filePath the path of the file where type is used
@@ -508,11 +622,15 @@ class JavaTypeCorrect {
       typeVariable = type.substring(type.indexOf("<"));
       type = type.substring(0, type.indexOf("<"));
     }
-    if (fileAndAssociatedTypes.containsKey(filePath)) {
-      Set<String> fullyQualifiedType = fileAndAssociatedTypes.get(filePath);
-      for (String typeFullName : fullyQualifiedType) {
-        if (typeFullName.substring(typeFullName.lastIndexOf(".") + 1).equals(type)) {
-          return typeFullName + typeVariable;
+    Iterable<String> filesUsingType =
+        fileNameList.contains(filePath) ? List.of(filePath) : fileNameList;
+    for (String file : filesUsingType) {
+      if (fileAndAssociatedTypes.containsKey(file)) {
+        Set<String> fullyQualifiedType = fileAndAssociatedTypes.get(file);
+        for (String typeFullName : fullyQualifiedType) {
+          if (typeFullName.substring(typeFullName.lastIndexOf(".") + 1).equals(type)) {
+            return typeFullName + typeVariable;
+          }
         }
       }
     }
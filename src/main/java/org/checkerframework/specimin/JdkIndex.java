@@ -0,0 +1,160 @@
+package org.checkerframework.specimin;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.NotFoundException;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The index of the packages and classes of the JDK that Specimin runs on. If the Specimin jar
+ * contains a {@link JdkSummary} of this JDK, the whole index is read from it once. Otherwise, the
+ * index is read from the jrt:/ file system of the run-time image: the packages are taken once from
+ * the descriptors of the system modules, and the classes of every package are listed the first time
+ * that a class is asked about. After that, every question is a hash lookup, and no JDK class is
+ * ever loaded or initialized: the class files are only read, by javassist, when a class is solved
+ * by {@link JdkTypeSolver} or, without a summary, its modifiers are needed, and the summary holds
+ * the declarations of the classes of java.base, so that those are read from memory. Either way, the
+ * index only describes the JDK, which never changes while Specimin runs, so that it can be shared
+ * by every session of the process.
+ */
+final class JdkIndex {
+
+  /** The summary of this JDK that is bundled into the Specimin jar, or null if there is none. */
+  private static final @Nullable JdkSummary SUMMARY = JdkSummary.loadBundled();
+
+  /** Every package of the JDK, mapped to the module that contains it. */
+  private static final Map<String, String> PACKAGE_TO_MODULE =
+      SUMMARY == null ? JdkSummary.readPackages() : SUMMARY.getPackageToModule();
+
+  /**
+   * The binary names of the classes of the packages that have been listed from the run-time image,
+   * without the name of the package, such as "Map$Entry" for java.util. They are only listed if
+   * there is no summary, and, like a summary decodes the classes of a package, only the first time
+   * that the package is asked about. The map never holds more entries than the JDK has packages.
+   */
+  private static final Map<String, Set<String>> PACKAGE_TO_CLASSES = new ConcurrentHashMap<>();
+
+  /**
+   * The class pool that reads the declarations of the JDK classes from the summary, if it holds
+   * them, or else their class files from the run-time image. It is only created once a class has to
+   * be read.
+   */
+  private static class ClassPoolHolder {
+    /** The class pool. */
+    static final ClassPool CLASS_POOL = JdkSummary.createClassPool(PACKAGE_TO_MODULE, SUMMARY);
+  }
+
+  /** This class cannot be instantiated. */
+  private JdkIndex() {
+    throw new Error("cannot be instantiated");
+  }
+
+  /**
+   * Get the classes of a package.
+   *
+   * @param packageName a package of the JDK
+   * @return the binary names of the classes of the package, without the name of the package
+   */
+  private static Set<String> getClasses(String packageName) {
+    if (SUMMARY != null) {
+      return SUMMARY.getClasses(packageName);
+    }
+    String module = PACKAGE_TO_MODULE.get(packageName);
+    if (module == null) {
+      return Collections.emptySet();
+    }
+    // Only the directory of the package is read, not its class files.
+    return PACKAGE_TO_CLASSES.computeIfAbsent(packageName, p -> JdkSummary.listClasses(p, module));
+  }
+
+  /**
+   * Is the given name a package of the JDK?
+   *
+   * @param packageName the name of a package
+   * @return true if the JDK contains the package
+   */
+  static boolean isPackage(String packageName) {
+    return PACKAGE_TO_MODULE.containsKey(packageName);
+  }
+
+  /**
+   * Is the given name, or one of its prefixes, a package of the JDK?
+   *
+   * @param qualifiedName a package name, or a fully-qualified name of a class or of one of its
+   *     members
+   * @return true if qualifiedName is in a package of the JDK
+   */
+  static boolean inPackage(String qualifiedName) {
+    if (isPackage(qualifiedName)) {
+      return true;
+    }
+    for (int dot = qualifiedName.indexOf('.');
+        dot != -1;
+        dot = qualifiedName.indexOf('.', dot + 1)) {
+      if (isPackage(qualifiedName.substring(0, dot))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Convert the fully-qualified name of a JDK class into its binary name.
+   *
+   * @param qualifiedName the fully-qualified name of a class, such as "java.util.Map.Entry"
+   * @return the binary name of the class, such as "java.util.Map$Entry", or null if the JDK has no
+   *     such class
+   */
+  static @Nullable String toBinaryName(String qualifiedName) {
+    // The package is the longest prefix of the name that is a package of the JDK.
+    for (int dot = qualifiedName.lastIndexOf('.');
+        dot > 0;
+        dot = qualifiedName.lastIndexOf('.', dot - 1)) {
+      String packageName = qualifiedName.substring(0, dot);
+      if (isPackage(packageName)) {
+        String className = qualifiedName.substring(dot + 1).replace('.', '$');
+        return getClasses(packageName).contains(className) ? packageName + "." + className : null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Get the class of the JDK with the given name from the class pool of the JDK. The class file is
+   * read, but the class is not loaded.
+   *
+   * @param qualifiedName the fully-qualified name of a class
+   * @return the class, or null if the JDK has no such class
+   */
+  static @Nullable CtClass getCtClass(String qualifiedName) {
+    String binaryName = toBinaryName(qualifiedName);
+    if (binaryName == null) {
+      return null;
+    }
+    try {
+      return ClassPoolHolder.CLASS_POOL.get(binaryName);
+    } catch (NotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Is the given name the name of a public class of the JDK? A nested class is public if it and all
+   * the classes that enclose it are public or protected.
+   *
+   * @param qualifiedName the fully-qualified name of a class, such as "java.util.Map.Entry"
+   * @return true if the JDK has a class with that name that can be used outside of its package
+   */
+  static boolean isPublicClass(String qualifiedName) {
+    if (SUMMARY != null) {
+      String binaryName = toBinaryName(qualifiedName);
+      return binaryName != null && SUMMARY.isPublicClass(binaryName);
+    }
+    CtClass ctClass = getCtClass(qualifiedName);
+    return ctClass != null && JdkSummary.isPublic(ctClass);
+  }
+}
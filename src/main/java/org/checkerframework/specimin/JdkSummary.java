@@ -0,0 +1,670 @@
+package org.checkerframework.specimin;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import javassist.ClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.Modifier;
+import javassist.NotFoundException;
+import javassist.bytecode.AccessFlag;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.FieldInfo;
+import javassist.bytecode.MethodInfo;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A summary of the packages and classes of a JDK: the module of every package, the classes of every
+ * package, which of those classes are public, and the declarations of the classes of java.base. A
+ * summary is made by scanning the jrt:/ file system of the run-time image and every class file in
+ * it, which takes seconds, so the build writes the summary of the JDK it runs on into the Specimin
+ * jar (see the generateJdkSummary task). When Specimin later runs on the same JDK, the {@link
+ * JdkIndex} is answered from that summary, and the run-time image is only opened once a class
+ * outside of java.base has to be read; on any other JDK, the bundled summary is ignored and the
+ * run-time image is scanned lazily instead.
+ *
+ * <p>The declaration of a class is its class file without the code of its methods and without its
+ * private and synthetic members, which code outside of the JDK cannot use: what is left are the
+ * members, supertypes, type parameters, and annotations that {@link JdkTypeSolver} solves. Almost
+ * every JDK type that Specimin solves, such as those of java.lang and java.util, is in java.base;
+ * the classes of the other modules are read from the run-time image when they are needed, rather
+ * than making every summary several times larger.
+ *
+ * <p>The summary is stored uncompressed (the jar compresses it) as a table of the packages, which
+ * is read when the summary is loaded, followed by the classes of every package, which are only
+ * decoded the first time that the package is asked about. The declarations of the classes of a
+ * package follow its classes, compressed on their own, and are only inflated the first time that a
+ * class of the package is read.
+ *
+ * <p>This class also holds the code that scans the run-time image, so that the summary and the lazy
+ * index always agree.
+ */
+final class JdkSummary {
+
+  /** The name of the resource that holds the bundled summary, relative to this class. */
+  static final String RESOURCE = "jdk-summary.bin";
+
+  /** The first bytes of a summary. The last byte is the version of the format. */
+  private static final int MAGIC = 0x4A444B03;
+
+  /** The modules whose classes are summarized with their declarations. */
+  private static final Set<String> DECLARED_MODULES = Set.of("java.base");
+
+  /** The jrt:/ file system of the run-time image. It is only opened once it is needed. */
+  private static class Jrt {
+    /** The file system. */
+    static final FileSystem FILE_SYSTEM = FileSystems.getFileSystem(URI.create("jrt:/"));
+  }
+
+  /** The JDK that this summary describes, in the format of {@link #currentRuntime()}. */
+  private final String runtime;
+
+  /** Every package of the JDK, mapped to the module that contains it. */
+  private final Map<String, String> packageToModule;
+
+  /**
+   * The classes of every package that has been decoded, mapped to whether they are public. The
+   * classes are named by their binary names without the name of the package, such as "Map$Entry"
+   * for java.util.
+   */
+  private final Map<String, Map<String, Boolean>> packageToClasses;
+
+  /**
+   * The declarations of the classes of every package that has been inflated, keyed by the same
+   * names as {@link #packageToClasses}. A package whose classes are not summarized with their
+   * declarations is mapped to the empty map.
+   */
+  private final Map<String, Map<String, byte[]>> packageToDeclarations;
+
+  /**
+   * The encoded summary that the classes of the packages are decoded from, or null if all packages
+   * have already been decoded.
+   */
+  private final byte @Nullable [] data;
+
+  /** The position of the classes of every package in {@link #data}. */
+  private final Map<String, Integer> packageToPosition;
+
+  /**
+   * Creates a new summary. The maps must not be modified afterwards.
+   *
+   * @param runtime the JDK that the summary describes
+   * @param packageToModule every package mapped to its module
+   * @param packageToClasses the classes of the packages that have been decoded
+   * @param packageToDeclarations the declarations of the packages that have been decoded
+   * @param data the encoded summary that the other packages are decoded from, if any
+   * @param packageToPosition the positions of the packages that have not been decoded in data
+   */
+  private JdkSummary(
+      String runtime,
+      Map<String, String> packageToModule,
+      Map<String, Map<String, Boolean>> packageToClasses,
+      Map<String, Map<String, byte[]>> packageToDeclarations,
+      byte @Nullable [] data,
+      Map<String, Integer> packageToPosition) {
+    this.runtime = runtime;
+    this.packageToModule = Collections.unmodifiableMap(packageToModule);
+    this.packageToClasses = new ConcurrentHashMap<>(packageToClasses);
+    this.packageToDeclarations = new ConcurrentHashMap<>(packageToDeclarations);
+    this.data = data;
+    this.packageToPosition = Collections.unmodifiableMap(packageToPosition);
+  }
+
+  /**
+   * Writes the summary of the JDK that runs this method to a file. The build calls this to make the
+   * summary that is bundled into the Specimin jar.
+   *
+   * @param args the path of the file to write
+   * @throws IOException if the run-time image cannot be read or the file cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      throw new IllegalArgumentException("Usage: JdkSummary <output file>");
+    }
+    Path output = Path.of(args[0]);
+    Path parent = output.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (OutputStream out = Files.newOutputStream(output)) {
+      scan().write(out);
+    }
+  }
+
+  /**
+   * Describe the JDK that Specimin runs on. A summary is only used on the JDK that it was made
+   * from.
+   *
+   * @return the vendor and the full version of the running JDK
+   */
+  static String currentRuntime() {
+    return System.getProperty("java.vendor") + " " + Runtime.version();
+  }
+
+  /**
+   * Make the summary of the running JDK by scanning its run-time image. This reads every class file
+   * of the JDK.
+   *
+   * @return the summary of the running JDK
+   */
+  static JdkSummary scan() {
+    return scan(readPackages());
+  }
+
+  /**
+   * Make the summary of some of the packages of the running JDK by scanning its run-time image.
+   *
+   * @param packageToModule the packages to scan, mapped to the modules that contain them
+   * @return the summary of the given packages
+   */
+  static JdkSummary scan(Map<String, String> packageToModule) {
+    ClassPool classPool = createClassPool(packageToModule, null);
+    Map<String, Map<String, Boolean>> packageToClasses = new HashMap<>();
+    Map<String, Map<String, byte[]>> packageToDeclarations = new HashMap<>();
+    for (Map.Entry<String, String> entry : packageToModule.entrySet()) {
+      boolean declared = DECLARED_MODULES.contains(entry.getValue());
+      Map<String, Boolean> classes = new HashMap<>();
+      Map<String, byte[]> declarations = new HashMap<>();
+      for (String className : listClasses(entry.getKey(), entry.getValue())) {
+        String binaryName = entry.getKey() + "." + className;
+        try {
+          classes.put(className, isPublic(classPool.get(binaryName)));
+          if (declared) {
+            declarations.put(className, readDeclaration(packageToModule, binaryName));
+          }
+        } catch (NotFoundException | IOException e) {
+          throw new RuntimeException("Specimin could not read the JDK class " + binaryName, e);
+        }
+      }
+      packageToClasses.put(entry.getKey(), Collections.unmodifiableMap(classes));
+      packageToDeclarations.put(entry.getKey(), Collections.unmodifiableMap(declarations));
+    }
+    return new JdkSummary(
+        currentRuntime(),
+        packageToModule,
+        packageToClasses,
+        packageToDeclarations,
+        null,
+        Collections.emptyMap());
+  }
+
+  /**
+   * Read the summary that is bundled into the Specimin jar.
+   *
+   * @return the bundled summary, or null if there is none or it describes a different JDK
+   */
+  static @Nullable JdkSummary loadBundled() {
+    InputStream resource = JdkSummary.class.getResourceAsStream(RESOURCE);
+    if (resource == null) {
+      return null;
+    }
+    try (InputStream in = resource) {
+      return read(in);
+    } catch (IOException e) {
+      throw new RuntimeException("Specimin could not read its bundled summary of the JDK", e);
+    }
+  }
+
+  /**
+   * Read a summary that was written by {@link #write(OutputStream)}. Only the table of the packages
+   * is decoded here.
+   *
+   * @param in the stream to read from; it is not closed
+   * @return the summary, or null if it describes a different JDK than the running one or was
+   *     written in a different format
+   * @throws IOException if the stream cannot be read
+   */
+  static @Nullable JdkSummary read(InputStream in) throws IOException {
+    byte[] data = in.readAllBytes();
+    ByteArrayInputStream tableBytes = new ByteArrayInputStream(data);
+    DataInputStream table = new DataInputStream(tableBytes);
+    if (data.length < 4 || table.readInt() != MAGIC) {
+      return null;
+    }
+    String runtime = table.readUTF();
+    if (!runtime.equals(currentRuntime())) {
+      return null;
+    }
+    int packageCount = table.readInt();
+    String[] packageNames = new String[packageCount];
+    String[] modules = new String[packageCount];
+    int[] positions = new int[packageCount];
+    for (int i = 0; i < packageCount; i++) {
+      packageNames[i] = table.readUTF();
+      modules[i] = table.readUTF();
+      positions[i] = table.readInt();
+    }
+    // The positions in the table are relative to its end.
+    int tableSize = data.length - tableBytes.available();
+    Map<String, String> packageToModule = new HashMap<>(packageCount * 2);
+    Map<String, Integer> packageToPosition = new HashMap<>(packageCount * 2);
+    for (int i = 0; i < packageCount; i++) {
+      packageToModule.put(packageNames[i], modules[i]);
+      packageToPosition.put(packageNames[i], tableSize + positions[i]);
+    }
+    return new JdkSummary(
+        runtime,
+        packageToModule,
+        Collections.emptyMap(),
+        Collections.emptyMap(),
+        data,
+        packageToPosition);
+  }
+
+  /**
+   * Write this summary: a header with the JDK that it describes, then the table of the packages
+   * with their modules and the positions of their classes, relative to the end of the table, then
+   * the classes of every package, each followed by the length of their compressed declarations and
+   * those declarations, or by -1 if the package is summarized without them.
+   *
+   * @param out the stream to write to; it is flushed but not closed
+   * @throws IOException if the stream cannot be written
+   */
+  void write(OutputStream out) throws IOException {
+    // Sorting makes the output reproducible.
+    Map<String, String> packages = new TreeMap<>(packageToModule);
+    ByteArrayOutputStream classesBytes = new ByteArrayOutputStream();
+    DataOutputStream classes = new DataOutputStream(classesBytes);
+    DataOutputStream table = new DataOutputStream(out);
+    table.writeInt(MAGIC);
+    table.writeUTF(runtime);
+    table.writeInt(packages.size());
+    for (Map.Entry<String, String> entry : packages.entrySet()) {
+      table.writeUTF(entry.getKey());
+      table.writeUTF(entry.getValue());
+      table.writeInt(classes.size());
+      Map<String, Boolean> packageClasses = new TreeMap<>(getClassesAndVisibility(entry.getKey()));
+      classes.writeInt(packageClasses.size());
+      for (Map.Entry<String, Boolean> classEntry : packageClasses.entrySet()) {
+        classes.writeUTF(classEntry.getKey());
+        classes.writeBoolean(classEntry.getValue());
+      }
+      Map<String, byte[]> declarations = new TreeMap<>(getDeclarations(entry.getKey()));
+      if (declarations.isEmpty()) {
+        classes.writeInt(-1);
+      } else {
+        ByteArrayOutputStream compressedBytes = new ByteArrayOutputStream();
+        try (DataOutputStream compressed =
+            new DataOutputStream(
+                new DeflaterOutputStream(
+                    compressedBytes, new Deflater(Deflater.BEST_COMPRESSION)))) {
+          compressed.writeInt(declarations.size());
+          for (Map.Entry<String, byte[]> declaration : declarations.entrySet()) {
+            compressed.writeUTF(declaration.getKey());
+            compressed.writeInt(declaration.getValue().length);
+            compressed.write(declaration.getValue());
+          }
+        }
+        classes.writeInt(compressedBytes.size());
+        compressedBytes.writeTo(classes);
+      }
+    }
+    table.flush();
+    classesBytes.writeTo(out);
+    out.flush();
+  }
+
+  /**
+   * Get every package of the JDK, mapped to the module that contains it. Note that the map is
+   * read-only.
+   *
+   * @return the modules of the packages
+   */
+  Map<String, String> getPackageToModule() {
+    return packageToModule;
+  }
+
+  /**
+   * Get the classes of a package. Note that the set is read-only.
+   *
+   * @param packageName the name of a package
+   * @return the binary names of the classes of the package, without the name of the package, or the
+   *     empty set if the JDK has no such package
+   */
+  Set<String> getClasses(String packageName) {
+    return getClassesAndVisibility(packageName).keySet();
+  }
+
+  /**
+   * Is the class with the given binary name public?
+   *
+   * @param binaryName the binary name of a class, such as "java.util.Map$Entry"
+   * @return true if the class exists and can be used outside of its package
+   */
+  boolean isPublicClass(String binaryName) {
+    int dot = binaryName.lastIndexOf('.');
+    Map<String, Boolean> classes =
+        getClassesAndVisibility(dot == -1 ? "" : binaryName.substring(0, dot));
+    return Boolean.TRUE.equals(classes.get(binaryName.substring(dot + 1)));
+  }
+
+  /**
+   * Open the declaration of a class, which is read from memory.
+   *
+   * @param binaryName the binary name of a class, such as "java.util.Map$Entry"
+   * @return the declaration of the class, in the class file format, or null if the summary does not
+   *     hold the declaration of the class
+   */
+  @Nullable InputStream openDeclaration(String binaryName) {
+    int dot = binaryName.lastIndexOf('.');
+    byte[] declaration =
+        getDeclarations(dot == -1 ? "" : binaryName.substring(0, dot))
+            .get(binaryName.substring(dot + 1));
+    return declaration == null ? null : new ByteArrayInputStream(declaration);
+  }
+
+  /**
+   * Get the classes of a package and whether they are public, decoding them if this is the first
+   * time that the package is asked about.
+   *
+   * @param packageName the name of a package
+   * @return the classes of the package mapped to whether they are public, or the empty map if the
+   *     JDK has no such package
+   */
+  private Map<String, Boolean> getClassesAndVisibility(String packageName) {
+    Map<String, Boolean> classes = packageToClasses.get(packageName);
+    if (classes != null) {
+      return classes;
+    }
+    Integer position = packageToPosition.get(packageName);
+    if (data == null || position == null) {
+      return Collections.emptyMap();
+    }
+    return packageToClasses.computeIfAbsent(packageName, k -> decodeClasses(data, position));
+  }
+
+  /**
+   * Get the declarations of the classes of a package, inflating them if this is the first time that
+   * one of them is read.
+   *
+   * @param packageName the name of a package
+   * @return the classes of the package mapped to their declarations, or the empty map if the
+   *     summary does not hold the declarations of the package
+   */
+  private Map<String, byte[]> getDeclarations(String packageName) {
+    Map<String, byte[]> declarations = packageToDeclarations.get(packageName);
+    if (declarations != null) {
+      return declarations;
+    }
+    Integer position = packageToPosition.get(packageName);
+    if (data == null || position == null) {
+      return Collections.emptyMap();
+    }
+    return packageToDeclarations.computeIfAbsent(
+        packageName, k -> decodeDeclarations(data, position));
+  }
+
+  /**
+   * Decode the classes of a package.
+   *
+   * @param data the encoded summary
+   * @param position the position of the classes of the package in data
+   * @return the classes of the package mapped to whether they are public
+   */
+  private static Map<String, Boolean> decodeClasses(byte[] data, int position) {
+    DataInputStream in =
+        new DataInputStream(new ByteArrayInputStream(data, position, data.length - position));
+    try {
+      int classCount = in.readInt();
+      Map<String, Boolean> classes = new HashMap<>(classCount * 2);
+      for (int i = 0; i < classCount; i++) {
+        classes.put(in.readUTF(), in.readBoolean());
+      }
+      return Collections.unmodifiableMap(classes);
+    } catch (IOException e) {
+      throw new RuntimeException("Specimin could not decode its summary of the JDK", e);
+    }
+  }
+
+  /**
+   * Decode the declarations of the classes of a package.
+   *
+   * @param data the encoded summary
+   * @param position the position of the classes of the package in data
+   * @return the classes of the package mapped to their declarations
+   */
+  private static Map<String, byte[]> decodeDeclarations(byte[] data, int position) {
+    ByteArrayInputStream bytes = new ByteArrayInputStream(data, position, data.length - position);
+    DataInputStream in = new DataInputStream(bytes);
+    try {
+      // Skip the classes, which precede the declarations.
+      int classCount = in.readInt();
+      for (int i = 0; i < classCount; i++) {
+        in.readUTF();
+        in.readBoolean();
+      }
+      int compressedLength = in.readInt();
+      if (compressedLength == -1) {
+        return Collections.emptyMap();
+      }
+      int compressedPosition = data.length - bytes.available();
+      DataInputStream declarationsIn =
+          new DataInputStream(
+              new InflaterInputStream(
+                  new ByteArrayInputStream(data, compressedPosition, compressedLength)));
+      int declarationCount = declarationsIn.readInt();
+      Map<String, byte[]> declarations = new HashMap<>(declarationCount * 2);
+      for (int i = 0; i < declarationCount; i++) {
+        String className = declarationsIn.readUTF();
+        byte[] declaration = new byte[declarationsIn.readInt()];
+        declarationsIn.readFully(declaration);
+        declarations.put(className, declaration);
+      }
+      return Collections.unmodifiableMap(declarations);
+    } catch (IOException e) {
+      throw new RuntimeException("Specimin could not decode its summary of the JDK", e);
+    }
+  }
+
+  /**
+   * List the packages of the JDK. The /packages directory of the run-time image is not used,
+   * because it also lists the directories that only contain other packages, such as "java".
+   *
+   * @return every package of the JDK, mapped to the module that contains it
+   */
+  static Map<String, String> readPackages() {
+    Map<String, String> result = new HashMap<>();
+    for (ModuleReference module : ModuleFinder.ofSystem().findAll()) {
+      ModuleDescriptor descriptor = module.descriptor();
+      for (String packageName : descriptor.packages()) {
+        result.putIfAbsent(packageName, descriptor.name());
+      }
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * List the classes of a package of the JDK in the run-time image.
+   *
+   * @param packageName a package of the JDK
+   * @param module the module that contains the package
+   * @return the binary names of the classes of the package, without the name of the package
+   */
+  static Set<String> listClasses(String packageName, String module) {
+    Set<String> result = new HashSet<>();
+    Path packageDirectory =
+        Jrt.FILE_SYSTEM.getPath("/modules", module, packageName.replace('.', '/'));
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(packageDirectory, "*.class")) {
+      for (Path file : files) {
+        String fileName = String.valueOf(file.getFileName());
+        result.add(fileName.substring(0, fileName.length() - ".class".length()));
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Specimin could not list the JDK package " + packageName, e);
+    }
+    return Collections.unmodifiableSet(result);
+  }
+
+  /**
+   * Create a class pool that reads the class files of the JDK from the given summary, if it holds
+   * their declarations, or else from the run-time image. Unlike the default class pool, it does not
+   * see the classes on Specimin's own class path.
+   *
+   * @param packageToModule every package of the JDK, mapped to the module that contains it
+   * @param summary the summary of the JDK, or null to read every class file from the run-time image
+   * @return a class pool for the JDK
+   */
+  static ClassPool createClassPool(
+      Map<String, String> packageToModule, @Nullable JdkSummary summary) {
+    ClassPool classPool = new ClassPool(false);
+    classPool.appendClassPath(
+        new ClassPath() {
+          @Override
+          public @Nullable InputStream openClassfile(String className) throws NotFoundException {
+            InputStream declaration = summary == null ? null : summary.openDeclaration(className);
+            if (declaration != null) {
+              return declaration;
+            }
+            Path classFile = getClassFile(packageToModule, className);
+            if (classFile == null) {
+              return null;
+            }
+            try {
+              return Files.newInputStream(classFile);
+            } catch (IOException e) {
+              throw new NotFoundException(className, e);
+            }
+          }
+
+          @Override
+          public @Nullable URL find(String className) {
+            if (summary != null && summary.openDeclaration(className) != null) {
+              // The URL of the class file in the run-time image can be made without opening the
+              // image.
+              int dot = className.lastIndexOf('.');
+              try {
+                return new URL(
+                    "jrt:/"
+                        + packageToModule.get(className.substring(0, dot))
+                        + "/"
+                        + className.replace('.', '/')
+                        + ".class");
+              } catch (MalformedURLException e) {
+                return null;
+              }
+            }
+            Path classFile = getClassFile(packageToModule, className);
+            try {
+              return classFile == null ? null : classFile.toUri().toURL();
+            } catch (MalformedURLException e) {
+              return null;
+            }
+          }
+        });
+    return classPool;
+  }
+
+  /**
+   * Get the class file of a JDK class in the run-time image.
+   *
+   * @param packageToModule every package of the JDK, mapped to the module that contains it
+   * @param binaryName the binary name of a class, such as "java.util.Map$Entry"
+   * @return the class file, or null if the class is not in the JDK
+   */
+  private static @Nullable Path getClassFile(
+      Map<String, String> packageToModule, String binaryName) {
+    int dot = binaryName.lastIndexOf('.');
+    String module = packageToModule.get(dot == -1 ? "" : binaryName.substring(0, dot));
+    if (module == null) {
+      return null;
+    }
+    Path classFile =
+        Jrt.FILE_SYSTEM.getPath("/modules", module, binaryName.replace('.', '/') + ".class");
+    return Files.isRegularFile(classFile) ? classFile : null;
+  }
+
+  /**
+   * Read the declaration of a JDK class from the run-time image: its class file without the code of
+   * its methods, without its static initializer, and without its private and synthetic fields and
+   * methods. Its constructors are kept, even the private ones, so that whether the class has any
+   * stays visible.
+   *
+   * @param packageToModule every package of the JDK, mapped to the module that contains it
+   * @param binaryName the binary name of a class of the JDK, such as "java.util.Map$Entry"
+   * @return the declaration of the class, in the class file format
+   * @throws IOException if the class file cannot be read
+   */
+  private static byte[] readDeclaration(Map<String, String> packageToModule, String binaryName)
+      throws IOException {
+    Path path = getClassFile(packageToModule, binaryName);
+    if (path == null) {
+      throw new IOException("no class file for " + binaryName);
+    }
+    ClassFile classFile;
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+      classFile = new ClassFile(in);
+    }
+    List<MethodInfo> methods = classFile.getMethods();
+    methods.removeIf(
+        method ->
+            method.isStaticInitializer()
+                || (!method.isConstructor() && isPrivateOrSynthetic(method.getAccessFlags())));
+    for (MethodInfo method : methods) {
+      method.removeCodeAttribute();
+    }
+    List<FieldInfo> fields = classFile.getFields();
+    fields.removeIf(field -> isPrivateOrSynthetic(field.getAccessFlags()));
+    // Drop the constants that only the removed code and members used.
+    classFile.compact();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    classFile.write(new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Are the given access flags those of a private or synthetic member?
+   *
+   * @param accessFlags the access flags of a field or method in a class file
+   * @return true if source code outside of the class cannot use the member
+   */
+  private static boolean isPrivateOrSynthetic(int accessFlags) {
+    return (accessFlags & (AccessFlag.PRIVATE | AccessFlag.SYNTHETIC)) != 0;
+  }
+
+  /**
+   * Is the given class public? A nested class is public if it and all the classes that enclose it
+   * are public or protected.
+   *
+   * @param ctClass a class of the JDK
+   * @return true if the class can be used outside of its package
+   */
+  static boolean isPublic(CtClass ctClass) {
+    try {
+      for (CtClass current = ctClass; current != null; current = current.getDeclaringClass()) {
+        if ((current.getModifiers() & (Modifier.PUBLIC | Modifier.PROTECTED)) == 0) {
+          return false;
+        }
+      }
+    } catch (NotFoundException e) {
+      return false;
+    }
+    return true;
+  }
+}
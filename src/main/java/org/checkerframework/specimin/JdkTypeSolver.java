@@ -1,16 +1,49 @@
 package org.checkerframework.specimin;
 
-import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.javassistmodel.JavassistFactory;
+import javassist.CtClass;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 
 /**
- * A specialized version of Java Parser's ReflectionTypeSolver that allows access to compiler
- * internals (e.g., com.sun and jdk. packages) in addition to the JRE, but does not include anything
- * else on Specimin's classpath (especially JavaParser itself).
+ * A type solver for the JDK that Specimin runs on, including compiler internals (e.g., com.sun and
+ * jdk. packages), but not anything else on Specimin's classpath (especially JavaParser itself).
+ * Unlike JavaParser's ReflectionTypeSolver, it does not load the JDK classes that it solves:
+ * whether a class exists is answered by the {@link JdkIndex}, and the declaration of the class is
+ * made from its class file, which is read by javassist, just like JavaParser's JarTypeSolver does
+ * for the classes in a jar file. The class files of java.base are read from memory, from the
+ * declarations in the bundled {@link JdkSummary}, if there is one.
  */
-public class JdkTypeSolver extends ReflectionTypeSolver {
+public class JdkTypeSolver implements TypeSolver {
+
+  /** The solver that contains this solver. */
+  private @MonotonicNonNull TypeSolver parent;
+
+  @Override
+  @SuppressWarnings("nullness:return") // the parent is null until setParent is called
+  public TypeSolver getParent() {
+    return parent;
+  }
+
+  @Override
+  public void setParent(TypeSolver parent) {
+    if (this.parent != null) {
+      throw new IllegalStateException("This TypeSolver already has a parent.");
+    }
+    if (parent == this) {
+      throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+    }
+    this.parent = parent;
+  }
 
   @Override
-  protected boolean filterName(String name) {
-    return JavaLangUtils.inJdkPackage(name);
+  public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+    CtClass ctClass = JdkIndex.getCtClass(name);
+    if (ctClass == null) {
+      return SymbolReference.unsolved();
+    }
+    return SymbolReference.solved(JavassistFactory.toTypeDeclaration(ctClass, getRoot()));
   }
 }
@@ -0,0 +1,85 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.resolution.cache.Cache;
+import com.github.javaparser.resolution.cache.CacheStats;
+import com.github.javaparser.symbolsolver.cache.DefaultCacheStats;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * A cache for JavaParser's type solvers that holds its entries until they are removed, and that can
+ * remove the entries of some keys only. JavaParser's own caches can only be emptied completely, so
+ * a type solver that uses one of them has to be thrown away as soon as one of its entries becomes
+ * stale. A type solver that uses this cache can instead live as long as the minimization, with only
+ * the stale entries removed by {@link #removeIf(Predicate)}.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+class MapCache<K, V> implements Cache<K, V> {
+
+  /** The entries of this cache. */
+  private final Map<K, V> entries = new HashMap<>();
+
+  @Override
+  public void put(K key, V value) {
+    entries.put(key, value);
+  }
+
+  @Override
+  public Optional<V> get(K key) {
+    return Optional.ofNullable(entries.get(key));
+  }
+
+  @Override
+  public void remove(K key) {
+    entries.remove(key);
+  }
+
+  @Override
+  public void removeAll() {
+    entries.clear();
+  }
+
+  @Override
+  public boolean contains(K key) {
+    return entries.containsKey(key);
+  }
+
+  @Override
+  public long size() {
+    return entries.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  @Override
+  public CacheStats stats() {
+    return new DefaultCacheStats();
+  }
+
+  /**
+   * Remove the entries whose keys satisfy the given predicate.
+   *
+   * @param stale the predicate that is true for the keys of the stale entries
+   */
+  void removeIf(Predicate<? super K> stale) {
+    entries.keySet().removeIf(stale);
+  }
+
+  /**
+   * Get the values of this cache. Note that the collection is read-only.
+   *
+   * @return the values of this cache
+   */
+  Collection<V> values() {
+    return Collections.unmodifiableCollection(entries.values());
+  }
+}
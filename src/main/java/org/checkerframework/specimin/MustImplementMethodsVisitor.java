@@ -39,6 +39,9 @@ public class MustImplementMethodsVisitor extends ModifierVisitor<Void> {
   /** for checking if class files are in the original codebase. */
   private Map<String, Path> existingClassesToFilePath;
 
+  /** The parser of the current run of Specimin, used to resolve nodes. */
+  private final ParserContext parserContext;
+
   /**
    * Constructs a new SolveMethodOverridingVisitor with the provided sets of target methods, used
    * members, and used classes.
@@ -46,12 +49,17 @@ public class MustImplementMethodsVisitor extends ModifierVisitor<Void> {
    * @param usedMembers Set containing the signatures of used members.
    * @param usedClass Set containing the signatures of used classes.
    * @param existingClassesToFilePath map from existing classes to file paths
+   * @param parserContext the parser of the current run of Specimin
    */
   public MustImplementMethodsVisitor(
-      Set<String> usedMembers, Set<String> usedClass, Map<String, Path> existingClassesToFilePath) {
+      Set<String> usedMembers,
+      Set<String> usedClass,
+      Map<String, Path> existingClassesToFilePath,
+      ParserContext parserContext) {
     this.usedMembers = usedMembers;
     this.usedClass = usedClass;
     this.existingClassesToFilePath = existingClassesToFilePath;
+    this.parserContext = parserContext;
   }
 
   /**
@@ -96,7 +104,7 @@ public class MustImplementMethodsVisitor extends ModifierVisitor<Void> {
     // is technically optional, but it is widely used.)
     if (isPreservedAndAbstract(overridden)
         || (overridden == null && overridesAnInterfaceMethod(method))) {
-      ResolvedMethodDeclaration resolvedMethod = method.resolve();
+      ResolvedMethodDeclaration resolvedMethod = parserContext.resolve(method);
       Set<String> returnAndParamTypes = new HashSet<>();
       try {
         returnAndParamTypes.add(resolvedMethod.getReturnType().describe());
@@ -158,7 +166,7 @@ public class MustImplementMethodsVisitor extends ModifierVisitor<Void> {
     ResolvedMethodDeclaration resolved;
     String signature;
     try {
-      resolved = method.resolve();
+      resolved = parserContext.resolve(method);
       signature = resolved.getSignature();
     } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
       // Some part of the signature isn't being preserved, so this shouldn't be preserved,
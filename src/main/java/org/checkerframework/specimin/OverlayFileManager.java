@@ -0,0 +1,180 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A file manager for the in-process javac used by {@link JavaTypeCorrect}. It adds the jar classes
+ * decompiled by a {@link JarDecompiler} and the synthetic files of a {@link SyntheticSourceOverlay}
+ * to javac's source path, behind the files of the root directory, in the same way as {@link
+ * DecompilingTypeSolver} and {@link OverlayTypeSolver} add them to JavaParser's type solver. So
+ * javac sees exactly the classes that Specimin sees, without any of these files being written to
+ * the disk first.
+ */
+class OverlayFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+  /** The decompiled jar classes, keyed by their paths relative to the root directory. */
+  private final Map<String, String> decompiledSources;
+
+  /** The synthetic files. */
+  private final SyntheticSourceOverlay overlay;
+
+  /** A synthetic or decompiled file, as a source file for javac. */
+  private static final class OverlayFile extends SimpleJavaFileObject {
+
+    /** The path of the file relative to the root directory. */
+    private final String path;
+
+    /** The binary name of the top-level class that the file is named after. */
+    private final String binaryName;
+
+    /** The source code of the file. */
+    private final String source;
+
+    /**
+     * Creates a new source file for a synthetic or decompiled file.
+     *
+     * @param scheme the scheme of the URI of the file, which tells where the file comes from
+     * @param path the path of the file relative to the root directory, such as
+     *     "com/example/Foo.java"
+     * @param source the source code of the file
+     */
+    OverlayFile(String scheme, String path, String source) {
+      super(toUri(scheme, path), JavaFileObject.Kind.SOURCE);
+      this.path = path;
+      this.binaryName = path.substring(0, path.length() - ".java".length()).replace('/', '.');
+      this.source = source;
+    }
+
+    /**
+     * Get the URI of a synthetic or decompiled file. The URI is only used to identify the file in
+     * javac's messages.
+     *
+     * @param scheme the scheme of the URI
+     * @param path the path of the file relative to the root directory
+     * @return a URI whose path is the path of the file
+     */
+    private static URI toUri(String scheme, String path) {
+      try {
+        return new URI(scheme, null, "/" + path, null);
+      } catch (URISyntaxException e) {
+        throw new RuntimeException("the in-memory file " + path + " has an invalid path", e);
+      }
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return source;
+    }
+  }
+
+  /**
+   * Creates a new file manager, whose source path is the root directory, the decompiled jar classes
+   * and the synthetic files.
+   *
+   * @param fileManager the standard file manager, whose source path must already be set to the root
+   *     directory
+   * @param decompiledSources the decompiled jar classes, keyed by their paths relative to the root
+   *     directory
+   * @param overlay the synthetic files
+   */
+  OverlayFileManager(
+      StandardJavaFileManager fileManager,
+      Map<String, String> decompiledSources,
+      SyntheticSourceOverlay overlay) {
+    super(fileManager);
+    this.decompiledSources = decompiledSources;
+    this.overlay = overlay;
+  }
+
+  /**
+   * Get the path of a synthetic or decompiled file that javac read through an overlay file manager.
+   *
+   * @param file a file given to javac
+   * @return the path of the file relative to the root directory, or null if the file is neither a
+   *     synthetic nor a decompiled file
+   */
+  static @Nullable String getOverlayPath(JavaFileObject file) {
+    if (file instanceof OverlayFile) {
+      return ((OverlayFile) file).path;
+    }
+    return null;
+  }
+
+  @Override
+  public Iterable<JavaFileObject> list(
+      JavaFileManager.Location location,
+      String packageName,
+      Set<JavaFileObject.Kind> kinds,
+      boolean recurse)
+      throws IOException {
+    Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+    if (location != StandardLocation.SOURCE_PATH || !kinds.contains(JavaFileObject.Kind.SOURCE)) {
+      return files;
+    }
+    // The files of the root directory come first, so that they take precedence over synthetic
+    // files with the same name, as they did when the synthetic files were a second source path.
+    // The decompiled files come next, as they did when they were decompiled into the root
+    // directory.
+    List<JavaFileObject> result = new ArrayList<>();
+    files.forEach(result::add);
+    String packageDirectory = packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+    addFiles(result, "specimin-decompiled", decompiledSources, packageDirectory, recurse);
+    addFiles(result, "specimin-synthetic", overlay.getSources(), packageDirectory, recurse);
+    return result;
+  }
+
+  /**
+   * Add the in-memory files of a package to a list of source files.
+   *
+   * @param result the list of source files
+   * @param scheme the scheme of the URIs of the files
+   * @param sources the in-memory files, keyed by their paths relative to the root directory
+   * @param packageDirectory the directory of the package, with a trailing slash, or the empty
+   *     string for the default package
+   * @param recurse true to also add the files of the subpackages of the package
+   */
+  private static void addFiles(
+      List<JavaFileObject> result,
+      String scheme,
+      Map<String, String> sources,
+      String packageDirectory,
+      boolean recurse) {
+    for (Map.Entry<String, String> source : sources.entrySet()) {
+      String path = source.getKey();
+      if (path.startsWith(packageDirectory)
+          && (recurse || path.indexOf('/', packageDirectory.length()) == -1)) {
+        result.add(new OverlayFile(scheme, path, source.getValue()));
+      }
+    }
+  }
+
+  @Override
+  public @Nullable String inferBinaryName(JavaFileManager.Location location, JavaFileObject file) {
+    if (file instanceof OverlayFile) {
+      return ((OverlayFile) file).binaryName;
+    }
+    return super.inferBinaryName(location, file);
+  }
+
+  @Override
+  public boolean isSameFile(FileObject a, FileObject b) {
+    if (a instanceof OverlayFile || b instanceof OverlayFile) {
+      return a.toUri().equals(b.toUri());
+    }
+    return super.isSameFile(a, b);
+  }
+}
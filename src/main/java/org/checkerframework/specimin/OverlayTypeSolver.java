@@ -0,0 +1,223 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.resolution.Navigator;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A type solver for the synthetic classes in a {@link SyntheticSourceOverlay}. It finds classes in
+ * the same way as JavaParser's JavaParserTypeSolver finds them in a source directory, except that
+ * the files are read from the overlay instead of the disk. Like JavaParserTypeSolver, it caches
+ * every file it parses and every name it looks up. Unlike JavaParserTypeSolver, it lives as long as
+ * the overlay: once some synthetic files have changed, {@link #invalidate(Set)} forgets only those
+ * files and the names that may be declared in them.
+ */
+class OverlayTypeSolver implements TypeSolver {
+
+  /** The synthetic files. */
+  private final SyntheticSourceOverlay overlay;
+
+  /** The parser for the synthetic files. */
+  private final JavaParser parser = new JavaParser(new ParserConfiguration());
+
+  /** The parsed synthetic files, keyed by their paths in the overlay. */
+  private final Map<String, Optional<CompilationUnit>> parsedFiles = new HashMap<>();
+
+  /** The results of {@link #tryToSolveType(String)}, keyed by the name that was looked up. */
+  private final Map<String, SymbolReference<ResolvedReferenceTypeDeclaration>> foundTypes =
+      new HashMap<>();
+
+  /** The combined solver that contains this solver. */
+  private @MonotonicNonNull TypeSolver parent;
+
+  /**
+   * Creates a new type solver for the given overlay.
+   *
+   * @param overlay the synthetic files
+   */
+  OverlayTypeSolver(SyntheticSourceOverlay overlay) {
+    this.overlay = overlay;
+  }
+
+  @Override
+  @SuppressWarnings("nullness:return") // the parent is null until setParent is called
+  public TypeSolver getParent() {
+    return parent;
+  }
+
+  @Override
+  public void setParent(TypeSolver parent) {
+    if (this.parent != null) {
+      throw new IllegalStateException("This TypeSolver already has a parent.");
+    }
+    if (parent == this) {
+      throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+    }
+    this.parent = parent;
+  }
+
+  /**
+   * Forget the given synthetic files, which were added, changed or removed, and the results of
+   * looking up the names that may be declared in them. The other parsed files are kept, but the
+   * types that the symbol solver cached in their nodes are removed, since they may refer to the
+   * forgotten files.
+   *
+   * @param changedPaths the paths of the files that changed in the overlay
+   */
+  void invalidate(Set<String> changedPaths) {
+    if (changedPaths.isEmpty()) {
+      return;
+    }
+    parsedFiles.keySet().removeAll(changedPaths);
+    foundTypes.keySet().removeIf(mayBeDeclaredIn(changedPaths));
+    for (Optional<CompilationUnit> compilationUnit : parsedFiles.values()) {
+      compilationUnit.ifPresent(JavaParserUtil::removeCachedData);
+    }
+  }
+
+  /**
+   * Get a predicate that is true for the names that may be declared in one of the given files. A
+   * name such as "a.b.C.D" is looked up in the files of the directories "a/b/C", "a/b", "a" and in
+   * the root directory, so it may be declared in a file of any of these directories.
+   *
+   * @param paths the paths of some files in the overlay
+   * @return the predicate on fully-qualified names
+   */
+  static Predicate<String> mayBeDeclaredIn(Set<String> paths) {
+    Set<String> packages = new HashSet<>();
+    for (String path : paths) {
+      int lastSlash = path.lastIndexOf('/');
+      packages.add(lastSlash == -1 ? "" : path.substring(0, lastSlash).replace('/', '.'));
+    }
+    if (packages.contains("")) {
+      return name -> true;
+    }
+    return name -> {
+      for (int dot = name.indexOf('.'); dot != -1; dot = name.indexOf('.', dot + 1)) {
+        if (packages.contains(name.substring(0, dot))) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  @Override
+  public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+    SymbolReference<ResolvedReferenceTypeDeclaration> result = foundTypes.get(name);
+    if (result == null) {
+      result = tryToSolveTypeUncached(name);
+      foundTypes.put(name, result);
+    }
+    return result;
+  }
+
+  /**
+   * Look up a type in the overlay. For a name such as "a.b.C.D", this method first looks for a type
+   * "D" in the file "a/b/C/D.java", then for a type "C.D" in the file "a/b/C.java", and so on.
+   * Failing that, it looks for the type in the other synthetic files of the same package, since a
+   * file may declare classes that are not named after it.
+   *
+   * @param name the fully-qualified name of a type
+   * @return a reference to the type, which is unsolved if the type is not in the overlay
+   */
+  private SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveTypeUncached(String name) {
+    String[] nameElements = name.split("\\.");
+    for (int i = nameElements.length; i > 0; i--) {
+      String packageDirectory = String.join("/", Arrays.copyOfRange(nameElements, 0, i - 1));
+      String path =
+          (packageDirectory.isEmpty() ? "" : packageDirectory + "/")
+              + nameElements[i - 1]
+              + ".java";
+      String typeName =
+          String.join(".", Arrays.copyOfRange(nameElements, i - 1, nameElements.length));
+      @Nullable TypeDeclaration<?> found = findType(path, typeName);
+      if (found != null) {
+        return solved(found);
+      }
+      for (String otherPath : overlay.getSources().keySet()) {
+        if (!otherPath.equals(path) && isInDirectory(otherPath, packageDirectory)) {
+          found = findType(otherPath, typeName);
+          if (found != null) {
+            return solved(found);
+          }
+        }
+      }
+    }
+    return SymbolReference.unsolved();
+  }
+
+  /**
+   * Find a type declaration in a synthetic file.
+   *
+   * @param path the path of the file in the overlay
+   * @param typeName the name of the type relative to the file, such as "C" or "C.D"
+   * @return the declaration of the type, or null if the file or the type does not exist
+   */
+  private @Nullable TypeDeclaration<?> findType(String path, String typeName) {
+    Optional<CompilationUnit> compilationUnit = parsedFiles.get(path);
+    if (compilationUnit == null) {
+      compilationUnit = parse(path);
+      parsedFiles.put(path, compilationUnit);
+    }
+    if (!compilationUnit.isPresent()) {
+      return null;
+    }
+    return Navigator.findType(compilationUnit.get(), typeName).orElse(null);
+  }
+
+  /**
+   * Parse a synthetic file.
+   *
+   * @param path the path of the file in the overlay
+   * @return the parsed file, or an empty optional if there is no such file or it cannot be parsed
+   */
+  private Optional<CompilationUnit> parse(String path) {
+    String source = overlay.getSource(path);
+    if (source == null) {
+      return Optional.empty();
+    }
+    ParseResult<CompilationUnit> result = parser.parse(source);
+    return result.isSuccessful() ? result.getResult() : Optional.empty();
+  }
+
+  /**
+   * Check whether a file is directly inside a directory.
+   *
+   * @param path the path of a file in the overlay
+   * @param directory a directory, relative to the root directory, or the empty string for the root
+   *     directory itself
+   * @return true if the file is directly inside the directory
+   */
+  private static boolean isInDirectory(String path, String directory) {
+    int lastSlash = path.lastIndexOf('/');
+    return directory.equals(lastSlash == -1 ? "" : path.substring(0, lastSlash));
+  }
+
+  /**
+   * Create a solved reference to the given type declaration.
+   *
+   * @param typeDeclaration a type declaration from a synthetic file
+   * @return a solved reference to the declaration
+   */
+  private SymbolReference<ResolvedReferenceTypeDeclaration> solved(
+      TypeDeclaration<?> typeDeclaration) {
+    return SymbolReference.solved(JavaParserFacade.get(this).getTypeDeclaration(typeDeclaration));
+  }
+}
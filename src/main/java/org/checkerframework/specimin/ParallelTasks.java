@@ -0,0 +1,152 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs independent tasks, such as parsing or scanning many files, on all available cores. The tasks
+ * are run by a pool of one thread per core, and their results are returned in the order of the
+ * inputs, so that Specimin's output does not depend on which task finishes first. If several tasks
+ * fail, the failure of the first one, in the order of the inputs, is reported, which is the same
+ * failure that running the tasks one after another would report.
+ *
+ * <p>Each {@link SpeciminSession} owns its own pool, and shuts it down when it is closed. The tasks
+ * read files, so they would block the common fork/join pool that the rest of the JVM shares, and
+ * nothing that a task leaves in the state of its thread outlives the session.
+ */
+class ParallelTasks {
+
+  /**
+   * A task that maps one input to one result, and may throw an IOException.
+   *
+   * @param <T> the type of the input
+   * @param <R> the type of the result
+   */
+  @FunctionalInterface
+  interface Task<T, R> {
+
+    /**
+     * Run the task on one input.
+     *
+     * @param input the input
+     * @return the result
+     * @throws IOException if the task cannot read a file
+     */
+    R apply(T input) throws IOException;
+  }
+
+  /** The threads that run the tasks. */
+  private final ExecutorService executor;
+
+  /**
+   * Creates a new pool with one thread per available core. The threads are only started once
+   * needed.
+   */
+  ParallelTasks() {
+    this.executor =
+        Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            runnable -> {
+              Thread thread = new Thread(runnable, "specimin-parallel-task");
+              // A pool that is never shut down must not keep the JVM alive.
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Run a task on every input with a new pool, which is shut down once all the tasks are done. This
+   * is for the indexes that are built before their session exists.
+   *
+   * @param <T> the type of the inputs
+   * @param <R> the type of the results
+   * @param inputs the inputs
+   * @param task the task to run on each input
+   * @return the results, in the order of the inputs
+   * @throws IOException if the task throws an IOException for one of the inputs
+   */
+  static <T, R> List<R> mapOnce(List<T> inputs, Task<T, R> task) throws IOException {
+    ParallelTasks tasks = new ParallelTasks();
+    try {
+      return tasks.map(inputs, task);
+    } finally {
+      tasks.shutdown();
+    }
+  }
+
+  /**
+   * Stop the threads of this pool once the tasks that are running are done. No task can be run
+   * afterwards.
+   */
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Run a task on every input, in parallel. Fewer than two inputs are handled on the current
+   * thread, since there is nothing to gain from handing them to the pool.
+   *
+   * @param <T> the type of the inputs
+   * @param <R> the type of the results
+   * @param inputs the inputs
+   * @param task the task to run on each input
+   * @return the results, in the order of the inputs
+   * @throws IOException if the task throws an IOException for one of the inputs
+   */
+  <T, R> List<R> map(List<T> inputs, Task<T, R> task) throws IOException {
+    List<R> results = new ArrayList<>(inputs.size());
+    if (inputs.size() < 2) {
+      for (T input : inputs) {
+        results.add(task.apply(input));
+      }
+      return results;
+    }
+    List<Future<R>> forks = new ArrayList<>(inputs.size());
+    for (T input : inputs) {
+      forks.add(executor.submit(() -> task.apply(input)));
+    }
+    try {
+      for (Future<R> fork : forks) {
+        results.add(join(fork));
+      }
+    } finally {
+      // After a failure, the remaining tasks are useless; do not let them occupy the pool.
+      for (Future<R> fork : forks) {
+        fork.cancel(false);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Wait for a task to finish, and rethrow its exception as it was thrown by the task.
+   *
+   * @param <R> the type of the result
+   * @param fork a task that was submitted to the pool
+   * @return the result of the task
+   * @throws IOException if the task threw an IOException
+   */
+  private static <R> R join(Future<R> fork) throws IOException {
+    try {
+      return fork.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+  }
+}
@@ -0,0 +1,528 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.Problem;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.Resolvable;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The parser configuration, parser and symbol solver of a single minimization. Specimin used to
+ * keep this state in the configuration of StaticJavaParser, which is shared by everything that runs
+ * on the same thread. Each minimization now creates its own context and passes it to the visitors
+ * that need to parse code, so that several minimizations can run in the same JVM without seeing
+ * each other's symbol solvers. The context also holds the synthetic classes created during the
+ * minimization, in a {@link SyntheticSourceOverlay} on top of the root directory. Below the
+ * synthetic files, the files that the {@link JarDecompiler} of the session has decompiled are read
+ * as if they were in the root directory, though they are only kept in memory.
+ *
+ * <p>A context is not thread-safe: it must only be used by the minimization that created it. The
+ * only exception is {@link #parseAll(String, Collection)} and {@link #parseAllParseable(String,
+ * Collection)}, which parse many files at once on all available cores, with the {@link
+ * ParallelTasks} of the session and a new parser for each file.
+ */
+class ParserContext {
+
+  /** The session of the minimization that owns this context. */
+  private final SpeciminSession session;
+
+  /** The configuration used for all parsing in this context. */
+  private final ParserConfiguration configuration;
+
+  /** The synthetic files of the minimization. */
+  private final SyntheticSourceOverlay syntheticSources = new SyntheticSourceOverlay();
+
+  /**
+   * The files parsed by {@link #reparseAll(String, Collection)} and {@link
+   * #reparseAllParseable(String, Collection)}, keyed by path. A file is only parsed again once its
+   * source code has changed.
+   */
+  private final Map<String, ParsedFile> parsedFiles = new HashMap<>();
+
+  /** The type solver for the synthetic files. */
+  private final OverlayTypeSolver overlayTypeSolver;
+
+  /** The type solver for the root directory. */
+  private final DecompilingTypeSolver rootTypeSolver;
+
+  /**
+   * The cache of the combined type solver, which maps every name that has been looked up to the
+   * result of the lookup.
+   */
+  private final MapCache<String, SymbolReference<ResolvedReferenceTypeDeclaration>> typeCache =
+      new MapCache<>();
+
+  /** The type solver that combines the type solvers of the session and of this context. */
+  private final CombinedTypeSolver typeSolver;
+
+  /** The symbol solver of this context. */
+  private final JavaSymbolSolver symbolSolver;
+
+  /**
+   * The generation of the current symbol solver: the number of times that {@link
+   * #updateSymbolSolver()} has been called.
+   */
+  private int solverGeneration = 0;
+
+  /** The results of resolving nodes with the current symbol solver. */
+  private ResolutionCache resolutionCache = new ResolutionCache();
+
+  /**
+   * Creates a new context for a minimization against the given session, and sets up its symbol
+   * solver.
+   *
+   * @param session the session of the minimization
+   */
+  ParserContext(SpeciminSession session) {
+    this.session = session;
+    this.configuration =
+        new ParserConfiguration().setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_17);
+    this.overlayTypeSolver = new OverlayTypeSolver(syntheticSources);
+    this.rootTypeSolver = new DecompilingTypeSolver(session.getRoot(), session.getJarDecompiler());
+    // Set up the parser's symbol solver, so that we can resolve definitions.
+    this.typeSolver =
+        new StacklessCombinedTypeSolver(
+            typeCache,
+            session.getJdkTypeSolver(),
+            overlayTypeSolver,
+            rootTypeSolver,
+            session.getJarTypeSolver());
+    this.symbolSolver = new JavaSymbolSolver(typeSolver);
+    configuration.setSymbolResolver(symbolSolver);
+  }
+
+  /**
+   * Get the synthetic files of this context. Files added to the overlay are seen by {@link
+   * #parse(String, String)} immediately, and by the symbol solver after the next call to {@link
+   * #updateSymbolSolver()}.
+   *
+   * @return the synthetic files
+   */
+  SyntheticSourceOverlay getSyntheticSources() {
+    return syntheticSources;
+  }
+
+  /**
+   * Update the symbol solver of this context. This must be called whenever the synthetic files
+   * change, so that the changed files are considered when solving symbols. The symbol solver and
+   * its type solvers live as long as this context, and so do their caches: only the cached lookups
+   * of the names that may be declared in the changed synthetic files are removed, along with the
+   * types that the symbol solver cached in the nodes of the files it parsed. The results of earlier
+   * resolutions are forgotten, since the symbol solver may now resolve the same nodes differently.
+   */
+  void updateSymbolSolver() {
+    Set<String> changedPaths = syntheticSources.takeChangedPaths();
+    overlayTypeSolver.invalidate(changedPaths);
+    typeCache.removeIf(OverlayTypeSolver.mayBeDeclaredIn(changedPaths));
+    rootTypeSolver.forgetResolvedTypes();
+    // Another context of the same session may have taken the type solvers of the session.
+    session.getJdkTypeSolver().setParent(typeSolver);
+    session.getJarTypeSolver().setParent(typeSolver);
+    solverGeneration++;
+    resolutionCache = new ResolutionCache();
+  }
+
+  /**
+   * Get the generation of the current symbol solver. It starts at 0 and is incremented by every
+   * call to {@link #updateSymbolSolver()}.
+   *
+   * @return the generation of the current symbol solver
+   */
+  int getSolverGeneration() {
+    return solverGeneration;
+  }
+
+  /**
+   * Resolve a node with the current symbol solver, as if by calling its resolve() method. The
+   * result, or the exception, is remembered until the next call to {@link #updateSymbolSolver()},
+   * so that the visitors that run one after the other on the same compilation units only resolve
+   * each node once.
+   *
+   * @param <T> the kind of the result, such as ResolvedMethodDeclaration for a method call
+   * @param node a node that can be resolved
+   * @return the result of node.resolve()
+   * @throws RuntimeException the exception that node.resolve() threw, such as an
+   *     UnsolvedSymbolException
+   */
+  <T> T resolve(Resolvable<T> node) {
+    return resolutionCache.resolve(node);
+  }
+
+  /**
+   * Calculate the type of an expression with the current symbol solver, as if by calling its
+   * calculateResolvedType() method. Like {@link #resolve(Resolvable)}, the result is remembered
+   * until the next call to {@link #updateSymbolSolver()}.
+   *
+   * @param expression an expression
+   * @return the type of the expression
+   * @throws RuntimeException the exception that calculateResolvedType() threw, such as an
+   *     UnsolvedSymbolException
+   */
+  ResolvedType calculateResolvedType(Expression expression) {
+    return resolutionCache.calculateResolvedType(expression);
+  }
+
+  /**
+   * Try to resolve a node with the current symbol solver. This is the same as {@link
+   * #resolve(Resolvable)}, except that an unsolved node is reported by an empty result instead of
+   * an exception: once a node is known to be unsolved, asking about it again is as cheap as asking
+   * about a solved node.
+   *
+   * @param <T> the kind of the result, such as ResolvedMethodDeclaration for a method call
+   * @param node a node that can be resolved
+   * @return the result of node.resolve(), or an empty optional if node.resolve() threw an
+   *     UnsolvedSymbolException or an UnsupportedOperationException
+   * @throws RuntimeException any other exception that node.resolve() threw
+   */
+  <T> Optional<T> tryResolve(Resolvable<T> node) {
+    return resolutionCache.tryResolve(node);
+  }
+
+  /**
+   * Try to calculate the type of an expression with the current symbol solver. This is the same as
+   * {@link #calculateResolvedType(Expression)}, except that an unsolved type is reported by an
+   * empty result instead of an exception.
+   *
+   * @param expression an expression
+   * @return the type of the expression, or an empty optional if calculateResolvedType() threw an
+   *     UnsolvedSymbolException or an UnsupportedOperationException
+   * @throws RuntimeException any other exception that calculateResolvedType() threw
+   */
+  Optional<ResolvedType> tryCalculateResolvedType(Expression expression) {
+    return resolutionCache.tryCalculateResolvedType(expression);
+  }
+
+  /**
+   * Use JavaParser to parse a single Java file. If there is a synthetic file at the given path, it
+   * is parsed instead of the file on the disk. Likewise, a decompiled jar class is parsed from the
+   * memory of the jar decompiler.
+   *
+   * @param root the absolute path to the root of the source tree
+   * @param path the path of the file to be parsed, relative to the root
+   * @return the compilation unit representing the code in the file at the path
+   * @throws IOException if the file cannot be read
+   * @throws ParseProblemException if the file cannot be parsed
+   */
+  CompilationUnit parse(String root, String path) throws IOException {
+    JavaParser parser = newParser();
+    String source = getSourceInMemory(path);
+    if (source != null) {
+      return getResult(parser.parse(source));
+    }
+    return getResult(parser.parse(Path.of(root, path)));
+  }
+
+  /**
+   * Get the source code of a Java file that is not read from the disk: a synthetic file, or else a
+   * jar class that the session has decompiled.
+   *
+   * @param path the path of the file, relative to the root
+   * @return the source code of the file, or null if the file is on the disk or does not exist
+   */
+  private @Nullable String getSourceInMemory(String path) {
+    String syntheticSource = syntheticSources.getSource(path);
+    if (syntheticSource != null) {
+      return syntheticSource;
+    }
+    return session.getJarDecompiler().getDecompiledSource(path);
+  }
+
+  /**
+   * Parse several Java files in parallel, as if by calling {@link #parse(String, String)} on each
+   * of them in turn. Neither the synthetic files nor the symbol solver may change while this method
+   * runs.
+   *
+   * @param root the absolute path to the root of the source tree
+   * @param paths the paths of the files to be parsed, relative to the root
+   * @return the compilation units, keyed by path, in the iteration order of paths
+   * @throws IOException if one of the files cannot be read
+   * @throws ParseProblemException if one of the files cannot be parsed. If several files cannot be
+   *     parsed, the exception is the one for the first of them in the iteration order of paths.
+   */
+  Map<String, CompilationUnit> parseAll(String root, Collection<String> paths) throws IOException {
+    List<String> pathList = new ArrayList<>(paths);
+    List<CompilationUnit> compilationUnits =
+        session.getParallelTasks().map(pathList, path -> parse(root, path));
+    Map<String, CompilationUnit> result = new LinkedHashMap<>();
+    for (int i = 0; i < pathList.size(); i++) {
+      result.put(pathList.get(i), compilationUnits.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Like {@link #parseAll(String, Collection)}, but skips the files that cannot be parsed instead
+   * of throwing an exception.
+   *
+   * @param root the absolute path to the root of the source tree
+   * @param paths the paths of the files to be parsed, relative to the root
+   * @return the compilation units of the files that could be parsed, keyed by path, in the
+   *     iteration order of paths
+   * @throws IOException if one of the files cannot be read
+   */
+  Map<String, CompilationUnit> parseAllParseable(String root, Collection<String> paths)
+      throws IOException {
+    List<String> pathList = new ArrayList<>(paths);
+    List<Optional<CompilationUnit>> compilationUnits =
+        session
+            .getParallelTasks()
+            .map(
+                pathList,
+                path -> {
+                  try {
+                    return Optional.of(parse(root, path));
+                  } catch (ParseProblemException e) {
+                    return Optional.empty();
+                  }
+                });
+    Map<String, CompilationUnit> result = new LinkedHashMap<>();
+    for (int i = 0; i < pathList.size(); i++) {
+      Optional<CompilationUnit> compilationUnit = compilationUnits.get(i);
+      if (compilationUnit.isPresent()) {
+        result.put(pathList.get(i), compilationUnit.get());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Like {@link #parseAll(String, Collection)}, but reuses the compilation unit of every file whose
+   * source code is the same as when this method or {@link #reparseAllParseable(String, Collection)}
+   * last parsed it. Reused compilation units are moved to the current symbol solver, so the result
+   * is the same as if every file had been parsed again, as long as the caller did not modify the
+   * compilation units. Files on the disk do not change during a minimization, so only the synthetic
+   * files are actually parsed again, and only once they have changed.
+   *
+   * @param root the absolute path to the root of the source tree
+   * @param paths the paths of the files to be parsed, relative to the root
+   * @return the compilation units, keyed by path, in the iteration order of paths
+   * @throws IOException if one of the files cannot be read
+   * @throws ParseProblemException if one of the files cannot be parsed. If several files cannot be
+   *     parsed, the exception is the one for the first of them in the iteration order of paths.
+   */
+  Map<String, CompilationUnit> reparseAll(String root, Collection<String> paths)
+      throws IOException {
+    Map<String, CompilationUnit> result = new LinkedHashMap<>();
+    for (Map.Entry<String, ParsedFile> entry : reparse(root, paths).entrySet()) {
+      CompilationUnit compilationUnit = entry.getValue().compilationUnit;
+      if (compilationUnit == null) {
+        throw new ParseProblemException(entry.getValue().problems);
+      }
+      result.put(entry.getKey(), compilationUnit);
+    }
+    return result;
+  }
+
+  /**
+   * Like {@link #reparseAll(String, Collection)}, but skips the files that cannot be parsed instead
+   * of throwing an exception.
+   *
+   * @param root the absolute path to the root of the source tree
+   * @param paths the paths of the files to be parsed, relative to the root
+   * @return the compilation units of the files that could be parsed, keyed by path, in the
+   *     iteration order of paths
+   * @throws IOException if one of the files cannot be read
+   */
+  Map<String, CompilationUnit> reparseAllParseable(String root, Collection<String> paths)
+      throws IOException {
+    Map<String, CompilationUnit> result = new LinkedHashMap<>();
+    for (Map.Entry<String, ParsedFile> entry : reparse(root, paths).entrySet()) {
+      CompilationUnit compilationUnit = entry.getValue().compilationUnit;
+      if (compilationUnit != null) {
+        result.put(entry.getKey(), compilationUnit);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Parse the files whose source code has changed since they were last parsed by this method, in
+   * parallel, and move the compilation units of the others to the current symbol solver.
+   *
+   * @param root the absolute path to the root of the source tree
+   * @param paths the paths of the files to be parsed, relative to the root
+   * @return the parsed files, keyed by path, in the iteration order of paths
+   * @throws IOException if one of the files cannot be read
+   */
+  private Map<String, ParsedFile> reparse(String root, Collection<String> paths)
+      throws IOException {
+    List<String> pathList = new ArrayList<>(paths);
+    // The tasks only read parsedFiles; it is updated below, once they are all done.
+    List<ParsedFile> files =
+        session
+            .getParallelTasks()
+            .map(
+                pathList,
+                path -> {
+                  String source = readSource(root, path);
+                  ParsedFile previous = parsedFiles.get(path);
+                  if (previous != null && previous.source.equals(source)) {
+                    return previous;
+                  }
+                  return new ParsedFile(source, newParser().parse(source));
+                });
+    Map<String, ParsedFile> result = new LinkedHashMap<>();
+    for (int i = 0; i < pathList.size(); i++) {
+      String path = pathList.get(i);
+      ParsedFile file = files.get(i);
+      if (file == parsedFiles.get(path) && file.compilationUnit != null) {
+        moveToCurrentSymbolSolver(file.compilationUnit);
+      }
+      parsedFiles.put(path, file);
+      result.put(path, file);
+    }
+    return result;
+  }
+
+  /**
+   * Move a compilation unit that was parsed earlier to the current symbol solver. The symbol solver
+   * caches the types that it resolves in the data of the nodes, so all the data of the nodes is
+   * removed, except for the line separator that the parser found in the file: those types may have
+   * changed along with the synthetic files.
+   *
+   * @param compilationUnit a compilation unit
+   */
+  private void moveToCurrentSymbolSolver(CompilationUnit compilationUnit) {
+    JavaParserUtil.removeCachedData(compilationUnit);
+    compilationUnit.setData(Node.SYMBOL_RESOLVER_KEY, symbolSolver);
+  }
+
+  /**
+   * Read the source code of a Java file, from the synthetic files if there is a synthetic file at
+   * the given path, from the decompiled jar classes if there is one, and otherwise from the disk,
+   * in the same way as {@link #parse(String, String)}.
+   *
+   * @param root the absolute path to the root of the source tree
+   * @param path the path of the file, relative to the root
+   * @return the source code of the file
+   * @throws IOException if the file cannot be read
+   */
+  private String readSource(String root, String path) throws IOException {
+    String source = getSourceInMemory(path);
+    if (source != null) {
+      return source;
+    }
+    return new String(
+        Files.readAllBytes(Path.of(root, path)), configuration.getCharacterEncoding());
+  }
+
+  /**
+   * Check whether there is a Java file at the given path, either a synthetic file, a decompiled jar
+   * class, or a file on the disk.
+   *
+   * @param root the absolute path to the root of the source tree
+   * @param path the path of a file, relative to the root
+   * @return true if {@link #parse(String, String)} can read the file at the path
+   */
+  boolean exists(String root, String path) {
+    return getSourceInMemory(path) != null || new File(root + path).exists();
+  }
+
+  /**
+   * Create a parser with the configuration of this context. A JavaParser cannot be shared between
+   * threads, and is cheap to create, so a new one is used for every parse. Keeping one per thread
+   * instead would let the threads of the session's pool keep this context alive through the symbol
+   * solver in its configuration.
+   *
+   * @return a new parser
+   */
+  private JavaParser newParser() {
+    return new JavaParser(configuration);
+  }
+
+  /**
+   * Parse a block statement, such as a method body.
+   *
+   * @param blockStatement the source code of the block, including the braces
+   * @return the parsed block
+   */
+  BlockStmt parseBlock(String blockStatement) {
+    return getResult(newParser().parseBlock(blockStatement));
+  }
+
+  /**
+   * Parse a type.
+   *
+   * @param type the source code of the type
+   * @return the parsed type
+   */
+  Type parseType(String type) {
+    return getResult(newParser().parseType(type));
+  }
+
+  /**
+   * Parse a class or interface type.
+   *
+   * @param type the source code of the type
+   * @return the parsed type
+   */
+  ClassOrInterfaceType parseClassOrInterfaceType(String type) {
+    return getResult(newParser().parseClassOrInterfaceType(type));
+  }
+
+  /** The source code of a file parsed by {@link #reparse(String, Collection)}, and the result. */
+  private static class ParsedFile {
+
+    /** The source code of the file. */
+    final String source;
+
+    /** The compilation unit of the file, or null if the file could not be parsed. */
+    final @Nullable CompilationUnit compilationUnit;
+
+    /** The problems that prevented the file from being parsed, if it could not be parsed. */
+    final List<Problem> problems;
+
+    /**
+     * Creates a new parsed file.
+     *
+     * @param source the source code of the file
+     * @param result the result of parsing the source code
+     */
+    ParsedFile(String source, ParseResult<CompilationUnit> result) {
+      this.source = source;
+      this.compilationUnit =
+          result.isSuccessful() && result.getResult().isPresent() ? result.getResult().get() : null;
+      this.problems = result.getProblems();
+    }
+  }
+
+  /**
+   * Get the parsed node from the result of a parse, in the same way as StaticJavaParser does.
+   *
+   * @param <T> the kind of the parsed node
+   * @param result the result of a parse
+   * @return the parsed node
+   * @throws ParseProblemException if the parse was not successful
+   */
+  private static <T extends Node> T getResult(ParseResult<T> result) {
+    if (result.isSuccessful() && result.getResult().isPresent()) {
+      return result.getResult().get();
+    }
+    throw new ParseProblemException(result.getProblems());
+  }
+}
@@ -1,6 +1,5 @@
 package org.checkerframework.specimin;
 
-import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.NodeList;
@@ -99,6 +98,12 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
   /** This map connects a class and its unresolved interface. */
   private java.util.Map<String, String> classAndUnresolvedInterface;
 
+  /**
+   * The parser of the current run of Specimin, used to resolve nodes and to create the bodies of
+   * pruned methods.
+   */
+  private final ParserContext parserContext;
+
   /**
    * Creates the pruner. All members this pruner encounters other than those in its input sets will
    * be removed entirely. For methods in both arguments, the Strings should be in the format
@@ -114,6 +119,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
    * @param resolvedYetStuckMethodCall set of methods that are resolved yet can not be solved by
    *     JavaParser
    * @param classAndUnresolvedInterface connects a class to its corresponding unresolved interface
+   * @param parserContext the parser of the current run of Specimin
    */
   public PrunerVisitor(
       Set<String> methodsToKeep,
@@ -121,8 +127,10 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
       Set<String> membersToEmpty,
       Set<String> classesUsedByTargetMethods,
       Set<String> resolvedYetStuckMethodCall,
-      java.util.Map<String, String> classAndUnresolvedInterface) {
+      java.util.Map<String, String> classAndUnresolvedInterface,
+      ParserContext parserContext) {
     this.methodsToLeaveUnchanged = methodsToKeep;
+    this.parserContext = parserContext;
     this.membersToEmpty = membersToEmpty;
     this.classesUsedByTargetMethods = classesUsedByTargetMethods;
     this.classAndUnresolvedInterface = classAndUnresolvedInterface;
@@ -297,7 +305,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
 
   @Override
   public Visitable visit(EnumDeclaration decl, Void p) {
-    String qualifiedName = decl.resolve().getQualifiedName();
+    String qualifiedName = parserContext.resolve(decl).getQualifiedName();
     if (!classesUsedByTargetMethods.contains(qualifiedName)) {
       decl.remove();
       return decl;
@@ -325,7 +333,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
       functionInterfaceAnnotationExpr.remove();
     }
     decl = minimizeTypeParameters(decl);
-    String classQualifiedName = decl.resolve().getQualifiedName();
+    String classQualifiedName = parserContext.resolve(decl).getQualifiedName();
     if (!classesUsedByTargetMethods.contains(classQualifiedName)
         && !isUsedMethodParameterType(classQualifiedName)) {
       decl.remove();
@@ -349,10 +357,9 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
 
   @Override
   public Visitable visit(EnumConstantDeclaration enumConstantDeclaration, Void p) {
-    ResolvedEnumConstantDeclaration resolved;
-    try {
-      resolved = enumConstantDeclaration.resolve();
-    } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
+    @Nullable ResolvedEnumConstantDeclaration resolved =
+        parserContext.tryResolve(enumConstantDeclaration).orElse(null);
+    if (resolved == null) {
       JavaParserUtil.removeNode(enumConstantDeclaration);
       return enumConstantDeclaration;
     }
@@ -368,7 +375,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
     try {
       // resolved() will only check if the return type is solvable
       // getQualifiedSignature() will also check if the parameters are solvable
-      methodDecl.resolve().getQualifiedSignature();
+      parserContext.resolve(methodDecl).getQualifiedSignature();
     } catch (UnsolvedSymbolException e) {
       // The current class is employed by the target methods, although not all of its members are
       // utilized. It's not surprising for unused members to remain unresolved.
@@ -376,7 +383,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
       return methodDecl;
     }
 
-    ResolvedMethodDeclaration resolved = methodDecl.resolve();
+    ResolvedMethodDeclaration resolved = parserContext.resolve(methodDecl);
     if (methodsToLeaveUnchanged.contains(resolved.getQualifiedSignature())) {
       boolean oldInsideTargetMethod = insideTargetMethod;
       insideTargetMethod = true;
@@ -390,7 +397,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
       boolean isMethodInsideInterface = isInsideInterface(methodDecl);
       // do nothing if methodDecl is just a method signature in a class.
       if (methodDecl.getBody().isPresent() || isMethodInsideInterface) {
-        methodDecl.setBody(StaticJavaParser.parseBlock("{ throw new Error(); }"));
+        methodDecl.setBody(parserContext.parseBlock("{ throw new Error(); }"));
         // static and default keywords can not be together.
         if (isMethodInsideInterface && !methodDecl.isStatic()) {
           methodDecl.setDefault(true);
@@ -402,7 +409,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
     if (insideFunctionalInterface) {
       if (methodDecl.getBody().isPresent()) {
         // avoid introducing unsolved symbols into the final output.
-        methodDecl.setBody(StaticJavaParser.parseBlock("{ throw new Error(); }"));
+        methodDecl.setBody(parserContext.parseBlock("{ throw new Error(); }"));
       }
       return methodDecl;
     }
@@ -421,7 +428,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
     try {
       // resolved() will only check if the return type is solvable
       // getQualifiedSignature() will also check if the parameters are solvable
-      qualifiedSignature = constructorDecl.resolve().getQualifiedSignature();
+      qualifiedSignature = parserContext.resolve(constructorDecl).getQualifiedSignature();
     } catch (RuntimeException e) {
       // The current class is employed by the target methods, although not all of its members are
       // utilized. It's not surprising for unused members to remain unresolved.
@@ -439,8 +446,8 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
     // enums, but right now we don't remove any enum constants in related classes, so
     // we need to preserve all constructors to retain compilability.
     if (membersToEmpty.contains(qualifiedSignature) || JavaParserUtil.isInEnum(constructorDecl)) {
-      if (!needToPreserveSuperOrThisCall(constructorDecl.resolve())) {
-        constructorDecl.setBody(StaticJavaParser.parseBlock("{ throw new Error(); }"));
+      if (!needToPreserveSuperOrThisCall(parserContext.resolve(constructorDecl))) {
+        constructorDecl.setBody(parserContext.parseBlock("{ throw new Error(); }"));
         return constructorDecl;
       }
 
@@ -457,7 +464,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
       }
 
       // not sure if we will ever get to this line. So this line is merely for the peace of mind.
-      constructorDecl.setBody(StaticJavaParser.parseBlock("{ throw new Error(); }"));
+      constructorDecl.setBody(parserContext.parseBlock("{ throw new Error(); }"));
       return constructorDecl;
     }
 
@@ -477,7 +484,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
     while (iterator.hasNext()) {
       VariableDeclarator declarator = iterator.next();
       try {
-        declarator.resolve();
+        parserContext.resolve(declarator);
       } catch (UnsolvedSymbolException e) {
         // The current class is employed by the target methods, although not all of its members are
         // utilized. It's not surprising for unused members to remain unresolved.
@@ -509,7 +516,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
    * @return true if the above statement is true.
    */
   private boolean isAResolvedYetStuckMethod(MethodDeclaration method) {
-    ResolvedMethodDeclaration decl = method.resolve();
+    ResolvedMethodDeclaration decl = parserContext.resolve(method);
     String methodQualifiedName = decl.getQualifiedSignature();
     String methodSimpleName = method.getNameAsString();
     int numberOfParams = decl.getNumberOfParams();
@@ -601,7 +608,7 @@ public class PrunerVisitor extends ModifierVisitor<Void> {
     for (ClassOrInterfaceType type : inputList) {
       ResolvedType resolvedType;
       try {
-        resolvedType = type.resolve();
+        resolvedType = parserContext.resolve(type);
       } catch (UnsolvedSymbolException | IllegalStateException e) {
         continue;
       }
@@ -0,0 +1,175 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.resolution.Resolvable;
+import com.github.javaparser.resolution.UnsolvedSymbolException;
+import com.github.javaparser.resolution.types.ResolvedType;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The results of resolving nodes with one generation of the symbol solver of a {@link
+ * ParserContext}. The visitors that run after the unsolved symbol visitor resolve the same nodes
+ * again and again: a method call is resolved by TargetMethodFinderVisitor, and the declaration it
+ * calls is resolved again by MustImplementMethodsVisitor and PrunerVisitor. With this cache, each
+ * node is only resolved once per generation. Failures are cached as well, and the same exception is
+ * thrown again, so a node that cannot be resolved is not tried a second time either.
+ *
+ * <p>Nodes are keyed by identity. A cache belongs to a single generation of the symbol solver of a
+ * context, and is used through {@link ParserContext#resolve(Resolvable)}: {@link
+ * ParserContext#updateSymbolSolver()} starts a new generation with an empty cache, because the
+ * symbol solver may then resolve the same nodes differently.
+ */
+class ResolutionCache {
+
+  /**
+   * The results of {@link #resolve(Resolvable)}, keyed by node. A value is either the resolved
+   * declaration or type, or a {@link Failure}.
+   */
+  private final Map<Resolvable<?>, Object> resolved = new IdentityHashMap<>();
+
+  /**
+   * The results of {@link #calculateResolvedType(Expression)}, keyed by expression. A value is
+   * either the type of the expression or a {@link Failure}.
+   */
+  private final Map<Expression, Object> resolvedTypes = new IdentityHashMap<>();
+
+  /**
+   * Resolve a node, as if by calling its resolve() method.
+   *
+   * @param <T> the kind of the result, such as ResolvedMethodDeclaration for a method call
+   * @param node a node that can be resolved
+   * @return the result of node.resolve()
+   * @throws RuntimeException the exception that node.resolve() threw, such as an
+   *     UnsolvedSymbolException
+   */
+  @SuppressWarnings("unchecked") // the result for a Resolvable<T> is always a T
+  <T> T resolve(Resolvable<T> node) {
+    return (T) lookup(resolved, node, node::resolve);
+  }
+
+  /**
+   * Calculate the type of an expression, as if by calling its calculateResolvedType() method.
+   *
+   * @param expression an expression
+   * @return the type of the expression
+   * @throws RuntimeException the exception that calculateResolvedType() threw, such as an
+   *     UnsolvedSymbolException
+   */
+  ResolvedType calculateResolvedType(Expression expression) {
+    return (ResolvedType) lookup(resolvedTypes, expression, expression::calculateResolvedType);
+  }
+
+  /**
+   * Try to resolve a node. Unlike {@link #resolve(Resolvable)}, this does not throw an exception if
+   * the node is unsolved, so a node that is known to be unsolved costs no more than a hash lookup.
+   *
+   * @param <T> the kind of the result, such as ResolvedMethodDeclaration for a method call
+   * @param node a node that can be resolved
+   * @return the result of node.resolve(), or an empty optional if node.resolve() threw an
+   *     UnsolvedSymbolException or an UnsupportedOperationException
+   * @throws RuntimeException any other exception that node.resolve() threw
+   */
+  @SuppressWarnings("unchecked") // the result for a Resolvable<T> is always a T
+  <T> Optional<T> tryResolve(Resolvable<T> node) {
+    return (Optional<T>) tryLookup(resolved, node, node::resolve);
+  }
+
+  /**
+   * Try to calculate the type of an expression. Like {@link #tryResolve(Resolvable)}, this does not
+   * throw an exception if the type is unsolved.
+   *
+   * @param expression an expression
+   * @return the type of the expression, or an empty optional if calculateResolvedType() threw an
+   *     UnsolvedSymbolException or an UnsupportedOperationException
+   * @throws RuntimeException any other exception that calculateResolvedType() threw
+   */
+  @SuppressWarnings("unchecked") // the result for an expression is always a ResolvedType
+  Optional<ResolvedType> tryCalculateResolvedType(Expression expression) {
+    return (Optional<ResolvedType>)
+        tryLookup(resolvedTypes, expression, expression::calculateResolvedType);
+  }
+
+  /**
+   * Look up the result of a resolution in a cache, and compute it if it is not there yet.
+   *
+   * @param <K> the type of the keys of the cache
+   * @param cache a cache
+   * @param key the node that is resolved
+   * @param resolution the resolution
+   * @return the result of the resolution
+   * @throws RuntimeException the exception that the resolution threw
+   */
+  private static <K> Object lookup(Map<K, Object> cache, K key, Supplier<?> resolution) {
+    Object result = getOrCompute(cache, key, resolution);
+    if (result instanceof Failure) {
+      throw ((Failure) result).exception;
+    }
+    return result;
+  }
+
+  /**
+   * Look up the result of a resolution in a cache, and compute it if it is not there yet, without
+   * throwing an exception if the symbol is unsolved.
+   *
+   * @param <K> the type of the keys of the cache
+   * @param cache a cache
+   * @param key the node that is resolved
+   * @param resolution the resolution
+   * @return the result of the resolution, or an empty optional if the symbol is unsolved
+   * @throws RuntimeException the exception that the resolution threw, if it does not mean that the
+   *     symbol is unsolved
+   */
+  private static <K> Optional<?> tryLookup(Map<K, Object> cache, K key, Supplier<?> resolution) {
+    Object result = getOrCompute(cache, key, resolution);
+    if (result instanceof Failure) {
+      RuntimeException exception = ((Failure) result).exception;
+      if (exception instanceof UnsolvedSymbolException
+          || exception instanceof UnsupportedOperationException) {
+        return Optional.empty();
+      }
+      throw exception;
+    }
+    return Optional.of(result);
+  }
+
+  /**
+   * Get the result of a resolution from a cache, and compute it if it is not there yet.
+   *
+   * @param <K> the type of the keys of the cache
+   * @param cache a cache
+   * @param key the node that is resolved
+   * @param resolution the resolution
+   * @return the result of the resolution, or a {@link Failure} if it threw an exception
+   */
+  private static <K> Object getOrCompute(Map<K, Object> cache, K key, Supplier<?> resolution) {
+    Object result = cache.get(key);
+    if (result == null) {
+      try {
+        result = resolution.get();
+      } catch (RuntimeException e) {
+        result = new Failure(e);
+      }
+      cache.put(key, result);
+    }
+    return result;
+  }
+
+  /** A resolution that threw an exception. */
+  private static class Failure {
+
+    /** The exception that the resolution threw. */
+    final RuntimeException exception;
+
+    /**
+     * Creates a new failure.
+     *
+     * @param exception the exception that the resolution threw
+     */
+    Failure(RuntimeException exception) {
+      this.exception = exception;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+
+/**
+ * A type solver that wraps another, expensive-to-create type solver (such as a JarTypeSolver, which
+ * loads its whole jar when it is constructed) so that the wrapped solver can be shared by many
+ * CombinedTypeSolvers. JavaParser's own type solvers refuse to have their parent set more than
+ * once, so they cannot be added to a second CombinedTypeSolver. This wrapper is the parent of the
+ * wrapped solver, and its own parent can be replaced every time Specimin builds a new combined
+ * solver. The declarations returned by the wrapped solver therefore always resolve other types
+ * against the current combined solver.
+ *
+ * <p>An instance of this class must only be used by one combined solver at a time.
+ */
+class ReusableTypeSolver implements TypeSolver {
+
+  /** The solver that does the actual work. Its parent is this object. */
+  private final TypeSolver wrappedSolver;
+
+  /** The combined solver that currently contains this solver. */
+  private @MonotonicNonNull TypeSolver parent;
+
+  /**
+   * Wrap the given type solver. The given solver must not have a parent yet.
+   *
+   * @param wrappedSolver the solver to reuse
+   */
+  @SuppressWarnings("nullness:argument") // this is fully initialized once wrappedSolver is set
+  ReusableTypeSolver(TypeSolver wrappedSolver) {
+    this.wrappedSolver = wrappedSolver;
+    wrappedSolver.setParent(this);
+  }
+
+  @Override
+  @SuppressWarnings("nullness:return") // the parent is null until the first setParent
+  public TypeSolver getParent() {
+    return parent;
+  }
+
+  /**
+   * Set the parent of this solver. Unlike JavaParser's type solvers, this method may be called
+   * again to move this solver into a new combined solver.
+   *
+   * @param parent the new parent of this solver
+   */
+  @Override
+  public void setParent(TypeSolver parent) {
+    if (parent == this) {
+      throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+    }
+    this.parent = parent;
+  }
+
+  @Override
+  public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+    return wrappedSolver.tryToSolveType(name);
+  }
+}
@@ -0,0 +1,348 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The parsed command-line arguments of a single Specimin run. The arguments are parsed the same way
+ * whether they come from {@link SpeciminRunner#main(String...)} or from a request to a {@link
+ * SpeciminDaemon}.
+ */
+class SpeciminArguments {
+
+  /** The root of the source directory of the target files. */
+  private final String root;
+
+  /** The jar files found in the directories given by the --jarPath options. */
+  private final List<String> jarPaths;
+
+  /** The paths to the target files, relative to the root. */
+  private final List<String> targetFiles;
+
+  /** The target methods. */
+  private final List<String> targetMethods;
+
+  /** The target fields. */
+  private final List<String> targetFields;
+
+  /** The directory in which to output the results, or null if none was given. */
+  private final @Nullable String outputDirectory;
+
+  /** The manifest file that lists the jobs to run, or null if there is none. */
+  private final @Nullable String manifest;
+
+  /** The directory in which to keep caches between runs, or null to not keep caches. */
+  private final @Nullable String cacheDirectory;
+
+  /** True to write stubs of the jar classes instead of decompiling them. */
+  private final boolean jarStubs;
+
+  /**
+   * Creates a new SpeciminArguments. Use {@link #parse(String...)} instead of calling this
+   * directly.
+   *
+   * @param root the root of the source directory of the target files
+   * @param jarPaths the jar files to use as input
+   * @param targetFiles the paths to the target files, relative to the root
+   * @param targetMethods the target methods
+   * @param targetFields the target fields
+   * @param outputDirectory the directory in which to output the results, or null
+   * @param manifest the manifest file that lists the jobs to run, or null
+   * @param cacheDirectory the directory in which to keep caches between runs, or null
+   * @param jarStubs true to write stubs of the jar classes instead of decompiling them
+   */
+  private SpeciminArguments(
+      String root,
+      List<String> jarPaths,
+      List<String> targetFiles,
+      List<String> targetMethods,
+      List<String> targetFields,
+      @Nullable String outputDirectory,
+      @Nullable String manifest,
+      @Nullable String cacheDirectory,
+      boolean jarStubs) {
+    this.root = root;
+    this.jarPaths = Collections.unmodifiableList(jarPaths);
+    this.targetFiles = Collections.unmodifiableList(targetFiles);
+    this.targetMethods = Collections.unmodifiableList(targetMethods);
+    this.targetFields = Collections.unmodifiableList(targetFields);
+    this.outputDirectory = outputDirectory;
+    this.manifest = manifest;
+    this.cacheDirectory = cacheDirectory;
+    this.jarStubs = jarStubs;
+  }
+
+  /**
+   * Parse Specimin's command-line arguments.
+   *
+   * @param args the arguments to Specimin
+   * @return the parsed arguments
+   * @throws IOException if one of the jar directories cannot be read
+   */
+  static SpeciminArguments parse(String... args) throws IOException {
+    return parse(args, false);
+  }
+
+  /**
+   * Parse the arguments of a single job of a manifest. They are parsed like {@link
+   * #parse(String...)}, but must not give any of the options that the jobs of a manifest share,
+   * which are --root, --jarPath, --manifest, --cacheDirectory and --jarStubs, however they are
+   * spelled or abbreviated.
+   *
+   * @param args the arguments of the job
+   * @return the parsed arguments
+   * @throws IOException if one of the jar directories cannot be read
+   * @throws IllegalArgumentException if one of the shared options is given
+   */
+  static SpeciminArguments parseJob(String... args) throws IOException {
+    return parse(args, true);
+  }
+
+  /**
+   * Parse Specimin's command-line arguments, or the arguments of a single job of a manifest.
+   *
+   * @param args the arguments to Specimin or to the job
+   * @param job true if args are the arguments of a job of a manifest
+   * @return the parsed arguments
+   * @throws IOException if one of the jar directories cannot be read
+   * @throws IllegalArgumentException if job is true and one of the shared options is given
+   */
+  private static SpeciminArguments parse(String[] args, boolean job) throws IOException {
+    OptionParser optionParser = new OptionParser();
+    // This option is the root of the source directory of the target files. It is used
+    // for symbol resolution from source code and to organize the output directory.
+    OptionSpec<String> rootOption = optionParser.accepts("root").withRequiredArg();
+
+    var jar = optionParser.accepts("jarPath").withOptionalArg().ofType(String.class);
+
+    // This option is the relative paths to the target file(s) - the .java file(s) containing
+    // target method(s) - from the root.
+    OptionSpec<String> targetFilesOption = optionParser.accepts("targetFile").withRequiredArg();
+
+    // This option is the target methods, specified in the format
+    // class.fully.qualified.Name#methodName(Param1Type, Param2Type, ...)
+    OptionSpec<String> targetMethodsOption = optionParser.accepts("targetMethod").withRequiredArg();
+
+    // This option is the target fields, specified in the format
+    // class.fully.qualified.Name#fieldName
+    OptionSpec<String> targetFieldsOptions = optionParser.accepts("targetField").withRequiredArg();
+
+    // The directory in which to output the results.
+    OptionSpec<String> outputDirectoryOption =
+        optionParser.accepts("outputDirectory").withRequiredArg();
+
+    // A file that lists many jobs to run against the same root and jar files, one per line. See
+    // SpeciminManifest for the format.
+    OptionSpec<String> manifestOption = optionParser.accepts("manifest").withRequiredArg();
+
+    // A directory in which Specimin keeps caches between runs, such as the index of the root
+    // directory. No caches are kept if this option is not given.
+    OptionSpec<String> cacheDirectoryOption =
+        optionParser.accepts("cacheDirectory").withRequiredArg();
+
+    // Write signature-only stubs of the jar classes from their class files, instead of decompiling
+    // them.
+    OptionSpec<Void> jarStubsOption = optionParser.accepts("jarStubs");
+
+    OptionSet options = optionParser.parse(args);
+    if (job) {
+      for (OptionSpec<?> sharedOption :
+          List.of(rootOption, jar, manifestOption, cacheDirectoryOption, jarStubsOption)) {
+        if (options.has(sharedOption)) {
+          throw new IllegalArgumentException(
+              "--"
+                  + sharedOption.options().iterator().next()
+                  + " must be given on the command line, not in the manifest");
+        }
+      }
+    }
+
+    List<String> jarFiles = new ArrayList<>();
+    for (String jarDirectory : options.valuesOf(jar)) {
+      jarFiles.addAll(getJarFiles(jarDirectory));
+    }
+
+    return new SpeciminArguments(
+        options.valueOf(rootOption),
+        jarFiles,
+        options.valuesOf(targetFilesOption),
+        options.valuesOf(targetMethodsOption),
+        options.valuesOf(targetFieldsOptions),
+        options.valueOf(outputDirectoryOption),
+        options.valueOf(manifestOption),
+        options.valueOf(cacheDirectoryOption),
+        options.has(jarStubsOption));
+  }
+
+  /**
+   * Converts these arguments back into command-line arguments that can be passed to {@link
+   * #parse(String...)}. The root, the jar files, the manifest, the cache directory and the output
+   * directory are made absolute, so that the result can be handed to a process with a different
+   * working directory, such as a {@link SpeciminDaemon}.
+   *
+   * @return the arguments as a list of command-line arguments
+   */
+  List<String> toArgumentList() {
+    List<String> result = new ArrayList<>();
+    String absoluteRoot = Path.of(root).toAbsolutePath().toString();
+    if (root.endsWith("/") && !absoluteRoot.endsWith("/")) {
+      absoluteRoot = absoluteRoot + "/";
+    }
+    result.add("--root");
+    result.add(absoluteRoot);
+    for (String jarPath : jarPaths) {
+      result.add("--jarPath");
+      result.add(Path.of(jarPath).toAbsolutePath().toString());
+    }
+    for (String targetFile : targetFiles) {
+      result.add("--targetFile");
+      result.add(targetFile);
+    }
+    for (String targetMethod : targetMethods) {
+      result.add("--targetMethod");
+      result.add(targetMethod);
+    }
+    for (String targetField : targetFields) {
+      result.add("--targetField");
+      result.add(targetField);
+    }
+    if (cacheDirectory != null) {
+      result.add("--cacheDirectory");
+      result.add(Path.of(cacheDirectory).toAbsolutePath().toString());
+    }
+    if (jarStubs) {
+      result.add("--jarStubs");
+    }
+    if (manifest != null) {
+      result.add("--manifest");
+      result.add(Path.of(manifest).toAbsolutePath().toString());
+    }
+    if (outputDirectory != null) {
+      result.add("--outputDirectory");
+      result.add(Path.of(outputDirectory).toAbsolutePath().toString());
+    }
+    return result;
+  }
+
+  /**
+   * Get the root of the source directory of the target files.
+   *
+   * @return the root directory
+   */
+  String getRoot() {
+    return root;
+  }
+
+  /**
+   * Get the jar files to use as input. Note that the list is read-only.
+   *
+   * @return the jar files
+   */
+  List<String> getJarPaths() {
+    return jarPaths;
+  }
+
+  /**
+   * Get the paths to the target files, relative to the root. Note that the list is read-only.
+   *
+   * @return the target files
+   */
+  List<String> getTargetFiles() {
+    return targetFiles;
+  }
+
+  /**
+   * Get the target methods. Note that the list is read-only.
+   *
+   * @return the target methods
+   */
+  List<String> getTargetMethods() {
+    return targetMethods;
+  }
+
+  /**
+   * Get the target fields. Note that the list is read-only.
+   *
+   * @return the target fields
+   */
+  List<String> getTargetFields() {
+    return targetFields;
+  }
+
+  /**
+   * Get the directory in which to output the results.
+   *
+   * @return the output directory, or null if none was given
+   */
+  @Nullable String getOutputDirectory() {
+    return outputDirectory;
+  }
+
+  /**
+   * Get the directory in which to output the results of a single job, which needs one.
+   *
+   * @return the output directory
+   * @throws IllegalArgumentException if no output directory was given
+   */
+  String getRequiredOutputDirectory() {
+    if (outputDirectory == null) {
+      throw new IllegalArgumentException("--outputDirectory must be given");
+    }
+    return outputDirectory;
+  }
+
+  /**
+   * Get the manifest file that lists the jobs to run.
+   *
+   * @return the manifest file, or null if none was given
+   */
+  @Nullable String getManifest() {
+    return manifest;
+  }
+
+  /**
+   * Get the directory in which to keep caches between runs.
+   *
+   * @return the cache directory, or null if no caches should be kept
+   */
+  @Nullable String getCacheDirectory() {
+    return cacheDirectory;
+  }
+
+  /**
+   * Returns true if stubs of the jar classes should be written instead of decompiling them.
+   *
+   * @return true iff --jarStubs was given
+   */
+  boolean isJarStubs() {
+    return jarStubs;
+  }
+
+  /**
+   * Given a directory, this method will return all the .jar files stored in the directory. If the
+   * given path is a jar file rather than a directory, the result contains only that file.
+   *
+   * @param directoryPath the directory of the jar files
+   * @return the paths of the jar files in the directory
+   * @throws IOException if the directory cannot be read
+   */
+  static List<String> getJarFiles(String directoryPath) throws IOException {
+    Path jarPath = Path.of(directoryPath);
+    try (Stream<Path> stream = Files.walk(jarPath)) {
+      return stream
+          .filter(path -> Files.isRegularFile(path) && path.toString().endsWith(".jar"))
+          .map(path -> path.toString())
+          .collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package org.checkerframework.specimin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A small command-line client for {@link SpeciminDaemon}. By default, the client sends its
+ * arguments, which are the same as the arguments of {@link SpeciminRunner#main(String...)}, to the
+ * daemon as a minimization request and waits for it to finish. The following options are handled by
+ * the client itself, and must come before any other argument:
+ *
+ * <ul>
+ *   <li>{@code --port}: the port of the daemon. Defaults to {@link SpeciminDaemon#DEFAULT_PORT}.
+ *   <li>{@code --refresh}: instead of running a minimization, tell the daemon to re-index the
+ *       codebase given by the {@code --root} option.
+ *   <li>{@code --shutdown}: instead of running a minimization, stop the daemon.
+ * </ul>
+ *
+ * The client exits with status 1 if the daemon reports an error.
+ */
+public class SpeciminClient {
+
+  /**
+   * The entry point of the client.
+   *
+   * @param args the arguments to the client
+   * @throws IOException if the daemon cannot be reached
+   */
+  public static void main(String... args) throws IOException {
+    int port = SpeciminDaemon.DEFAULT_PORT;
+    String command = SpeciminDaemon.MINIMIZE;
+    int firstSpeciminArg = 0;
+    while (firstSpeciminArg < args.length) {
+      String arg = args[firstSpeciminArg];
+      if ("--port".equals(arg) && firstSpeciminArg + 1 < args.length) {
+        port = Integer.parseInt(args[firstSpeciminArg + 1]);
+        firstSpeciminArg += 2;
+      } else if ("--refresh".equals(arg)) {
+        command = SpeciminDaemon.REFRESH;
+        firstSpeciminArg++;
+      } else if ("--shutdown".equals(arg)) {
+        command = SpeciminDaemon.SHUTDOWN;
+        firstSpeciminArg++;
+      } else {
+        break;
+      }
+    }
+    String[] speciminArgs = Arrays.copyOfRange(args, firstSpeciminArg, args.length);
+    List<String> requestArgs = new ArrayList<>();
+    if (SpeciminDaemon.MINIMIZE.equals(command)) {
+      SpeciminArguments arguments = SpeciminArguments.parse(speciminArgs);
+      if (arguments.getManifest() != null) {
+        System.err.println(SpeciminDaemon.MANIFEST_NOT_SUPPORTED);
+        System.exit(1);
+      }
+      // The daemon does not share our working directory, so send it absolute paths.
+      requestArgs.addAll(arguments.toArgumentList());
+    } else if (SpeciminDaemon.REFRESH.equals(command)) {
+      requestArgs.add("--root");
+      requestArgs.add(
+          Path.of(SpeciminArguments.parse(speciminArgs).getRoot()).toAbsolutePath().toString());
+    }
+
+    String response = sendRequest(port, command, requestArgs);
+    if (!"OK".equals(response)) {
+      System.err.println("Specimin daemon: " + response);
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Send a single request to the daemon and wait for its answer.
+   *
+   * @param port the port of the daemon
+   * @param command the command of the request
+   * @param args the arguments of the request, which must not contain line breaks or empty strings
+   * @return the answer of the daemon
+   * @throws IOException if the daemon cannot be reached
+   */
+  static String sendRequest(int port, String command, List<String> args) throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        PrintWriter writer =
+            new PrintWriter(
+                socket.getOutputStream(), /* autoFlush= */ false, StandardCharsets.UTF_8);
+        BufferedReader reader =
+            new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+      writer.println(command);
+      for (String arg : args) {
+        writer.println(arg);
+      }
+      writer.println();
+      writer.flush();
+      String response = reader.readLine();
+      return response == null ? "ERROR the daemon closed the connection" : response;
+    }
+  }
+}
@@ -0,0 +1,446 @@
+package org.checkerframework.specimin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.mustcall.qual.NotOwning;
+import org.checkerframework.checker.mustcall.qual.Owning;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A long-running Specimin process. The daemon keeps one {@link SpeciminSession} per root directory,
+ * so the decompiled jar files, the index of the codebase and the type solvers for the JDK and the
+ * jar files are built only for the first request against a codebase. Every later request only pays
+ * for its own minimization. Use {@link SpeciminClient} to send requests.
+ *
+ * <p>The daemon only listens on the loopback interface. Requests are handled by a pool of threads:
+ * requests against different root directories run concurrently, and requests against the same root
+ * directory run one after the other. A request is a command on its own line, followed by one
+ * argument per line, followed by an empty line. The commands are:
+ *
+ * <ul>
+ *   <li>{@code MINIMIZE}, whose arguments are the same as the arguments of {@link
+ *       SpeciminRunner#main(String...)}. Paths must be absolute.
+ *   <li>{@code REFRESH}, whose arguments are a {@code --root} option. It discards the session for
+ *       that root, so that the next request re-indexes it. Use it after the codebase has changed.
+ *   <li>{@code SHUTDOWN}, which has no arguments. It closes all sessions and stops the daemon.
+ * </ul>
+ *
+ * The daemon answers each request with a single line, which is either {@code OK} or {@code ERROR}
+ * followed by a description of the problem.
+ */
+public class SpeciminDaemon {
+
+  /** The port that the daemon and the client use if none is given. */
+  public static final int DEFAULT_PORT = 6547;
+
+  /** The command that runs a minimization. */
+  static final String MINIMIZE = "MINIMIZE";
+
+  /** The command that discards the sessions for a root directory. */
+  static final String REFRESH = "REFRESH";
+
+  /** The command that stops the daemon. */
+  static final String SHUTDOWN = "SHUTDOWN";
+
+  /** The error for a request with --manifest, whose jobs may use paths relative to the client. */
+  static final String MANIFEST_NOT_SUPPORTED =
+      "--manifest is not supported by the Specimin daemon; send one request per job instead";
+
+  /**
+   * The sessions, which may still be being opened, keyed by their root directories. A request with
+   * the same root directory but different jar files replaces the session for that root, so that the
+   * daemon keeps at most one session, with its indexes and decompiled jar classes, in memory per
+   * root directory.
+   */
+  private final Map<String, SessionEntry> sessions = new HashMap<>();
+
+  /** The threads that handle requests. */
+  private final ExecutorService requestHandlers;
+
+  /** The socket on which the daemon listens, once it has started listening. */
+  private @MonotonicNonNull ServerSocket serverSocket;
+
+  /** True once a SHUTDOWN command has been received. */
+  private volatile boolean shutdownRequested = false;
+
+  /**
+   * Creates a new daemon.
+   *
+   * @param threads the number of requests that may be handled at the same time
+   */
+  SpeciminDaemon(int threads) {
+    this.requestHandlers = Executors.newFixedThreadPool(threads);
+  }
+
+  /**
+   * The entry point of the daemon. The accepted options are {@code --port}, which defaults to
+   * {@link #DEFAULT_PORT}, and {@code --threads}, the number of requests that may be handled at the
+   * same time, which defaults to the number of available processors.
+   *
+   * @param args the arguments to the daemon
+   * @throws IOException if the daemon cannot listen on the port
+   */
+  public static void main(String... args) throws IOException {
+    int port = DEFAULT_PORT;
+    int threads = Runtime.getRuntime().availableProcessors();
+    for (int i = 0; i < args.length; i++) {
+      if ("--port".equals(args[i]) && i + 1 < args.length) {
+        port = Integer.parseInt(args[++i]);
+      } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+        threads = Integer.parseInt(args[++i]);
+      } else {
+        throw new IllegalArgumentException("Unknown argument to the Specimin daemon: " + args[i]);
+      }
+    }
+    SpeciminDaemon daemon = new SpeciminDaemon(threads);
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread() {
+              @Override
+              public void run() {
+                daemon.closeAllSessions();
+              }
+            });
+    daemon.serve(port);
+  }
+
+  /**
+   * Listen for requests on the given port until a SHUTDOWN command is received.
+   *
+   * @param port the port to listen on
+   * @throws IOException if the daemon cannot listen on the port
+   */
+  void serve(int port) throws IOException {
+    try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+      System.out.println("Specimin daemon listening on port " + serverSocket.getLocalPort());
+      serve(serverSocket);
+    }
+  }
+
+  /**
+   * Answer the requests that arrive on the given socket until a SHUTDOWN command is received, and
+   * then close all sessions. The socket is closed by the SHUTDOWN command.
+   *
+   * @param serverSocket the socket to accept connections from
+   * @throws IOException if a connection cannot be accepted
+   */
+  void serve(@NotOwning ServerSocket serverSocket) throws IOException {
+    this.serverSocket = serverSocket;
+    try {
+      while (!shutdownRequested) {
+        Socket socket;
+        try {
+          socket = serverSocket.accept();
+        } catch (SocketException e) {
+          // The socket is closed by a SHUTDOWN request.
+          break;
+        }
+        requestHandlers.execute(() -> handleConnection(socket));
+      }
+    } finally {
+      requestHandlers.shutdown();
+      try {
+        requestHandlers.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      closeAllSessions();
+    }
+  }
+
+  /**
+   * Read a single request from the given socket, write the answer to it, and close it.
+   *
+   * @param socket a socket connected to a client
+   */
+  private void handleConnection(@Owning Socket socket) {
+    try (socket;
+        BufferedReader reader =
+            new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter writer =
+            new PrintWriter(
+                socket.getOutputStream(), /* autoFlush= */ true, StandardCharsets.UTF_8)) {
+      String command = reader.readLine();
+      List<String> args = new ArrayList<>();
+      String line;
+      while ((line = reader.readLine()) != null && !line.isEmpty()) {
+        args.add(line);
+      }
+      if (command == null) {
+        return;
+      }
+      try {
+        handleRequest(command, args);
+        writer.println("OK");
+      } catch (Exception | Error e) {
+        // A single bad request must not take the daemon down.
+        writer.println("ERROR " + String.valueOf(e).replace('\n', ' '));
+      }
+    } catch (IOException e) {
+      System.out.println("Specimin daemon failed to answer a request: " + e);
+    }
+  }
+
+  /**
+   * Carry out a single request.
+   *
+   * @param command the command of the request
+   * @param args the arguments of the request
+   * @throws IOException if the minimization fails
+   */
+  void handleRequest(String command, List<String> args) throws IOException {
+    switch (command) {
+      case MINIMIZE:
+        minimize(SpeciminArguments.parse(args.toArray(new String[0])));
+        break;
+      case REFRESH:
+        refresh(SpeciminArguments.parse(args.toArray(new String[0])).getRoot());
+        break;
+      case SHUTDOWN:
+        shutdownRequested = true;
+        if (serverSocket != null) {
+          // Wake up the thread that is waiting for the next connection.
+          serverSocket.close();
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown command: " + command);
+    }
+  }
+
+  /**
+   * Run a minimization against the session for its root directory and jar files. If the session is
+   * closed by a concurrent REFRESH or replaced by a request with other jar files before the
+   * minimization could start, the minimization is run against the new session instead.
+   *
+   * @param arguments the arguments of the minimization
+   * @throws IOException if the minimization fails
+   */
+  private void minimize(SpeciminArguments arguments) throws IOException {
+    if (arguments.getManifest() != null) {
+      throw new IllegalArgumentException(MANIFEST_NOT_SUPPORTED);
+    }
+    String outputDirectory = arguments.getRequiredOutputDirectory();
+    while (true) {
+      SpeciminSession session =
+          getSession(
+              arguments.getRoot(),
+              arguments.getJarPaths(),
+              arguments.getCacheDirectory(),
+              arguments.isJarStubs());
+      try {
+        SpeciminRunner.performMinimization(
+            session,
+            arguments.getTargetFiles(),
+            arguments.getTargetMethods(),
+            arguments.getTargetFields(),
+            outputDirectory);
+        return;
+      } catch (IllegalStateException e) {
+        if (!session.isClosed()) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the session for the given root directory and jar files, opening it if there is none yet. A
+   * session for the same root directory with other jar files is replaced. The lock of the daemon is
+   * only held to look up and replace the entry for the root directory: the session is opened and
+   * the replaced session is closed without holding it, since opening a session indexes the whole
+   * codebase and closing one waits for the minimizations that are running against it, and the
+   * daemon must meanwhile keep serving the requests against other root directories. Requests for a
+   * session that is still being opened wait for it. If it cannot be opened, its entry is removed,
+   * so that the next request tries again.
+   *
+   * @param root the root directory of the input files
+   * @param jarPaths paths to relevant JAR files
+   * @param cacheDirectory the directory in which to keep caches between runs, or null. It is only
+   *     used if a new session is opened.
+   * @param jarStubs true if the session should write stubs of the jar classes instead of
+   *     decompiling them
+   * @return the session for root and jarPaths
+   * @throws IOException if a new session cannot be opened
+   */
+  @SuppressWarnings("required.method.not.called") // closed by refresh or closeAllSessions
+  private @NotOwning SpeciminSession getSession(
+      String root, List<String> jarPaths, @Nullable String cacheDirectory, boolean jarStubs)
+      throws IOException {
+    String key = normalizeRoot(root);
+    @Nullable SessionEntry replaced = null;
+    SessionEntry entry;
+    boolean openedHere = false;
+    synchronized (this) {
+      @Nullable SessionEntry existing = sessions.get(key);
+      if (existing != null && !existing.matches(jarPaths, jarStubs)) {
+        replaced = sessions.remove(key);
+        existing = null;
+      }
+      if (existing == null) {
+        existing = new SessionEntry(jarPaths, jarStubs);
+        sessions.put(key, existing);
+        openedHere = true;
+      }
+      entry = existing;
+    }
+    if (replaced != null) {
+      // Waits for the minimizations that are running against the old session.
+      replaced.close();
+    }
+    if (openedHere) {
+      try {
+        entry.session.complete(SpeciminSession.open(root, jarPaths, cacheDirectory, jarStubs));
+      } catch (IOException | RuntimeException | Error e) {
+        synchronized (this) {
+          sessions.remove(key, entry);
+        }
+        entry.session.completeExceptionally(e);
+        throw e;
+      }
+    }
+    return entry.await();
+  }
+
+  /**
+   * Close and forget the session for the given root directory, if there is one. Like {@link
+   * #getSession(String, List, String, boolean)}, the session is closed without holding the lock of
+   * the daemon. A session that is still being opened is closed once it has been opened.
+   *
+   * @param root the root directory whose session should be discarded
+   */
+  private void refresh(String root) {
+    @Nullable SessionEntry entry;
+    synchronized (this) {
+      entry = sessions.remove(normalizeRoot(root));
+    }
+    if (entry != null) {
+      entry.close();
+    }
+  }
+
+  /**
+   * Get the session that the daemon keeps for the given root directory, waiting for it if it is
+   * still being opened. This is only used by tests.
+   *
+   * @param root the root directory of the input files
+   * @return the session for root, or null if there is none
+   * @throws IOException if the session could not be opened
+   */
+  @Nullable SpeciminSession getOpenSession(String root) throws IOException {
+    @Nullable SessionEntry entry;
+    synchronized (this) {
+      entry = sessions.get(normalizeRoot(root));
+    }
+    return entry == null ? null : entry.await();
+  }
+
+  /**
+   * Normalize a root directory, so that it can be used as a key of {@link #sessions}.
+   *
+   * @param root the root directory of the input files
+   * @return the root directory, with a trailing slash
+   */
+  private static String normalizeRoot(String root) {
+    return root.endsWith("/") ? root : root + "/";
+  }
+
+  /**
+   * Close all open sessions, which stops their threads. Like {@link #refresh(String)}, the sessions
+   * are closed without holding the lock of the daemon.
+   */
+  void closeAllSessions() {
+    List<SessionEntry> closedSessions;
+    synchronized (this) {
+      closedSessions = new ArrayList<>(sessions.values());
+      sessions.clear();
+    }
+    for (SessionEntry entry : closedSessions) {
+      entry.close();
+    }
+  }
+
+  /**
+   * A session of the daemon, together with the jar files it was requested for. Since sessions are
+   * opened without holding the lock of the daemon, the entry is put into {@link #sessions} before
+   * its session has been opened, and the session is completed later.
+   */
+  private static final class SessionEntry {
+
+    /** Paths to the JAR files of the session. */
+    private final List<String> jarPaths;
+
+    /** True if the session writes stubs of the jar classes instead of decompiling them. */
+    private final boolean jarStubs;
+
+    /** The session, once it has been opened, or the exception that prevented opening it. */
+    private final CompletableFuture<SpeciminSession> session = new CompletableFuture<>();
+
+    /**
+     * Creates a new entry, whose session has not been opened yet.
+     *
+     * @param jarPaths paths to the JAR files of the session
+     * @param jarStubs true if the session writes stubs of the jar classes
+     */
+    private SessionEntry(List<String> jarPaths, boolean jarStubs) {
+      this.jarPaths = new ArrayList<>(jarPaths);
+      this.jarStubs = jarStubs;
+    }
+
+    /**
+     * Returns true if the session of this entry can serve a request with the given jar files.
+     *
+     * @param jarPaths paths to the JAR files of the request
+     * @param jarStubs true if the request writes stubs of the jar classes
+     * @return true iff the session was requested with the same jar files and stub mode
+     */
+    private boolean matches(List<String> jarPaths, boolean jarStubs) {
+      return this.jarPaths.equals(jarPaths) && this.jarStubs == jarStubs;
+    }
+
+    /**
+     * Wait until the session of this entry has been opened.
+     *
+     * @return the session
+     * @throws IOException if the session could not be opened
+     */
+    private SpeciminSession await() throws IOException {
+      try {
+        return session.join();
+      } catch (CompletionException e) {
+        throw new IOException("The session could not be opened: " + e.getCause(), e.getCause());
+      }
+    }
+
+    /** Close the session of this entry, waiting for it to be opened first if necessary. */
+    @SuppressWarnings("required.method.not.called") // the session is closed here
+    private void close() {
+      SpeciminSession opened;
+      try {
+        opened = session.join();
+      } catch (CompletionException e) {
+        // The session could not be opened, so there is nothing to close.
+        return;
+      }
+      opened.close();
+    }
+  }
+}
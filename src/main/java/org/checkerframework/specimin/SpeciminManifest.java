@@ -0,0 +1,109 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the manifest files given to Specimin's --manifest option. A manifest lists independent
+ * minimization jobs that are run against the same --root, --jarPath, --cacheDirectory and
+ * --jarStubs, which are given on the command line. Each non-empty line of a manifest is one job,
+ * written like a Specimin command line without those options, for example:
+ *
+ * <pre>
+ * --targetFile com/example/Foo.java --targetMethod "com.example.Foo#bar(int, String)" --outputDirectory out/bar
+ * </pre>
+ *
+ * Arguments are separated by whitespace. An argument that contains whitespace must be put in single
+ * or double quotes. Lines whose first non-whitespace character is '#' are comments.
+ */
+class SpeciminManifest {
+
+  /** This class cannot be instantiated. */
+  private SpeciminManifest() {
+    throw new Error("cannot be instantiated");
+  }
+
+  /**
+   * Read the jobs of a manifest.
+   *
+   * @param manifest the path to the manifest file
+   * @return the arguments of each job, keyed by the line of the manifest on which the job is
+   *     written. The jobs are in the order of the manifest.
+   * @throws IOException if the manifest cannot be read
+   */
+  static Map<Integer, List<String>> readJobs(Path manifest) throws IOException {
+    Map<Integer, List<String>> jobs = new LinkedHashMap<>();
+    List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+    for (int i = 0; i < lines.size(); i++) {
+      String line = lines.get(i).trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      jobs.put(i + 1, splitArguments(line));
+    }
+    return jobs;
+  }
+
+  /**
+   * Parse the arguments of a single job of a manifest.
+   *
+   * @param jobArguments the arguments of the job, as returned by {@link #readJobs(Path)}
+   * @return the parsed arguments
+   * @throws IOException if the arguments cannot be parsed
+   * @throws IllegalArgumentException if the job gives an option that must be given on the command
+   *     line, such as --root
+   */
+  static SpeciminArguments parseJob(List<String> jobArguments) throws IOException {
+    return SpeciminArguments.parseJob(jobArguments.toArray(new String[0]));
+  }
+
+  /**
+   * Split a line of a manifest into arguments, in the same way that a shell would split a simple
+   * command line: arguments are separated by whitespace, and quotes group characters into one
+   * argument.
+   *
+   * @param line a line of a manifest
+   * @return the arguments on the line
+   */
+  static List<String> splitArguments(String line) {
+    List<String> result = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    boolean inArgument = false;
+    char quote = 0;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        } else {
+          current.append(c);
+        }
+      } else if (c == '"' || c == '\'') {
+        quote = c;
+        inArgument = true;
+      } else if (Character.isWhitespace(c)) {
+        if (inArgument) {
+          result.add(current.toString());
+          current.setLength(0);
+          inArgument = false;
+        }
+      } else {
+        current.append(c);
+        inArgument = true;
+      }
+    }
+    if (quote != 0) {
+      throw new IllegalArgumentException("Unterminated quote in manifest line: " + line);
+    }
+    if (inArgument) {
+      result.add(current.toString());
+    }
+    return result;
+  }
+}
@@ -1,27 +1,16 @@
 package org.checkerframework.specimin;
 
-import com.github.javaparser.ParseProblemException;
-import com.github.javaparser.ParserConfiguration;
-import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.PackageDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.EnumDeclaration;
 import com.github.javaparser.ast.comments.Comment;
-import com.github.javaparser.symbolsolver.JavaSymbolSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
-import com.github.javaparser.utils.SourceRoot;
-import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -29,15 +18,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import joptsimple.OptionParser;
-import joptsimple.OptionSet;
-import joptsimple.OptionSpec;
-import org.apache.commons.io.FileUtils;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signature.qual.ClassGetSimpleName;
 import org.checkerframework.checker.signature.qual.FullyQualifiedName;
-import org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler;
 
 /** This class is the main runner for Specimin. Use its main() method to start Specimin. */
 public class SpeciminRunner {
@@ -49,44 +32,34 @@ public class SpeciminRunner {
    * @throws IOException if there is an exception
    */
   public static void main(String... args) throws IOException {
-    OptionParser optionParser = new OptionParser();
-    // This option is the root of the source directory of the target files. It is used
-    // for symbol resolution from source code and to organize the output directory.
-    OptionSpec<String> rootOption = optionParser.accepts("root").withRequiredArg();
-
-    var jar = optionParser.accepts("jarPath").withOptionalArg().ofType(String.class);
-
-    // This option is the relative paths to the target file(s) - the .java file(s) containing
-    // target method(s) - from the root.
-    OptionSpec<String> targetFilesOption = optionParser.accepts("targetFile").withRequiredArg();
-
-    // This option is the target methods, specified in the format
-    // class.fully.qualified.Name#methodName(Param1Type, Param2Type, ...)
-    OptionSpec<String> targetMethodsOption = optionParser.accepts("targetMethod").withRequiredArg();
-
-    // This option is the target fields, specified in the format
-    // class.fully.qualified.Name#fieldName
-    OptionSpec<String> targetFieldsOptions = optionParser.accepts("targetField").withRequiredArg();
-
-    // The directory in which to output the results.
-    OptionSpec<String> outputDirectoryOption =
-        optionParser.accepts("outputDirectory").withRequiredArg();
-
-    OptionSet options = optionParser.parse(args);
-
-    String jarDirectory = options.valueOf(jar);
-    List<String> jarFiles = new ArrayList<>();
-    if (jarDirectory != null) {
-      jarFiles = getJarFiles(jarDirectory);
+    SpeciminArguments arguments = SpeciminArguments.parse(args);
+    String manifest = arguments.getManifest();
+    if (manifest != null) {
+      if (!arguments.getTargetFiles().isEmpty()
+          || !arguments.getTargetMethods().isEmpty()
+          || !arguments.getTargetFields().isEmpty()
+          || arguments.getOutputDirectory() != null) {
+        throw new IllegalArgumentException(
+            "--manifest cannot be combined with --targetFile, --targetMethod, --targetField or"
+                + " --outputDirectory; give those for each job in the manifest instead");
+      }
+      performManifestMinimization(
+          arguments.getRoot(),
+          arguments.getJarPaths(),
+          arguments.getCacheDirectory(),
+          arguments.isJarStubs(),
+          manifest);
+      return;
     }
-
     performMinimization(
-        options.valueOf(rootOption),
-        options.valuesOf(targetFilesOption),
-        jarFiles,
-        options.valuesOf(targetMethodsOption),
-        options.valuesOf(targetFieldsOptions),
-        options.valueOf(outputDirectoryOption));
+        arguments.getRoot(),
+        arguments.getTargetFiles(),
+        arguments.getJarPaths(),
+        arguments.getTargetMethods(),
+        arguments.getTargetFields(),
+        arguments.getRequiredOutputDirectory(),
+        arguments.getCacheDirectory(),
+        arguments.isJarStubs());
   }
 
   /**
@@ -110,33 +83,49 @@ public class SpeciminRunner {
       List<String> targetFieldNames,
       String outputDirectory)
       throws IOException {
-    // The set of path of files that have been created by Specimin. We must be careful to delete all
-    // those files in the end, because otherwise they can pollute the input directory. To do that,
-    // we need to register a shutdown hook with the JVM.
-    Set<Path> createdClass = new HashSet<>();
-    Runtime.getRuntime()
-        .addShutdownHook(
-            new Thread() {
-              @Override
-              public void run() {
-                deleteFiles(createdClass);
-              }
-            });
-
-    performMinimizationImpl(
+    performMinimization(
+        root, targetFiles, jarPaths, targetMethodNames, targetFieldNames, outputDirectory, null);
+  }
+
+  /**
+   * Like {@link #performMinimization(String, List, List, List, List, String)}, but keeps the index
+   * of the root directory in the given cache directory, so that later minimizations of the same
+   * codebase only have to scan the files that changed.
+   *
+   * @param root The root directory of the input files.
+   * @param targetFiles A list of files that contain the target methods.
+   * @param jarPaths Paths to relevant JAR files.
+   * @param targetMethodNames A set of target method names to be preserved.
+   * @param targetFieldNames A set of target field names to be preserved.
+   * @param outputDirectory The directory for the output.
+   * @param cacheDirectory The directory in which to keep caches between runs, or null to not cache
+   *     anything.
+   * @throws IOException if there is an exception
+   */
+  public static void performMinimization(
+      String root,
+      List<String> targetFiles,
+      List<String> jarPaths,
+      List<String> targetMethodNames,
+      List<String> targetFieldNames,
+      String outputDirectory,
+      @Nullable String cacheDirectory)
+      throws IOException {
+    performMinimization(
         root,
         targetFiles,
         jarPaths,
         targetMethodNames,
         targetFieldNames,
         outputDirectory,
-        createdClass);
+        cacheDirectory,
+        false);
   }
 
   /**
-   * Helper method for performMinimization. The logic of performMinimization is here;
-   * performMinimization itself wraps this in a try-finally to ensure that all created files are
-   * cleaned up properly in the event of a crash or interrupt.
+   * Like {@link #performMinimization(String, List, List, List, List, String, String)}, but can
+   * write signature-only stubs of the jar classes instead of decompiling them. See {@link
+   * SpeciminSession#open(String, List, String, boolean)}.
    *
    * @param root The root directory of the input files.
    * @param targetFiles A list of files that contain the target methods.
@@ -144,91 +133,144 @@ public class SpeciminRunner {
    * @param targetMethodNames A set of target method names to be preserved.
    * @param targetFieldNames A set of target field names to be preserved.
    * @param outputDirectory The directory for the output.
+   * @param cacheDirectory The directory in which to keep caches between runs, or null to not cache
+   *     anything.
+   * @param jarStubs True to write stubs of the jar classes instead of decompiling them.
    * @throws IOException if there is an exception
    */
-  private static void performMinimizationImpl(
+  public static void performMinimization(
       String root,
       List<String> targetFiles,
       List<String> jarPaths,
       List<String> targetMethodNames,
       List<String> targetFieldNames,
       String outputDirectory,
-      Set<Path> createdClass)
+      @Nullable String cacheDirectory,
+      boolean jarStubs)
       throws IOException {
-    // To facilitate string manipulation in subsequent methods, ensure that 'root' ends with a
-    // trailing slash.
-    if (!root.endsWith("/")) {
-      root = root + "/";
-    }
-
-    updateStaticSolver(root, jarPaths);
-
-    // Keys are paths to files, values are parsed ASTs
-    Map<String, CompilationUnit> parsedTargetFiles = new HashMap<>();
-    for (String targetFile : targetFiles) {
-      parsedTargetFiles.put(targetFile, parseJavaFile(root, targetFile));
+    try (SpeciminSession session = SpeciminSession.open(root, jarPaths, cacheDirectory, jarStubs)) {
+      performMinimizationImpl(
+          session, targetFiles, targetMethodNames, targetFieldNames, outputDirectory);
     }
+  }
 
-    if (!jarPaths.isEmpty()) {
-      List<String> argsToDecompile = new ArrayList<>();
-      argsToDecompile.add("--silent");
-      argsToDecompile.addAll(jarPaths);
-      argsToDecompile.add(root);
-      ConsoleDecompiler.main(argsToDecompile.toArray(new String[0]));
-      // delete unneccessary legal files
-      try {
-        FileUtils.deleteDirectory(new File(root + "META-INF"));
-      } catch (IOException ex) {
-        // Following decompilation, Windows raises an IOException because the files are still
-        // being used (by what?), so we should defer deletion until the end
-        for (File legalFile :
-            FileUtils.listFiles(new File(root + "META-INF"), new String[] {}, true)) {
-          createdClass.add(legalFile.toPath());
-        }
+  /**
+   * Run a minimization against a session that was opened earlier. Unlike {@link
+   * #performMinimization(String, List, List, List, List, String)}, this method does not index the
+   * root directory or the jar files again, so it is much cheaper when many minimizations are run
+   * against the same codebase. The synthetic files created by this minimization are only kept in
+   * memory, so nothing is written to the root directory.
+   *
+   * <p>This method may be called from several threads at once. Minimizations against different
+   * sessions run concurrently, but minimizations against the same session run one at a time,
+   * because they share the session's type solvers for the JDK and the jar files.
+   *
+   * @param session The session for the root directory and the jar files.
+   * @param targetFiles A list of files that contain the target methods.
+   * @param targetMethodNames A set of target method names to be preserved.
+   * @param targetFieldNames A set of target field names to be preserved.
+   * @param outputDirectory The directory for the output.
+   * @throws IOException if there is an exception
+   */
+  public static void performMinimization(
+      SpeciminSession session,
+      List<String> targetFiles,
+      List<String> targetMethodNames,
+      List<String> targetFieldNames,
+      String outputDirectory)
+      throws IOException {
+    synchronized (session) {
+      if (session.isClosed()) {
+        throw new IllegalStateException("The session for " + session.getRoot() + " is closed");
       }
+      performMinimizationImpl(
+          session, targetFiles, targetMethodNames, targetFieldNames, outputDirectory);
     }
+  }
 
-    // the set of Java classes in the original codebase mapped with their corresponding Java files.
-    Map<String, Path> existingClassesToFilePath = new HashMap<>();
-    // This map connects the fully-qualified names of non-primary classes with the fully-qualified
-    // names of their corresponding primary classes. A primary
-    // class is a class that has the same name as the Java file where the class is declared.
-    Map<String, String> nonPrimaryClassesToPrimaryClass = new HashMap<>();
-    SourceRoot sourceRoot = new SourceRoot(Path.of(root));
-    sourceRoot.tryToParse();
-    for (CompilationUnit compilationUnit : sourceRoot.getCompilationUnits()) {
-      Path pathOfCurrentJavaFile =
-          compilationUnit.getStorage().get().getPath().toAbsolutePath().normalize();
-      String primaryTypeQualifiedName = "";
-      if (compilationUnit.getPrimaryType().isPresent()) {
-        // the get() is safe because primary type here is definitely not a local declaration,
-        // which does not have a fully-qualified name.
-        primaryTypeQualifiedName =
-            compilationUnit.getPrimaryType().get().getFullyQualifiedName().get();
-      }
-      for (ClassOrInterfaceDeclaration declaredClass :
-          compilationUnit.findAll(ClassOrInterfaceDeclaration.class)) {
-        if (declaredClass.getFullyQualifiedName().isPresent()) {
-          String declaredClassQualifiedName =
-              declaredClass.getFullyQualifiedName().get().toString();
-          existingClassesToFilePath.put(declaredClassQualifiedName, pathOfCurrentJavaFile);
-          // which means this class is not a primary class, and there is a primary class.
-          if (!"".equals(primaryTypeQualifiedName)
-              && !declaredClassQualifiedName.equals(primaryTypeQualifiedName)) {
-            nonPrimaryClassesToPrimaryClass.put(
-                declaredClassQualifiedName, primaryTypeQualifiedName);
-          }
+  /**
+   * Run every job listed in a manifest file against the same root directory and jar files. The root
+   * directory and the jar files are indexed only once, and shared by all jobs. A job that fails
+   * does not stop the others; the failures are reported once all jobs have run.
+   *
+   * @param root The root directory of the input files.
+   * @param jarPaths Paths to relevant JAR files.
+   * @param cacheDirectory The directory in which to keep caches between runs, or null.
+   * @param jarStubs True to write stubs of the jar classes instead of decompiling them.
+   * @param manifest The manifest file. See {@link SpeciminManifest} for its format.
+   * @throws IOException if the manifest cannot be read, or if the root directory or the jar files
+   *     cannot be indexed
+   */
+  public static void performManifestMinimization(
+      String root,
+      List<String> jarPaths,
+      @Nullable String cacheDirectory,
+      boolean jarStubs,
+      String manifest)
+      throws IOException {
+    Map<Integer, List<String>> jobs = SpeciminManifest.readJobs(Path.of(manifest));
+    List<String> failures = new ArrayList<>();
+    try (SpeciminSession session = SpeciminSession.open(root, jarPaths, cacheDirectory, jarStubs)) {
+      for (Entry<Integer, List<String>> job : jobs.entrySet()) {
+        try {
+          SpeciminArguments jobArguments = SpeciminManifest.parseJob(job.getValue());
+          performMinimization(
+              session,
+              jobArguments.getTargetFiles(),
+              jobArguments.getTargetMethods(),
+              jobArguments.getTargetFields(),
+              jobArguments.getRequiredOutputDirectory());
+        } catch (Exception | Error e) {
+          // One failed job should not prevent the others from running.
+          String failure = manifest + ":" + job.getKey() + ": " + e;
+          System.out.println("failed to run job " + failure);
+          failures.add(failure);
         }
       }
-      for (EnumDeclaration enumDeclaration : compilationUnit.findAll(EnumDeclaration.class)) {
-        existingClassesToFilePath.put(
-            enumDeclaration.getFullyQualifiedName().get(), pathOfCurrentJavaFile);
-      }
     }
+    if (!failures.isEmpty()) {
+      throw new RuntimeException(
+          failures.size()
+              + " of "
+              + jobs.size()
+              + " jobs in the manifest failed:\n"
+              + String.join("\n", failures));
+    }
+  }
+
+  /**
+   * Helper method for performMinimization. The logic of performMinimization is here;
+   * performMinimization itself only takes care of opening or locking the session.
+   *
+   * @param session The session for the root directory and the jar files.
+   * @param targetFiles A list of files that contain the target methods.
+   * @param targetMethodNames A set of target method names to be preserved.
+   * @param targetFieldNames A set of target field names to be preserved.
+   * @param outputDirectory The directory for the output.
+   * @throws IOException if there is an exception
+   */
+  private static void performMinimizationImpl(
+      SpeciminSession session,
+      List<String> targetFiles,
+      List<String> targetMethodNames,
+      List<String> targetFieldNames,
+      String outputDirectory)
+      throws IOException {
+    String root = session.getRoot();
+
+    ParserContext parserContext = new ParserContext(session);
+
+    // Keys are paths to files, values are parsed ASTs
+    Map<String, CompilationUnit> parsedTargetFiles =
+        new HashMap<>(parserContext.reparseAll(root, targetFiles));
+
+    Map<String, Path> existingClassesToFilePath = session.getExistingClassesToFilePath();
+    Map<String, String> nonPrimaryClassesToPrimaryClass =
+        session.getCodebaseIndex().getNonPrimaryClassesToPrimaryClass();
     UnsolvedSymbolVisitor addMissingClass =
         new UnsolvedSymbolVisitor(
-            root, existingClassesToFilePath, targetMethodNames, targetFieldNames);
-    addMissingClass.setClassesFromJar(jarPaths);
+            root, existingClassesToFilePath, targetMethodNames, targetFieldNames, parserContext);
+    addMissingClass.setClassesFromJar(session.getClassToJarPath().keySet());
 
     Map<String, String> typesToChange = new HashMap<>();
     Map<String, String> classAndUnresolvedInterface = new HashMap<>();
@@ -255,24 +297,16 @@ public class SpeciminRunner {
         cu.accept(addMissingClass, null);
       }
       addMissingClass.updateSyntheticSourceCode();
-      createdClass.addAll(addMissingClass.getCreatedClass());
-      // since the root directory is updated, we need to update the SymbolSolver
-      updateStaticSolver(root, jarPaths);
-      parsedTargetFiles = new HashMap<>();
-      for (String targetFile : targetFiles) {
-        parsedTargetFiles.put(targetFile, parseJavaFile(root, targetFile));
-      }
-      for (String targetFile : addMissingClass.getAddedTargetFiles()) {
-        try {
-          parsedTargetFiles.put(targetFile, parseJavaFile(root, targetFile));
-        } catch (ParseProblemException e) {
-          // These parsing codes cause crashes in the CI. Those crashes can't be reproduced locally.
-          // Not sure if something is wrong with VineFlower or Specimin CI. Hence we keep these
-          // lines as tech debt.
-          // TODO: Figure out why the CI is crashing.
-          continue;
-        }
-      }
+      // since the synthetic files are updated, we need to update the SymbolSolver
+      parserContext.updateSymbolSolver();
+      // Only the files whose source code has changed, which are synthetic files, are parsed again.
+      parsedTargetFiles = new HashMap<>(parserContext.reparseAll(root, targetFiles));
+      // Files that cannot be parsed are skipped. These parsing codes cause crashes in the CI. Those
+      // crashes can't be reproduced locally. Not sure if something is wrong with VineFlower or
+      // Specimin CI. Hence we keep these lines as tech debt.
+      // TODO: Figure out why the CI is crashing.
+      parsedTargetFiles.putAll(
+          parserContext.reparseAllParseable(root, addMissingClass.getAddedTargetFiles()));
       UnsolvedSymbolVisitorProgress workDoneAfterIteration =
           new UnsolvedSymbolVisitorProgress(
               addMissingClass.getPotentialUsedMembers(),
@@ -315,7 +349,13 @@ public class SpeciminRunner {
             getTypesFullNameVisitor.getFileAndAssociatedTypes();
         // correct the types of all related files before adding them to parsedTargetFiles
         JavaTypeCorrect typeCorrecter =
-            new JavaTypeCorrect(root, new HashSet<>(targetFiles), filesAndAssociatedTypes);
+            new JavaTypeCorrect(
+                root,
+                new HashSet<>(targetFiles),
+                filesAndAssociatedTypes,
+                parserContext.getSyntheticSources(),
+                session.getJarDecompiler().getDecompiledSources(),
+                session.getJarPaths());
         typeCorrecter.correctTypesForAllFiles();
         typesToChange = typeCorrecter.getTypeToChange();
         classAndUnresolvedInterface = typeCorrecter.getClassAndUnresolvedInterface();
@@ -338,11 +378,12 @@ public class SpeciminRunner {
 
         // in order for the newly updated files to be considered when solving symbols, we need to
         // update the type solver and the map of parsed target files.
-        updateStaticSolver(root, jarPaths);
+        parserContext.updateSymbolSolver();
       }
     }
 
-    UnsolvedAnnotationRemoverVisitor annoRemover = new UnsolvedAnnotationRemoverVisitor(jarPaths);
+    UnsolvedAnnotationRemoverVisitor annoRemover =
+        new UnsolvedAnnotationRemoverVisitor(session.getClassToJarPath());
     for (CompilationUnit cu : parsedTargetFiles.values()) {
       cu.accept(annoRemover, null);
     }
@@ -361,7 +402,8 @@ public class SpeciminRunner {
             targetMethodNames,
             targetFieldNames,
             nonPrimaryClassesToPrimaryClass,
-            enumVisitor.getUsedEnum());
+            enumVisitor.getUsedEnum(),
+            parserContext);
 
     for (CompilationUnit cu : parsedTargetFiles.values()) {
       cu.accept(finder, null);
@@ -384,48 +426,46 @@ public class SpeciminRunner {
     // add all files related to the targeted methods
     for (String classFullName : solveMethodOverridingVisitor.getUsedClass()) {
       String directoryOfFile = classFullName.replace(".", "/") + ".java";
-      File thisFile = new File(root + directoryOfFile);
       // classes from JDK are automatically on the classpath, so UnsolvedSymbolVisitor will not
       // create synthetic files for them
-      if (thisFile.exists()) {
+      if (parserContext.exists(root, directoryOfFile)) {
         relatedClass.add(directoryOfFile);
       }
     }
 
+    List<String> relatedFilesToParse = new ArrayList<>();
     for (String directory : relatedClass) {
       // directories already in parsedTargetFiles are original files in the root directory, we are
       // not supposed to update them.
       if (!parsedTargetFiles.containsKey(directory)) {
-        try {
-          parsedTargetFiles.put(directory, parseJavaFile(root, directory));
-        } catch (ParseProblemException e) {
-          // TODO: Figure out why the CI is crashing.
-          continue;
-        }
+        relatedFilesToParse.add(directory);
       }
     }
+    // TODO: Figure out why the CI is crashing on files that cannot be parsed.
+    parsedTargetFiles.putAll(parserContext.parseAllParseable(root, relatedFilesToParse));
     Set<String> classToFindInheritance = solveMethodOverridingVisitor.getUsedClass();
     Set<String> totalSetOfAddedInheritedClasses = classToFindInheritance;
     InheritancePreserveVisitor inheritancePreserve;
+    // The type-parameter bounds that have already been considered by any of the
+    // InheritancePreserveVisitors below. Sharing this set avoids an infinite loop.
+    Set<String> visitedBounds = new HashSet<>();
     while (!classToFindInheritance.isEmpty()) {
-      inheritancePreserve = new InheritancePreserveVisitor(classToFindInheritance);
+      inheritancePreserve =
+          new InheritancePreserveVisitor(classToFindInheritance, visitedBounds, parserContext);
       for (CompilationUnit cu : parsedTargetFiles.values()) {
         cu.accept(inheritancePreserve, null);
       }
+      List<String> inheritedFilesToParse = new ArrayList<>();
       for (String targetFile : inheritancePreserve.getAddedClasses()) {
         String directoryOfFile = targetFile.replace(".", "/") + ".java";
-        File thisFile = new File(root + directoryOfFile);
         // classes from JDK are automatically on the classpath, so UnsolvedSymbolVisitor will not
         // create synthetic files for them
-        if (thisFile.exists()) {
-          try {
-            parsedTargetFiles.put(directoryOfFile, parseJavaFile(root, directoryOfFile));
-          } catch (ParseProblemException e) {
-            // TODO: Figure out why the CI is crashing.
-            continue;
-          }
+        if (parserContext.exists(root, directoryOfFile)) {
+          inheritedFilesToParse.add(directoryOfFile);
         }
       }
+      // TODO: Figure out why the CI is crashing on files that cannot be parsed.
+      parsedTargetFiles.putAll(parserContext.parseAllParseable(root, inheritedFilesToParse));
       classToFindInheritance = inheritancePreserve.getAddedClasses();
       totalSetOfAddedInheritedClasses.addAll(classToFindInheritance);
       inheritancePreserve.emptyAddedClasses();
@@ -445,7 +485,8 @@ public class SpeciminRunner {
         new MustImplementMethodsVisitor(
             solveMethodOverridingVisitor.getUsedMembers(),
             updatedUsedClass,
-            existingClassesToFilePath);
+            existingClassesToFilePath,
+            parserContext);
 
     for (CompilationUnit cu : parsedTargetFiles.values()) {
       cu.accept(mustImplementMethodsVisitor, null);
@@ -458,7 +499,8 @@ public class SpeciminRunner {
             mustImplementMethodsVisitor.getUsedMembers(),
             mustImplementMethodsVisitor.getUsedClass(),
             finder.getResolvedYetStuckMethodCall(),
-            classAndUnresolvedInterface);
+            classAndUnresolvedInterface,
+            parserContext);
 
     for (CompilationUnit cu : parsedTargetFiles.values()) {
       cu.accept(methodPruner, null);
@@ -478,7 +520,8 @@ public class SpeciminRunner {
         // target key will have this form: "path/of/package/ClassName.java"
         String classFullyQualfiedName = getFullyQualifiedClassName(target.getKey());
         @SuppressWarnings("signature") // since it's the last element of a fully qualified path
-        @ClassGetSimpleName String simpleName =
+        @ClassGetSimpleName
+        String simpleName =
             classFullyQualfiedName.substring(classFullyQualfiedName.lastIndexOf(".") + 1);
         // If this condition is true, this class is a synthetic class initially created to be a
         // return type of some synthetic methods, but later javac has found the correct return type
@@ -511,7 +554,6 @@ public class SpeciminRunner {
         System.out.println("with error: " + e);
       }
     }
-    createdClass.addAll(getPathsFromJarPaths(root, jarPaths));
   }
 
   /**
@@ -534,26 +576,6 @@ public class SpeciminRunner {
     return sb.toString();
   }
 
-  /**
-   * Update the static solver for JavaParser.
-   *
-   * @param root the root directory of the files to parse.
-   * @param jarPaths the list of jar files to be used as input.
-   * @throws IOException if something went wrong.
-   */
-  private static void updateStaticSolver(String root, List<String> jarPaths) throws IOException {
-    // Set up the parser's symbol solver, so that we can resolve definitions.
-    CombinedTypeSolver typeSolver =
-        new CombinedTypeSolver(new JdkTypeSolver(), new JavaParserTypeSolver(new File(root)));
-    for (String path : jarPaths) {
-      typeSolver.add(new JarTypeSolver(path));
-    }
-    JavaSymbolSolver symbolSolver = new JavaSymbolSolver(typeSolver);
-    StaticJavaParser.getParserConfiguration().setSymbolResolver(symbolSolver);
-    StaticJavaParser.getParserConfiguration()
-        .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_17);
-  }
-
   /**
    * Converts a path to a Java file into the fully-qualified name of the public class in that file,
    * relying on the file's relative path being the same as the package name.
@@ -600,73 +622,6 @@ public class SpeciminRunner {
     return true;
   }
 
-  /**
-   * Use JavaParser to parse a single Java files.
-   *
-   * @param root the absolute path to the root of the source tree
-   * @param path the path of the file to be parsed, relative to the root
-   * @return the compilation unit representing the code in the file at the path, or exit with an
-   *     error
-   */
-  private static CompilationUnit parseJavaFile(String root, String path) throws IOException {
-    return StaticJavaParser.parse(Path.of(root, path));
-  }
-
-  /**
-   * Retrieves the paths of Java files that should be created from the list of JAR files.
-   *
-   * @param outPutDirectory The directory where the Java files will be created.
-   * @param jarPaths The set of paths to JAR files.
-   * @return A set containing the paths of the Java files to be created.
-   * @throws IOException If an I/O error occurs.
-   */
-  private static Set<Path> getPathsFromJarPaths(String outPutDirectory, List<String> jarPaths)
-      throws IOException {
-    Set<Path> pathsOfFile = new HashSet<>();
-    for (String path : jarPaths) {
-      JarTypeSolver jarSolver = new JarTypeSolver(path);
-      for (String qualifedClassName : jarSolver.getKnownClasses()) {
-        String relativePath = qualifedClassName.replace(".", "/") + ".java";
-        String absolutePath = outPutDirectory + relativePath;
-        Path filePath = Paths.get(absolutePath);
-        if (Files.exists(filePath)) {
-          pathsOfFile.add(filePath);
-        }
-      }
-    }
-    return pathsOfFile;
-  }
-
-  /**
-   * This method delete all files from a set of Paths. If a file is the only file in its parent
-   * directory, this method will recursively delete the parent directories until it meets a
-   * non-empty directory.
-   *
-   * @param fileList the set of Paths of files to be deleted
-   */
-  private static void deleteFiles(Set<Path> fileList) {
-    for (Path filePath : fileList) {
-      try {
-        Files.delete(filePath);
-        File classFile = new File(filePath.toString().replace(".java", ".class"));
-        // since javac might leave some .class files
-        if (classFile.exists()) {
-          Files.delete(classFile.toPath());
-        }
-        File parentDir = filePath.toFile().getParentFile();
-        if (parentDir != null && parentDir.exists() && parentDir.isDirectory()) {
-          String[] fileContained = parentDir.list();
-          if (fileContained != null && fileContained.length == 0) {
-            // Recursive call to delete the parent directory
-            deleteFileFamily(parentDir);
-          }
-        }
-      } catch (Exception e) {
-        throw new RuntimeException("Unresolved file path: " + filePath);
-      }
-    }
-  }
-
   /**
    * Returns a comment-free version of a compilation unit.
    *
@@ -680,43 +635,4 @@ public class SpeciminRunner {
     }
     return cuWithNoComments;
   }
-
-  /**
-   * Given a directory, this method will delete that directory and recursively delete the parent
-   * directories until it meets a non-empty directory. Be careful when making any changes to this
-   * method, as an incorrect conditional statement could result in the deletion of non-empty
-   * directories. This method is used to delete the temporary directory created by
-   * UnsolvedSymbolVisitor.
-   *
-   * @param fileDir the directory of the file to be deleted
-   */
-  private static void deleteFileFamily(File fileDir) {
-    fileDir.delete();
-    File parentDir = fileDir.getParentFile();
-    if (parentDir != null && parentDir.exists() && parentDir.isDirectory()) {
-      String[] fileContained = parentDir.list();
-      // Be cautious when making any changes to this line, you might actually delete important
-      // directories in the project.
-      if (fileContained != null && fileContained.length == 0) {
-        deleteFileFamily(parentDir);
-      }
-    }
-  }
-
-  /**
-   * Given a directory, this method will return all the .jar files stored in the directory.
-   *
-   * @param directoryPath the directory of the jar files
-   */
-  private static List<String> getJarFiles(String directoryPath) throws IOException {
-    Path jarPath = Path.of(directoryPath);
-    try (Stream<Path> stream = Files.walk(jarPath)) {
-      return stream
-          .filter(path -> Files.isRegularFile(path) && path.toString().endsWith(".jar"))
-          .map(path -> path.toString())
-          .collect(Collectors.toList());
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    }
-  }
 }
@@ -0,0 +1,281 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.checker.signature.qual.FullyQualifiedName;
+
+/**
+ * The state that Specimin builds for a root directory and a set of jar files, and that does not
+ * depend on which methods or fields are targeted: the index of the classes in the codebase, the
+ * classes contained in each jar file, the decompiler of the jar files, and the type solvers for the
+ * JDK and for the jar files. Opening a session is expensive, but any number of minimizations can
+ * then be run against it with {@link SpeciminRunner#performMinimization(SpeciminSession, List,
+ * List, List, String)}, each paying only for its own work. Minimizations against the same session
+ * run one at a time; they synchronize on the session, as does {@link #close()}.
+ *
+ * <p>A session decompiles the classes of the jar files as the minimizations need them, with a
+ * {@link JarDecompiler}. The decompiled files are kept in memory, so a session never writes to the
+ * root directory. Call {@link #close()} to stop the threads of the session once it is no longer
+ * needed.
+ */
+public class SpeciminSession implements AutoCloseable {
+
+  /** The root directory of the input files. Always ends with a trailing slash. */
+  private final String root;
+
+  /** Paths to relevant JAR files. */
+  private final List<String> jarPaths;
+
+  /** The index of the classes in the root directory. */
+  private final CodebaseIndex codebaseIndex;
+
+  /** The decompiler of the classes of the jar files. */
+  private final JarDecompiler jarDecompiler;
+
+  /**
+   * The classes in the root directory and in the jar files, mapped to their files in the root
+   * directory. The classes of the jar files are decompiled when they are looked up, and their files
+   * are only kept in memory by the jar decompiler.
+   */
+  private final Map<String, Path> existingClassesToFilePath;
+
+  /** The index of the classes in the jar files. */
+  private final JarIndex jarIndex;
+
+  /** The type solver for the JDK. */
+  private final ReusableTypeSolver jdkTypeSolver;
+
+  /** The threads that parse files for the minimizations against this session. */
+  private final ParallelTasks parallelTasks = new ParallelTasks();
+
+  /** True if the session writes stubs of the jar classes instead of decompiling them. */
+  private final boolean jarStubs;
+
+  /** True once the session has been closed. */
+  private boolean closed = false;
+
+  /**
+   * Creates a new session. Use {@link #open(String, List)} instead of calling this directly.
+   *
+   * @param root the root directory of the input files, with a trailing slash
+   * @param jarPaths paths to relevant JAR files
+   * @param codebaseIndex the index of the classes in the root directory
+   * @param jarDecompiler the decompiler of the jar files
+   * @param jarIndex the index of the classes in the jar files
+   * @param jarStubs true if the jar decompiler writes stubs instead of decompiling
+   */
+  private SpeciminSession(
+      String root,
+      List<String> jarPaths,
+      CodebaseIndex codebaseIndex,
+      JarDecompiler jarDecompiler,
+      JarIndex jarIndex,
+      boolean jarStubs) {
+    this.root = root;
+    this.jarPaths = Collections.unmodifiableList(new ArrayList<>(jarPaths));
+    this.codebaseIndex = codebaseIndex;
+    this.jarDecompiler = jarDecompiler;
+    this.existingClassesToFilePath =
+        jarDecompiler.withJarClasses(codebaseIndex.getExistingClassesToFilePath());
+    this.jarIndex = jarIndex;
+    this.jdkTypeSolver = new ReusableTypeSolver(new JdkTypeSolver());
+    this.jarStubs = jarStubs;
+  }
+
+  /**
+   * Opens a new session for the given root directory and jar files. This indexes the classes in the
+   * root directory and in the jar files, but does not decompile any of the jar classes yet.
+   *
+   * @param root the root directory of the input files
+   * @param jarPaths paths to relevant JAR files
+   * @return the new session
+   * @throws IOException if the root directory or one of the jar files cannot be read
+   */
+  public static SpeciminSession open(String root, List<String> jarPaths) throws IOException {
+    return open(root, jarPaths, null);
+  }
+
+  /**
+   * Opens a new session for the given root directory and jar files, like {@link #open(String,
+   * List)}. If a cache directory is given, the index of the root directory is cached there, so that
+   * only the files that changed since the last session for the same root are scanned, and so are
+   * the decompiled jar classes, so that they are not decompiled again while their jar files do not
+   * change.
+   *
+   * @param root the root directory of the input files
+   * @param jarPaths paths to relevant JAR files
+   * @param cacheDirectory the directory in which to keep caches between runs, or null
+   * @return the new session
+   * @throws IOException if the root directory or one of the jar files cannot be read
+   */
+  public static SpeciminSession open(
+      String root, List<String> jarPaths, @Nullable String cacheDirectory) throws IOException {
+    return open(root, jarPaths, cacheDirectory, false);
+  }
+
+  /**
+   * Opens a new session for the given root directory and jar files, like {@link #open(String, List,
+   * String)}. If jarStubs is true, the jar classes that the minimizations need are not decompiled;
+   * instead, signature-only stubs of them are written from their class files, whose methods all
+   * have the body {@code throw new Error();}. That is much faster for large jar files, and loses
+   * nothing, since Specimin replaces the bodies of jar methods anyway, but the parameters of the
+   * jar methods get different names.
+   *
+   * @param root the root directory of the input files
+   * @param jarPaths paths to relevant JAR files
+   * @param cacheDirectory the directory in which to keep caches between runs, or null
+   * @param jarStubs true to write stubs of the jar classes instead of decompiling them
+   * @return the new session
+   * @throws IOException if the root directory or one of the jar files cannot be read
+   */
+  public static SpeciminSession open(
+      String root, List<String> jarPaths, @Nullable String cacheDirectory, boolean jarStubs)
+      throws IOException {
+    // To facilitate string manipulation in subsequent methods, ensure that 'root' ends with a
+    // trailing slash.
+    if (!root.endsWith("/")) {
+      root = root + "/";
+    }
+
+    JarIndex jarIndex = JarIndex.build(jarPaths);
+    @Nullable Path cachePath = cacheDirectory == null ? null : Path.of(cacheDirectory);
+    JarDecompiler jarDecompiler = new JarDecompiler(root, jarIndex, cachePath, jarStubs);
+    CodebaseIndex codebaseIndex = CodebaseIndex.build(root, cachePath);
+    return new SpeciminSession(root, jarPaths, codebaseIndex, jarDecompiler, jarIndex, jarStubs);
+  }
+
+  /**
+   * Get the root directory of the input files. The result always ends with a trailing slash.
+   *
+   * @return the root directory
+   */
+  public String getRoot() {
+    return root;
+  }
+
+  /**
+   * Get the paths to the jar files of this session. Note that the list is read-only.
+   *
+   * @return the jar files
+   */
+  public List<String> getJarPaths() {
+    return jarPaths;
+  }
+
+  /**
+   * Returns true if this session writes stubs of the jar classes instead of decompiling them.
+   *
+   * @return true iff the session was opened with jarStubs
+   */
+  public boolean isJarStubs() {
+    return jarStubs;
+  }
+
+  /**
+   * Get the index of the classes in the root directory.
+   *
+   * @return the index of the classes in the root directory
+   */
+  public CodebaseIndex getCodebaseIndex() {
+    return codebaseIndex;
+  }
+
+  /**
+   * Get the classes in the root directory and in the jar files, mapped to the absolute paths of
+   * their files in the root directory. Looking up a class of a jar file that has not been needed
+   * before decompiles it. The file of a decompiled class is not on the disk: its source code is
+   * given by {@link JarDecompiler#getDecompiledSource(String)}. Note that the map is read-only.
+   *
+   * @return the map from classes to files
+   */
+  public Map<String, Path> getExistingClassesToFilePath() {
+    return existingClassesToFilePath;
+  }
+
+  /**
+   * Get the map from every class in the jar files to its jar file. Note that the map is read-only.
+   *
+   * @return the map from classes to jar files
+   */
+  public Map<@FullyQualifiedName String, String> getClassToJarPath() {
+    return jarIndex.getClassToJarPath();
+  }
+
+  /**
+   * Get the index of the classes in the jar files.
+   *
+   * @return the index of the jar files
+   */
+  JarIndex getJarIndex() {
+    return jarIndex;
+  }
+
+  /**
+   * Get the type solver for the JDK. It can be added to a new CombinedTypeSolver for every update
+   * of the symbol solver.
+   *
+   * @return the type solver for the JDK
+   */
+  ReusableTypeSolver getJdkTypeSolver() {
+    return jdkTypeSolver;
+  }
+
+  /**
+   * Get the type solver for the jar files. It can be added to a new CombinedTypeSolver for every
+   * update of the symbol solver.
+   *
+   * @return the type solver for the jar files
+   */
+  ReusableTypeSolver getJarTypeSolver() {
+    return jarIndex.getTypeSolver();
+  }
+
+  /**
+   * Get the threads that parse files for the minimizations against this session. They are stopped
+   * when the session is closed.
+   *
+   * @return the threads of this session
+   */
+  ParallelTasks getParallelTasks() {
+    return parallelTasks;
+  }
+
+  /**
+   * Get the decompiler of the jar files. It can be used by a new {@link DecompilingTypeSolver} for
+   * every update of the symbol solver.
+   *
+   * @return the decompiler of the jar files
+   */
+  JarDecompiler getJarDecompiler() {
+    return jarDecompiler;
+  }
+
+  /**
+   * Returns true if this session has been closed, and therefore must not be used anymore.
+   *
+   * @return true iff {@link #close()} has been called
+   */
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Stops the threads of the session, and releases the class files that have been read to write
+   * stubs. The session must not be used after it has been closed. Calling this method more than
+   * once has no further effect.
+   */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    parallelTasks.shutdown();
+    jarDecompiler.close();
+  }
+}
@@ -0,0 +1,62 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.UnsolvedSymbolException;
+import com.github.javaparser.resolution.cache.Cache;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import java.util.Arrays;
+
+/**
+ * A CombinedTypeSolver that reports an unsolved type with an exception that has no stack trace.
+ * JavaParser asks the root type solver for types with {@link #solveType(String)}, which can only
+ * report an unsolved type by throwing. While Specimin adds the missing classes, most of those types
+ * are unsolved, and filling in the stack traces of the exceptions, which are deep in the recursion
+ * of JavaParser's symbol solver, costs more than solving the types. Specimin catches these
+ * exceptions and never looks at their stack traces.
+ */
+class StacklessCombinedTypeSolver extends CombinedTypeSolver {
+
+  /**
+   * Creates a new combined type solver.
+   *
+   * @param typeCache the cache of the results of looking up names
+   * @param elements the type solvers to combine, in the order in which they are asked
+   */
+  StacklessCombinedTypeSolver(
+      Cache<String, SymbolReference<ResolvedReferenceTypeDeclaration>> typeCache,
+      TypeSolver... elements) {
+    super(ExceptionHandlers.IGNORE_NONE, Arrays.asList(elements), typeCache);
+  }
+
+  @Override
+  public ResolvedReferenceTypeDeclaration solveType(String name) throws UnsolvedSymbolException {
+    SymbolReference<ResolvedReferenceTypeDeclaration> ref = tryToSolveType(name);
+    if (ref.isSolved()) {
+      return ref.getCorrespondingDeclaration();
+    }
+    throw new StacklessUnsolvedSymbolException(name);
+  }
+
+  /** An UnsolvedSymbolException without a stack trace. */
+  private static class StacklessUnsolvedSymbolException extends UnsolvedSymbolException {
+
+    /** The serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new exception for an unsolved type.
+     *
+     * @param name the name of the type
+     */
+    StacklessUnsolvedSymbolException(String name) {
+      super(name);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package org.checkerframework.specimin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The synthetic classes created by UnsolvedSymbolVisitor, indexed by fully-qualified name, by
+ * simple name, and by package, so that finding the synthetic class to merge new information into
+ * does not require a scan over all the synthetic classes. In approximate mode there can be
+ * thousands of them, and UnsolvedSymbolVisitor looks one up for almost every unsolved symbol.
+ *
+ * <p>Like a set, a registry contains at most one of the classes that are equal to each other (see
+ * {@link UnsolvedClassOrInterface#equals(Object)}). Classes are never removed from a registry: they
+ * are only ever modified in place. Iteration is in insertion order.
+ */
+class SyntheticClassRegistry implements Iterable<UnsolvedClassOrInterface> {
+
+  /** The synthetic classes, keyed by their fully-qualified names. */
+  private final Map<String, UnsolvedClassOrInterface> byQualifiedName = new LinkedHashMap<>();
+
+  /** The synthetic classes, grouped by their simple names, in insertion order. */
+  private final Map<String, List<UnsolvedClassOrInterface>> bySimpleName = new HashMap<>();
+
+  /** The synthetic classes, grouped by the names of their packages, in insertion order. */
+  private final Map<String, List<UnsolvedClassOrInterface>> byPackage = new HashMap<>();
+
+  /**
+   * Add a synthetic class to this registry, unless an equal class is already present.
+   *
+   * @param syntheticClass a synthetic class
+   * @return true if the class was added, false if an equal class was already present
+   */
+  boolean add(UnsolvedClassOrInterface syntheticClass) {
+    if (byQualifiedName.putIfAbsent(syntheticClass.getQualifiedClassName(), syntheticClass)
+        != null) {
+      return false;
+    }
+    bySimpleName
+        .computeIfAbsent(syntheticClass.getClassName(), name -> new ArrayList<>(1))
+        .add(syntheticClass);
+    byPackage
+        .computeIfAbsent(syntheticClass.getPackageName(), name -> new ArrayList<>())
+        .add(syntheticClass);
+    return true;
+  }
+
+  /**
+   * Get the synthetic class with the given fully-qualified name.
+   *
+   * @param qualifiedName a fully-qualified class name
+   * @return the synthetic class with that name, or null if there is none
+   */
+  @Nullable UnsolvedClassOrInterface get(String qualifiedName) {
+    return byQualifiedName.get(qualifiedName);
+  }
+
+  /**
+   * Get the synthetic classes with the given simple name, in any package.
+   *
+   * @param simpleName a simple class name
+   * @return the synthetic classes with that name, in the order in which they were added
+   */
+  List<UnsolvedClassOrInterface> getBySimpleName(String simpleName) {
+    return Collections.unmodifiableList(
+        bySimpleName.getOrDefault(simpleName, Collections.emptyList()));
+  }
+
+  /**
+   * Get the synthetic classes in the given package.
+   *
+   * @param packageName the name of a package
+   * @return the synthetic classes in that package, in the order in which they were added
+   */
+  List<UnsolvedClassOrInterface> getByPackage(String packageName) {
+    return Collections.unmodifiableList(
+        byPackage.getOrDefault(packageName, Collections.emptyList()));
+  }
+
+  /**
+   * Get the number of synthetic classes in this registry.
+   *
+   * @return the number of synthetic classes
+   */
+  int size() {
+    return byQualifiedName.size();
+  }
+
+  /**
+   * Iterate over the synthetic classes in this registry, in the order in which they were added. The
+   * iterator does not support removal.
+   *
+   * @return an iterator over the synthetic classes
+   */
+  @Override
+  public Iterator<UnsolvedClassOrInterface> iterator() {
+    return Collections.unmodifiableCollection(byQualifiedName.values()).iterator();
+  }
+}
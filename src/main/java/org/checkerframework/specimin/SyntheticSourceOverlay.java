@@ -0,0 +1,115 @@
+package org.checkerframework.specimin;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The source code of the synthetic classes created by {@link UnsolvedSymbolVisitor} during a single
+ * minimization. Specimin used to write these classes as files into the root directory and delete
+ * them again once it was done. They are now kept in memory instead, on top of the files in the root
+ * directory: {@link ParserContext} parses from this overlay before it looks at the disk, and
+ * resolves symbols against it with an {@link OverlayTypeSolver}. {@link JavaTypeCorrect} gives it
+ * to javac with an {@link OverlayFileManager}. Nothing is written to the root directory, so several
+ * minimizations can run on the same codebase at the same time, and nothing needs to be cleaned up
+ * if Specimin crashes.
+ */
+class SyntheticSourceOverlay {
+
+  /**
+   * The source code of each synthetic file, keyed by the path of the file relative to the root
+   * directory, such as "com/example/Foo.java". A sorted map, so that the files are always listed in
+   * the same order.
+   */
+  private final Map<String, String> sources = new TreeMap<>();
+
+  /**
+   * The paths of the files that were added, changed or removed since the last {@link
+   * #takeChangedPaths()}.
+   */
+  private Set<String> changedPaths = new HashSet<>();
+
+  /**
+   * Get the path, relative to the root directory, of the file that contains the given class.
+   *
+   * @param packageName the package of the class, or the empty string for the default package
+   * @param className the simple name of the class
+   * @return the path of the file that contains the class, such as "com/example/Foo.java"
+   */
+  static String pathOf(String packageName, String className) {
+    if (packageName.isEmpty()) {
+      return className + ".java";
+    }
+    return packageName.replace('.', '/') + "/" + className + ".java";
+  }
+
+  /**
+   * Add a synthetic file to this overlay, replacing the file at the same path if there is one.
+   *
+   * @param path the path of the file relative to the root directory
+   * @param source the source code of the file
+   */
+  void put(String path, String source) {
+    if (!source.equals(sources.put(path, source))) {
+      changedPaths.add(path);
+    }
+  }
+
+  /**
+   * Remove a synthetic file from this overlay. If there is no file at the given path, this method
+   * does nothing.
+   *
+   * @param path the path of the file relative to the root directory
+   */
+  void remove(String path) {
+    if (sources.remove(path) != null) {
+      changedPaths.add(path);
+    }
+  }
+
+  /**
+   * Check whether this overlay contains a synthetic file at the given path.
+   *
+   * @param path a path relative to the root directory
+   * @return true if there is a synthetic file at that path
+   */
+  boolean contains(String path) {
+    return sources.containsKey(path);
+  }
+
+  /**
+   * Get the source code of the synthetic file at the given path.
+   *
+   * @param path a path relative to the root directory
+   * @return the source code of the file, or null if there is no synthetic file at that path
+   */
+  @Nullable String getSource(String path) {
+    return sources.get(path);
+  }
+
+  /**
+   * Get all synthetic files, keyed by their paths relative to the root directory. Note that the map
+   * is read-only.
+   *
+   * @return the synthetic files, sorted by path
+   */
+  Map<String, String> getSources() {
+    return Collections.unmodifiableMap(sources);
+  }
+
+  /**
+   * Get the paths of the synthetic files that were added, changed or removed since the last call to
+   * this method, and start recording the changes anew. A file that is put again with the same
+   * source code has not changed.
+   *
+   * @return the paths of the files that changed, relative to the root directory
+   */
+  Set<String> takeChangedPaths() {
+    Set<String> result = changedPaths;
+    changedPaths = new HashSet<>();
+    return result;
+  }
+}
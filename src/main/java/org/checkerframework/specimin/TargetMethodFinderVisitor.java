@@ -47,6 +47,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * The main visitor for Specimin's first phase, which locates the target method(s) and compiles
@@ -137,6 +138,9 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
    */
   private final Set<String> resolvedYetStuckMethodCall = new HashSet<>();
 
+  /** The parser of the current run of Specimin, used to resolve nodes. */
+  private final ParserContext parserContext;
+
   /**
    * Create a new target method finding visitor.
    *
@@ -147,12 +151,14 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
    * @param nonPrimaryClassesToPrimaryClass map connecting non-primary classes with their
    *     corresponding primary classes
    * @param usedTypeElement set of type elements used by target methods.
+   * @param parserContext the parser of the current run of Specimin
    */
   public TargetMethodFinderVisitor(
       List<String> methodNames,
       List<String> fieldNames,
       Map<String, String> nonPrimaryClassesToPrimaryClass,
-      Set<String> usedTypeElement) {
+      Set<String> usedTypeElement,
+      ParserContext parserContext) {
     targetMethodNames = new HashSet<>();
     for (String methodSignature : methodNames) {
       this.targetMethodNames.add(methodSignature.replaceAll("\\s", ""));
@@ -164,6 +170,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
     importedClassToPackage = new HashMap<>();
     this.nonPrimaryClassesToPrimaryClass = nonPrimaryClassesToPrimaryClass;
     this.usedTypeElement = usedTypeElement;
+    this.parserContext = parserContext;
   }
 
   /**
@@ -349,7 +356,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
     boolean oldInsideTargetMember = insideTargetMember;
     if (this.targetMethodNames.contains(methodName)) {
       insideTargetMember = true;
-      ResolvedConstructorDeclaration resolvedMethod = method.resolve();
+      ResolvedConstructorDeclaration resolvedMethod = parserContext.resolve(method);
       targetMethods.add(resolvedMethod.getQualifiedSignature());
       unfoundMethods.remove(methodName);
       updateUsedClassWithQualifiedClassName(
@@ -373,7 +380,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
       // used enums needs to have compilable constructors.
       if (usedTypeElement.contains(parentNode.getFullyQualifiedName().orElseThrow())) {
         for (Parameter parameter : method.getParameters()) {
-          updateUsedClassBasedOnType(parameter.getType().resolve());
+          updateUsedClassBasedOnType(parserContext.resolve(parameter.getType()));
         }
       }
     }
@@ -411,7 +418,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
       // it could also be an enum declaration, but those are handled separately
       if (parentNode instanceof ObjectCreationExpr) {
         ObjectCreationExpr parentExpression = (ObjectCreationExpr) parentNode;
-        ResolvedConstructorDeclaration resolved = parentExpression.resolve();
+        ResolvedConstructorDeclaration resolved = parserContext.resolve(parentExpression);
         String methodPackage = resolved.getPackageName();
         String methodClass = resolved.getClassName();
         usedMembers.add(methodPackage + "." + methodClass + "." + method.getNameAsString() + "()");
@@ -421,7 +428,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
     }
     String methodWithoutAnySpace = methodName.replaceAll("\\s", "");
     if (this.targetMethodNames.contains(methodWithoutAnySpace)) {
-      ResolvedMethodDeclaration resolvedMethod = method.resolve();
+      ResolvedMethodDeclaration resolvedMethod = parserContext.resolve(method);
       updateUsedClassesForInterface(resolvedMethod);
       updateUsedClassWithQualifiedClassName(
           resolvedMethod.getPackageName() + "." + resolvedMethod.getClassName(),
@@ -440,7 +447,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
       // JavaParser may misinterpret unresolved array types as reference types.
       // To ensure accuracy, we resolve the type before proceeding with the check.
       try {
-        ResolvedType resolvedType = returnType.resolve();
+        ResolvedType resolvedType = parserContext.resolve(returnType);
         if (resolvedType instanceof ResolvedReferenceType) {
           updateUsedClassBasedOnType(resolvedType);
         }
@@ -482,10 +489,10 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
         // Bug report: https://github.com/javaparser/javaparser/issues/4240
         ResolvedType paramType;
         if (para.getParentNode().isPresent() && para.getParentNode().get() instanceof CatchClause) {
-          paramType = para.getType().resolve();
+          paramType = parserContext.resolve(para.getType());
         } else {
           try {
-            paramType = para.resolve().getType();
+            paramType = parserContext.resolve(para).getType();
           } catch (UnsupportedOperationException e) {
             throw new RuntimeException("cannot solve: " + para, e);
           }
@@ -527,7 +534,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
   @Override
   public Visitable visit(MethodReferenceExpr ref, Void p) {
     if (insideTargetMember) {
-      ResolvedMethodDeclaration decl = ref.resolve();
+      ResolvedMethodDeclaration decl = parserContext.resolve(ref);
       preserveMethodDecl(decl);
     }
     return super.visit(ref, p);
@@ -538,7 +545,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
     if (insideTargetMember) {
       ResolvedMethodDeclaration decl;
       try {
-        decl = call.resolve();
+        decl = parserContext.resolve(call);
       } catch (UnsupportedOperationException e) {
         // This case only occurs when a method is called on a lambda parameter.
         // JavaParser has a type variable for the lambda parameter, but it won't
@@ -667,7 +674,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
   public Visitable visit(ObjectCreationExpr newExpr, Void p) {
     if (insideTargetMember) {
       try {
-        ResolvedConstructorDeclaration resolved = newExpr.resolve();
+        ResolvedConstructorDeclaration resolved = parserContext.resolve(newExpr);
         usedMembers.add(resolved.getQualifiedSignature());
         updateUsedClassWithQualifiedClassName(
             resolved.getPackageName() + "." + resolved.getClassName(),
@@ -689,7 +696,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
   @Override
   public Visitable visit(ExplicitConstructorInvocationStmt expr, Void p) {
     if (insideTargetMember) {
-      ResolvedConstructorDeclaration resolved = expr.resolve();
+      ResolvedConstructorDeclaration resolved = parserContext.resolve(expr);
       usedMembers.add(resolved.getQualifiedSignature());
       updateUsedClassWithQualifiedClassName(
           resolved.getPackageName() + "." + resolved.getClassName(),
@@ -730,11 +737,11 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
       try {
         // while the name of the method is declaringType(), it actually returns the class where the
         // field is declared
-        fullNameOfClass = expr.resolve().asField().declaringType().getQualifiedName();
+        fullNameOfClass = parserContext.resolve(expr).asField().declaringType().getQualifiedName();
         usedMembers.add(fullNameOfClass + "#" + expr.getName().asString());
         updateUsedClassWithQualifiedClassName(
             fullNameOfClass, usedTypeElement, nonPrimaryClassesToPrimaryClass);
-        ResolvedType exprResolvedType = expr.resolve().getType();
+        ResolvedType exprResolvedType = parserContext.resolve(expr).getType();
         updateUsedClassBasedOnType(exprResolvedType);
       } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
         // when the type is a primitive array, we will have an UnsupportedOperationException
@@ -754,7 +761,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
     }
     Expression caller = expr.getScope();
     if (caller instanceof SuperExpr) {
-      ResolvedType callerResolvedType = caller.calculateResolvedType();
+      ResolvedType callerResolvedType = parserContext.calculateResolvedType(caller);
       updateUsedClassBasedOnType(callerResolvedType);
     }
     return super.visit(expr, p);
@@ -837,7 +844,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
    */
   private void resolveUnionType(UnionType type) {
     for (ReferenceType param : type.getElements()) {
-      ResolvedType paramType = param.resolve();
+      ResolvedType paramType = parserContext.resolve(param);
       updateUsedClassBasedOnType(paramType);
     }
   }
@@ -850,17 +857,12 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
    * @return true if the updating process was successful, false otherwise.
    */
   private boolean updateUsedClassAndMemberForEnumConstant(FieldAccessExpr fieldAccessExpr) {
-    ResolvedValueDeclaration resolved;
-    try {
-      resolved = fieldAccessExpr.resolve();
-    }
+    @Nullable ResolvedValueDeclaration resolved =
+        parserContext.tryResolve(fieldAccessExpr).orElse(null);
     // if the a field is accessed in the form of a fully-qualified path, such as
     // org.example.A.b, then other components in the path apart from the class name and field
     // name, such as org and org.example, will also be considered as FieldAccessExpr.
-    catch (UnsolvedSymbolException | UnsupportedOperationException e) {
-      return false;
-    }
-    if (!resolved.isEnumConstant()) {
+    if (resolved == null || !resolved.isEnumConstant()) {
       return false;
     }
     String classFullName = resolved.asEnumConstant().getType().describe();
@@ -879,7 +881,7 @@ public class TargetMethodFinderVisitor extends ModifierVisitor<Void> {
   public void updateUsedElementWithPotentialFieldNameExpr(NameExpr expr) {
     ResolvedValueDeclaration exprDecl;
     try {
-      exprDecl = expr.resolve();
+      exprDecl = parserContext.resolve(expr);
     } catch (UnsolvedSymbolException e) {
       // if expr is the name of a class in a static call, we can't resolve its value.
       return;
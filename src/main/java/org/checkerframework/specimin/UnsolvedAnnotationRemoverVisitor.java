@@ -8,24 +8,16 @@ import com.github.javaparser.ast.expr.NormalAnnotationExpr;
 import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
 import com.github.javaparser.ast.visitor.ModifierVisitor;
 import com.github.javaparser.ast.visitor.Visitable;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.checkerframework.checker.signature.qual.FullyQualifiedName;
 
 /** A visitor that removes unsolved annotation expressions. */
 public class UnsolvedAnnotationRemoverVisitor extends ModifierVisitor<Void> {
-  /**
-   * List of paths of jar files to be used as input. Note: this is the set of every jar path, not
-   * just the jar paths used by the current compilation unit.
-   */
-  List<String> jarPaths;
-
   /** Map every class in the set of jar files to the corresponding jar file */
-  Map<String, String> classToJarPath = new HashMap<>();
+  Map<@FullyQualifiedName String, String> classToJarPath;
 
   /**
    * Map a class to its fully qualified name based on the import statements of the current
@@ -39,20 +31,11 @@ public class UnsolvedAnnotationRemoverVisitor extends ModifierVisitor<Void> {
   /**
    * Create a new instance of UnsolvedAnnotationRemoverVisitor
    *
-   * @param jarPaths a list of paths of jar files to be used as input
+   * @param classToJarPath every class in the set of jar files to be used as input, mapped to the
+   *     corresponding jar file
    */
-  public UnsolvedAnnotationRemoverVisitor(List<String> jarPaths) {
-    this.jarPaths = jarPaths;
-    for (String jarPath : jarPaths) {
-      try {
-        JarTypeSolver jarSolver = new JarTypeSolver(jarPath);
-        for (String fullClassName : jarSolver.getKnownClasses()) {
-          classToJarPath.put(fullClassName, jarPath);
-        }
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
-    }
+  public UnsolvedAnnotationRemoverVisitor(Map<@FullyQualifiedName String, String> classToJarPath) {
+    this.classToJarPath = classToJarPath;
   }
 
   /**
@@ -1,6 +1,7 @@
 package org.checkerframework.specimin;
 
 import com.google.common.base.Splitter;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -55,6 +56,20 @@ public class UnsolvedClassOrInterface {
   /** Is this class an annotation? */
   private boolean isAnAnnotation = false;
 
+  /**
+   * The number of times this class itself (not counting its methods and inner classes) has been
+   * modified since it was created. See {@link #getModificationCount()}.
+   */
+  private long modificationCount = 0;
+
+  /**
+   * The source code of this class when it was last rendered, or null if it has never been rendered.
+   */
+  private @Nullable String rendered = null;
+
+  /** The value of {@link #getModificationCount()} when {@link #rendered} was rendered. */
+  private long renderedModificationCount = -1;
+
   /**
    * This class' constructor should be used for creating inner classes. Frankly, this design is a
    * mess (sorry) - controlling whether this is an inner class via inheritance is probably bad.
@@ -136,7 +151,10 @@ public class UnsolvedClassOrInterface {
    * (because we encounter an implements clause), but it can never go from true to false.
    */
   public void setIsAnInterfaceToTrue() {
-    this.isAnInterface = true;
+    if (!this.isAnInterface) {
+      this.isAnInterface = true;
+      modificationCount++;
+    }
   }
 
   /**
@@ -145,16 +163,42 @@ public class UnsolvedClassOrInterface {
    * false.
    */
   public void setIsAnAnnotationToTrue() {
-    this.isAnAnnotation = true;
+    if (!this.isAnAnnotation) {
+      this.isAnAnnotation = true;
+      modificationCount++;
+    }
+  }
+
+  /**
+   * Get the number of times this class, its methods, or its inner classes have been modified since
+   * this class was created. The count only grows, and it only grows when the source code of this
+   * class may have changed: adding a method, a field, or an inner class that is already present
+   * does not count. UnsolvedSymbolVisitor uses it to only write out again the synthetic classes
+   * that actually changed.
+   *
+   * @return the number of modifications of this class
+   */
+  public long getModificationCount() {
+    long result = modificationCount;
+    for (UnsolvedMethod method : methods) {
+      result += method.getModificationCount();
+    }
+    if (innerClasses != null) {
+      for (UnsolvedClassOrInterface innerClass : innerClasses) {
+        result += innerClass.getModificationCount();
+      }
+    }
+    return result;
   }
 
   /**
-   * Get the list of methods from this synthetic class
+   * Get the list of methods from this synthetic class. Use {@link #addMethod(UnsolvedMethod)} to
+   * add a method.
    *
    * @return the list of methods
    */
   public Set<UnsolvedMethod> getMethods() {
-    return methods;
+    return Collections.unmodifiableSet(methods);
   }
 
   /**
@@ -185,12 +229,12 @@ public class UnsolvedClassOrInterface {
   }
 
   /**
-   * Get the fields of this current class
+   * Get the fields of this current class. Use {@link #addFields(String)} to add a field.
    *
    * @return classVariables
    */
   public Set<String> getClassFields() {
-    return classFields;
+    return Collections.unmodifiableSet(classFields);
   }
 
   /**
@@ -240,10 +284,14 @@ public class UnsolvedClassOrInterface {
         // So, remove the current one (the add call below will take care of
         // adding this method, just as if this was a totally new method).
         this.methods.remove(matchingMethod);
+        // Keep the modifications of the removed method, so that the count never decreases.
+        modificationCount += matchingMethod.getModificationCount() + 1;
       }
     }
 
-    this.methods.add(method);
+    if (this.methods.add(method)) {
+      modificationCount++;
+    }
   }
 
   /**
@@ -253,7 +301,9 @@ public class UnsolvedClassOrInterface {
    * @param variableExpression the expression of the variables to be added
    */
   public void addFields(String variableExpression) {
-    this.classFields.add(variableExpression);
+    if (this.classFields.add(variableExpression)) {
+      modificationCount++;
+    }
   }
 
   /**
@@ -262,7 +312,10 @@ public class UnsolvedClassOrInterface {
    * @param numberOfTypeVariables number of type variable in this class.
    */
   public void setNumberOfTypeVariables(int numberOfTypeVariables) {
-    this.numberOfTypeVariables = numberOfTypeVariables;
+    if (this.numberOfTypeVariables != numberOfTypeVariables) {
+      this.numberOfTypeVariables = numberOfTypeVariables;
+      modificationCount++;
+    }
   }
 
   /**
@@ -271,7 +324,10 @@ public class UnsolvedClassOrInterface {
    * @param preferredTypeVariables desired value for preferredTypeVariables.
    */
   public void setPreferedTypeVariables(Set<String> preferredTypeVariables) {
-    this.preferredTypeVariables = preferredTypeVariables;
+    if (!this.preferredTypeVariables.equals(preferredTypeVariables)) {
+      this.preferredTypeVariables = preferredTypeVariables;
+      modificationCount++;
+    }
   }
 
   /**
@@ -289,7 +345,11 @@ public class UnsolvedClassOrInterface {
    * @param className a fully-qualified class name for the class to be extended
    */
   public void extend(String className) {
-    this.extendsClause = "extends " + className;
+    String extendsClause = "extends " + className;
+    if (!extendsClause.equals(this.extendsClause)) {
+      this.extendsClause = extendsClause;
+      modificationCount++;
+    }
   }
 
   /**
@@ -403,6 +463,9 @@ public class UnsolvedClassOrInterface {
     }
 
     classFields.addAll(newFields);
+    if (successfullyUpdated) {
+      modificationCount++;
+    }
     return successfullyUpdated;
   }
 
@@ -416,7 +479,9 @@ public class UnsolvedClassOrInterface {
       // LinkedHashSet to make the iteration order deterministic.
       this.innerClasses = new LinkedHashSet<>(1);
     }
-    this.innerClasses.add(innerClass);
+    if (this.innerClasses.add(innerClass)) {
+      modificationCount++;
+    }
   }
 
   @Override
@@ -438,12 +503,29 @@ public class UnsolvedClassOrInterface {
   }
 
   /**
-   * Return the content of the class as a compilable Java file.
+   * Return the content of the class as a compilable Java file. The content is only rendered again
+   * once the class has been modified (see {@link #getModificationCount()}).
    *
    * @return the content of the class
    */
   @Override
   public String toString() {
+    long currentModificationCount = getModificationCount();
+    String result = rendered;
+    if (result == null || renderedModificationCount != currentModificationCount) {
+      result = render();
+      rendered = result;
+      renderedModificationCount = currentModificationCount;
+    }
+    return result;
+  }
+
+  /**
+   * Render the content of the class as a compilable Java file.
+   *
+   * @return the content of the class
+   */
+  private String render() {
     StringBuilder sb = new StringBuilder();
     // TODO: this test is very, very bad practice and makes this class
     // not reusable. Find a better way to do this after ISSTA.
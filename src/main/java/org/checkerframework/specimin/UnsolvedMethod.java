@@ -37,6 +37,15 @@ public class UnsolvedMethod {
   /** Access modifer of the current method. The value is set to "public" by default. */
   private final String accessModifier;
 
+  /**
+   * The number of times this method has been modified since it was created. The synthetic class
+   * that contains this method uses it to tell whether its own source code is still up to date.
+   */
+  private int modificationCount = 0;
+
+  /** The source code of this method, or null if it has not been rendered since it was modified. */
+  private @Nullable String rendered = null;
+
   /**
    * Create an instance of UnsolvedMethod
    *
@@ -92,7 +101,10 @@ public class UnsolvedMethod {
    * @param returnType the return type to bet set for this method
    */
   public void setReturnType(String returnType) {
-    this.returnType = returnType;
+    if (!this.returnType.equals(returnType)) {
+      this.returnType = returnType;
+      modified();
+    }
   }
 
   /**
@@ -124,7 +136,25 @@ public class UnsolvedMethod {
 
   /** Set isStatic to true */
   public void setStatic() {
-    isStatic = true;
+    if (!isStatic) {
+      isStatic = true;
+      modified();
+    }
+  }
+
+  /** Record that this method has been modified, so that its source code is rendered again. */
+  private void modified() {
+    modificationCount++;
+    rendered = null;
+  }
+
+  /**
+   * Get the number of times this method has been modified since it was created.
+   *
+   * @return the number of modifications of this method
+   */
+  public int getModificationCount() {
+    return modificationCount;
   }
 
   @Override
@@ -147,12 +177,27 @@ public class UnsolvedMethod {
   }
 
   /**
-   * Return the content of the method. Note that the body of the method is stubbed out.
+   * Return the content of the method. Note that the body of the method is stubbed out. The content
+   * is only rendered again once the method has been modified.
    *
    * @return the content of the method with the body stubbed out
    */
   @Override
   public String toString() {
+    String result = rendered;
+    if (result == null) {
+      result = render();
+      rendered = result;
+    }
+    return result;
+  }
+
+  /**
+   * Render the content of the method.
+   *
+   * @return the content of the method with the body stubbed out
+   */
+  private String render() {
     StringBuilder arguments = new StringBuilder();
     for (int i = 0; i < parameterList.size(); i++) {
       String parameter = parameterList.get(i);
@@ -1,10 +1,10 @@
 package org.checkerframework.specimin;
 
-import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.BodyDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.ConstructorDeclaration;
 import com.github.javaparser.ast.body.EnumConstantDeclaration;
@@ -55,15 +55,9 @@ import com.github.javaparser.resolution.types.ResolvedLambdaConstraintType;
 import com.github.javaparser.resolution.types.ResolvedReferenceType;
 import com.github.javaparser.resolution.types.ResolvedType;
 import com.github.javaparser.resolution.types.ResolvedTypeVariable;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
 import com.github.javaparser.utils.Pair;
 import com.google.common.base.Ascii;
 import com.google.common.base.Splitter;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayDeque;
@@ -72,12 +66,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signature.qual.ClassGetSimpleName;
@@ -135,11 +130,22 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
   private final Map<String, @ClassGetSimpleName String> methodAndReturnType = new HashMap<>();
 
   /** List of classes not in the source codes */
-  private final Set<UnsolvedClassOrInterface> missingClass = new HashSet<>();
+  private final SyntheticClassRegistry missingClass = new SyntheticClassRegistry();
+
+  /**
+   * The modification count (see {@link UnsolvedClassOrInterface#getModificationCount()}) of each
+   * synthetic class when its file was last created. Keyed by identity, because a synthetic class
+   * may be replaced by an equal one with different content.
+   */
+  private final Map<UnsolvedClassOrInterface, Long> createdModificationCounts =
+      new IdentityHashMap<>();
 
   /** The same as the root being used in SpeciminRunner */
   private final String rootDirectory;
 
+  /** The parser of the current run of Specimin, used to parse types from javac's messages. */
+  private final ParserContext parserContext;
+
   /**
    * This instance maps the name of the return type of a synthetic method with the synthetic class
    * of that method
@@ -159,12 +165,6 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
    */
   private boolean gotException;
 
-  /**
-   * The list of classes that have been created. We use this list to delete all the temporary
-   * synthetic classes when Specimin finishes its run
-   */
-  private final Set<Path> createdClass = new HashSet<>();
-
   /**
    * List of fully-qualified names of classes that are directly imported (i.e., without the use of a
    * wildcard import statement.)
@@ -178,7 +178,7 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
   private final Map<String, String> classAndPackageMap = new HashMap<>();
 
   /** This set has fully-qualified class names that come from jar files input */
-  private final Set<@FullyQualifiedName String> classesFromJar = new HashSet<>();
+  private Set<@FullyQualifiedName String> classesFromJar = Collections.emptySet();
 
   /**
    * This set has the fully-qualfied name of the synthetic return types created by this instance of
@@ -212,6 +212,22 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
   /** New files that should be added to the list of target files for the next iteration. */
   private final Set<String> addedTargetFiles = new HashSet<>();
 
+  /**
+   * The members of classes (methods, constructors and fields) whose last visit did not set {@link
+   * #gotException}, mapped to the size of {@link #potentialUsedMembers} at the time: every symbol
+   * in them could be solved, and nothing was added to the synthetic classes for them. Visiting them
+   * again would do nothing as long as no potentially-used member has been added since, because
+   * which symbols of a member are solved depends on those. So later iterations skip them, and only
+   * visit the members that still had unsolved symbols, the members that may now be used, and the
+   * members of files that were parsed again because they changed. The compilation units of files
+   * that did not change are reused from one iteration to the next, so the members are compared by
+   * identity. Once a synthetic class that was already created changes, whether through a merge, a
+   * new member, or javac's type corrections, symbols that could be solved may now have different
+   * types, so this map is cleared and every member is visited again. A new synthetic class does not
+   * clear it, since the members in this map were resolved without it.
+   */
+  private final Map<BodyDeclaration<?>, Integer> resolvedMembers = new IdentityHashMap<>();
+
   /** Stores the sets of method declarations in the currently visiting classes. */
   private final ArrayDeque<Set<MethodDeclaration>> declaredMethod = new ArrayDeque<>();
 
@@ -267,13 +283,16 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
    * @param targetMethodsSignatures the list of signatures of target methods as specified by the
    *     user.
    * @param targetFieldsSignature the list of signatures of target fields as specified by the user.
+   * @param parserContext the parser of the current run of Specimin
    */
   public UnsolvedSymbolVisitor(
       String rootDirectory,
       Map<String, Path> existingClassesToFilePath,
       List<String> targetMethodsSignatures,
-      List<String> targetFieldsSignature) {
+      List<String> targetFieldsSignature,
+      ParserContext parserContext) {
     this.rootDirectory = rootDirectory;
+    this.parserContext = parserContext;
     this.gotException = true;
     this.existingClassesToFilePath = existingClassesToFilePath;
     this.targetMethodsSignatures = new HashSet<>();
@@ -301,18 +320,13 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
   }
 
   /**
-   * This method sets the value of classesFromJar based on the known class of jar type solvers
+   * This method sets the value of classesFromJar. The classes are indexed once per {@link
+   * SpeciminSession} rather than by each visitor, and the set is shared rather than copied.
    *
-   * @param jarPaths a list of path of jar files
+   * @param classesFromJar the fully-qualified names of all the classes in the input jar files
    */
-  public void setClassesFromJar(List<String> jarPaths) {
-    for (String path : jarPaths) {
-      try {
-        classesFromJar.addAll(new JarTypeSolver(path).getKnownClasses());
-      } catch (Exception e) {
-        throw new RuntimeException(e);
-      }
-    }
+  public void setClassesFromJar(Set<@FullyQualifiedName String> classesFromJar) {
+    this.classesFromJar = classesFromJar;
   }
 
   /**
@@ -387,15 +401,6 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
     return gotException;
   }
 
-  /**
-   * Get the classes that have been created by the current iteration of the visitor.
-   *
-   * @return createdClass the Set of Path of classes that have beenc created
-   */
-  public Set<Path> getCreatedClass() {
-    return createdClass;
-  }
-
   /**
    * Set gotException to false. This method is to be used at the beginning of each iteration of the
    * visitor.
@@ -484,8 +489,10 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
       NodeList<ClassOrInterfaceType> implementedTypes = asClassOrInterface.getImplementedTypes();
       // Not sure why getExtendedTypes return a list, since a class can only extends at most one
       // class in Java.
-      NodeList<ClassOrInterfaceType> extendedAndImplementedTypes =
-          asClassOrInterface.getExtendedTypes();
+      // A copy, so that the implemented types are not added to the extends clause of the
+      // declaration, whose compilation unit is reused by the next iteration.
+      List<ClassOrInterfaceType> extendedAndImplementedTypes =
+          new ArrayList<>(asClassOrInterface.getExtendedTypes());
       extendedAndImplementedTypes.addAll(implementedTypes);
       updateForExtendedAndImplementedTypes(
           extendedAndImplementedTypes, implementedTypes, asClassOrInterface.isInterface());
@@ -547,8 +554,8 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
    *     interface
    */
   private void updateForExtendedAndImplementedTypes(
-      NodeList<ClassOrInterfaceType> extendedAndImplementedTypes,
-      NodeList<ClassOrInterfaceType> implementedTypes,
+      List<ClassOrInterfaceType> extendedAndImplementedTypes,
+      List<ClassOrInterfaceType> implementedTypes,
       boolean isAnInterface) {
     for (ClassOrInterfaceType implementedOrExtended : extendedAndImplementedTypes) {
       String qualifiedName = getQualifiedNameForClassOrInterfaceType(implementedOrExtended);
@@ -781,12 +788,10 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
       return super.visit(node, p);
     }
 
-    for (UnsolvedClassOrInterface syntheticClass : missingClass) {
-      if (syntheticClass.getQualifiedClassName().equals(referenceTypeFQN)) {
-        // TODO: check for double extends?
-        syntheticClass.extend(relationalExprFQN);
-        break;
-      }
+    UnsolvedClassOrInterface syntheticClass = missingClass.get(referenceTypeFQN);
+    if (syntheticClass != null) {
+      // TODO: check for double extends?
+      syntheticClass.extend(relationalExprFQN);
     }
 
     return super.visit(node, p);
@@ -847,9 +852,7 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
       insidePotentialUsedMember = oldInsidePotentialUsedMember;
       return result;
     }
-    try {
-      declType.resolve();
-    } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
+    if (parserContext.tryResolve(declType).isEmpty()) {
       String typeAsString = declType.asString();
       List<String> elements = Splitter.onPattern("\\.").splitToList(typeAsString);
       // There could be three cases here: a type variable, a fully-qualified class name, or a simple
@@ -859,7 +862,7 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
         int typeParamIndex = typeAsString.indexOf('<');
         int typeParamCount = -1;
         if (typeParamIndex != -1) {
-          ClassOrInterfaceType asType = StaticJavaParser.parseClassOrInterfaceType(typeAsString);
+          ClassOrInterfaceType asType = parserContext.parseClassOrInterfaceType(typeAsString);
           typeParamCount = asType.getTypeArguments().get().size();
           typeAsString = typeAsString.substring(0, typeParamIndex);
         }
@@ -952,6 +955,17 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
 
   @Override
   public Visitable visit(FieldDeclaration node, Void arg) {
+    return visitMember(node, () -> visitField(node, arg));
+  }
+
+  /**
+   * Visits a field declaration. Helper method for {@link #visit(FieldDeclaration, Void)}.
+   *
+   * @param node a field declaration
+   * @param arg the argument of the visitor
+   * @return the visited field declaration
+   */
+  private Visitable visitField(FieldDeclaration node, Void arg) {
     for (VariableDeclarator var : node.getVariables()) {
       String variableName = var.getNameAsString();
       String variableType = node.getElementType().asString();
@@ -980,6 +994,18 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
 
   @Override
   public Visitable visit(ConstructorDeclaration node, Void arg) {
+    return visitMember(node, () -> visitConstructor(node, arg));
+  }
+
+  /**
+   * Visits a constructor declaration. Helper method for {@link #visit(ConstructorDeclaration,
+   * Void)}.
+   *
+   * @param node a constructor declaration
+   * @param arg the argument of the visitor
+   * @return the visited constructor declaration
+   */
+  private Visitable visitConstructor(ConstructorDeclaration node, Void arg) {
     String methodQualifiedSignature =
         this.currentClassQualifiedName
             + "#"
@@ -1001,8 +1027,6 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
     return result;
   }
 
-  @SuppressWarnings(
-      "nullness:return") // return type is not used, and we need to avoid calling super.visit()
   @Override
   public Visitable visit(MethodDeclaration node, Void arg) {
     String methodQualifiedSignature =
@@ -1014,26 +1038,77 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
     if (targetMethodsSignatures.contains(methodQualifiedSignature.replaceAll("\\s", ""))) {
       boolean oldInsideTargetMember = insideTargetMember;
       insideTargetMember = true;
-      Visitable result = processMethodDeclaration(node);
+      Visitable result = visitMember(node, () -> processMethodDeclaration(node));
       insideTargetMember = oldInsideTargetMember;
       return result;
     } else if (potentialUsedMembers.contains(methodSimpleName)) {
       boolean oldInsidePotentialUsedMember = insidePotentialUsedMember;
       insidePotentialUsedMember = true;
-      Visitable result = processMethodDeclaration(node);
+      Visitable result = visitMember(node, () -> processMethodDeclaration(node));
       insidePotentialUsedMember = oldInsidePotentialUsedMember;
       return result;
     } else if (insideTargetMember) {
-      return processMethodDeclaration(node);
+      return visitMember(node, () -> processMethodDeclaration(node));
     } else {
       // Do not call super.visit(): this method is definitely unused by the targets, and so
       // there's no reason to solve its symbols. Furthermore, doing so may lead to data
       // structure corruption (e.g., of type variables), since processMethodDeclaration,
-      // which does data structure management, will not be called.
-      return null;
+      // which does data structure management, will not be called. The method is returned
+      // unchanged rather than null, which would make ModifierVisitor remove it from the
+      // compilation unit: the compilation units are reused by the next iteration.
+      return node;
     }
   }
 
+  /**
+   * Visits a member of a class with the given visit function, unless the member is in {@link
+   * #resolvedMembers} and no potentially-used member has been found since it was added. Adds the
+   * member to {@link #resolvedMembers} if the visit does not set {@link #gotException}. Members of
+   * anonymous and local classes are always visited, since the symbols in them may depend on the
+   * local variables of the code around them.
+   *
+   * @param member a method, constructor, or field declaration
+   * @param visit the function that visits the member
+   * @return the result of the visit, or the member itself if it was skipped
+   */
+  private Visitable visitMember(BodyDeclaration<?> member, Supplier<Visitable> visit) {
+    Integer potentialUsedMembersWhenResolved = resolvedMembers.get(member);
+    if (potentialUsedMembersWhenResolved != null
+        && potentialUsedMembersWhenResolved == potentialUsedMembers.size()) {
+      return member;
+    }
+    boolean gotExceptionBefore = gotException;
+    gotException = false;
+    Visitable result = visit.get();
+    if (!gotException && isMemberOfNamedClass(member)) {
+      resolvedMembers.put(member, potentialUsedMembers.size());
+    }
+    gotException |= gotExceptionBefore;
+    return result;
+  }
+
+  /**
+   * Checks whether a member is declared directly in a class, interface, or enum that is neither
+   * anonymous nor local, nor nested in an anonymous or local class.
+   *
+   * @param member a member of a class
+   * @return true if the member is a member of a named, non-local class
+   */
+  private static boolean isMemberOfNamedClass(BodyDeclaration<?> member) {
+    if (!member.getParentNode().filter(parent -> parent instanceof TypeDeclaration).isPresent()) {
+      return false;
+    }
+    // Anonymous classes are inside expressions, and local classes inside statements.
+    Optional<Node> ancestor = member.getParentNode();
+    while (ancestor.isPresent()) {
+      if (ancestor.get() instanceof Statement || ancestor.get() instanceof Expression) {
+        return false;
+      }
+      ancestor = ancestor.get().getParentNode();
+    }
+    return true;
+  }
+
   @Override
   public Visitable visit(FieldAccessExpr node, Void p) {
     if (!insideTargetMember) {
@@ -1065,9 +1140,7 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
       }
     }
 
-    try {
-      node.resolve();
-    } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
+    if (parserContext.tryResolve(node).isEmpty()) {
       // for a qualified name field access such as org.sample.MyClass.field, org.sample will also be
       // considered FieldAccessExpr.
       if (isAClassPath(node.getScope().toString())) {
@@ -1394,10 +1467,8 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
    * @return true if the update was successful, false otherwise.
    */
   public boolean updatedAddedTargetFilesForPotentialEnum(FieldAccessExpr expr) {
-    ResolvedValueDeclaration resolved;
-    try {
-      resolved = expr.resolve();
-    } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
+    @Nullable ResolvedValueDeclaration resolved = parserContext.tryResolve(expr).orElse(null);
+    if (resolved == null) {
       return false;
     }
     if (resolved.isEnumConstant()) {
@@ -1783,16 +1854,12 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
       accessModifer = ((MethodDeclaration) method).getAccessSpecifier().asString();
       for (Parameter para : ((MethodDeclaration) method).getParameters()) {
         Type paraType = para.getType();
-        String paraTypeAsString = paraType.asString();
-        try {
-          // if possible, opt for fully-qualified names.
-          paraTypeAsString = paraType.resolve().describe();
-        } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
-          // avoiding ignored catch blocks errors.
-          listOfParameters.add(paraTypeAsString);
-          continue;
-        }
-        listOfParameters.add(paraTypeAsString);
+        // if possible, opt for fully-qualified names.
+        listOfParameters.add(
+            parserContext
+                .tryResolve(paraType)
+                .map(ResolvedType::describe)
+                .orElse(paraType.asString()));
       }
     }
     String returnType = "";
@@ -1851,11 +1918,9 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
     }
     // node is a method declaration inside an anonymous class
     else {
-      try {
-        // since this method declaration is inside an anonymous class, its parent will be an
-        // ObjectCreationExpr
-        ((ObjectCreationExpr) parentNode).resolve();
-      } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
+      // since this method declaration is inside an anonymous class, its parent will be an
+      // ObjectCreationExpr
+      if (parserContext.tryResolve((ObjectCreationExpr) parentNode).isEmpty()) {
         SimpleName classNodeSimpleName = ((ObjectCreationExpr) parentNode).getType().getName();
         String nameOfClass = classNodeSimpleName.asString();
         updateUnsolvedClassOrInterfaceWithMethod(
@@ -1866,9 +1931,7 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
     // These are two places where a checked exception can appear, in a catch phrase or in the
     // declaration of a method. This part handles the second case.
     for (ReferenceType throwType : node.getThrownExceptions()) {
-      try {
-        throwType.resolve();
-      } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
+      if (parserContext.tryResolve(throwType).isEmpty()) {
         String typeName = throwType.asString();
         UnsolvedClassOrInterface typeOfThrow =
             new UnsolvedClassOrInterface(typeName, getPackageFromClassName(typeName));
@@ -1923,10 +1986,8 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
     String className;
     if (expr instanceof MethodCallExpr) {
       try {
-        className =
-            ((MethodCallExpr) expr).resolve().getPackageName()
-                + "."
-                + ((MethodCallExpr) expr).resolve().getClassName();
+        ResolvedMethodDeclaration resolved = ((MethodCallExpr) expr).resolve();
+        className = resolved.getPackageName() + "." + resolved.getClassName();
       } catch (UnsupportedOperationException e) {
         // This is a limitation of JavaParser. If a method call has a generic return type, sometimes
         // JavaParser can not resolve it.
@@ -2732,14 +2793,16 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
     }
 
     if (innerClassName != null && outerClassName != null) {
-      for (UnsolvedClassOrInterface e : missingClass) {
-        if (e.getClassName().equals(outerClassName)) {
-          UnsolvedClassOrInterface innerClass =
-              new UnsolvedClassOrInterface.UnsolvedInnerClass(innerClassName, e.getPackageName());
-          updateMissingClassHelper(missedClass, innerClass);
-          e.addInnerClass(innerClass);
-          return;
-        }
+      List<UnsolvedClassOrInterface> outerClasses = missingClass.getBySimpleName(outerClassName);
+      if (!outerClasses.isEmpty()) {
+        // Prefer the most recent candidate: earlier ones may have been created before the
+        // package of the outer class was known, e.g., in a package guessed from "Outer.Inner".
+        UnsolvedClassOrInterface e = outerClasses.get(outerClasses.size() - 1);
+        UnsolvedClassOrInterface innerClass =
+            new UnsolvedClassOrInterface.UnsolvedInnerClass(innerClassName, e.getPackageName());
+        updateMissingClassHelper(missedClass, innerClass);
+        e.addInnerClass(innerClass);
+        return;
       }
       // The outer class doesn't exist yet. Create it.
       UnsolvedClassOrInterface outerClass =
@@ -2754,11 +2817,10 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
       return;
     }
 
-    for (UnsolvedClassOrInterface e : missingClass) {
-      if (e.equals(missedClass)) {
-        updateMissingClassHelper(missedClass, e);
-        return;
-      }
+    UnsolvedClassOrInterface e = missingClass.get(qualifiedName);
+    if (e != null) {
+      updateMissingClassHelper(missedClass, e);
+      return;
     }
     missingClass.add(missedClass);
   }
@@ -2807,66 +2869,40 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
 
   /**
    * The method to update synthetic files. After each run, we might have new synthetic files to be
-   * created, or new methods to be added to existing synthetic classes. This method will delete all
-   * the synthetic files from the previous run and re-create those files with the input from the
-   * current run.
+   * created, or new methods to be added to existing synthetic classes. This method (re-)creates the
+   * files of the synthetic classes that are new or that were modified since their file was last
+   * created; the others are left alone, so that the symbol solver only forgets what it knew about
+   * the classes that actually changed.
    */
   public void updateSyntheticSourceCode() {
     for (UnsolvedClassOrInterface missedClass : missingClass) {
-      this.deleteOldSyntheticClass(missedClass);
       this.createMissingClass(missedClass);
     }
   }
 
   /**
-   * This method is to delete a synthetic class. If that synthetic class is not created yet, the
-   * method will do nothing.
-   *
-   * @param missedClass a synthetic class to be deleted
-   */
-  public void deleteOldSyntheticClass(UnsolvedClassOrInterface missedClass) {
-    String classPackage = missedClass.getPackageName();
-    String classDirectory = classPackage.replace(".", "/");
-    String filePathStr =
-        this.rootDirectory + classDirectory + "/" + missedClass.getClassName() + ".java";
-    Path filePath = Path.of(filePathStr);
-    try {
-      Files.delete(filePath);
-    } catch (IOException e) {
-      // It means that the class that has not been created in the previous run of this visitor
-    }
-  }
-
-  /**
-   * This method create a synthetic file for a class that is not in the source codes. The class will
-   * be created in the root directory of the input. All these synthetic files will be deleted when
-   * Specimin finishes its run.
+   * This method create a synthetic file for a class that is not in the source codes. The file is
+   * not written to the disk: it is added to the synthetic files of the parser context, where it
+   * shadows the root directory of the input and replaces the previous version of the file, if any.
+   * Nothing is done if the class has not been modified since its file was last created.
    *
    * @param missedClass the class to be added
    */
   public void createMissingClass(UnsolvedClassOrInterface missedClass) {
-    StringBuilder fileContent = new StringBuilder();
-    fileContent.append(missedClass);
-    String classPackage = missedClass.getPackageName();
-    String classDirectory = classPackage.replace(".", "/");
-    String filePathStr =
-        this.rootDirectory + classDirectory + "/" + missedClass.getClassName() + ".java";
-    Path filePath = Paths.get(filePathStr);
-    createdClass.add(filePath);
-    try {
-      Path parentPath = filePath.getParent();
-      if (parentPath != null && !Files.exists(parentPath)) {
-        Files.createDirectories(parentPath);
-      }
-      try (BufferedWriter writer =
-          new BufferedWriter(new FileWriter(filePath.toFile(), StandardCharsets.UTF_8))) {
-        writer.write(fileContent.toString());
-      } catch (Exception e) {
-        throw new Error(e.getMessage());
-      }
-    } catch (IOException e) {
-      System.out.println("Error creating Java file: " + e.getMessage());
+    long modificationCount = missedClass.getModificationCount();
+    Long createdModificationCount = createdModificationCounts.put(missedClass, modificationCount);
+    if (createdModificationCount != null && createdModificationCount == modificationCount) {
+      return;
+    }
+    if (createdModificationCount != null) {
+      // The members that were resolved may depend on the previous version of the class.
+      resolvedMembers.clear();
     }
+    parserContext
+        .getSyntheticSources()
+        .put(
+            SyntheticSourceOverlay.pathOf(missedClass.getPackageName(), missedClass.getClassName()),
+            missedClass.toString());
   }
 
   /**
@@ -2971,14 +3007,11 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
    * @return true if the field is unsolved and invoked by a simple class name
    */
   public boolean unsolvedFieldCalledByASimpleClassName(FieldAccessExpr field) {
-    try {
-      field.resolve();
+    if (parserContext.tryResolve(field).isPresent()) {
       return false;
-    } catch (UnsolvedSymbolException | UnsupportedOperationException e) {
-      String scopeAsString = field.getScope().toString();
-      return classAndPackageMap.containsKey(scopeAsString)
-          || looksLikeSimpleClassName(scopeAsString);
     }
+    String scopeAsString = field.getScope().toString();
+    return classAndPackageMap.containsKey(scopeAsString) || looksLikeSimpleClassName(scopeAsString);
   }
 
   /**
@@ -3230,6 +3263,9 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
    * @return true if at least one synthetic type is updated
    */
   public boolean updateTypes(Map<String, String> typeToCorrect) {
+    if (!typeToCorrect.isEmpty()) {
+      resolvedMembers.clear();
+    }
     boolean atLeastOneTypeIsUpdated = false;
     for (String incorrectType : typeToCorrect.keySet()) {
       // update incorrectType if it is the type of a field in a synthetic class
@@ -3257,16 +3293,13 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
       // if the above condition is not met, then this incorrectType is a synthetic type for the
       // fields of the parent class rather than the return type of some methods
       else {
-        for (UnsolvedClassOrInterface unsolClass : missingClass) {
-          for (String parentClass : classAndItsParent.values()) {
-            // TODO: should this also check that unsolClass's package name is
-            // the correct one for the parent? Martin isn't sure how to do that here.
-            if (unsolClass.getClassName().equals(parentClass)) {
-              atLeastOneTypeIsUpdated |=
-                  unsolClass.updateFieldByType(incorrectType, typeToCorrect.get(incorrectType));
-              this.deleteOldSyntheticClass(unsolClass);
-              this.createMissingClass(unsolClass);
-            }
+        for (String parentClass : classAndItsParent.values()) {
+          // TODO: should this also check that unsolClass's package name is
+          // the correct one for the parent? Martin isn't sure how to do that here.
+          for (UnsolvedClassOrInterface unsolClass : missingClass.getBySimpleName(parentClass)) {
+            atLeastOneTypeIsUpdated |=
+                unsolClass.updateFieldByType(incorrectType, typeToCorrect.get(incorrectType));
+            this.createMissingClass(unsolClass);
           }
         }
       }
@@ -3282,8 +3315,10 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
    * @return true if at least one synthetic type is updated.
    */
   public boolean updateTypesWithExtends(Map<String, String> typesToExtend) {
+    if (!typesToExtend.isEmpty()) {
+      resolvedMembers.clear();
+    }
     boolean atLeastOneTypeIsUpdated = false;
-    Set<UnsolvedClassOrInterface> modifiedClasses = new HashSet<>();
 
     for (String typeToExtend : typesToExtend.keySet()) {
       String extendedType = typesToExtend.get(typeToExtend);
@@ -3302,26 +3337,19 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
         extendedType = extendedType.substring(10);
       }
 
-      Iterator<UnsolvedClassOrInterface> iterator = missingClass.iterator();
-      while (iterator.hasNext()) {
-        UnsolvedClassOrInterface missedClass = iterator.next();
+      for (UnsolvedClassOrInterface missedClass : missingClass) {
         // typeToExtend can be either a simple name or an FQN, due to the limitations
         // of Javac
-        String missedClassBefore = missedClass.toString();
+        long modificationCountBefore = missedClass.getModificationCount();
         boolean success = missedClass.extend(typeToExtend, extendedType, this);
         if (success) {
-          iterator.remove();
-          modifiedClasses.add(missedClass);
-          this.deleteOldSyntheticClass(missedClass);
           this.createMissingClass(missedClass);
-          // Only count an update if the text of the synthetic class changes, to avoid infinite
-          // loops.
-          atLeastOneTypeIsUpdated |= !missedClassBefore.equals(missedClass.toString());
+          // Only count an update if the synthetic class changes, to avoid infinite loops.
+          atLeastOneTypeIsUpdated |= modificationCountBefore != missedClass.getModificationCount();
         }
       }
     }
 
-    missingClass.addAll(modifiedClasses);
     return atLeastOneTypeIsUpdated;
   }
 
@@ -3345,30 +3373,21 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
     // add an import to the synthetic class.
     correctTypeName = lookupFQNs(correctTypeName);
     boolean updatedSuccessfully = false;
-    UnsolvedClassOrInterface classToSearch = new UnsolvedClassOrInterface(className, packageName);
-    Iterator<UnsolvedClassOrInterface> iterator = missingClass.iterator();
-    while (iterator.hasNext()) {
-      UnsolvedClassOrInterface missedClass = iterator.next();
-      // Class comparison is based on class name and package name only.
-      if (missedClass.equals(classToSearch)) {
-        iterator.remove(); // Remove the outdated version of this synthetic class from the list
-        if (updateAField) {
-          updatedSuccessfully |= missedClass.updateFieldByType(incorrectTypeName, correctTypeName);
-        } else {
-          updatedSuccessfully |=
-              missedClass.updateMethodByReturnType(incorrectTypeName, correctTypeName);
-        }
-        missingClass.add(missedClass); // Add the modified missedClass back to the list
-        this.deleteOldSyntheticClass(missedClass);
-        this.createMissingClass(missedClass);
-        // incorrectTypeName has to be synthetic, so it will be in the same package as the use
-        String fullyQualifiedIncorrectTypeName =
-            missedClass.getPackageName() + "." + incorrectTypeName;
-        this.migrateType(fullyQualifiedIncorrectTypeName, correctTypeName);
-        return updatedSuccessfully;
-      }
+    UnsolvedClassOrInterface missedClass = missingClass.get(packageName + "." + className);
+    if (missedClass == null) {
+      throw new RuntimeException("Could not find the corresponding missing class!");
+    }
+    if (updateAField) {
+      updatedSuccessfully |= missedClass.updateFieldByType(incorrectTypeName, correctTypeName);
+    } else {
+      updatedSuccessfully |=
+          missedClass.updateMethodByReturnType(incorrectTypeName, correctTypeName);
     }
-    throw new RuntimeException("Could not find the corresponding missing class!");
+    this.createMissingClass(missedClass);
+    // incorrectTypeName has to be synthetic, so it will be in the same package as the use
+    String fullyQualifiedIncorrectTypeName = missedClass.getPackageName() + "." + incorrectTypeName;
+    this.migrateType(fullyQualifiedIncorrectTypeName, correctTypeName);
+    return updatedSuccessfully;
   }
 
   /**
@@ -3396,7 +3415,7 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
       typeVarDecl = "";
       rest = javacType;
     }
-    Visitable parsedJavac = StaticJavaParser.parseType(rest);
+    Visitable parsedJavac = parserContext.parseType(rest);
     parsedJavac =
         parsedJavac.accept(
             new ModifierVisitor<Void>() {
@@ -3447,12 +3466,7 @@ public class UnsolvedSymbolVisitor extends ModifierVisitor<Void> {
    * @return the unsolved class with that name, or null
    */
   private @Nullable UnsolvedClassOrInterface getMissingClassWithQualifiedName(String fqn) {
-    for (UnsolvedClassOrInterface candidate : missingClass) {
-      if (candidate.getQualifiedClassName().equals(fqn)) {
-        return candidate;
-      }
-    }
-    return null;
+    return missingClass.get(fqn);
   }
 
   /**
@@ -0,0 +1,138 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Lists the entries of a zip or jar file by reading only its central directory, the table of
+ * contents at the end of the file. The central directory is memory-mapped and read in place, so
+ * listing a jar file touches neither its class files nor the local headers in front of them, and
+ * allocates nothing but the names of the entries.
+ *
+ * <p>Zip files that this class does not understand, such as ZIP64 files, are listed with {@link
+ * ZipFile} instead, which reports the errors of malformed files.
+ */
+class ZipCentralDirectory {
+
+  /** The signature of the end of central directory record. */
+  private static final int END_SIGNATURE = 0x06054b50;
+
+  /** The size of the end of central directory record, without its comment. */
+  private static final int END_SIZE = 22;
+
+  /** The maximum length of the comment at the end of a zip file. */
+  private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+  /** The signature of a file header in the central directory. */
+  private static final int FILE_HEADER_SIGNATURE = 0x02014b50;
+
+  /** The size of a file header in the central directory, without its variable-length fields. */
+  private static final int FILE_HEADER_SIZE = 46;
+
+  /** This class cannot be instantiated. */
+  private ZipCentralDirectory() {
+    throw new Error("cannot be instantiated");
+  }
+
+  /**
+   * Get the names of the entries of a zip file, in the order of its central directory.
+   *
+   * @param zipPath the path to a zip or jar file
+   * @return the names of all entries of the file, including directories
+   * @throws IOException if the file cannot be read or is not a zip file
+   */
+  static List<String> readEntryNames(String zipPath) throws IOException {
+    try (FileChannel channel = FileChannel.open(Path.of(zipPath), StandardOpenOption.READ)) {
+      long size = channel.size();
+      int tailLength = (int) Math.min(size, END_SIZE + MAX_COMMENT_LENGTH);
+      long tailStart = size - tailLength;
+      ByteBuffer tail =
+          channel
+              .map(FileChannel.MapMode.READ_ONLY, tailStart, tailLength)
+              .order(ByteOrder.LITTLE_ENDIAN);
+      int end = findEndRecord(tail);
+      if (end == -1) {
+        return readEntryNamesWithZipFile(zipPath);
+      }
+      int entryCount = Short.toUnsignedInt(tail.getShort(end + 10));
+      long directorySize = Integer.toUnsignedLong(tail.getInt(end + 12));
+      // Like ZipFile, locate the central directory relative to the end record rather than trusting
+      // its recorded offset, so that zip files with data prepended to them can be read.
+      long directoryStart = tailStart + end - directorySize;
+      if (entryCount == 0xFFFF
+          || directorySize == 0xFFFFFFFFL
+          || tail.getInt(end + 16) == 0xFFFFFFFF
+          || directorySize > Integer.MAX_VALUE
+          || directoryStart < 0) {
+        // A ZIP64 file, or a malformed one.
+        return readEntryNamesWithZipFile(zipPath);
+      }
+      ByteBuffer directory =
+          channel
+              .map(FileChannel.MapMode.READ_ONLY, directoryStart, directorySize)
+              .order(ByteOrder.LITTLE_ENDIAN);
+      List<String> names = new ArrayList<>(entryCount);
+      int position = 0;
+      while (position + FILE_HEADER_SIZE <= directorySize) {
+        if (directory.getInt(position) != FILE_HEADER_SIGNATURE) {
+          return readEntryNamesWithZipFile(zipPath);
+        }
+        int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+        int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+        int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+        if (position + FILE_HEADER_SIZE + nameLength > directorySize) {
+          return readEntryNamesWithZipFile(zipPath);
+        }
+        byte[] name = new byte[nameLength];
+        directory.position(position + FILE_HEADER_SIZE);
+        directory.get(name);
+        // ZipFile decodes every name as UTF-8 unless it is told otherwise.
+        names.add(new String(name, StandardCharsets.UTF_8));
+        position += FILE_HEADER_SIZE + nameLength + extraLength + commentLength;
+      }
+      return names;
+    }
+  }
+
+  /**
+   * Find the end of central directory record at the end of a zip file. The record is followed only
+   * by its comment, so it is searched for backwards from the end.
+   *
+   * @param tail the last bytes of the zip file, including the whole end record and its comment
+   * @return the position of the end record in tail, or -1 if there is none
+   */
+  private static int findEndRecord(ByteBuffer tail) {
+    for (int position = tail.limit() - END_SIZE; position >= 0; position--) {
+      if (tail.getInt(position) == END_SIGNATURE
+          && position + END_SIZE + Short.toUnsignedInt(tail.getShort(position + 20))
+              <= tail.limit()) {
+        return position;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Get the names of the entries of a zip file with {@link ZipFile}.
+   *
+   * @param zipPath the path to a zip or jar file
+   * @return the names of all entries of the file, including directories
+   * @throws IOException if the file cannot be read or is not a zip file
+   */
+  private static List<String> readEntryNamesWithZipFile(String zipPath) throws IOException {
+    List<String> names = new ArrayList<>();
+    try (ZipFile zipFile = new ZipFile(zipPath)) {
+      zipFile.stream().map(ZipEntry::getName).forEach(names::add);
+    }
+    return names;
+  }
+}
@@ -0,0 +1,59 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This test checks that the on-disk index cache is reused for files whose size and modification
+ * time did not change, that changed files are scanned again, and that a corrupt cache file is
+ * ignored.
+ */
+public class CodebaseIndexCacheTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void runTest() throws IOException {
+    Path root =
+        SpeciminTestExecutor.createRoot(
+            temporaryFolder,
+            Map.of("com/example/Foo.java", "package com.example; class Foo {} class Bar {}"));
+    Path cacheDirectory = temporaryFolder.newFolder("cache").toPath();
+    Path foo = root.resolve("com/example/Foo.java");
+    FileTime lastModified = Files.getLastModifiedTime(foo);
+
+    CodebaseIndex index = CodebaseIndex.build(root.toString(), cacheDirectory);
+    Assert.assertEquals(
+        "com.example.Foo", index.getNonPrimaryClassesToPrimaryClass().get("com.example.Bar"));
+    Path cacheFile =
+        CodebaseIndexCache.cacheFileFor(cacheDirectory, root.toAbsolutePath().normalize());
+    Assert.assertTrue(Files.isRegularFile(cacheFile));
+
+    // Same size and modification time: the file is not read, so the cached declarations win.
+    Files.writeString(foo, "package com.example; class Foo {} class Baz {}");
+    Files.setLastModifiedTime(foo, lastModified);
+    index = CodebaseIndex.build(root.toString(), cacheDirectory);
+    Assert.assertTrue(index.getNonPrimaryClassesToPrimaryClass().containsKey("com.example.Bar"));
+
+    // A different modification time: the file is read, hashed and scanned again.
+    Files.setLastModifiedTime(foo, FileTime.fromMillis(lastModified.toMillis() + 2000));
+    index = CodebaseIndex.build(root.toString(), cacheDirectory);
+    Assert.assertFalse(index.getNonPrimaryClassesToPrimaryClass().containsKey("com.example.Bar"));
+    Assert.assertEquals(
+        "com.example.Foo", index.getNonPrimaryClassesToPrimaryClass().get("com.example.Baz"));
+
+    // A new file, and a corrupt cache file, which is ignored and rewritten.
+    Files.writeString(root.resolve("com/example/Qux.java"), "package com.example; class Qux {}");
+    Files.write(cacheFile, "not a cache".getBytes(StandardCharsets.UTF_8));
+    index = CodebaseIndex.build(root.toString(), cacheDirectory);
+    Assert.assertTrue(index.getExistingClassesToFilePath().containsKey("com.example.Qux"));
+    Assert.assertEquals(2, CodebaseIndexCache.load(cacheFile, root.toAbsolutePath()).size());
+  }
+}
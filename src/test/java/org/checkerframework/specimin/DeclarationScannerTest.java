@@ -0,0 +1,57 @@
+package org.checkerframework.specimin;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This test checks that DeclarationScanner finds the same fully-qualified names as JavaParser for
+ * member, local and anonymous types, and that it is not confused by comments, literals and class
+ * literals.
+ */
+public class DeclarationScannerTest {
+  @Test
+  public void runTest() {
+    String source =
+        String.join(
+            "\n",
+            "package com.example;",
+            "/* class InComment {} */",
+            "public class Foo<T extends java.util.List<String>> {",
+            "  String s = \"class InString {\";",
+            "  String t = \"\"\"",
+            "      class InTextBlock {",
+            "      \"\"\";",
+            "  char c = '{';",
+            "  Object o = new java.util.HashMap<String, Integer>() { class InAnonymous {} };",
+            "  void m() {",
+            "    class Local { class InLocal {} }",
+            "    Class<?> k = Foo.class;",
+            "    int record = 0;",
+            "  }",
+            "  enum E { A { class InConstant {} }, B(1); E() {} E(int i) {} class AfterConstants {} }",
+            "  record R(int a) { class InRecord {} }",
+            "  @interface Anno { int[] value() default {1}; }",
+            "}",
+            "interface Bar {}");
+    List<String> declarations =
+        DeclarationScanner.scan(source).stream()
+            .map(DeclarationScanner.Declaration::toString)
+            .collect(Collectors.toList());
+    Assert.assertEquals(
+        List.of(
+            "CLASS_OR_INTERFACE com.example.Foo",
+            "CLASS_OR_INTERFACE com.example.Foo.InAnonymous",
+            "CLASS_OR_INTERFACE Local",
+            "CLASS_OR_INTERFACE InLocal",
+            "ENUM com.example.Foo.E",
+            "CLASS_OR_INTERFACE com.example.Foo.E.InConstant",
+            "CLASS_OR_INTERFACE com.example.Foo.E.AfterConstants",
+            "RECORD com.example.Foo.R",
+            "CLASS_OR_INTERFACE com.example.Foo.R.InRecord",
+            "ANNOTATION com.example.Foo.Anno",
+            "CLASS_OR_INTERFACE com.example.Bar"),
+        declarations);
+  }
+}
@@ -0,0 +1,56 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This test checks that decompiled jar classes are kept in the cache directory, and that a later
+ * session reads them from there instead of decompiling them again.
+ */
+public class JarDecompilerCacheTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void runTest() throws IOException {
+    Path root =
+        SpeciminTestExecutor.createRoot(temporaryFolder, Map.of("Simple.java", "class Simple {}"));
+    Path cacheDirectory = temporaryFolder.newFolder("cache").toPath();
+    Path book = root.resolve("an/old/library/Book.java");
+    List<String> jarPaths = List.of("src/test/resources/jarfile/input/Book.jar");
+
+    try (SpeciminSession session =
+        SpeciminSession.open(root.toString(), jarPaths, cacheDirectory.toString())) {
+      Assert.assertTrue(session.getExistingClassesToFilePath().containsKey("an.old.library.Book"));
+    }
+    List<Path> cachedFiles;
+    try (Stream<Path> files = Files.walk(cacheDirectory)) {
+      cachedFiles =
+          files
+              .filter(file -> file.endsWith("an/old/library/Book.java"))
+              .collect(Collectors.toList());
+    }
+    Assert.assertEquals(1, cachedFiles.size());
+    Assert.assertFalse(Files.exists(book));
+
+    // The second session must use the cached file, whatever it contains.
+    Files.writeString(cachedFiles.get(0), "package an.old.library; public class Book {}");
+    try (SpeciminSession session =
+        SpeciminSession.open(root.toString(), jarPaths, cacheDirectory.toString())) {
+      Assert.assertTrue(session.getExistingClassesToFilePath().containsKey("an.old.library.Book"));
+      Assert.assertEquals(
+          "package an.old.library; public class Book {}",
+          session.getJarDecompiler().getDecompiledSource("an/old/library/Book.java"));
+      Assert.assertFalse(Files.exists(book));
+    }
+    Assert.assertFalse(Files.exists(book));
+  }
+}
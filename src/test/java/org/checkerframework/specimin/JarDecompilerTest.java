@@ -0,0 +1,47 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This test checks that opening a session does not decompile the jar files, and that a jar class is
+ * decompiled when it is first looked up, in memory, without writing anything to the root directory.
+ */
+public class JarDecompilerTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void runTest() throws IOException {
+    Path root =
+        SpeciminTestExecutor.createRoot(temporaryFolder, Map.of("Simple.java", "class Simple {}"));
+    Path book = root.resolve("an/old/library/Book.java");
+    SpeciminSession session =
+        SpeciminSession.open(root.toString(), List.of("src/test/resources/jarfile/input/Book.jar"));
+    try {
+      Assert.assertFalse(Files.exists(book));
+      Assert.assertFalse(session.getExistingClassesToFilePath().containsKey("an.old.Missing"));
+      Assert.assertFalse(Files.exists(root.resolve("an")));
+
+      Assert.assertEquals(
+          book.toAbsolutePath().normalize(),
+          session.getExistingClassesToFilePath().get("an.old.library.Book"));
+      Assert.assertTrue(
+          session
+              .getJarDecompiler()
+              .getDecompiledSource("an/old/library/Book.java")
+              .contains("public class Book"));
+      Assert.assertEquals(1, session.getJarDecompiler().getDecompiledSources().size());
+      Assert.assertFalse(Files.exists(root.resolve("an")));
+    } finally {
+      session.close();
+    }
+    Assert.assertFalse(Files.exists(root.resolve("an")));
+  }
+}
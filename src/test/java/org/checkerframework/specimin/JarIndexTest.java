@@ -0,0 +1,33 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This test checks that the index of a jar file knows its classes and packages, and which jar files
+ * contain a package, and that the type solver of the index solves the classes of the jar file, but
+ * nothing else.
+ */
+public class JarIndexTest {
+  @Test
+  public void runTest() throws IOException {
+    String jarPath = "src/test/resources/jarfile/input/Book.jar";
+    JarIndex jarIndex = JarIndex.build(List.of(jarPath));
+    Assert.assertEquals(List.of(jarPath), jarIndex.getJarPaths());
+    Assert.assertEquals(jarPath, jarIndex.getClassToJarPath().get("an.old.library.Book"));
+    Assert.assertEquals(Set.of("an.old.library.Book"), jarIndex.getClasses(jarPath));
+    Assert.assertEquals(
+        Set.of("an.old.library.Book"), jarIndex.getClassesInPackage("an.old.library"));
+    Assert.assertTrue(jarIndex.getClassesInPackage("an.old").isEmpty());
+    Assert.assertEquals(List.of(jarPath), jarIndex.getJarPathsForPackage("an.old.library"));
+    Assert.assertTrue(jarIndex.getJarPathsForPackage("an.old").isEmpty());
+
+    CombinedTypeSolver typeSolver = new CombinedTypeSolver(jarIndex.getTypeSolver());
+    Assert.assertTrue(typeSolver.tryToSolveType("an.old.library.Book").isSolved());
+    Assert.assertFalse(typeSolver.tryToSolveType("an.old.library.Magazine").isSolved());
+  }
+}
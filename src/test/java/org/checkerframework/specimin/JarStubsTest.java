@@ -0,0 +1,29 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * This test checks that Specimin can minimize the input of the "jarfile" test with stubs of the jar
+ * classes instead of decompiled classes. The output only differs from that test in the names of
+ * the parameters, which are not in the class file, and in the fully-qualified names of the types.
+ */
+public class JarStubsTest {
+  @Test
+  public void runTest() throws IOException {
+    Path outputDir = Files.createTempDirectory("specimin-test-");
+    SpeciminRunner.performMinimization(
+        "src/test/resources/jarfile/input/",
+        List.of("com/example/Simple.java"),
+        List.of("src/test/resources/jarfile/input/Book.jar"),
+        List.of("com.example.Simple#test()"),
+        List.of(),
+        outputDir.toString(),
+        null,
+        true);
+    SpeciminTestExecutor.assertOutputMatchesExpected("jarstubs", outputDir);
+  }
+}
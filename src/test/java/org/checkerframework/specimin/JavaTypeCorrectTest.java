@@ -0,0 +1,194 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This test checks that JavaTypeCorrect recognizes each kind of javac error that it can solve by
+ * its diagnostic code, and reads the types involved from the arguments of the diagnostic, named by
+ * simple names unless two classes with the same simple name are involved.
+ */
+public class JavaTypeCorrectTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void incompatibleTypes() throws IOException {
+    JavaTypeCorrect typeCorrect =
+        correctTypes(
+            Map.of(
+                "com/example/Conversions.java",
+                "package com.example;\n"
+                    + "class FooReturnType {}\n"
+                    + "class Sub {}\n"
+                    + "class Sup {}\n"
+                    + "class Oops {}\n"
+                    + "class Conversions {\n"
+                    + "  void m() throws Exception {\n"
+                    + "    String s = new FooReturnType();\n"
+                    + "    Sup sup = new Sub();\n"
+                    + "    throw new Oops();\n"
+                    + "  }\n"
+                    + "}\n"));
+    Assert.assertEquals(Map.of("FooReturnType", "String"), typeCorrect.getTypeToChange());
+    Assert.assertEquals(
+        Map.of("Sub", "Sup", "Oops", "RuntimeException"), typeCorrect.getExtendedTypes());
+  }
+
+  @Test
+  public void incomparableTypes() throws IOException {
+    JavaTypeCorrect typeCorrect =
+        correctTypes(
+            Map.of(
+                "com/example/Comparison.java",
+                "package com.example;\n"
+                    + "class BarReturnType {}\n"
+                    + "class Comparison {\n"
+                    + "  boolean m(BarReturnType b, Integer i) {\n"
+                    + "    return b == i;\n"
+                    + "  }\n"
+                    + "}\n"));
+    Assert.assertEquals(Map.of("BarReturnType", "Integer"), typeCorrect.getTypeToChange());
+  }
+
+  @Test
+  public void incompatibleReturnTypeOfOverride() throws IOException {
+    JavaTypeCorrect typeCorrect =
+        correctTypes(
+            Map.of(
+                "com/example/Override.java",
+                "package com.example;\n"
+                    + "class BazReturnType {}\n"
+                    + "class Parent {\n"
+                    + "  BazReturnType f() { return null; }\n"
+                    + "}\n"
+                    + "class Override extends Parent {\n"
+                    + "  int f() { return 0; }\n"
+                    + "}\n"));
+    Assert.assertEquals(Map.of("BazReturnType", "int"), typeCorrect.getTypeToChange());
+  }
+
+  @Test
+  public void badOperandTypes() throws IOException {
+    JavaTypeCorrect typeCorrect =
+        correctTypes(
+            Map.of(
+                "com/example/Operator.java",
+                "package com.example;\n"
+                    + "class QuxReturnType {}\n"
+                    + "class Operator {\n"
+                    + "  boolean m(QuxReturnType q) {\n"
+                    + "    return q || true;\n"
+                    + "  }\n"
+                    + "}\n"));
+    Assert.assertEquals(Map.of("QuxReturnType", "boolean"), typeCorrect.getTypeToChange());
+  }
+
+  @Test
+  public void forEachNotApplicable() throws IOException {
+    JavaTypeCorrect typeCorrect =
+        correctTypes(
+            Map.of(
+                "com/example/Loop.java",
+                "package com.example;\n"
+                    + "class ElementsReturnType {}\n"
+                    + "class Loop {\n"
+                    + "  void m(ElementsReturnType elements) {\n"
+                    + "    for (String s : elements) {}\n"
+                    + "  }\n"
+                    + "}\n"));
+    Assert.assertEquals(Map.of("ElementsReturnType", "String[]"), typeCorrect.getTypeToChange());
+  }
+
+  @Test
+  public void doesNotOverrideAbstract() throws IOException {
+    JavaTypeCorrect typeCorrect =
+        correctTypes(
+            Map.of(
+                "com/example/Impl.java",
+                "package com.example;\n"
+                    + "interface SyntheticTypeForIface { void run(); }\n"
+                    + "class Impl implements SyntheticTypeForIface {}\n"));
+    Assert.assertEquals(
+        Map.of("Impl", "SyntheticTypeForIface"), typeCorrect.getClassAndUnresolvedInterface());
+  }
+
+  @Test
+  public void incompatibleBounds() throws IOException {
+    JavaTypeCorrect typeCorrect =
+        correctTypes(
+            Map.of(
+                "com/example/Bounds.java",
+                "package com.example;\n"
+                    + "import java.util.List;\n"
+                    + "class LowerReturnType {}\n"
+                    + "class Bounds {\n"
+                    + "  static <T> void same(List<T> list, T element) {}\n"
+                    + "  void m(List<String> strings) {\n"
+                    + "    same(strings, new LowerReturnType());\n"
+                    + "  }\n"
+                    + "}\n"));
+    Assert.assertEquals(Map.of("LowerReturnType", "String"), typeCorrect.getTypeToChange());
+  }
+
+  @Test
+  public void typeNames() throws IOException {
+    JavaTypeCorrect typeCorrect =
+        correctTypes(
+            Map.of(
+                "com/example/Names.java",
+                "package com.example;\n"
+                    + "import java.util.ArrayList;\n"
+                    + "import java.util.List;\n"
+                    + "class Names {\n"
+                    + "  void m(List<? extends Number> numbers) {\n"
+                    + "    List<String> strings = new ArrayList<Integer>();\n"
+                    + "    int[] ints = new Integer[0];\n"
+                    + "    String first = numbers.get(0);\n"
+                    + "    com.example.a.Same same = new com.example.b.Same();\n"
+                    + "  }\n"
+                    + "}\n",
+                "com/example/a/Same.java",
+                "package com.example.a;\npublic class Same {}\n",
+                "com/example/b/Same.java",
+                "package com.example.b;\npublic class Same {}\n"));
+    Assert.assertEquals(
+        Map.of(
+            "ArrayList<Integer>",
+            "List<String>",
+            "Integer[]",
+            "int[]",
+            "CAP#1",
+            "String",
+            "com.example.b.Same",
+            "com.example.a.Same"),
+        typeCorrect.getExtendedTypes());
+  }
+
+  /**
+   * Write the given files into a new root directory, and run JavaTypeCorrect on all of them.
+   *
+   * @param files the source code of the files, keyed by their paths relative to the root directory
+   * @return the JavaTypeCorrect that analyzed the files
+   * @throws IOException if the files cannot be written
+   */
+  private JavaTypeCorrect correctTypes(Map<String, String> files) throws IOException {
+    Path root = SpeciminTestExecutor.createRoot(temporaryFolder, files);
+    JavaTypeCorrect typeCorrect =
+        new JavaTypeCorrect(
+            root.toString(),
+            new TreeSet<>(files.keySet()),
+            Map.of(),
+            new SyntheticSourceOverlay(),
+            Map.of(),
+            List.of());
+    typeCorrect.correctTypesForAllFiles();
+    return typeCorrect;
+  }
+}
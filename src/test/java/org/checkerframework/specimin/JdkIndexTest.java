@@ -0,0 +1,39 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This test checks that the JDK index knows the packages and the public classes of the JDK, but not
+ * the directories that only contain packages, nor the classes on Specimin's own classpath, and that
+ * the JDK type solver solves JDK classes from their class files.
+ */
+public class JdkIndexTest {
+  @Test
+  public void runTest() {
+    Assert.assertTrue(JavaLangUtils.inJdkPackage("java.util"));
+    Assert.assertTrue(JavaLangUtils.inJdkPackage("java.util.Map.Entry"));
+    Assert.assertTrue(JavaLangUtils.inJdkPackage("com.sun.source.tree.Tree"));
+    Assert.assertFalse(JavaLangUtils.inJdkPackage("java"));
+    Assert.assertFalse(JavaLangUtils.inJdkPackage("com.example.Foo"));
+    Assert.assertFalse(JavaLangUtils.inJdkPackage("com.github.javaparser.JavaParser"));
+
+    Assert.assertTrue(JavaLangUtils.isJavaLangName("String"));
+    Assert.assertTrue(JavaLangUtils.isJavaLangName("Character.Subset"));
+    Assert.assertFalse(JavaLangUtils.isJavaLangName("StringLatin1"));
+    Assert.assertFalse(JavaLangUtils.isJavaLangName("List"));
+    Assert.assertTrue(JavaLangUtils.isJavaLangOrPrimitiveName("int"));
+
+    Assert.assertEquals("java.util.Map$Entry", JdkIndex.toBinaryName("java.util.Map.Entry"));
+    Assert.assertNull(JdkIndex.toBinaryName("java.util.Map.Missing"));
+
+    CombinedTypeSolver typeSolver = new CombinedTypeSolver(new JdkTypeSolver());
+    Assert.assertEquals(
+        "java.util.Map.Entry", typeSolver.solveType("java.util.Map.Entry").getQualifiedName());
+    Assert.assertTrue(
+        typeSolver.solveType("java.util.ArrayList").getAllAncestors().stream()
+            .anyMatch(ancestor -> "java.util.List".equals(ancestor.getQualifiedName())));
+    Assert.assertFalse(typeSolver.tryToSolveType("com.github.javaparser.JavaParser").isSolved());
+  }
+}
@@ -0,0 +1,72 @@
+package org.checkerframework.specimin;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.NotFoundException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This test checks that a summary of some JDK packages survives being written and read back, that
+ * it agrees with the run-time image about their classes and which of them are public, that the
+ * declarations of the classes of java.base are read from it without their code and private members,
+ * and that a summary in an unknown format is ignored.
+ */
+public class JdkSummaryTest {
+  @Test
+  public void runTest() throws IOException, NotFoundException {
+    Map<String, String> packageToModule = new TreeMap<>();
+    packageToModule.put("java.lang", "java.base");
+    packageToModule.put("java.util", "java.base");
+    packageToModule.put("javax.lang.model", "java.compiler");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JdkSummary.scan(packageToModule).write(out);
+    byte[] bytes = out.toByteArray();
+
+    JdkSummary summary = JdkSummary.read(new ByteArrayInputStream(bytes));
+    Assert.assertNotNull(summary);
+    Assert.assertEquals(packageToModule, summary.getPackageToModule());
+    for (Map.Entry<String, String> entry : packageToModule.entrySet()) {
+      Assert.assertEquals(
+          JdkSummary.listClasses(entry.getKey(), entry.getValue()),
+          summary.getClasses(entry.getKey()));
+    }
+    Assert.assertTrue(summary.getClasses("java.util").contains("Map$Entry"));
+    Assert.assertTrue(summary.getClasses("java.io").isEmpty());
+    Assert.assertTrue(summary.isPublicClass("java.lang.String"));
+    Assert.assertTrue(summary.isPublicClass("java.util.Map$Entry"));
+    Assert.assertTrue(summary.isPublicClass("javax.lang.model.SourceVersion"));
+    Assert.assertFalse(summary.isPublicClass("java.lang.StringLatin1"));
+    Assert.assertFalse(summary.isPublicClass("java.util.HashMap$Node"));
+    Assert.assertFalse(summary.isPublicClass("java.util.Missing"));
+
+    ClassPool classPool = JdkSummary.createClassPool(packageToModule, summary);
+    Assert.assertNotNull(summary.openDeclaration("java.util.ArrayList"));
+    CtClass arrayList = classPool.get("java.util.ArrayList");
+    Assert.assertEquals("java.util.AbstractList", arrayList.getSuperclass().getName());
+    Assert.assertEquals(
+        "<E:Ljava/lang/Object;>Ljava/util/AbstractList<TE;>;Ljava/util/List<TE;>;"
+            + "Ljava/util/RandomAccess;Ljava/lang/Cloneable;Ljava/io/Serializable;",
+        arrayList.getGenericSignature());
+    CtMethod add = arrayList.getDeclaredMethod("add");
+    Assert.assertNull(add.getMethodInfo().getCodeAttribute());
+    Assert.assertThrows(NotFoundException.class, () -> arrayList.getDeclaredField("size"));
+    Assert.assertNotNull(arrayList.getDeclaredConstructor(new CtClass[0]));
+    Assert.assertNotNull(classPool.find("java.util.ArrayList"));
+    // Only the declarations of java.base are in the summary, so this is read from the run-time
+    // image.
+    Assert.assertNull(summary.openDeclaration("javax.lang.model.SourceVersion"));
+    CtClass sourceVersion = classPool.get("javax.lang.model.SourceVersion");
+    Assert.assertNotNull(
+        sourceVersion.getDeclaredMethod("latest").getMethodInfo().getCodeAttribute());
+
+    bytes[0] ^= 1;
+    Assert.assertNull(JdkSummary.read(new ByteArrayInputStream(bytes)));
+  }
+}
@@ -0,0 +1,73 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This test checks that the jobs of a manifest are run against a shared root, that each job writes
+ * its own output, that a failing job does not prevent the other jobs from running, and that jobs
+ * cannot give the options that they share, even abbreviated.
+ */
+public class ManifestTest {
+  @Test
+  public void runTest() throws IOException {
+    Path outputDir = Files.createTempDirectory("specimin-test-");
+    Path manifest = outputDir.resolve("manifest.txt");
+    Files.write(
+        manifest,
+        List.of(
+            "# the first job fails, because Foo has no method called missing",
+            "--targetFile com/example/Foo.java --targetMethod com.example.Foo#missing()"
+                + " --outputDirectory "
+                + outputDir.resolve("missing"),
+            "--targetFile com/example/Foo.java --targetMethod \"com.example.Foo#bar()\""
+                + " --outputDirectory "
+                + outputDir.resolve("out/bar"),
+            "",
+            "--targetFile com/example/Qux.java --targetMethod 'com.example.Qux#size(Thing, int)'"
+                + " --outputDirectory "
+                + outputDir.resolve("out/size")),
+        StandardCharsets.UTF_8);
+
+    try {
+      SpeciminRunner.main(
+          "--root",
+          Path.of("src/test/resources/manifest/input/").toAbsolutePath().toString() + "/",
+          "--manifest",
+          manifest.toString());
+      Assert.fail("the first job of the manifest should have failed");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("1 of 3 jobs"));
+    }
+
+    SpeciminTestExecutor.assertOutputMatchesExpected("manifest", outputDir.resolve("out"));
+  }
+
+  @Test
+  public void rejectsSharedOptionsInJobs() throws IOException {
+    for (List<String> sharedOption :
+        List.of(
+            List.of("--root", "elsewhere/"),
+            List.of("--ro", "elsewhere/"),
+            List.of("--jarP", "src/test/resources/shared/checker-qual-3.42.0.jar"),
+            List.of("--jarPath"),
+            List.of("--cache", "cache"),
+            List.of("--manifest=other.txt"),
+            List.of("--jarS"))) {
+      List<String> job = new ArrayList<>(sharedOption);
+      job.addAll(List.of("--targetFile", "com/example/Foo.java", "--outputDirectory", "out"));
+      try {
+        SpeciminManifest.parseJob(job);
+        Assert.fail("a job with " + sharedOption + " should be rejected");
+      } catch (IllegalArgumentException e) {
+        Assert.assertTrue(e.getMessage(), e.getMessage().endsWith("not in the manifest"));
+      }
+    }
+  }
+}
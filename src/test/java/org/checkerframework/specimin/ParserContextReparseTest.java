@@ -0,0 +1,65 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This test checks that re-parsing reuses the compilation units of the files that have not changed,
+ * that it resolves them against the current synthetic files rather than the ones they were first
+ * resolved against, and that it parses a synthetic file again once its source code changes.
+ */
+public class ParserContextReparseTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void runTest() throws IOException {
+    Path root =
+        SpeciminTestExecutor.createRoot(
+            temporaryFolder,
+            Map.of("Simple.java", "class Simple { int test(Synthetic s) { return s.get(); } }"));
+    List<String> paths = List.of("Simple.java", "Synthetic.java");
+    try (SpeciminSession session = SpeciminSession.open(root + "/", List.of())) {
+      ParserContext parserContext = new ParserContext(session);
+      parserContext
+          .getSyntheticSources()
+          .put("Synthetic.java", "class Synthetic { int get() { return 0; } }");
+      parserContext.updateSymbolSolver();
+      Map<String, CompilationUnit> first = parserContext.reparseAll(session.getRoot(), paths);
+      Assert.assertEquals("int", getCallType(first.get("Simple.java")));
+
+      parserContext
+          .getSyntheticSources()
+          .put("Synthetic.java", "class Synthetic { long get() { return 0; } }");
+      parserContext.updateSymbolSolver();
+      Map<String, CompilationUnit> second = parserContext.reparseAll(session.getRoot(), paths);
+      Assert.assertSame(first.get("Simple.java"), second.get("Simple.java"));
+      Assert.assertNotSame(first.get("Synthetic.java"), second.get("Synthetic.java"));
+      Assert.assertEquals("long", getCallType(second.get("Simple.java")));
+
+      Map<String, CompilationUnit> third = parserContext.reparseAll(session.getRoot(), paths);
+      Assert.assertSame(second.get("Synthetic.java"), third.get("Synthetic.java"));
+    }
+  }
+
+  /**
+   * Get the type of the only method call in a compilation unit.
+   *
+   * @param compilationUnit a compilation unit
+   * @return the resolved type of the method call
+   */
+  private static String getCallType(CompilationUnit compilationUnit) {
+    return compilationUnit
+        .findFirst(MethodCallExpr.class)
+        .orElseThrow()
+        .calculateResolvedType()
+        .describe();
+  }
+}
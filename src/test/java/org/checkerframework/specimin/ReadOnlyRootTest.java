@@ -0,0 +1,77 @@
+package org.checkerframework.specimin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This test checks that Specimin does not write its synthetic classes into the root directory: the
+ * constraintType test, which needs several synthetic classes, is run against a read-only copy of
+ * its input, and the root directory must contain the same files afterwards.
+ */
+public class ReadOnlyRootTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void runTest() throws IOException {
+    Path root = SpeciminTestExecutor.createRoot(temporaryFolder, Map.of());
+    Path outputDir = temporaryFolder.newFolder("output").toPath();
+    FileUtils.copyDirectory(new File("src/test/resources/constraintType/input"), root.toFile());
+    List<Path> filesBefore = listFiles(root);
+    setWritable(root, false);
+    try {
+      SpeciminRunner.main(
+          "--root",
+          root.toString() + "/",
+          "--targetFile",
+          "com/example/Simple.java",
+          "--targetMethod",
+          "com.example.Simple#test(List<Baz>)",
+          "--outputDirectory",
+          outputDir.toString());
+      Assert.assertEquals(filesBefore, listFiles(root));
+    } finally {
+      // Otherwise, the temporary folder cannot delete the root directory.
+      setWritable(root, true);
+    }
+    SpeciminTestExecutor.assertOutputMatchesExpected("constraintType", outputDir);
+  }
+
+  /**
+   * List all files and directories under the given directory.
+   *
+   * @param directory a directory
+   * @return the paths under the directory, sorted
+   * @throws IOException if the directory cannot be read
+   */
+  private static List<Path> listFiles(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths.sorted().collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Make every directory under the given directory writable or read-only.
+   *
+   * @param directory a directory
+   * @param writable whether the directories should be writable
+   * @throws IOException if the directory cannot be read
+   */
+  private static void setWritable(Path directory, boolean writable) throws IOException {
+    for (Path path : listFiles(directory)) {
+      if (Files.isDirectory(path)) {
+        path.toFile().setWritable(writable);
+      }
+    }
+  }
+}
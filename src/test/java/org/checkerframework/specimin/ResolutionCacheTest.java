@@ -0,0 +1,78 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.resolution.UnsolvedSymbolException;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This test checks that a parser context remembers both the nodes that it resolved and the ones
+ * that it failed to resolve, that it reports unsolved nodes without an exception when asked to try
+ * to resolve them, and that it forgets them once its symbol solver is updated.
+ */
+public class ResolutionCacheTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void runTest() throws IOException {
+    Path root =
+        SpeciminTestExecutor.createRoot(
+            temporaryFolder,
+            Map.of(
+                "Simple.java",
+                "class Simple { int test(Synthetic s) { return s.get() + missing(); } }"));
+    try (SpeciminSession session = SpeciminSession.open(root + "/", List.of())) {
+      ParserContext parserContext = new ParserContext(session);
+      parserContext
+          .getSyntheticSources()
+          .put("Synthetic.java", "class Synthetic { int get() { return 0; } }");
+      parserContext.updateSymbolSolver();
+      Assert.assertEquals(1, parserContext.getSolverGeneration());
+      CompilationUnit cu =
+          parserContext.reparseAll(session.getRoot(), List.of("Simple.java")).get("Simple.java");
+      List<MethodCallExpr> calls = cu.findAll(MethodCallExpr.class);
+      MethodCallExpr get = calls.get(0);
+      MethodCallExpr missing = calls.get(1);
+
+      ResolvedMethodDeclaration resolved = parserContext.resolve(get);
+      Assert.assertSame(resolved, parserContext.resolve(get));
+      Assert.assertSame(
+          parserContext.calculateResolvedType(get), parserContext.calculateResolvedType(get));
+      UnsolvedSymbolException failure = getFailure(parserContext, missing);
+      Assert.assertSame(failure, getFailure(parserContext, missing));
+      Assert.assertSame(resolved, parserContext.tryResolve(get).orElseThrow());
+      Assert.assertTrue(parserContext.tryResolve(missing).isEmpty());
+      Assert.assertTrue(parserContext.tryCalculateResolvedType(missing).isEmpty());
+
+      parserContext.updateSymbolSolver();
+      Assert.assertEquals(2, parserContext.getSolverGeneration());
+      Assert.assertNotSame(resolved, parserContext.resolve(get));
+      Assert.assertNotSame(failure, getFailure(parserContext, missing));
+    }
+  }
+
+  /**
+   * Resolve a method call that cannot be resolved.
+   *
+   * @param parserContext a parser context
+   * @param call a method call that cannot be resolved
+   * @return the exception thrown by the resolution
+   */
+  private static UnsolvedSymbolException getFailure(
+      ParserContext parserContext, MethodCallExpr call) {
+    try {
+      parserContext.resolve(call);
+    } catch (UnsolvedSymbolException e) {
+      return e;
+    }
+    throw new AssertionError("resolved " + call);
+  }
+}
@@ -0,0 +1,166 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This test checks that UnsolvedSymbolVisitor skips the members whose symbols were all solved in an
+ * earlier iteration, and visits them again once a potentially-used member is found, once a
+ * synthetic class that was already created changes, and once javac's type corrections are applied.
+ * A symbol that cannot be solved is added to a member that was already resolved: it is only found
+ * if the member is visited again.
+ */
+public class ResolvedMembersTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /** The path of the file of the test, relative to the root directory. */
+  private static final String PATH = "com/example/Simple.java";
+
+  @Test
+  public void runTest() throws IOException {
+    Path root =
+        SpeciminTestExecutor.createRoot(
+            temporaryFolder,
+            Map.of(
+                PATH,
+                "package com.example;\n"
+                    + "class Simple {\n"
+                    + "  void test(Missing m) {\n"
+                    + "    m.get();\n"
+                    + "    helper();\n"
+                    + "  }\n"
+                    + "  int helper() {\n"
+                    + "    return 1;\n"
+                    + "  }\n"
+                    + "}\n"));
+    try (SpeciminSession session = SpeciminSession.open(root + "/", List.of())) {
+      String rootDirectory = session.getRoot();
+      ParserContext parserContext = new ParserContext(session);
+      CompilationUnit cu = parserContext.reparseAll(rootDirectory, List.of(PATH)).get(PATH);
+      UnsolvedSymbolVisitor visitor =
+          new UnsolvedSymbolVisitor(
+              rootDirectory,
+              session.getExistingClassesToFilePath(),
+              List.of("com.example.Simple#test(Missing)", "com.example.Simple#later()"),
+              List.of(),
+              parserContext);
+      for (int i = 0; i < 10 && visitor.gettingException(); i++) {
+        visit(visitor, parserContext, rootDirectory, cu);
+      }
+      Assert.assertFalse(visitor.gettingException());
+
+      // The resolved members are skipped, so the unsolved symbol is not found.
+      ClassOrInterfaceDeclaration simple = cu.getClassByName("Simple").get();
+      BlockStmt testBody = simple.getMethodsByName("test").get(0).getBody().get();
+      testBody.addStatement(0, StaticJavaParser.parseStatement("Unknown1.call();"));
+      assertSkipped(visitor, parserContext, rootDirectory, cu);
+
+      // A new synthetic class does not change the symbols of the resolved members, and neither
+      // does creating it again without changing it.
+      UnsolvedClassOrInterface extra = new UnsolvedClassOrInterface("Extra", "com.example");
+      visitor.createMissingClass(extra);
+      visitor.createMissingClass(extra);
+      assertSkipped(visitor, parserContext, rootDirectory, cu);
+
+      // A synthetic class that was already created changes.
+      extra.addMethod(new UnsolvedMethod("run", "void", List.of()));
+      visitor.createMissingClass(extra);
+      assertVisited(visitor, parserContext, rootDirectory, cu);
+      Assert.assertTrue(parserContext.getSyntheticSources().contains("com/example/Unknown1.java"));
+
+      // javac's type corrections are applied, even if they do not change a synthetic class.
+      testBody.addStatement(0, StaticJavaParser.parseStatement("Unknown2.call();"));
+      assertSkipped(visitor, parserContext, rootDirectory, cu);
+      visitor.updateTypes(Map.of("Unrelated", "int"));
+      assertVisited(visitor, parserContext, rootDirectory, cu);
+
+      testBody.addStatement(0, StaticJavaParser.parseStatement("Unknown3.call();"));
+      assertSkipped(visitor, parserContext, rootDirectory, cu);
+      visitor.updateTypesWithExtends(Map.of("Extra", "Exception"));
+      assertVisited(visitor, parserContext, rootDirectory, cu);
+
+      // A new target member, which is visited before test, uses another member.
+      testBody.addStatement(0, StaticJavaParser.parseStatement("Unknown4.call();"));
+      assertSkipped(visitor, parserContext, rootDirectory, cu);
+      simple
+          .getMembers()
+          .add(0, StaticJavaParser.parseBodyDeclaration("void later() { other(); }"));
+      visit(visitor, parserContext, rootDirectory, cu);
+      Assert.assertTrue(visitor.getPotentialUsedMembers().contains("other"));
+      Assert.assertTrue(visitor.gettingException());
+      Assert.assertTrue(parserContext.getSyntheticSources().contains("com/example/Unknown4.java"));
+    }
+  }
+
+  /**
+   * Visit the compilation unit once, like an iteration of the loop of SpeciminRunner, and check
+   * that every member was skipped: no exception is reported.
+   *
+   * @param visitor the visitor
+   * @param parserContext the parser context of the visitor
+   * @param root the root directory
+   * @param cu the compilation unit
+   * @throws IOException if the file of the compilation unit cannot be read
+   */
+  private static void assertSkipped(
+      UnsolvedSymbolVisitor visitor, ParserContext parserContext, String root, CompilationUnit cu)
+      throws IOException {
+    visit(visitor, parserContext, root, cu);
+    Assert.assertFalse(visitor.gettingException());
+  }
+
+  /**
+   * Visit the compilation unit until the visitor reports no exception, and check that the first
+   * visit reported one: a member that was resolved has been visited again.
+   *
+   * @param visitor the visitor
+   * @param parserContext the parser context of the visitor
+   * @param root the root directory
+   * @param cu the compilation unit
+   * @throws IOException if the file of the compilation unit cannot be read
+   */
+  private static void assertVisited(
+      UnsolvedSymbolVisitor visitor, ParserContext parserContext, String root, CompilationUnit cu)
+      throws IOException {
+    visit(visitor, parserContext, root, cu);
+    Assert.assertTrue(visitor.gettingException());
+    for (int i = 0; i < 10 && visitor.gettingException(); i++) {
+      visit(visitor, parserContext, root, cu);
+    }
+    Assert.assertFalse(visitor.gettingException());
+  }
+
+  /**
+   * Visit the compilation unit once, like an iteration of the loop of SpeciminRunner. Since its
+   * file does not change, the compilation unit is reused by the next iteration.
+   *
+   * @param visitor the visitor
+   * @param parserContext the parser context of the visitor
+   * @param root the root directory
+   * @param cu the compilation unit of {@link #PATH}
+   * @throws IOException if the file of the compilation unit cannot be read
+   */
+  private static void visit(
+      UnsolvedSymbolVisitor visitor, ParserContext parserContext, String root, CompilationUnit cu)
+      throws IOException {
+    visitor.setExceptionToFalse();
+    visitor.setImportStatement(cu.getImports());
+    FieldDeclarationsVisitor getDeclarations = new FieldDeclarationsVisitor();
+    cu.accept(getDeclarations, null);
+    visitor.setFieldNameToClassNameMap(getDeclarations.getFieldAndItsClass());
+    cu.accept(visitor, null);
+    visitor.updateSyntheticSourceCode();
+    parserContext.updateSymbolSolver();
+    Assert.assertSame(cu, parserContext.reparseAll(root, List.of(PATH)).get(PATH));
+  }
+}
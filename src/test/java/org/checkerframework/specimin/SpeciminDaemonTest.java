@@ -0,0 +1,124 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This test checks the requests of the Specimin daemon over a loopback connection: that a
+ * minimization writes its output, that bad requests are answered with an error, that a session is
+ * reused for the same jar files and replaced for other jar files, and that REFRESH and SHUTDOWN
+ * close the sessions.
+ */
+public class SpeciminDaemonTest {
+
+  /** The root directory of the test codebase. */
+  private static final String ROOT =
+      Path.of("src/test/resources/onefilesimple/input/").toAbsolutePath().toString() + "/";
+
+  @Test
+  public void runTest() throws Exception {
+    SpeciminDaemon daemon = new SpeciminDaemon(2);
+    try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+      int port = serverSocket.getLocalPort();
+      Thread serving =
+          new Thread(
+              () -> {
+                try {
+                  daemon.serve(serverSocket);
+                } catch (IOException e) {
+                  throw new RuntimeException(e);
+                }
+              });
+      serving.start();
+
+      Path outputDir = Files.createTempDirectory("specimin-test-");
+      Assert.assertEquals("OK", minimize(port, outputDir, List.of()));
+      SpeciminTestExecutor.assertOutputMatchesExpected("onefilesimple", outputDir);
+      SpeciminSession session = daemon.getOpenSession(ROOT);
+      Assert.assertNotNull(session);
+
+      // Bad requests are answered with an error, and do not affect the session.
+      Assert.assertTrue(
+          SpeciminClient.sendRequest(port, "FROBNICATE", List.of()).startsWith("ERROR "));
+      Assert.assertTrue(
+          SpeciminClient.sendRequest(port, SpeciminDaemon.MINIMIZE, List.of("--root", ROOT))
+              .startsWith("ERROR "));
+      String manifestResponse =
+          SpeciminClient.sendRequest(
+              port,
+              SpeciminDaemon.MINIMIZE,
+              List.of("--root", ROOT, "--manifest", outputDir.resolve("manifest.txt").toString()));
+      Assert.assertTrue(
+          manifestResponse,
+          manifestResponse.startsWith("ERROR ")
+              && manifestResponse.contains(SpeciminDaemon.MANIFEST_NOT_SUPPORTED));
+
+      // The session is reused for the same jar files.
+      Assert.assertEquals(
+          "OK", minimize(port, Files.createTempDirectory("specimin-test-"), List.of()));
+      Assert.assertSame(session, daemon.getOpenSession(ROOT));
+
+      // The session is replaced for other jar files.
+      String jarPath =
+          Path.of("src/test/resources/shared/checker-qual-3.42.0.jar").toAbsolutePath().toString();
+      Assert.assertEquals(
+          "OK", minimize(port, Files.createTempDirectory("specimin-test-"), List.of(jarPath)));
+      Assert.assertTrue(session.isClosed());
+      SpeciminSession jarSession = daemon.getOpenSession(ROOT);
+      Assert.assertNotNull(jarSession);
+      Assert.assertEquals(List.of(jarPath), jarSession.getJarPaths());
+
+      // REFRESH discards the session.
+      Assert.assertEquals(
+          "OK", SpeciminClient.sendRequest(port, SpeciminDaemon.REFRESH, List.of("--root", ROOT)));
+      Assert.assertTrue(jarSession.isClosed());
+      Assert.assertNull(daemon.getOpenSession(ROOT));
+
+      // SHUTDOWN closes the remaining sessions and stops the daemon.
+      Assert.assertEquals(
+          "OK", minimize(port, Files.createTempDirectory("specimin-test-"), List.of()));
+      SpeciminSession lastSession = daemon.getOpenSession(ROOT);
+      Assert.assertNotNull(lastSession);
+      Assert.assertEquals(
+          "OK", SpeciminClient.sendRequest(port, SpeciminDaemon.SHUTDOWN, List.of()));
+      serving.join(60_000);
+      Assert.assertFalse(serving.isAlive());
+      Assert.assertTrue(lastSession.isClosed());
+      Assert.assertNull(daemon.getOpenSession(ROOT));
+    }
+  }
+
+  /**
+   * Send a request to minimize the target of the onefilesimple test to the daemon.
+   *
+   * @param port the port of the daemon
+   * @param outputDir the output directory of the minimization
+   * @param jarPaths the jar files of the minimization
+   * @return the answer of the daemon
+   * @throws IOException if the daemon cannot be reached
+   */
+  private static String minimize(int port, Path outputDir, List<String> jarPaths)
+      throws IOException {
+    List<String> args = new ArrayList<>();
+    args.add("--root");
+    args.add(ROOT);
+    args.add("--targetFile");
+    args.add("com/example/Simple.java");
+    args.add("--targetMethod");
+    args.add("com.example.Simple#bar()");
+    args.add("--outputDirectory");
+    args.add(outputDir.toString());
+    for (String jarPath : jarPaths) {
+      args.add("--jarPath");
+      args.add(jarPath);
+    }
+    return SpeciminClient.sendRequest(port, SpeciminDaemon.MINIMIZE, args);
+  }
+}
@@ -11,11 +11,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.junit.Assert;
+import org.junit.rules.TemporaryFolder;
 
 /** Utility class containing routines to run Specimin's tests. */
 public class SpeciminTestExecutor {
@@ -87,6 +89,17 @@ public class SpeciminTestExecutor {
     // Run specimin on target
     SpeciminRunner.main(speciminArgs.toArray(new String[0]));
 
+    assertOutputMatchesExpected(testName, outputDir);
+  }
+
+  /**
+   * Compares the output of Specimin to the program in the "expected" folder of the given test using
+   * the Unix diff program, and fails the current test if they differ.
+   *
+   * @param testName the name of the test folder
+   * @param outputDir the directory into which Specimin wrote its output
+   */
+  public static void assertOutputMatchesExpected(String testName, Path outputDir) {
     // Diff the files to ensure that specimin's output is what we expect
     ProcessBuilder builder = new ProcessBuilder();
     boolean isWindows = Ascii.toLowerCase(System.getProperty("os.name")).startsWith("windows");
@@ -154,6 +167,27 @@ public class SpeciminTestExecutor {
     runTest(testName, targetFiles, targetMembers, new String[] {});
   }
 
+  /**
+   * Creates a root directory for a test that needs its own input, and writes the given files into
+   * it. The directory is made in the temporary folder of the test, which deletes it once the test
+   * ends, so the test should declare the folder as a JUnit rule.
+   *
+   * @param temporaryFolder the temporary folder of the test
+   * @param files the source code of the files, keyed by their paths relative to the root directory
+   * @return the root directory
+   * @throws IOException if the directory or the files cannot be written
+   */
+  public static Path createRoot(TemporaryFolder temporaryFolder, Map<String, String> files)
+      throws IOException {
+    Path root = temporaryFolder.newFolder("root").toPath();
+    for (Map.Entry<String, String> file : files.entrySet()) {
+      Path path = root.resolve(file.getKey());
+      Files.createDirectories(path.getParent());
+      Files.writeString(path, file.getValue(), StandardCharsets.UTF_8);
+    }
+    return root;
+  }
+
   /** Code borrowed from https://www.baeldung.com/run-shell-command-in-java. */
   private static class StreamGobbler implements Runnable {
     private InputStream inputStream;
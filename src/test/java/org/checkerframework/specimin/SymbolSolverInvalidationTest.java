@@ -0,0 +1,56 @@
+package org.checkerframework.specimin;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This test checks that the symbol solver of a parser context, which lives as long as the context,
+ * finds a synthetic class that it could not find before the class was created, and sees the changes
+ * to a synthetic class once the symbol solver has been updated. Putting a synthetic file again with
+ * the same source code is not a change.
+ */
+public class SymbolSolverInvalidationTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void runTest() throws IOException {
+    Path root =
+        SpeciminTestExecutor.createRoot(
+            temporaryFolder,
+            Map.of(
+                "com/example/Simple.java",
+                "package com.example; class Simple { void test(Missing m) { m.get(); } }"));
+    List<String> paths = List.of("com/example/Simple.java");
+    try (SpeciminSession session = SpeciminSession.open(root + "/", List.of())) {
+      ParserContext parserContext = new ParserContext(session);
+      SyntheticSourceOverlay overlay = parserContext.getSyntheticSources();
+      CompilationUnit cu = parserContext.reparseAll(session.getRoot(), paths).get(paths.get(0));
+      MethodCallExpr call = cu.findFirst(MethodCallExpr.class).orElseThrow();
+      Assert.assertTrue(parserContext.tryResolve(call).isEmpty());
+
+      String missing = "package com.example; class Missing { int get() { return 0; } }";
+      overlay.put("com/example/Missing.java", missing);
+      parserContext.updateSymbolSolver();
+      cu = parserContext.reparseAll(session.getRoot(), paths).get(paths.get(0));
+      call = cu.findFirst(MethodCallExpr.class).orElseThrow();
+      Assert.assertEquals("int", parserContext.calculateResolvedType(call).describe());
+
+      overlay.put("com/example/Missing.java", missing);
+      Assert.assertEquals(Set.of(), overlay.takeChangedPaths());
+      overlay.put("com/example/Missing.java", missing.replace("int", "long"));
+      parserContext.updateSymbolSolver();
+      cu = parserContext.reparseAll(session.getRoot(), paths).get(paths.get(0));
+      call = cu.findFirst(MethodCallExpr.class).orElseThrow();
+      Assert.assertEquals("long", parserContext.calculateResolvedType(call).describe());
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package org.checkerframework.specimin;
+
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This test checks that the modification count of a synthetic class only grows when the source code
+ * of the class may change, including through its methods and inner classes, and that the source
+ * code of an unmodified class is not rendered again.
+ */
+public class SyntheticClassModificationTest {
+  @Test
+  public void runTest() {
+    UnsolvedClassOrInterface missing = new UnsolvedClassOrInterface("Missing", "com.example");
+    UnsolvedMethod get = new UnsolvedMethod("get", "GetReturnType", List.of());
+    missing.addMethod(get);
+    missing.addFields("int count");
+    String rendered = missing.toString();
+    long modificationCount = missing.getModificationCount();
+
+    missing.addMethod(new UnsolvedMethod("get", "GetReturnType", List.of()));
+    missing.addFields("int count");
+    missing.setNumberOfTypeVariables(0);
+    get.setReturnType("GetReturnType");
+    Assert.assertEquals(modificationCount, missing.getModificationCount());
+    Assert.assertSame(rendered, missing.toString());
+
+    get.setReturnType("int");
+    Assert.assertTrue(missing.getModificationCount() > modificationCount);
+    Assert.assertTrue(missing.toString().contains("public int get()"));
+    modificationCount = missing.getModificationCount();
+
+    UnsolvedClassOrInterface inner =
+        new UnsolvedClassOrInterface.UnsolvedInnerClass("Inner", "com.example");
+    missing.addInnerClass(inner);
+    Assert.assertTrue(missing.getModificationCount() > modificationCount);
+    modificationCount = missing.getModificationCount();
+    inner.extend("com.example.Base");
+    Assert.assertTrue(missing.getModificationCount() > modificationCount);
+    Assert.assertTrue(missing.toString().contains("class Inner extends com.example.Base"));
+  }
+}
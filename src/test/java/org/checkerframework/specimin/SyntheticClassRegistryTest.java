@@ -0,0 +1,35 @@
+package org.checkerframework.specimin;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This test checks that a synthetic class registry finds its classes by fully-qualified name, by
+ * simple name, and by package, and that it keeps at most one of the classes that are equal.
+ */
+public class SyntheticClassRegistryTest {
+  @Test
+  public void runTest() {
+    SyntheticClassRegistry registry = new SyntheticClassRegistry();
+    UnsolvedClassOrInterface foo = new UnsolvedClassOrInterface("Foo", "com.example");
+    UnsolvedClassOrInterface bar = new UnsolvedClassOrInterface("Bar", "com.example");
+    UnsolvedClassOrInterface otherFoo = new UnsolvedClassOrInterface("Foo<T>", "org.example");
+    Assert.assertTrue(registry.add(foo));
+    Assert.assertTrue(registry.add(bar));
+    Assert.assertTrue(registry.add(otherFoo));
+    Assert.assertFalse(registry.add(new UnsolvedClassOrInterface("Foo", "com.example")));
+
+    Assert.assertEquals(3, registry.size());
+    Assert.assertSame(foo, registry.get("com.example.Foo"));
+    Assert.assertSame(otherFoo, registry.get("org.example.Foo"));
+    Assert.assertNull(registry.get("com.example.Baz"));
+    Assert.assertEquals(List.of(foo, otherFoo), registry.getBySimpleName("Foo"));
+    Assert.assertEquals(List.of(), registry.getBySimpleName("Baz"));
+    Assert.assertEquals(List.of(foo, bar), registry.getByPackage("com.example"));
+    List<UnsolvedClassOrInterface> all = new ArrayList<>();
+    registry.forEach(all::add);
+    Assert.assertEquals(List.of(foo, bar, otherFoo), all);
+  }
+}
@@ -0,0 +1,53 @@
+package org.checkerframework.specimin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * This test checks that the entries of a jar file are listed from its central directory, even if
+ * the jar file has a comment, data in front of it, or entries whose names are not ASCII, and that a
+ * file that is not a zip file is reported as such.
+ */
+public class ZipCentralDirectoryTest {
+  @Test
+  public void runTest() throws IOException {
+    Path directory = Files.createTempDirectory("specimin-zip-");
+    try {
+      Path jar = directory.resolve("test.jar");
+      List<String> names =
+          List.of("com/", "com/example/Foo.class", "com/example/Foo$Bar.class", "com/ex\u00e4mple/");
+      try (OutputStream out = Files.newOutputStream(jar)) {
+        // Data in front of the zip file, as in a self-extracting archive.
+        out.write(new byte[] {1, 2, 3});
+        ZipOutputStream zip = new ZipOutputStream(out);
+        for (String name : names) {
+          zip.putNextEntry(new ZipEntry(name));
+          zip.write(name.getBytes(StandardCharsets.UTF_8));
+          zip.closeEntry();
+        }
+        zip.setComment("a comment that PK\u0005\u0006 is not the end of");
+        zip.finish();
+      }
+      Assert.assertEquals(names, ZipCentralDirectory.readEntryNames(jar.toString()));
+      Assert.assertEquals(
+          List.of("META-INF/", "META-INF/MANIFEST.MF", "an/old/library/Book.class"),
+          ZipCentralDirectory.readEntryNames("src/test/resources/jarfile/input/Book.jar"));
+
+      Path notAJar = directory.resolve("not.jar");
+      Files.writeString(notAJar, "not a zip file");
+      Assert.assertThrows(
+          IOException.class, () -> ZipCentralDirectory.readEntryNames(notAJar.toString()));
+    } finally {
+      FileUtils.deleteDirectory(directory.toFile());
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package an.old.library;
+
+public class Book {
+
+    public Book(int arg0) {
+        throw new Error();
+    }
+
+    public java.lang.String getRates() {
+        throw new Error();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example;
+
+public class Baz {
+
+    public Baz(String s) {
+        throw new Error();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example;
+
+class Foo {
+
+    void bar() {
+        Baz obj = new Baz("hello");
+    }
+}
@@ -0,0 +1,10 @@
+package com.example;
+
+import org.other.Thing;
+
+class Qux {
+
+    int size(Thing thing, int extra) {
+        return thing.count() + extra;
+    }
+}
@@ -0,0 +1,8 @@
+package org.other;
+
+public class Thing {
+
+    public int count() {
+        throw new Error();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example;
+
+class Foo {
+    void bar() {
+        Baz obj = new Baz("hello");
+    }
+
+    void unrelated() {
+        System.out.println("This method is not a target of any job.");
+    }
+}
@@ -0,0 +1,13 @@
+package com.example;
+
+import org.other.Thing;
+
+class Qux {
+    int size(Thing thing, int extra) {
+        return thing.count() + extra;
+    }
+
+    Foo makeFoo() {
+        return new Foo();
+    }
+}